@@ -0,0 +1,23 @@
+package pl.coderstrust.benchmark;
+
+import pl.coderstrust.database.Database;
+
+class BenchmarkDatabase implements AutoCloseable {
+
+    private final Database database;
+    private final AutoCloseable resources;
+
+    BenchmarkDatabase(Database database, AutoCloseable resources) {
+        this.database = database;
+        this.resources = resources;
+    }
+
+    Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public void close() throws Exception {
+        resources.close();
+    }
+}
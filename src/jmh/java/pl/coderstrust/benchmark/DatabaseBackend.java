@@ -0,0 +1,61 @@
+package pl.coderstrust.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.coderstrust.configuration.InFileDatabaseProperties;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.H2Sequences;
+import pl.coderstrust.database.file.FileHelper;
+import pl.coderstrust.database.file.InFileDatabase;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+
+public enum DatabaseBackend {
+
+    MEMORY {
+        @Override
+        BenchmarkDatabase open() {
+            return new BenchmarkDatabase(new InMemoryDatabase(new ConcurrentSkipListMap<>()), () -> {
+            });
+        }
+    },
+
+    IN_FILE {
+        @Override
+        BenchmarkDatabase open() throws Exception {
+            Path file = Files.createTempFile("invoices-benchmark", ".txt");
+            InFileDatabaseProperties properties = new InFileDatabaseProperties();
+            properties.setFilePath(file.toString());
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+            return new BenchmarkDatabase(new InFileDatabase(mapper, new FileHelper(properties), properties), () -> Files.deleteIfExists(file));
+        }
+    },
+
+    HIBERNATE {
+        @Override
+        BenchmarkDatabase open() {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(HibernateBenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--pl.coderstrust.database=hibernate",
+                    "--spring.datasource.url=jdbc:h2:mem:invoices-benchmark;DB_CLOSE_DELAY=-1;INIT=" + H2Sequences.CREATE_SETVAL_ALIAS,
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.generate_statistics=false",
+                    "--logging.level.pl.coderstrust=ERROR",
+                    "--logging.file");
+            return new BenchmarkDatabase(context.getBean(Database.class), context::close);
+        }
+    };
+
+    abstract BenchmarkDatabase open() throws Exception;
+}
@@ -0,0 +1,54 @@
+package pl.coderstrust.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.Invoice;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class DatabaseBenchmark {
+
+    @Benchmark
+    public Invoice saveInvoice(DatabaseState state) throws DatabaseOperationException {
+        return state.getDatabase().saveInvoice(state.randomInvoiceUpdate());
+    }
+
+    @Benchmark
+    public Optional<Invoice> getInvoice(DatabaseState state) throws DatabaseOperationException {
+        return state.getDatabase().getInvoice(state.randomId());
+    }
+
+    @Benchmark
+    public boolean invoiceExists(DatabaseState state) throws DatabaseOperationException {
+        return state.getDatabase().invoiceExists(state.randomId());
+    }
+
+    @Benchmark
+    public long countInvoices(DatabaseState state) throws DatabaseOperationException {
+        return state.getDatabase().countInvoices();
+    }
+
+    @Benchmark
+    public void getAllInvoices(DatabaseState state, Blackhole blackhole) throws DatabaseOperationException {
+        state.getDatabase().getAllInvoices().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void insertAndDeleteInvoice(DatabaseState state) throws DatabaseOperationException {
+        Invoice insertedInvoice = state.getDatabase().saveInvoice(state.newInvoice());
+        state.getDatabase().deleteInvoice(insertedInvoice.getId());
+    }
+}
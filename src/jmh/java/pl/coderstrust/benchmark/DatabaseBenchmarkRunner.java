@@ -0,0 +1,38 @@
+package pl.coderstrust.benchmark;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class DatabaseBenchmarkRunner {
+
+    private static final String THREADS_PROPERTY = "benchmark.threads";
+    private static final String DEFAULT_THREADS = "1,2,4,8,16,32";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        int[] threadCounts = Arrays.stream(System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("target/jmh-result-%d-threads.json", threads));
+            if (commandLineOptions.getIncludes().isEmpty()) {
+                options.include(DatabaseBenchmark.class.getSimpleName());
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
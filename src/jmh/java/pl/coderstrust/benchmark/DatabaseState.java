@@ -0,0 +1,86 @@
+package pl.coderstrust.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceVersions;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+
+@State(Scope.Benchmark)
+public class DatabaseState {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    @Param({"MEMORY", "IN_FILE", "HIBERNATE"})
+    private DatabaseBackend backend;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int datasetSize;
+
+    private BenchmarkDatabase benchmarkDatabase;
+    private Database database;
+    private long[] ids;
+    private Invoice template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        benchmarkDatabase = backend.open();
+        database = benchmarkDatabase.getDatabase();
+        ids = new long[datasetSize];
+        int loaded = 0;
+        while (loaded < datasetSize) {
+            List<Invoice> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+            while (chunk.size() < LOAD_CHUNK_SIZE && loaded < datasetSize) {
+                long id = loaded + 1;
+                chunk.add(InvoiceVersions.withVersion(InvoiceGenerator.getRandomInvoiceWithoutIds(), id, null));
+                ids[loaded++] = id;
+            }
+            database.importInvoices(chunk);
+        }
+        template = InvoiceGenerator.getRandomInvoiceWithoutIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        benchmarkDatabase.close();
+    }
+
+    Database getDatabase() {
+        return database;
+    }
+
+    long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    Invoice randomInvoiceUpdate() {
+        return InvoiceVersions.withVersion(template, randomId(), null);
+    }
+
+    Invoice newInvoice() {
+        List<InvoiceEntry> entries = new ArrayList<>(template.getEntries().size());
+        for (InvoiceEntry entry : template.getEntries()) {
+            entries.add(new InvoiceEntry(null, entry.getProductName(), entry.getQuantity(), entry.getUnit(), entry.getPrice(), entry.getNetValue(), entry.getGrossValue(), entry.getVatRate()));
+        }
+        return new Invoice(null, template.getNumber(), template.getIssuedDate(), template.getDueDate(), template.getSeller(), template.getBuyer(), entries);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkDatasetSize() throws DatabaseOperationException {
+        long count = database.countInvoices();
+        if (count != datasetSize) {
+            throw new IllegalStateException(String.format("Dataset of %s backend has %d invoices, but %d were loaded", backend, count, datasetSize));
+        }
+    }
+}
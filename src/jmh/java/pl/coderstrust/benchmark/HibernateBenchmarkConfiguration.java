@@ -0,0 +1,24 @@
+package pl.coderstrust.benchmark;
+
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import pl.coderstrust.configuration.HibernateConfiguration;
+import pl.coderstrust.database.hibernate.CompanyResolver;
+import pl.coderstrust.database.hibernate.HibernateDatabase;
+import pl.coderstrust.database.hibernate.InvoiceRepository;
+import pl.coderstrust.model.Invoice;
+
+@Configuration
+@EnableTransactionManagement
+@EntityScan(basePackageClasses = Invoice.class)
+@EnableJpaRepositories(basePackageClasses = InvoiceRepository.class)
+@Import({PropertyPlaceholderAutoConfiguration.class,
+    HibernateConfiguration.class,
+    CompanyResolver.class,
+    HibernateDatabase.class})
+class HibernateBenchmarkConfiguration {
+}
@@ -0,0 +1,44 @@
+package pl.coderstrust.configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.ExecutorAsyncDatabase;
+
+@Configuration
+public class AsyncDatabaseConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(AsyncDatabaseConfiguration.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorAsyncDatabase asyncDatabase(Database database,
+        @Value("${pl.coderstrust.database}") String backend,
+        @Value("${pl.coderstrust.database.executor.pool-size:0}") int poolSize,
+        @Value("${pl.coderstrust.database.executor.queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : getDefaultPoolSize(backend);
+        log.debug("Creating {} database executor with {} threads and queue capacity {}", backend, threads, queueCapacity);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(backend + "-database-"));
+        executor.allowCoreThreadTimeOut(true);
+        return new ExecutorAsyncDatabase(database, executor);
+    }
+
+    private int getDefaultPoolSize(String backend) {
+        switch (backend) {
+            case "hibernate":
+                return 10;
+            case "in-file":
+                return 2;
+            default:
+                return Runtime.getRuntime().availableProcessors();
+        }
+    }
+}
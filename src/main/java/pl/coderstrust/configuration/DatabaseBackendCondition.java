@@ -0,0 +1,31 @@
+package pl.coderstrust.configuration;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+class DatabaseBackendCondition extends SpringBootCondition {
+
+    static final String DATABASE_PROPERTY = "pl.coderstrust.database";
+    static final String BACK_TIER_PROPERTY = "pl.coderstrust.database.tiered.back-tier";
+    static final String TIERED = "tiered";
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnDatabaseBackend.class.getName());
+        String backend = (String) attributes.get("value");
+        Environment environment = context.getEnvironment();
+        String database = environment.getProperty(DATABASE_PROPERTY);
+        if (backend.equals(database)) {
+            return ConditionOutcome.match(String.format("%s is %s", DATABASE_PROPERTY, backend));
+        }
+        if (TIERED.equals(database) && backend.equals(environment.getProperty(BACK_TIER_PROPERTY))) {
+            return ConditionOutcome.match(String.format("%s is back tier of tiered database", backend));
+        }
+        return ConditionOutcome.noMatch(String.format("%s is not in use", backend));
+    }
+}
@@ -0,0 +1,84 @@
+package pl.coderstrust.configuration;
+
+import java.time.Clock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.cache.CacheStore;
+import pl.coderstrust.database.cache.CachingDatabase;
+import pl.coderstrust.database.cache.LfuCacheStore;
+import pl.coderstrust.database.cache.LruCacheStore;
+import pl.coderstrust.database.cache.TtlCacheStore;
+import pl.coderstrust.model.Invoice;
+
+@Configuration
+public class DatabaseCacheConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(DatabaseCacheConfiguration.class);
+
+    @Bean
+    public static BeanPostProcessor cachingDatabasePostProcessor(Environment environment) {
+        String backend = environment.getProperty("pl.coderstrust.database");
+        DatabaseCacheProperties properties = Binder.get(environment)
+            .bind("pl.coderstrust.database.cache", DatabaseCacheProperties.class)
+            .orElseGet(DatabaseCacheProperties::new);
+        if ("hibernate".equals(backend) && properties.getBackends().contains(backend)
+            && environment.getProperty("spring.jpa.properties.hibernate.cache.use_second_level_cache", Boolean.class, false)) {
+            log.warn("Not caching invoices of hibernate database on top of its second-level cache");
+            properties.getBackends().remove(backend);
+        }
+        return new CachingDatabasePostProcessor(backend, properties);
+    }
+
+    private static class CachingDatabasePostProcessor implements BeanPostProcessor, BeanFactoryAware, Ordered {
+        private final String backend;
+        private final DatabaseCacheProperties properties;
+        private ConfigurableListableBeanFactory beanFactory;
+
+        CachingDatabasePostProcessor(String backend, DatabaseCacheProperties properties) {
+            this.backend = backend;
+            this.properties = properties;
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (properties.getBackends().contains(backend) && bean instanceof Database && !(bean instanceof CachingDatabase)
+                && InjectedDatabase.isInjectedDatabase(beanFactory, beanName)) {
+                log.debug("Caching invoices of {} database using {} eviction, maximum size {}", backend, properties.getEviction(), properties.getMaximumSize());
+                return new CachingDatabase((Database) bean, createStore(properties));
+            }
+            return bean;
+        }
+    }
+
+    private static CacheStore<Long, Invoice> createStore(DatabaseCacheProperties properties) {
+        switch (properties.getEviction()) {
+            case LFU:
+                return new LfuCacheStore<>(properties.getMaximumSize());
+            case TTL:
+                return new TtlCacheStore<>(properties.getMaximumSize(), properties.getTimeToLive(), Clock.systemUTC());
+            default:
+                return new LruCacheStore<>(properties.getMaximumSize());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package pl.coderstrust.configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import pl.coderstrust.database.cache.EvictionPolicy;
+
+public class DatabaseCacheProperties {
+    private Set<String> backends = new HashSet<>();
+    private EvictionPolicy eviction = EvictionPolicy.LRU;
+    private int maximumSize = 1000;
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    public Set<String> getBackends() {
+        return backends;
+    }
+
+    public void setBackends(Set<String> backends) {
+        this.backends = backends;
+    }
+
+    public EvictionPolicy getEviction() {
+        return eviction;
+    }
+
+    public void setEviction(EvictionPolicy eviction) {
+        this.eviction = eviction;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
@@ -0,0 +1,56 @@
+package pl.coderstrust.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.file.FileHelper;
+import pl.coderstrust.database.file.InFileDatabase;
+import pl.coderstrust.database.migration.DatabaseMigrator;
+import pl.coderstrust.database.migration.MigrationDirection;
+import pl.coderstrust.database.migration.MigrationResult;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Configuration
+@ConditionalOnProperty(name = "pl.coderstrust.migration.direction")
+public class DatabaseMigrationConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(DatabaseMigrationConfiguration.class);
+
+    @Bean
+    public ApplicationRunner databaseMigrationRunner(Database database, ObjectMapper mapper, DatabaseMigrationProperties properties,
+        ConfigurableApplicationContext context) {
+        return arguments -> {
+            Database fileDatabase = inFileDatabase(mapper, properties.getFilePath());
+            boolean importing = properties.getDirection() == MigrationDirection.IMPORT;
+            Database source = importing ? fileDatabase : database;
+            Database target = importing ? database : fileDatabase;
+            log.info("Migrating invoices from {} to {}", source.getClass().getSimpleName(), target.getClass().getSimpleName());
+            DatabaseMigrator migrator = new DatabaseMigrator(source, target, properties.getBatchSize(), properties.getWriteThreads(),
+                Paths.get(properties.getCheckpointFile()));
+            MigrationResult result = migrator.migrate();
+            log.info("Migration finished: {}", result);
+            System.exit(SpringApplication.exit(context, () -> result.isVerified() ? 0 : 1));
+        };
+    }
+
+    private Database inFileDatabase(ObjectMapper mapper, String filePath) throws IOException {
+        ArgumentValidator.ensureNotNull(filePath, "filePath");
+        InFileDatabaseProperties properties = new InFileDatabaseProperties();
+        properties.setFilePath(filePath);
+        FileHelper fileHelper = new FileHelper(properties);
+        if (!fileHelper.isExist()) {
+            fileHelper.create();
+        }
+        return new InFileDatabase(mapper, fileHelper, properties);
+    }
+}
@@ -0,0 +1,55 @@
+package pl.coderstrust.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import pl.coderstrust.database.migration.MigrationDirection;
+
+@Component
+@ConfigurationProperties(prefix = "pl.coderstrust.migration")
+public class DatabaseMigrationProperties {
+    private MigrationDirection direction;
+    private String filePath;
+    private int batchSize = 1000;
+    private int writeThreads = 4;
+    private String checkpointFile = "invoice_migration.checkpoint";
+
+    public MigrationDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(MigrationDirection direction) {
+        this.direction = direction;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+}
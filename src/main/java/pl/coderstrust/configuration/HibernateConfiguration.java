@@ -1,16 +1,43 @@
 package pl.coderstrust.configuration;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.ResourceUtils;
 
 @Configuration
-@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "hibernate")
+@ConditionalOnDatabaseBackend("hibernate")
 @Import({DataSourceAutoConfiguration.class,
-    DataSourceTransactionManagerAutoConfiguration.class,
-    HibernateJpaAutoConfiguration.class})
+    HibernateJpaAutoConfiguration.class,
+    DataSourceTransactionManagerAutoConfiguration.class})
 public class HibernateConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(HibernateConfiguration.class);
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheConfigurationUriCustomizer(ResourceLoader resourceLoader) {
+        return properties -> {
+            Object configurationUri = properties.get(ConfigSettings.CONFIG_URI);
+            if (configurationUri instanceof String && ((String) configurationUri).startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+                try {
+                    String resolvedUri = resourceLoader.getResource((String) configurationUri).getURI().toString();
+                    log.debug("Using second-level cache configuration {}", resolvedUri);
+                    properties.put(ConfigSettings.CONFIG_URI, resolvedUri);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(String.format("Second-level cache configuration %s cannot be found", configurationUri), e);
+                }
+            }
+        };
+    }
 }
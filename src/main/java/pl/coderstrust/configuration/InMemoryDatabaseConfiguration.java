@@ -0,0 +1,19 @@
+package pl.coderstrust.configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.coderstrust.model.Invoice;
+
+@Configuration
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "memory")
+public class InMemoryDatabaseConfiguration {
+
+    @Bean
+    public Map<Long, Invoice> invoiceStorage() {
+        return new ConcurrentSkipListMap<>();
+    }
+}
@@ -0,0 +1,16 @@
+package pl.coderstrust.configuration;
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import pl.coderstrust.database.Database;
+
+final class InjectedDatabase {
+
+    private InjectedDatabase() {
+    }
+
+    static boolean isInjectedDatabase(ConfigurableListableBeanFactory beanFactory, String beanName) {
+        String[] databaseBeanNames = beanFactory.getBeanNamesForType(Database.class, true, false);
+        return databaseBeanNames.length == 1
+            || (beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary());
+    }
+}
@@ -0,0 +1,67 @@
+package pl.coderstrust.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+
+@Configuration
+public class InvoiceChangeEventsConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(InvoiceChangeEventsConfiguration.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public InvoiceChangePublisher invoiceChangePublisher(@Value("${pl.coderstrust.database.events.capacity:8192}") int capacity) {
+        log.debug("Creating invoice change ring buffer with capacity {}", capacity);
+        return new InvoiceChangePublisher(new InvoiceChangeRingBuffer(capacity));
+    }
+
+    @Bean
+    public static InvoiceChangeAdvisingPostProcessor invoiceChangeAdvisingPostProcessor(ObjectProvider<InvoiceChangePublisher> publisher) {
+        return new InvoiceChangeAdvisingPostProcessor(publisher);
+    }
+
+    static class InvoiceChangeAdvisingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+        private final ObjectProvider<InvoiceChangePublisher> publisher;
+        private ConfigurableListableBeanFactory beanFactory;
+
+        InvoiceChangeAdvisingPostProcessor(ObjectProvider<InvoiceChangePublisher> publisher) {
+            this.publisher = publisher;
+            setProxyTargetClass(true);
+            setBeforeExistingAdvisors(true);
+            setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            super.setBeanFactory(beanFactory);
+            this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof Database) || !InjectedDatabase.isInjectedDatabase(beanFactory, beanName)) {
+                return bean;
+            }
+            if (this.advisor == null) {
+                NameMatchMethodPointcutAdvisor changeAdvisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher.getObject()));
+                changeAdvisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+                changeAdvisor.setClassFilter(Database.class::isAssignableFrom);
+                this.advisor = changeAdvisor;
+            }
+            log.debug("Publishing invoice changes of {} database bean", beanName);
+            return super.postProcessAfterInitialization(bean, beanName);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package pl.coderstrust.configuration;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.service.CompanyBalances;
+import pl.coderstrust.service.InvoiceChangeProjection;
+import pl.coderstrust.service.InvoiceDateIndex;
+import pl.coderstrust.service.InvoiceSearchIndex;
+import pl.coderstrust.service.ReceivablesAging;
+import pl.coderstrust.service.VatReportAggregates;
+
+@Configuration
+public class InvoiceProjectionConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(InvoiceProjectionConfiguration.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public InvoiceDateIndex invoiceDateIndex(Database database, InvoiceChangePublisher publisher) {
+        log.debug("Creating invoice date index over {}", database);
+        return new InvoiceDateIndex(database, publisher);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public VatReportAggregates vatReportAggregates(Database database, InvoiceChangePublisher publisher) {
+        log.debug("Creating VAT report aggregates over {}", database);
+        return new VatReportAggregates(database, publisher);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ReceivablesAging receivablesAging(Database database, InvoiceChangePublisher publisher) {
+        log.debug("Creating receivables aging over {}", database);
+        return new ReceivablesAging(database, publisher, Clock.systemDefaultZone());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CompanyBalances companyBalances(Database database, InvoiceChangePublisher publisher) {
+        log.debug("Creating company balances over {}", database);
+        return new CompanyBalances(database, publisher);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public InvoiceSearchIndex invoiceSearchIndex(Database database, InvoiceChangePublisher publisher,
+        @Value("${pl.coderstrust.search.index-file:data/invoice_search_index.bin}") String indexFile) {
+        log.debug("Creating invoice search index over {} saved to {}", database, indexFile);
+        return new InvoiceSearchIndex(database, publisher, Paths.get(indexFile));
+    }
+
+    @Bean
+    public SmartInitializingSingleton invoiceProjectionsBuilder(List<InvoiceChangeProjection<?>> projections,
+        @Value("${pl.coderstrust.migration.direction:}") String migrationDirection) {
+        return () -> {
+            if (!migrationDirection.isEmpty()) {
+                log.info("Not building invoice projections while migrating invoices");
+                return;
+            }
+            log.debug("Building {} invoice projections with one database scan", projections.size());
+            InvoiceChangeProjection.rebuildAll(projections);
+        };
+    }
+}
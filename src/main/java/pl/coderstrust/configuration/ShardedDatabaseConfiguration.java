@@ -0,0 +1,49 @@
+package pl.coderstrust.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.file.FileHelper;
+import pl.coderstrust.database.file.InFileDatabase;
+import pl.coderstrust.database.sharded.ShardCountFile;
+import pl.coderstrust.database.sharded.ShardedDatabase;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Configuration
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "sharded")
+public class ShardedDatabaseConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(ShardedDatabaseConfiguration.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardedDatabase shardedDatabase(ObjectMapper mapper,
+        @Value("${pl.coderstrust.database.sharded.shard-count:4}") int shardCount,
+        @Value("${pl.coderstrust.database.sharded.directory}") String directory) throws IOException {
+        ArgumentValidator.ensurePositive(shardCount, "shardCount");
+        log.debug("Creating {} in-file database shards in {}", shardCount, directory);
+        Files.createDirectories(new File(directory).toPath());
+        ShardCountFile.ensureShardCount(new File(directory).toPath(), shardCount);
+        List<Database> shards = new ArrayList<>(shardCount);
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            InFileDatabaseProperties properties = new InFileDatabaseProperties();
+            properties.setFilePath(new File(directory, String.format("invoices-shard-%d.txt", shardIndex)).getPath());
+            FileHelper fileHelper = new FileHelper(properties);
+            if (!fileHelper.isExist()) {
+                fileHelper.create();
+            }
+            shards.add(new InFileDatabase(mapper, fileHelper, properties));
+        }
+        return new ShardedDatabase(shards);
+    }
+}
@@ -0,0 +1,25 @@
+package pl.coderstrust.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.tiered.TieredDatabase;
+
+@Configuration
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "tiered")
+public class TieredDatabaseConfiguration {
+
+    private static Logger log = LoggerFactory.getLogger(TieredDatabaseConfiguration.class);
+
+    @Primary
+    @Bean(initMethod = "warmUp", destroyMethod = "shutdown")
+    public TieredDatabase tieredDatabase(Database backTier, TieredDatabaseProperties properties, InvoiceChangePublisher publisher) {
+        log.debug("Creating tiered database over {} back tier in {} mode", properties.getBackTier(), properties.getWriteMode());
+        return new TieredDatabase(backTier, properties.getWriteMode(), properties.getWriteBehindCapacity(), publisher);
+    }
+}
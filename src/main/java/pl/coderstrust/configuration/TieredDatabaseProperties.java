@@ -0,0 +1,37 @@
+package pl.coderstrust.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import pl.coderstrust.database.tiered.WriteMode;
+
+@Component
+@ConfigurationProperties(prefix = "pl.coderstrust.database.tiered")
+public class TieredDatabaseProperties {
+    private String backTier;
+    private WriteMode writeMode = WriteMode.WRITE_THROUGH;
+    private int writeBehindCapacity = 1000;
+
+    public String getBackTier() {
+        return backTier;
+    }
+
+    public void setBackTier(String backTier) {
+        this.backTier = backTier;
+    }
+
+    public WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    public void setWriteMode(WriteMode writeMode) {
+        this.writeMode = writeMode;
+    }
+
+    public int getWriteBehindCapacity() {
+        return writeBehindCapacity;
+    }
+
+    public void setWriteBehindCapacity(int writeBehindCapacity) {
+        this.writeBehindCapacity = writeBehindCapacity;
+    }
+}
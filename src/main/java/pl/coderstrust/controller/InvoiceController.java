@@ -1,14 +1,25 @@
 package pl.coderstrust.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,35 +34,47 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersionConflictException;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.service.InvoiceEmailService;
 import pl.coderstrust.service.InvoicePdfService;
 import pl.coderstrust.service.InvoiceService;
+import pl.coderstrust.service.ServiceOperationException;
 import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/invoices")
 @Api(value = "/invoices", description = "Available operations for invoice application", tags = {"Invoices"})
 public class InvoiceController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BATCH_CHUNK_SIZE = 500;
     private static Logger log = LoggerFactory.getLogger(InvoiceController.class);
     private InvoiceService invoiceService;
     private InvoicePdfService invoicePdfService;
     private InvoiceEmailService invoiceEmailService;
+    private ObjectMapper mapper;
 
     @Autowired
-    public InvoiceController(InvoiceService invoiceService, InvoicePdfService invoicePdfService, InvoiceEmailService invoiceEmailService) {
+    public InvoiceController(InvoiceService invoiceService, InvoicePdfService invoicePdfService, InvoiceEmailService invoiceEmailService, ObjectMapper mapper) {
         log.debug("Launching to REST service");
         ArgumentValidator.ensureNotNull(invoiceService, "invoiceService");
         ArgumentValidator.ensureNotNull(invoicePdfService, "invoicePdfService");
         ArgumentValidator.ensureNotNull(invoiceEmailService, "invoiceEmailService");
+        ArgumentValidator.ensureNotNull(mapper, "mapper");
         this.invoiceService = invoiceService;
         this.invoicePdfService = invoicePdfService;
         this.invoiceEmailService = invoiceEmailService;
+        this.mapper = mapper;
     }
 
     @GetMapping("/{id}")
@@ -61,36 +84,144 @@ public class InvoiceController {
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
         @ApiResponse(code = 404, message = "Invoice not found for passed id."),
-        @ApiResponse(code = 500, message = "Internal server error.")})
-    ResponseEntity<?> getInvoiceById(@PathVariable Long id) {
+        @ApiResponse(code = 500, message = "Internal server error."),
+        @ApiResponse(code = 503, message = "Too many requests are waiting for database.")})
+    CompletableFuture<ResponseEntity<?>> getInvoiceById(@PathVariable Long id) {
         try {
             log.debug("Getting an invoice by id: {}", id);
-            Optional<Invoice> invoice = invoiceService.getInvoice(id);
-            if (!invoice.isPresent()) {
-                log.error("An error occurred during getting an invoice, invoice not found for passed id: {}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-            }
-            return ResponseEntity.ok().body(invoice.get());
+            return invoiceService.getInvoiceAsync(id)
+                .<ResponseEntity<?>>thenApply(invoice -> {
+                    if (!invoice.isPresent()) {
+                        log.error("An error occurred during getting an invoice, invoice not found for passed id: {}", id);
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+                    }
+                    return withETag(ResponseEntity.ok(), invoice.get()).body(invoice.get());
+                })
+                .exceptionally(throwable -> getErrorResponse(throwable, "An error occurred during getting invoice."));
         } catch (Exception e) {
-            log.error("An error occurred during getting invoice.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return completed(getErrorResponse(e, "An error occurred during getting invoice."));
         }
     }
 
     @GetMapping()
     @ResponseStatus(HttpStatus.OK)
-    @ApiOperation(value = "Get all invoices", response = Invoice.class, responseContainer = "List")
+    @ApiOperation(value = "Get all invoices", notes = "Gets all invoices, or a single page of invoices ordered by id when after or limit is passed. "
+        + "The id to pass as after for the next page is returned in X-Next-Cursor header.", response = Invoice.class, responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "after", value = "Id of the last invoice from previous page, e.g. 7565", example = "7865", dataType = "Long"),
+        @ApiImplicitParam(name = "limit", value = "Maximum number of invoices on page, from 1 to 1000", example = "100", dataType = "int")})
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
-        @ApiResponse(code = 500, message = "Internal server error.")})
-    ResponseEntity<?> getAllInvoices() {
+        @ApiResponse(code = 400, message = "Passed limit is invalid."),
+        @ApiResponse(code = 500, message = "Internal server error."),
+        @ApiResponse(code = 503, message = "Too many requests are waiting for database.")})
+    CompletableFuture<ResponseEntity<?>> getAllInvoices(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return getAllInvoices();
+        }
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            String message = String.format("limit must be between 1 and %d.", MAX_PAGE_SIZE);
+            log.error(message);
+            return completed(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message));
+        }
+        try {
+            log.debug("Getting {} invoices after id: {}", pageSize, after);
+            return invoiceService.getInvoicesPageAsync(after, pageSize)
+                .<ResponseEntity<?>>thenApply(invoices -> {
+                    HttpHeaders responseHeaders = new HttpHeaders();
+                    if (invoices.size() == pageSize) {
+                        responseHeaders.set(NEXT_CURSOR_HEADER, String.valueOf(invoices.get(invoices.size() - 1).getId()));
+                    }
+                    return ResponseEntity.status(HttpStatus.OK).headers(responseHeaders).body(invoices);
+                })
+                .exceptionally(throwable -> getErrorResponse(throwable, "An error occurred during getting page of invoices."));
+        } catch (Exception e) {
+            return completed(getErrorResponse(e, "An error occurred during getting page of invoices."));
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<?>> getAllInvoices() {
         try {
             log.debug("Getting all invoices");
-            Collection<Invoice> invoices = invoiceService.getAllInvoices();
-            return ResponseEntity.status(HttpStatus.OK).body(invoices);
+            return invoiceService.getAllInvoicesAsync()
+                .<ResponseEntity<?>>thenApply(invoices -> ResponseEntity.status(HttpStatus.OK).body(invoices))
+                .exceptionally(throwable -> getErrorResponse(throwable, "An error occurred during getting all invoices."));
         } catch (Exception e) {
-            log.error("An error occurred during getting all invoices.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return completed(getErrorResponse(e, "An error occurred during getting all invoices."));
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Stream all invoices", notes = "Streams all invoices as newline delimited JSON, writing each invoice as soon as it is read from database. "
+        + "Invoices are read only as fast as the client consumes them.", response = Invoice.class, responseContainer = "List")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    Flux<Invoice> streamInvoices() {
+        log.debug("Streaming all invoices");
+        return invoiceService.streamInvoices();
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Search invoices", notes = "Gets invoices matching all passed criteria, ordered by id. "
+        + "Date and gross total ranges are inclusive and may be open on either side. At most limit invoices are returned.", response = Invoice.class, responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "issuedFrom", value = "YYYY-MM-DD", example = "2019-02-04", dataType = "date"),
+        @ApiImplicitParam(name = "issuedTo", value = "YYYY-MM-DD", example = "2019-03-04", dataType = "date"),
+        @ApiImplicitParam(name = "dueFrom", value = "YYYY-MM-DD", example = "2019-02-04", dataType = "date"),
+        @ApiImplicitParam(name = "dueTo", value = "YYYY-MM-DD", example = "2019-03-04", dataType = "date"),
+        @ApiImplicitParam(name = "buyerId", value = "Only digits possible, e.g. 7565", example = "7865", dataType = "Long"),
+        @ApiImplicitParam(name = "sellerId", value = "Only digits possible, e.g. 7565", example = "7865", dataType = "Long"),
+        @ApiImplicitParam(name = "numberPrefix", value = "Beginning of invoice number, e.g. FV/2019", example = "FV/2019", dataType = "String"),
+        @ApiImplicitParam(name = "minGrossTotal", value = "Minimal sum of entries gross values", example = "100.00", dataType = "BigDecimal"),
+        @ApiImplicitParam(name = "maxGrossTotal", value = "Maximal sum of entries gross values", example = "2500.00", dataType = "BigDecimal"),
+        @ApiImplicitParam(name = "limit", value = "Maximum number of invoices, from 1 to 1000", example = "100", dataType = "int")})
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 400, message = "Passed criteria are invalid."),
+        @ApiResponse(code = 500, message = "Internal server error."),
+        @ApiResponse(code = 503, message = "Too many requests are waiting for database.")})
+    CompletableFuture<ResponseEntity<?>> searchInvoices(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedTo,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+        @RequestParam(required = false) Long buyerId,
+        @RequestParam(required = false) Long sellerId,
+        @RequestParam(required = false) String numberPrefix,
+        @RequestParam(required = false) BigDecimal minGrossTotal,
+        @RequestParam(required = false) BigDecimal maxGrossTotal,
+        @RequestParam(required = false) Integer limit) {
+        int resultSize = limit != null ? limit : MAX_PAGE_SIZE;
+        if (resultSize < 1 || resultSize > MAX_PAGE_SIZE) {
+            String message = String.format("limit must be between 1 and %d.", MAX_PAGE_SIZE);
+            log.error(message);
+            return completed(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message));
+        }
+        InvoiceQuery query;
+        try {
+            query = InvoiceQuery.builder()
+                .issuedBetween(issuedFrom, issuedTo)
+                .dueBetween(dueFrom, dueTo)
+                .buyerId(buyerId)
+                .sellerId(sellerId)
+                .numberPrefix(numberPrefix)
+                .grossTotalBetween(minGrossTotal, maxGrossTotal)
+                .limit(resultSize)
+                .build();
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            return completed(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()));
+        }
+        try {
+            log.debug("Searching invoices matching query: {}", query);
+            return invoiceService.findInvoicesAsync(query)
+                .<ResponseEntity<?>>thenApply(invoices -> ResponseEntity.status(HttpStatus.OK).body(invoices))
+                .exceptionally(throwable -> getErrorResponse(throwable, "An error occurred during searching invoices."));
+        } catch (Exception e) {
+            return completed(getErrorResponse(e, "An error occurred during searching invoices."));
         }
     }
 
@@ -99,12 +230,14 @@ public class InvoiceController {
     @ApiOperation(value = "Get all invoices by dates", notes = "Gets all invoices issued between specified dates (inclusive) fromDate and toDate.", response = Invoice.class, responseContainer = "List")
     @ApiImplicitParams({
         @ApiImplicitParam(name = "fromDate", value = "YYYY-MM-DD", example = "2019-02-04", dataType = "date"),
-        @ApiImplicitParam(name = "toDate", value = "YYYY-MM-DD", example = "2019-03-04", dataType = "date")})
+        @ApiImplicitParam(name = "toDate", value = "YYYY-MM-DD", example = "2019-03-04", dataType = "date"),
+        @ApiImplicitParam(name = "sortByIssuedDate", value = "Sort invoices by issue date instead of id", example = "true", dataType = "boolean")})
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
         @ApiResponse(code = 400, message = "Passed dates are invalid."),
         @ApiResponse(code = 500, message = "Internal server error.")})
-    ResponseEntity<?> getInvoicesByDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+    ResponseEntity<?> getInvoicesByDate(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+        @RequestParam(defaultValue = "false") boolean sortByIssuedDate) {
         if (fromDate == null) {
             String message = "fromDate parameter cannot be null.";
             log.error(message);
@@ -122,7 +255,8 @@ public class InvoiceController {
         }
         try {
             log.debug("Getting all invoices by dates: from {} to {}", fromDate, toDate);
-            Collection<Invoice> invoices = invoiceService.getAllInvoicesByDate(fromDate, toDate);
+            Collection<Invoice> invoices = sortByIssuedDate ? invoiceService.getAllInvoicesByDateSortedByIssuedDate(fromDate, toDate)
+                : invoiceService.getAllInvoicesByDate(fromDate, toDate);
             return ResponseEntity.status(HttpStatus.OK).body(invoices);
         } catch (Exception e) {
             log.error("An error occurred during getting all invoices by dates.", e);
@@ -221,29 +355,106 @@ public class InvoiceController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
-    @ApiOperation(value = "When invoice id field is not set application saves the invoice to database as new invoice, otherwise updates existing invoice.", response = Invoice.class)
+    @ApiOperation(value = "When invoice id field is not set application saves the invoice to database as new invoice, otherwise updates existing invoice.",
+        notes = "Updates are rejected when the invoice was changed since the version passed in If-Match header or version field. "
+            + "Version from If-Match header takes precedence, current version is returned in ETag header.", response = Invoice.class)
+    @ApiImplicitParam(name = HttpHeaders.IF_MATCH, value = "Expected invoice version, e.g. \"3\"", paramType = "header", dataType = "String")
     @ApiResponses({
         @ApiResponse(code = 200, message = "OK"),
         @ApiResponse(code = 400, message = "Passed invoice is invalid."),
+        @ApiResponse(code = 409, message = "Invoice was changed since expected version."),
         @ApiResponse(code = 500, message = "Internal server error.")})
-    ResponseEntity<?> saveInvoice(@RequestBody(required = false) Invoice invoice) {
+    ResponseEntity<?> saveInvoice(@RequestBody(required = false) Invoice invoice, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (invoice == null) {
             String message = "Invoice cannot be null.";
             log.error(message);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
         }
+        Long expectedVersion = invoice.getVersion();
+        if (ifMatch != null) {
+            expectedVersion = parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                String message = String.format("If-Match header must contain invoice version, but was: %s", ifMatch);
+                log.error(message);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+            }
+        }
         try {
-            log.debug("Saving invoice: {}", invoice);
-            Invoice savedInvoice = invoiceService.saveInvoice(invoice);
+            log.debug("Saving invoice: {} with expected version: {}", invoice, expectedVersion);
+            Invoice invoiceToSave = new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries(), expectedVersion);
+            Invoice savedInvoice = invoiceService.saveInvoice(invoiceToSave);
             log.debug("Sending an e-mail with invoice: {}", savedInvoice);
             invoiceEmailService.sendEmailWithInvoice(savedInvoice);
-            return ResponseEntity.status(HttpStatus.OK).body(savedInvoice);
+            return withETag(ResponseEntity.status(HttpStatus.OK), savedInvoice).body(savedInvoice);
         } catch (Exception e) {
+            if (isVersionConflict(e)) {
+                String message = String.format("Invoice was changed since version: %d", expectedVersion);
+                log.error(message, e);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+            }
             log.error("An error occurred during saving an invoice.", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Save many invoices at once", notes = "Reads a JSON array of invoices from the request body and saves them in chunks of 500, "
+        + "inserting invoices without id and updating the others. No e-mails are sent. Returns ids of saved invoices in request order. "
+        + "When the body turns out to be invalid, chunks saved before the error are kept.", response = Long.class, responseContainer = "List")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 400, message = "Passed invoices are invalid."),
+        @ApiResponse(code = 409, message = "Some of passed invoices were changed since their versions."),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> saveInvoices(InputStream body) {
+        List<Long> savedInvoicesIds = new ArrayList<>();
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                String message = "Invoices must be passed as JSON array.";
+                log.error(message);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+            }
+            List<Invoice> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                chunk.add(mapper.readValue(parser, Invoice.class));
+                if (chunk.size() == BATCH_CHUNK_SIZE) {
+                    saveChunk(chunk, savedInvoicesIds);
+                    chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                String message = String.format("Invoice at position %d is not a JSON object, %d invoices saved before.", savedInvoicesIds.size() + chunk.size(), savedInvoicesIds.size());
+                log.error(message);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+            }
+            saveChunk(chunk, savedInvoicesIds);
+            return ResponseEntity.status(HttpStatus.OK).body(savedInvoicesIds);
+        } catch (JsonProcessingException e) {
+            String message = String.format("Passed invoices are invalid, %d invoices saved before the error.", savedInvoicesIds.size());
+            log.error(message, e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+        } catch (Exception e) {
+            if (isVersionConflict(e)) {
+                String message = String.format("Passed invoices were changed since their versions, %d invoices saved before the conflict.", savedInvoicesIds.size());
+                log.error(message, e);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+            }
+            log.error("An error occurred during saving invoices.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private void saveChunk(List<Invoice> chunk, List<Long> savedInvoicesIds) throws ServiceOperationException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        log.debug("Saving chunk of {} invoices", chunk.size());
+        for (Invoice savedInvoice : invoiceService.saveInvoices(chunk)) {
+            savedInvoicesIds.add(savedInvoice.getId());
+        }
+    }
+
     @GetMapping("/pdf/{id}")
     @ResponseStatus(HttpStatus.OK)
     @ApiOperation(value = "Get a single invoice as PDF file.", notes = "Gets a PDF file of invoice by given id", response = Invoice.class)
@@ -269,4 +480,45 @@ public class InvoiceController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    private static CompletableFuture<ResponseEntity<?>> completed(ResponseEntity<?> response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Invoice invoice) {
+        return invoice.getVersion() != null ? response.eTag(String.valueOf(invoice.getVersion())) : response;
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        if (version.length() > 1 && version.startsWith("\"") && version.endsWith("\"")) {
+            version = version.substring(1, version.length() - 1);
+        }
+        try {
+            return Long.valueOf(version);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isVersionConflict(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvoiceVersionConflictException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> getErrorResponse(Throwable throwable, String message) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        log.error(message, cause);
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
 }
@@ -0,0 +1,140 @@
+package pl.coderstrust.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import pl.coderstrust.model.AgingReport;
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.model.CompanyRole;
+import pl.coderstrust.model.VatReport;
+import pl.coderstrust.service.CompanyBalanceService;
+import pl.coderstrust.service.ReceivablesAgingService;
+import pl.coderstrust.service.VatReportService;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@RestController
+@RequestMapping("/invoices/reports")
+@Api(value = "/invoices/reports", description = "Reports over invoices", tags = {"Reports"})
+public class InvoiceReportController {
+
+    private static final int MAX_BALANCES_LIMIT = 1000;
+    private static Logger log = LoggerFactory.getLogger(InvoiceReportController.class);
+    private VatReportService vatReportService;
+    private ReceivablesAgingService receivablesAgingService;
+    private CompanyBalanceService companyBalanceService;
+
+    @Autowired
+    public InvoiceReportController(VatReportService vatReportService, ReceivablesAgingService receivablesAgingService, CompanyBalanceService companyBalanceService) {
+        ArgumentValidator.ensureNotNull(vatReportService, "vatReportService");
+        ArgumentValidator.ensureNotNull(receivablesAgingService, "receivablesAgingService");
+        ArgumentValidator.ensureNotNull(companyBalanceService, "companyBalanceService");
+        this.vatReportService = vatReportService;
+        this.receivablesAgingService = receivablesAgingService;
+        this.companyBalanceService = companyBalanceService;
+    }
+
+    @GetMapping("/vat")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Get VAT report", notes = "Gets net, gross and VAT totals for every VAT rate of invoices issued between specified dates (inclusive).", response = VatReport.class)
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "fromDate", value = "YYYY-MM-DD", example = "2019-01-01", dataType = "date"),
+        @ApiImplicitParam(name = "toDate", value = "YYYY-MM-DD", example = "2019-01-31", dataType = "date")})
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 400, message = "Passed dates are invalid."),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> getVatReport(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            String message = "fromDate cannot be after toDate.";
+            log.error(message);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+        }
+        try {
+            log.debug("Getting VAT report from {} to {}", fromDate, toDate);
+            return ResponseEntity.status(HttpStatus.OK).body(vatReportService.getVatReport(fromDate, toDate));
+        } catch (Exception e) {
+            log.error("An error occurred during getting VAT report.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/aging")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Get receivables aging report", notes = "Gets number and gross value of invoices by days past due date (not due, 0-30, 31-60, 61-90, over 90), in total and per buyer.", response = AgingReport.class)
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK"),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> getAgingReport() {
+        try {
+            log.debug("Getting receivables aging report");
+            return ResponseEntity.status(HttpStatus.OK).body(receivablesAgingService.getAgingReport());
+        } catch (Exception e) {
+            log.error("An error occurred during getting receivables aging report.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/balances")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Get top company balances", notes = "Gets number, net and gross values and last issue date of invoices of companies with the highest gross value invoiced, as buyer or as seller.",
+        response = CompanyBalance.class, responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "role", value = "BUYER or SELLER", example = "BUYER", dataType = "string"),
+        @ApiImplicitParam(name = "limit", value = "Number of companies to get, from 1 to 1000", example = "10", dataType = "int")})
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = CompanyBalance.class, responseContainer = "List"),
+        @ApiResponse(code = 400, message = "Passed limit is invalid."),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> getTopBalances(@RequestParam(defaultValue = "BUYER") CompanyRole role, @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_BALANCES_LIMIT) {
+            String message = String.format("Limit must be between 1 and %d.", MAX_BALANCES_LIMIT);
+            log.error(message);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+        }
+        try {
+            log.debug("Getting top {} {} balances", limit, role);
+            List<CompanyBalance> balances = companyBalanceService.getTopBalances(role, limit);
+            return ResponseEntity.status(HttpStatus.OK).body(balances);
+        } catch (Exception e) {
+            log.error("An error occurred during getting top balances.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/balances/{companyId}")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Get company balance", notes = "Gets number, net and gross values and last issue date of invoices of specified company, as buyer or as seller.", response = CompanyBalance.class)
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "companyId", value = "Only digits possible, e.g. 7", example = "7", dataType = "Long"),
+        @ApiImplicitParam(name = "role", value = "BUYER or SELLER", example = "BUYER", dataType = "string")})
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = CompanyBalance.class),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> getBalance(@PathVariable Long companyId, @RequestParam(defaultValue = "BUYER") CompanyRole role) {
+        try {
+            log.debug("Getting {} balance of company with id {}", role, companyId);
+            return ResponseEntity.status(HttpStatus.OK).body(companyBalanceService.getBalance(role, companyId));
+        } catch (Exception e) {
+            log.error("An error occurred during getting company balance.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
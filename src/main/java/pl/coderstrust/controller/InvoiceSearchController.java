@@ -0,0 +1,69 @@
+package pl.coderstrust.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.service.InvoiceSearchService;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@RestController
+@RequestMapping("/invoices/fulltext")
+@Api(value = "/invoices/fulltext", description = "Full-text search over invoices", tags = {"Search"})
+public class InvoiceSearchController {
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static Logger log = LoggerFactory.getLogger(InvoiceSearchController.class);
+    private InvoiceSearchService invoiceSearchService;
+
+    @Autowired
+    public InvoiceSearchController(InvoiceSearchService invoiceSearchService) {
+        ArgumentValidator.ensureNotNull(invoiceSearchService, "invoiceSearchService");
+        this.invoiceSearchService = invoiceSearchService;
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "Search invoices", notes = "Gets invoices containing all words of the query in product names or in names and addresses of seller or buyer, best matches first.",
+        response = Invoice.class, responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "query", value = "Words to search for, case and accents are ignored", example = "consulting warszawa", dataType = "string"),
+        @ApiImplicitParam(name = "limit", value = "Maximum number of invoices, from 1 to 100", example = "20", dataType = "int")})
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "OK", response = Invoice.class, responseContainer = "List"),
+        @ApiResponse(code = 400, message = "Passed query or limit is invalid."),
+        @ApiResponse(code = 500, message = "Internal server error.")})
+    ResponseEntity<?> searchInvoices(@RequestParam String query, @RequestParam(defaultValue = "20") int limit) {
+        if (query.trim().isEmpty()) {
+            String message = "query cannot be empty.";
+            log.error(message);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            String message = String.format("limit must be between 1 and %d.", MAX_SEARCH_LIMIT);
+            log.error(message);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+        }
+        try {
+            log.debug("Searching invoices for \"{}\"", query);
+            return ResponseEntity.status(HttpStatus.OK).body(invoiceSearchService.searchInvoices(query, limit));
+        } catch (Exception e) {
+            log.error("An error occurred during searching invoices.", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
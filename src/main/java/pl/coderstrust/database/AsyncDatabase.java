@@ -0,0 +1,36 @@
+package pl.coderstrust.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+
+public interface AsyncDatabase {
+
+    CompletableFuture<Invoice> saveInvoice(Invoice invoice);
+
+    CompletableFuture<List<Invoice>> saveInvoices(Collection<Invoice> invoices);
+
+    CompletableFuture<Void> deleteInvoice(Long id);
+
+    CompletableFuture<Void> deleteInvoices(Collection<Long> ids);
+
+    CompletableFuture<Optional<Invoice>> getInvoice(Long id);
+
+    CompletableFuture<Collection<Invoice>> getAllInvoices();
+
+    CompletableFuture<List<Invoice>> getInvoicesPage(Long afterId, int limit);
+
+    CompletableFuture<List<Invoice>> findInvoices(InvoiceQuery query);
+
+    Flux<Invoice> streamInvoices();
+
+    CompletableFuture<Void> deleteAllInvoices();
+
+    CompletableFuture<Boolean> invoiceExists(Long id);
+
+    CompletableFuture<Long> countInvoices();
+}
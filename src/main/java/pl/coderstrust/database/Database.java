@@ -1,9 +1,17 @@
 package pl.coderstrust.database;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
 
 public interface Database {
 
@@ -11,10 +19,58 @@ public interface Database {
 
     void deleteInvoice(Long id) throws DatabaseOperationException;
 
+    default List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        List<Invoice> savedInvoices = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            savedInvoices.add(saveInvoice(invoice));
+        }
+        return savedInvoices;
+    }
+
+    default void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        throw new DatabaseOperationException(String.format("%s does not support importing invoices with their ids", getClass().getSimpleName()));
+    }
+
+    default void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        for (Long id : ids) {
+            deleteInvoice(id);
+        }
+    }
+
     Optional<Invoice> getInvoice(Long id) throws DatabaseOperationException;
 
     Collection<Invoice> getAllInvoices() throws DatabaseOperationException;
 
+    List<Invoice> getInvoicesPage(Long afterId, int limit) throws DatabaseOperationException;
+
+    default void forEachInvoice(Consumer<Invoice> consumer) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(consumer, "consumer");
+        getAllInvoices().forEach(consumer);
+    }
+
+    default Flux<Invoice> streamInvoices() {
+        return Flux.defer(() -> {
+            try {
+                return Flux.fromIterable(getAllInvoices());
+            } catch (DatabaseOperationException e) {
+                return Flux.error(e);
+            }
+        });
+    }
+
+    default List<Invoice> findInvoices(InvoiceQuery query) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(query, "query");
+        Stream<Invoice> matchingInvoices = getAllInvoices().stream()
+            .filter(query::matches)
+            .sorted(Comparator.comparing(Invoice::getId));
+        if (query.getLimit() != null) {
+            matchingInvoices = matchingInvoices.limit(query.getLimit());
+        }
+        return matchingInvoices.collect(Collectors.toList());
+    }
+
     void deleteAllInvoices() throws DatabaseOperationException;
 
     boolean invoiceExists(Long id) throws DatabaseOperationException;
@@ -0,0 +1,122 @@
+package pl.coderstrust.database;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class ExecutorAsyncDatabase implements AsyncDatabase {
+
+    private static Logger log = LoggerFactory.getLogger(ExecutorAsyncDatabase.class);
+
+    private final Database database;
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+
+    public ExecutorAsyncDatabase(Database database, ExecutorService executor) {
+        ArgumentValidator.ensureNotNull(database, "database");
+        ArgumentValidator.ensureNotNull(executor, "executor");
+        this.database = database;
+        this.executor = executor;
+        this.scheduler = Schedulers.fromExecutorService(executor);
+    }
+
+    @Override
+    public CompletableFuture<Invoice> saveInvoice(Invoice invoice) {
+        return supply(() -> database.saveInvoice(invoice));
+    }
+
+    @Override
+    public CompletableFuture<List<Invoice>> saveInvoices(Collection<Invoice> invoices) {
+        return supply(() -> database.saveInvoices(invoices));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteInvoice(Long id) {
+        return supply(() -> {
+            database.deleteInvoice(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteInvoices(Collection<Long> ids) {
+        return supply(() -> {
+            database.deleteInvoices(ids);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Invoice>> getInvoice(Long id) {
+        return supply(() -> database.getInvoice(id));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Invoice>> getAllInvoices() {
+        return supply(database::getAllInvoices);
+    }
+
+    @Override
+    public CompletableFuture<List<Invoice>> getInvoicesPage(Long afterId, int limit) {
+        return supply(() -> database.getInvoicesPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Invoice>> findInvoices(InvoiceQuery query) {
+        return supply(() -> database.findInvoices(query));
+    }
+
+    @Override
+    public Flux<Invoice> streamInvoices() {
+        return database.streamInvoices().subscribeOn(scheduler);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllInvoices() {
+        return supply(() -> {
+            database.deleteAllInvoices();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> invoiceExists(Long id) {
+        return supply(() -> database.invoiceExists(id));
+    }
+
+    @Override
+    public CompletableFuture<Long> countInvoices() {
+        return supply(database::countInvoices);
+    }
+
+    public void shutdown() {
+        log.debug("Shutting down database executor");
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> supply(DatabaseCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.execute();
+            } catch (DatabaseOperationException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface DatabaseCall<T> {
+        T execute() throws DatabaseOperationException;
+    }
+}
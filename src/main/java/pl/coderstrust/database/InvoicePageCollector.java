@@ -0,0 +1,43 @@
+package pl.coderstrust.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoicePageCollector {
+
+    private static final Comparator<Invoice> BY_ID = Comparator.comparing(Invoice::getId);
+
+    private final Long afterId;
+    private final int limit;
+    private final PriorityQueue<Invoice> page;
+
+    public InvoicePageCollector(Long afterId, int limit) {
+        ArgumentValidator.ensurePositive(limit, "limit");
+        this.afterId = afterId;
+        this.limit = limit;
+        this.page = new PriorityQueue<>(limit, BY_ID.reversed());
+    }
+
+    public void offer(Invoice invoice) {
+        if (afterId != null && invoice.getId() <= afterId) {
+            return;
+        }
+        if (page.size() < limit) {
+            page.add(invoice);
+        } else if (invoice.getId() < page.peek().getId()) {
+            page.poll();
+            page.add(invoice);
+        }
+    }
+
+    public List<Invoice> getPage() {
+        List<Invoice> invoices = new ArrayList<>(page);
+        invoices.sort(BY_ID);
+        return invoices;
+    }
+}
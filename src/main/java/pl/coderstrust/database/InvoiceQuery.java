@@ -0,0 +1,235 @@
+package pl.coderstrust.database;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoiceQuery {
+
+    private final LocalDate issuedFrom;
+    private final LocalDate issuedTo;
+    private final LocalDate dueFrom;
+    private final LocalDate dueTo;
+    private final Long buyerId;
+    private final Long sellerId;
+    private final String numberPrefix;
+    private final BigDecimal minGrossTotal;
+    private final BigDecimal maxGrossTotal;
+    private final Integer limit;
+
+    private InvoiceQuery(Builder builder) {
+        this.issuedFrom = builder.issuedFrom;
+        this.issuedTo = builder.issuedTo;
+        this.dueFrom = builder.dueFrom;
+        this.dueTo = builder.dueTo;
+        this.buyerId = builder.buyerId;
+        this.sellerId = builder.sellerId;
+        this.numberPrefix = builder.numberPrefix;
+        this.minGrossTotal = builder.minGrossTotal;
+        this.maxGrossTotal = builder.maxGrossTotal;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static BigDecimal getGrossTotal(Invoice invoice) {
+        BigDecimal grossTotal = BigDecimal.ZERO;
+        for (InvoiceEntry entry : invoice.getEntries()) {
+            grossTotal = grossTotal.add(entry.getGrossValue());
+        }
+        return grossTotal;
+    }
+
+    public LocalDate getIssuedFrom() {
+        return issuedFrom;
+    }
+
+    public LocalDate getIssuedTo() {
+        return issuedTo;
+    }
+
+    public LocalDate getDueFrom() {
+        return dueFrom;
+    }
+
+    public LocalDate getDueTo() {
+        return dueTo;
+    }
+
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public String getNumberPrefix() {
+        return numberPrefix;
+    }
+
+    public BigDecimal getMinGrossTotal() {
+        return minGrossTotal;
+    }
+
+    public BigDecimal getMaxGrossTotal() {
+        return maxGrossTotal;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public boolean hasGrossTotalCriteria() {
+        return minGrossTotal != null || maxGrossTotal != null;
+    }
+
+    public boolean matches(Invoice invoice) {
+        if (!isWithin(invoice.getIssuedDate(), issuedFrom, issuedTo) || !isWithin(invoice.getDueDate(), dueFrom, dueTo)) {
+            return false;
+        }
+        if (buyerId != null && (invoice.getBuyer() == null || !buyerId.equals(invoice.getBuyer().getId()))) {
+            return false;
+        }
+        if (sellerId != null && (invoice.getSeller() == null || !sellerId.equals(invoice.getSeller().getId()))) {
+            return false;
+        }
+        if (numberPrefix != null && (invoice.getNumber() == null || !invoice.getNumber().startsWith(numberPrefix))) {
+            return false;
+        }
+        if (!hasGrossTotalCriteria()) {
+            return true;
+        }
+        BigDecimal grossTotal = getGrossTotal(invoice);
+        return (minGrossTotal == null || grossTotal.compareTo(minGrossTotal) >= 0)
+            && (maxGrossTotal == null || grossTotal.compareTo(maxGrossTotal) <= 0);
+    }
+
+    private boolean isWithin(LocalDate date, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return date != null
+            && (from == null || !date.isBefore(from))
+            && (to == null || !date.isAfter(to));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        InvoiceQuery query = (InvoiceQuery) obj;
+        return Objects.equals(issuedFrom, query.issuedFrom)
+            && Objects.equals(issuedTo, query.issuedTo)
+            && Objects.equals(dueFrom, query.dueFrom)
+            && Objects.equals(dueTo, query.dueTo)
+            && Objects.equals(buyerId, query.buyerId)
+            && Objects.equals(sellerId, query.sellerId)
+            && Objects.equals(numberPrefix, query.numberPrefix)
+            && Objects.equals(minGrossTotal, query.minGrossTotal)
+            && Objects.equals(maxGrossTotal, query.maxGrossTotal)
+            && Objects.equals(limit, query.limit);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(issuedFrom, issuedTo, dueFrom, dueTo, buyerId, sellerId, numberPrefix, minGrossTotal, maxGrossTotal, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "InvoiceQuery{"
+            + "issuedFrom=" + issuedFrom
+            + ", issuedTo=" + issuedTo
+            + ", dueFrom=" + dueFrom
+            + ", dueTo=" + dueTo
+            + ", buyerId=" + buyerId
+            + ", sellerId=" + sellerId
+            + ", numberPrefix='" + numberPrefix + '\''
+            + ", minGrossTotal=" + minGrossTotal
+            + ", maxGrossTotal=" + maxGrossTotal
+            + ", limit=" + limit
+            + '}';
+    }
+
+    public static class Builder {
+
+        private LocalDate issuedFrom;
+        private LocalDate issuedTo;
+        private LocalDate dueFrom;
+        private LocalDate dueTo;
+        private Long buyerId;
+        private Long sellerId;
+        private String numberPrefix;
+        private BigDecimal minGrossTotal;
+        private BigDecimal maxGrossTotal;
+        private Integer limit;
+
+        private Builder() {
+        }
+
+        public Builder issuedBetween(LocalDate from, LocalDate to) {
+            this.issuedFrom = from;
+            this.issuedTo = to;
+            return this;
+        }
+
+        public Builder dueBetween(LocalDate from, LocalDate to) {
+            this.dueFrom = from;
+            this.dueTo = to;
+            return this;
+        }
+
+        public Builder buyerId(Long buyerId) {
+            this.buyerId = buyerId;
+            return this;
+        }
+
+        public Builder sellerId(Long sellerId) {
+            this.sellerId = sellerId;
+            return this;
+        }
+
+        public Builder numberPrefix(String numberPrefix) {
+            this.numberPrefix = numberPrefix;
+            return this;
+        }
+
+        public Builder grossTotalBetween(BigDecimal min, BigDecimal max) {
+            this.minGrossTotal = min;
+            this.maxGrossTotal = max;
+            return this;
+        }
+
+        public Builder limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public InvoiceQuery build() {
+            ensureOrdered(issuedFrom, issuedTo, "issuedFrom cannot be after issuedTo.");
+            ensureOrdered(dueFrom, dueTo, "dueFrom cannot be after dueTo.");
+            ensureOrdered(minGrossTotal, maxGrossTotal, "minGrossTotal cannot be greater than maxGrossTotal.");
+            if (limit != null) {
+                ArgumentValidator.ensurePositive(limit, "limit");
+            }
+            return new InvoiceQuery(this);
+        }
+
+        private <T extends Comparable<? super T>> void ensureOrdered(T from, T to, String message) {
+            if (from != null && to != null && from.compareTo(to) > 0) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package pl.coderstrust.database;
+
+public class InvoiceVersionConflictException extends DatabaseOperationException {
+
+    public InvoiceVersionConflictException(String message) {
+        super(message);
+    }
+
+    public InvoiceVersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,39 @@
+package pl.coderstrust.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.model.Invoice;
+
+public final class InvoiceVersions {
+
+    public static final long INITIAL_VERSION = 0L;
+
+    private static Logger log = LoggerFactory.getLogger(InvoiceVersions.class);
+
+    private InvoiceVersions() {
+    }
+
+    public static long getVersion(Invoice invoice) {
+        return invoice.getVersion() != null ? invoice.getVersion() : INITIAL_VERSION;
+    }
+
+    public static long nextVersion(Invoice storedInvoice) {
+        return getVersion(storedInvoice) + 1;
+    }
+
+    public static void ensureVersionMatches(Invoice invoice, Invoice storedInvoice) throws InvoiceVersionConflictException {
+        ensureVersionMatches(invoice, getVersion(storedInvoice));
+    }
+
+    public static void ensureVersionMatches(Invoice invoice, long storedVersion) throws InvoiceVersionConflictException {
+        if (invoice.getVersion() != null && invoice.getVersion() != storedVersion) {
+            String message = String.format("Invoice with id %d has version %d, but version %d was expected", invoice.getId(), storedVersion, invoice.getVersion());
+            log.error(message);
+            throw new InvoiceVersionConflictException(message);
+        }
+    }
+
+    public static Invoice withVersion(Invoice invoice, Long id, Long version) {
+        return new Invoice(id, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries(), version);
+    }
+}
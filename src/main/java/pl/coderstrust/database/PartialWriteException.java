@@ -0,0 +1,35 @@
+package pl.coderstrust.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.coderstrust.model.Invoice;
+
+public class PartialWriteException extends DatabaseOperationException {
+
+    private final List<Invoice> appliedInvoices;
+    private final List<Invoice> savedInvoices;
+    private final List<Long> deletedIds;
+
+    public PartialWriteException(String message, Throwable cause, List<Invoice> appliedInvoices, List<Invoice> savedInvoices, List<Long> deletedIds) {
+        super(message, cause);
+        if (appliedInvoices.size() != savedInvoices.size()) {
+            throw new IllegalArgumentException("Every applied invoice must have its saved invoice.");
+        }
+        this.appliedInvoices = new ArrayList<>(appliedInvoices);
+        this.savedInvoices = new ArrayList<>(savedInvoices);
+        this.deletedIds = new ArrayList<>(deletedIds);
+    }
+
+    public List<Invoice> getAppliedInvoices() {
+        return appliedInvoices;
+    }
+
+    public List<Invoice> getSavedInvoices() {
+        return savedInvoices;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.coderstrust.database.cache;
+
+public interface CacheStore<K, V> {
+
+    V get(K key);
+
+    void put(K key, V value);
+
+    void remove(K key);
+
+    void clear();
+
+    int size();
+
+    long getEvictionCount();
+}
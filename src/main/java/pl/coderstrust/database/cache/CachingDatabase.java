@@ -0,0 +1,247 @@
+package pl.coderstrust.database.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
+
+@ManagedResource(description = "Read-through cache of invoices loaded by id")
+public class CachingDatabase implements Database {
+
+    private static Logger log = LoggerFactory.getLogger(CachingDatabase.class);
+
+    private final Database database;
+    private final CacheStore<Long, Invoice> store;
+    private final ConcurrentMap<Long, CompletableFuture<Optional<Invoice>>> inFlightLoads = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder coalescedMissCount = new LongAdder();
+
+    public CachingDatabase(Database database, CacheStore<Long, Invoice> store) {
+        ArgumentValidator.ensureNotNull(database, "database");
+        ArgumentValidator.ensureNotNull(store, "store");
+        this.database = database;
+        this.store = store;
+    }
+
+    public Database getDelegate() {
+        return database;
+    }
+
+    @Override
+    public Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoice, "invoice");
+        try {
+            return database.saveInvoice(invoice);
+        } finally {
+            invalidate(invoice.getId());
+        }
+    }
+
+    @Override
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        try {
+            return database.saveInvoices(invoices);
+        } finally {
+            invoices.forEach(invoice -> invalidate(invoice != null ? invoice.getId() : null));
+        }
+    }
+
+    @Override
+    public void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        try {
+            database.importInvoices(invoices);
+        } finally {
+            invoices.forEach(invoice -> invalidate(invoice != null ? invoice.getId() : null));
+        }
+    }
+
+    @Override
+    public void deleteInvoice(Long id) throws DatabaseOperationException {
+        try {
+            database.deleteInvoice(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        try {
+            database.deleteInvoices(ids);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public Optional<Invoice> getInvoice(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        Invoice cachedInvoice;
+        synchronized (store) {
+            cachedInvoice = store.get(id);
+        }
+        if (cachedInvoice != null) {
+            hitCount.increment();
+            return Optional.of(cachedInvoice);
+        }
+        missCount.increment();
+        CompletableFuture<Optional<Invoice>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Invoice>> inFlightLoad = inFlightLoads.putIfAbsent(id, load);
+        if (inFlightLoad != null) {
+            log.debug("Waiting for invoice with id: {} loaded by another thread", id);
+            coalescedMissCount.increment();
+            return awaitLoad(inFlightLoad);
+        }
+        try {
+            Optional<Invoice> invoice = database.getInvoice(id);
+            if (invoice.isPresent()) {
+                synchronized (store) {
+                    // invalidating the id unregisters its load, so only writes of this id discard what was read
+                    if (inFlightLoads.get(id) == load) {
+                        store.put(id, invoice.get());
+                    }
+                }
+            }
+            load.complete(invoice);
+            return invoice;
+        } catch (DatabaseOperationException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(id, load);
+        }
+    }
+
+    @Override
+    public Collection<Invoice> getAllInvoices() throws DatabaseOperationException {
+        return database.getAllInvoices();
+    }
+
+    @Override
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) throws DatabaseOperationException {
+        return database.getInvoicesPage(afterId, limit);
+    }
+
+    @Override
+    public void forEachInvoice(Consumer<Invoice> consumer) throws DatabaseOperationException {
+        database.forEachInvoice(consumer);
+    }
+
+    @Override
+    public Flux<Invoice> streamInvoices() {
+        return database.streamInvoices();
+    }
+
+    @Override
+    public List<Invoice> findInvoices(InvoiceQuery query) throws DatabaseOperationException {
+        return database.findInvoices(query);
+    }
+
+    @Override
+    public void deleteAllInvoices() throws DatabaseOperationException {
+        try {
+            database.deleteAllInvoices();
+        } finally {
+            clear();
+        }
+    }
+
+    @Override
+    public boolean invoiceExists(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        synchronized (store) {
+            if (store.get(id) != null) {
+                return true;
+            }
+        }
+        return database.invoiceExists(id);
+    }
+
+    @Override
+    public long countInvoices() throws DatabaseOperationException {
+        return database.countInvoices();
+    }
+
+    @ManagedAttribute(description = "Number of invoices returned from cache")
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    @ManagedAttribute(description = "Number of invoices not found in cache")
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @ManagedAttribute(description = "Number of misses served by a load already started by another thread")
+    public long getCoalescedMissCount() {
+        return coalescedMissCount.sum();
+    }
+
+    @ManagedAttribute(description = "Number of invoices evicted by size limit or expiration")
+    public long getEvictionCount() {
+        synchronized (store) {
+            return store.getEvictionCount();
+        }
+    }
+
+    @ManagedAttribute(description = "Number of cached invoices")
+    public int getSize() {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    @ManagedOperation(description = "Removes all invoices from cache")
+    public void clear() {
+        log.debug("Clearing invoice cache");
+        synchronized (store) {
+            store.clear();
+            inFlightLoads.clear();
+        }
+    }
+
+    private void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        synchronized (store) {
+            store.remove(id);
+            inFlightLoads.remove(id);
+        }
+    }
+
+    private Optional<Invoice> awaitLoad(CompletableFuture<Optional<Invoice>> load) throws DatabaseOperationException {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DatabaseOperationException) {
+                throw (DatabaseOperationException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package pl.coderstrust.database.cache;
+
+public enum EvictionPolicy {
+    LRU,
+    LFU,
+    TTL
+}
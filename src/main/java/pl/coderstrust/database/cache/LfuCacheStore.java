@@ -0,0 +1,110 @@
+package pl.coderstrust.database.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class LfuCacheStore<K, V> implements CacheStore<K, V> {
+
+    private final int maximumSize;
+    private final Map<K, V> values = new HashMap<>();
+    private final Map<K, Integer> frequencies = new HashMap<>();
+    private final Map<Integer, LinkedHashSet<K>> keysByFrequency = new HashMap<>();
+    private int minimumFrequency;
+    private long evictionCount;
+
+    public LfuCacheStore(int maximumSize) {
+        ArgumentValidator.ensurePositive(maximumSize, "maximumSize");
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public V get(K key) {
+        V value = values.get(key);
+        if (value != null) {
+            incrementFrequency(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (values.containsKey(key)) {
+            values.put(key, value);
+            incrementFrequency(key);
+            return;
+        }
+        if (values.size() >= maximumSize) {
+            evictLeastFrequentlyUsed();
+        }
+        values.put(key, value);
+        frequencies.put(key, 1);
+        keysByFrequency.computeIfAbsent(1, frequency -> new LinkedHashSet<>()).add(key);
+        minimumFrequency = 1;
+    }
+
+    @Override
+    public void remove(K key) {
+        if (values.remove(key) == null) {
+            return;
+        }
+        Integer frequency = frequencies.remove(key);
+        LinkedHashSet<K> keys = keysByFrequency.get(frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            keysByFrequency.remove(frequency);
+        }
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+        frequencies.clear();
+        keysByFrequency.clear();
+        minimumFrequency = 0;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void incrementFrequency(K key) {
+        int frequency = frequencies.get(key);
+        LinkedHashSet<K> keys = keysByFrequency.get(frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            keysByFrequency.remove(frequency);
+            if (minimumFrequency == frequency) {
+                minimumFrequency++;
+            }
+        }
+        frequencies.put(key, frequency + 1);
+        keysByFrequency.computeIfAbsent(frequency + 1, newFrequency -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void evictLeastFrequentlyUsed() {
+        LinkedHashSet<K> keys = keysByFrequency.get(minimumFrequency);
+        if (keys == null) {
+            minimumFrequency = keysByFrequency.keySet().stream().min(Integer::compare).orElse(0);
+            keys = keysByFrequency.get(minimumFrequency);
+        }
+        Iterator<K> iterator = keys.iterator();
+        K leastFrequentlyUsedKey = iterator.next();
+        iterator.remove();
+        if (keys.isEmpty()) {
+            keysByFrequency.remove(minimumFrequency);
+        }
+        values.remove(leastFrequentlyUsedKey);
+        frequencies.remove(leastFrequentlyUsedKey);
+        evictionCount++;
+    }
+}
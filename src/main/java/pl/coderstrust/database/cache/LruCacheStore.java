@@ -0,0 +1,56 @@
+package pl.coderstrust.database.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class LruCacheStore<K, V> implements CacheStore<K, V> {
+
+    private final Map<K, V> entries;
+    private long evictionCount;
+
+    public LruCacheStore(int maximumSize) {
+        ArgumentValidator.ensurePositive(maximumSize, "maximumSize");
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public V get(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+}
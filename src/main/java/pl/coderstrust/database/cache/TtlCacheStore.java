@@ -0,0 +1,101 @@
+package pl.coderstrust.database.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class TtlCacheStore<K, V> implements CacheStore<K, V> {
+
+    private final int maximumSize;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Map<K, ExpiringValue<V>> entries = new LinkedHashMap<>();
+    private long evictionCount;
+
+    public TtlCacheStore(int maximumSize, Duration timeToLive, Clock clock) {
+        ArgumentValidator.ensurePositive(maximumSize, "maximumSize");
+        ArgumentValidator.ensureNotNull(timeToLive, "timeToLive");
+        ArgumentValidator.ensureNotNull(clock, "clock");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be greater than zero");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    @Override
+    public V get(K key) {
+        ExpiringValue<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(key);
+            evictionCount++;
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Instant now = clock.instant();
+        entries.remove(key);
+        removeExpired(now);
+        if (entries.size() >= maximumSize) {
+            Iterator<ExpiringValue<V>> iterator = entries.values().iterator();
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+        entries.put(key, new ExpiringValue<>(value, now.plus(timeToLive)));
+    }
+
+    @Override
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void removeExpired(Instant now) {
+        Iterator<ExpiringValue<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().isExpired(now)) {
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static class ExpiringValue<V> {
+        private final V value;
+        private final Instant expiresAt;
+
+        ExpiringValue(V value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package pl.coderstrust.database.event;
+
+import java.util.Objects;
+
+import pl.coderstrust.model.Invoice;
+
+public final class InvoiceChangeEvent {
+
+    private final long sequence;
+    private final InvoiceChangeType type;
+    private final Long invoiceId;
+    private final Invoice invoice;
+
+    public InvoiceChangeEvent(long sequence, InvoiceChangeType type, Long invoiceId, Invoice invoice) {
+        this.sequence = sequence;
+        this.type = type;
+        this.invoiceId = invoiceId;
+        this.invoice = invoice;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public InvoiceChangeType getType() {
+        return type;
+    }
+
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public Invoice getInvoice() {
+        return invoice;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        InvoiceChangeEvent that = (InvoiceChangeEvent) o;
+        return sequence == that.sequence
+            && type == that.type
+            && Objects.equals(invoiceId, that.invoiceId)
+            && Objects.equals(invoice, that.invoice);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, type, invoiceId, invoice);
+    }
+
+    @Override
+    public String toString() {
+        return "InvoiceChangeEvent{"
+            + "sequence=" + sequence
+            + ", type=" + type
+            + ", invoiceId=" + invoiceId
+            + '}';
+    }
+}
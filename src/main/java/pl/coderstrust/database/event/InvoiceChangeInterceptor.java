@@ -0,0 +1,72 @@
+package pl.coderstrust.database.event;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import pl.coderstrust.database.PartialWriteException;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoiceChangeInterceptor implements MethodInterceptor {
+
+    public static final String[] INTERCEPTED_METHODS = {"saveInvoice", "saveInvoices", "deleteInvoice", "deleteInvoices", "deleteAllInvoices"};
+
+    private final InvoiceChangePublisher publisher;
+
+    public InvoiceChangeInterceptor(InvoiceChangePublisher publisher) {
+        ArgumentValidator.ensureNotNull(publisher, "publisher");
+        this.publisher = publisher;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (PartialWriteException e) {
+            publishPartialWrite(e);
+            throw e;
+        }
+        Object[] arguments = invocation.getArguments();
+        switch (invocation.getMethod().getName()) {
+            case "saveInvoice":
+                publishSaved((Invoice) arguments[0], (Invoice) result);
+                break;
+            case "saveInvoices":
+                Iterator<Invoice> savedInvoices = ((List<Invoice>) result).iterator();
+                for (Invoice invoice : (Collection<Invoice>) arguments[0]) {
+                    publishSaved(invoice, savedInvoices.next());
+                }
+                break;
+            case "deleteInvoice":
+                publisher.publish(InvoiceChangeType.DELETED, (Long) arguments[0], null);
+                break;
+            case "deleteInvoices":
+                ((Collection<Long>) arguments[0]).stream().distinct().forEach(id -> publisher.publish(InvoiceChangeType.DELETED, id, null));
+                break;
+            case "deleteAllInvoices":
+                publisher.publish(InvoiceChangeType.ALL_DELETED, null, null);
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+
+    private void publishPartialWrite(PartialWriteException exception) {
+        Iterator<Invoice> savedInvoices = exception.getSavedInvoices().iterator();
+        for (Invoice invoice : exception.getAppliedInvoices()) {
+            publishSaved(invoice, savedInvoices.next());
+        }
+        exception.getDeletedIds().stream().distinct().forEach(id -> publisher.publish(InvoiceChangeType.DELETED, id, null));
+    }
+
+    private void publishSaved(Invoice invoice, Invoice savedInvoice) {
+        InvoiceChangeType type = invoice.getId() == null ? InvoiceChangeType.INSERTED : InvoiceChangeType.UPDATED;
+        publisher.publish(type, savedInvoice.getId(), savedInvoice);
+    }
+}
@@ -0,0 +1,10 @@
+package pl.coderstrust.database.event;
+
+@FunctionalInterface
+public interface InvoiceChangeListener {
+
+    void onChange(InvoiceChangeEvent event);
+
+    default void onEventsMissed(long fromSequence, long toSequence) {
+    }
+}
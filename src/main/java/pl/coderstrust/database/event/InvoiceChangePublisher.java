@@ -0,0 +1,115 @@
+package pl.coderstrust.database.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoiceChangePublisher {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static Logger log = LoggerFactory.getLogger(InvoiceChangePublisher.class);
+
+    private final InvoiceChangeRingBuffer ringBuffer;
+    private final List<InvoiceChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public InvoiceChangePublisher(InvoiceChangeRingBuffer ringBuffer) {
+        ArgumentValidator.ensureNotNull(ringBuffer, "ringBuffer");
+        this.ringBuffer = ringBuffer;
+        this.dispatcher = new Thread(this::dispatch, "invoice-change-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public long publish(InvoiceChangeType type, Long invoiceId, Invoice invoice) {
+        long sequence = ringBuffer.publish(type, invoiceId, invoice);
+        if (!subscriptions.isEmpty()) {
+            LockSupport.unpark(dispatcher);
+        }
+        return sequence;
+    }
+
+    public long getPublishedSequence() {
+        return ringBuffer.getPublishedSequence();
+    }
+
+    public InvoiceChangeSubscription subscribe(InvoiceChangeListener listener) {
+        return subscribe(listener, ringBuffer.getPublishedSequence() + 1);
+    }
+
+    public InvoiceChangeSubscription subscribe(InvoiceChangeListener listener, long fromSequence) {
+        ArgumentValidator.ensureNotNull(listener, "listener");
+        ArgumentValidator.ensurePositive(fromSequence, "fromSequence");
+        log.debug("Subscribing {} to invoice changes from sequence {}", listener, fromSequence);
+        InvoiceChangeSubscription subscription = new InvoiceChangeSubscription(listener, fromSequence);
+        subscriptions.add(subscription);
+        LockSupport.unpark(dispatcher);
+        return subscription;
+    }
+
+    public void shutdown() {
+        log.debug("Stopping invoice change dispatcher");
+        running = false;
+        LockSupport.unpark(dispatcher);
+    }
+
+    private void dispatch() {
+        while (running) {
+            boolean delivered = false;
+            for (InvoiceChangeSubscription subscription : subscriptions) {
+                if (subscription.isCancelled()) {
+                    subscriptions.remove(subscription);
+                } else {
+                    delivered |= deliver(subscription);
+                }
+            }
+            if (!delivered) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean deliver(InvoiceChangeSubscription subscription) {
+        long nextSequence = subscription.getNextSequence();
+        long publishedSequence = ringBuffer.getPublishedSequence();
+        boolean delivered = false;
+        while (nextSequence <= publishedSequence && !subscription.isCancelled()) {
+            InvoiceChangeEvent event = ringBuffer.get(nextSequence);
+            if (event == null) {
+                long oldestAvailableSequence = Math.min(ringBuffer.getOldestAvailableSequence(), publishedSequence + 1);
+                log.error("Invoice change events from {} to {} were overwritten before delivery", nextSequence, oldestAvailableSequence - 1);
+                notifyMissed(subscription, nextSequence, oldestAvailableSequence - 1);
+                nextSequence = Math.max(oldestAvailableSequence, nextSequence + 1);
+            } else {
+                notifyChange(subscription, event);
+                nextSequence++;
+            }
+            subscription.advanceTo(nextSequence);
+            delivered = true;
+        }
+        return delivered;
+    }
+
+    private void notifyChange(InvoiceChangeSubscription subscription, InvoiceChangeEvent event) {
+        try {
+            subscription.getListener().onChange(event);
+        } catch (RuntimeException e) {
+            log.error("Invoice change listener failed to process event {}", event, e);
+        }
+    }
+
+    private void notifyMissed(InvoiceChangeSubscription subscription, long fromSequence, long toSequence) {
+        try {
+            subscription.getListener().onEventsMissed(fromSequence, toSequence);
+        } catch (RuntimeException e) {
+            log.error("Invoice change listener failed to process missed events", e);
+        }
+    }
+}
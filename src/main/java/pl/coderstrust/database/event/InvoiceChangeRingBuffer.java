@@ -0,0 +1,58 @@
+package pl.coderstrust.database.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoiceChangeRingBuffer {
+
+    private final AtomicReferenceArray<InvoiceChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong claimedSequence = new AtomicLong();
+    private final AtomicLong publishedSequence = new AtomicLong();
+
+    public InvoiceChangeRingBuffer(int capacity) {
+        ArgumentValidator.ensurePositive(capacity, "capacity");
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public long publish(InvoiceChangeType type, Long invoiceId, Invoice invoice) {
+        ArgumentValidator.ensureNotNull(type, "type");
+        long sequence = claimedSequence.incrementAndGet();
+        slots.set(index(sequence), new InvoiceChangeEvent(sequence, type, invoiceId, invoice));
+        while (!publishedSequence.compareAndSet(sequence - 1, sequence)) {
+            Thread.yield();
+        }
+        return sequence;
+    }
+
+    public long getPublishedSequence() {
+        return publishedSequence.get();
+    }
+
+    public long getOldestAvailableSequence() {
+        return Math.max(1, claimedSequence.get() - slots.length() + 1);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public InvoiceChangeEvent get(long sequence) {
+        if (sequence < 1 || sequence > publishedSequence.get()) {
+            return null;
+        }
+        InvoiceChangeEvent event = slots.get(index(sequence));
+        return event != null && event.getSequence() == sequence ? event : null;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
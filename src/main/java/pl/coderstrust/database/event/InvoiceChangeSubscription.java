@@ -0,0 +1,35 @@
+package pl.coderstrust.database.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InvoiceChangeSubscription {
+
+    private final InvoiceChangeListener listener;
+    private final AtomicLong nextSequence;
+    private volatile boolean cancelled;
+
+    InvoiceChangeSubscription(InvoiceChangeListener listener, long nextSequence) {
+        this.listener = listener;
+        this.nextSequence = new AtomicLong(nextSequence);
+    }
+
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    InvoiceChangeListener getListener() {
+        return listener;
+    }
+
+    void advanceTo(long sequence) {
+        nextSequence.set(sequence);
+    }
+}
@@ -0,0 +1,8 @@
+package pl.coderstrust.database.event;
+
+public enum InvoiceChangeType {
+    INSERTED,
+    UPDATED,
+    DELETED,
+    ALL_DELETED
+}
@@ -4,25 +4,36 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.input.ReversedLinesFileReader;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import pl.coderstrust.configuration.ConditionalOnDatabaseBackend;
 import pl.coderstrust.configuration.InFileDatabaseProperties;
 
-@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-file")
+@ConditionalOnDatabaseBackend("in-file")
 @Component
 public class FileHelper {
     private static final String EMPTY_STRING = "";
     private File file;
 
+    @FunctionalInterface
+    public interface LineTransformer {
+        String transform(String line) throws IOException;
+    }
+
     public FileHelper(InFileDatabaseProperties properties) {
         this.file = new File(properties.getFilePath());
     }
@@ -58,6 +69,53 @@ public class FileHelper {
         writeToFile(true, line);
     }
 
+    public void writeLines(Collection<String> lines) throws IOException {
+        validateFileExistance("Failed to write given lines");
+        if (lines.isEmpty()) {
+            return;
+        }
+        boolean firstLine = this.isEmpty();
+        try (FileOutputStream outputStream = new FileOutputStream(this.file, true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                if (!firstLine) {
+                    writer.newLine();
+                }
+                writer.write(line);
+                firstLine = false;
+            }
+            writer.flush();
+            outputStream.getFD().sync();
+        }
+    }
+
+    public void rewriteLines(LineTransformer transformer) throws IOException {
+        validateFileExistance("Failed to rewrite lines");
+        File newFile = new File(this.file.getAbsoluteFile().getParentFile(), this.file.getName() + ".tmp");
+        try (Stream<String> lines = Files.lines(this.file.toPath());
+             FileOutputStream outputStream = new FileOutputStream(newFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            Iterator<String> iterator = lines.iterator();
+            boolean firstLine = true;
+            while (iterator.hasNext()) {
+                String line = transformer.transform(iterator.next());
+                if (line != null) {
+                    if (!firstLine) {
+                        writer.newLine();
+                    }
+                    writer.write(line);
+                    firstLine = false;
+                }
+            }
+            writer.flush();
+            outputStream.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(newFile.toPath());
+            throw e;
+        }
+        Files.move(newFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
     public List<String> readLinesFromFile() throws IOException {
         validateFileExistance("Failed to read lines");
         List<String> fileLines;
@@ -67,6 +125,11 @@ public class FileHelper {
         return fileLines;
     }
 
+    public Stream<String> streamLines() throws IOException {
+        validateFileExistance("Failed to stream lines");
+        return Files.lines(this.file.toPath());
+    }
+
     public String readLastLine() throws IOException {
         validateFileExistance("Failed to read last line");
         try (ReversedLinesFileReader reader = new ReversedLinesFileReader(this.file)) {
@@ -2,24 +2,38 @@ package pl.coderstrust.database.file;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+import pl.coderstrust.configuration.ConditionalOnDatabaseBackend;
 import pl.coderstrust.configuration.InFileDatabaseProperties;
 import pl.coderstrust.controller.InvoiceController;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoicePageCollector;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersions;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
 
-@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-file")
+@ConditionalOnDatabaseBackend("in-file")
 @Repository
 public class InFileDatabase implements Database {
 
@@ -50,6 +64,120 @@ public class InFileDatabase implements Database {
         return update(invoice);
     }
 
+    @Override
+    public synchronized List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Saving {} invoices", invoices.size());
+        Set<Long> missingIds = new HashSet<>();
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            if (invoice.getId() != null) {
+                missingIds.add(invoice.getId());
+            }
+        }
+        if (invoices.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            if (!fileHelper.isExist()) {
+                fileHelper.create();
+            }
+            AtomicLong highestId = new AtomicLong();
+            Map<Long, Long> storedVersions = new HashMap<>();
+            forEachInvoice(invoice -> {
+                if (missingIds.remove(invoice.getId())) {
+                    storedVersions.put(invoice.getId(), InvoiceVersions.getVersion(invoice));
+                }
+                highestId.accumulateAndGet(invoice.getId(), Math::max);
+            });
+            ensureNoMissingIds(missingIds);
+            for (Invoice invoice : invoices) {
+                if (invoice.getId() != null) {
+                    InvoiceVersions.ensureVersionMatches(invoice, storedVersions.get(invoice.getId()));
+                }
+            }
+            long nextId = highestId.get() + 1;
+            List<Invoice> savedInvoices = new ArrayList<>(invoices.size());
+            List<String> insertedInvoicesAsJson = new ArrayList<>();
+            Map<Long, Invoice> updatedInvoices = new HashMap<>();
+            for (Invoice invoice : invoices) {
+                Long id = invoice.getId() != null ? invoice.getId() : nextId++;
+                long version = invoice.getId() != null ? storedVersions.get(id) + 1 : InvoiceVersions.INITIAL_VERSION;
+                Invoice savedInvoice = InvoiceVersions.withVersion(invoice, id, version);
+                savedInvoices.add(savedInvoice);
+                if (invoice.getId() == null) {
+                    insertedInvoicesAsJson.add(mapper.writeValueAsString(savedInvoice));
+                } else {
+                    updatedInvoices.put(id, savedInvoice);
+                }
+            }
+            if (!updatedInvoices.isEmpty()) {
+                fileHelper.rewriteLines(line -> {
+                    Invoice updatedInvoice = updatedInvoices.get(mapper.readValue(line, Invoice.class).getId());
+                    return updatedInvoice == null ? line : mapper.writeValueAsString(updatedInvoice);
+                });
+            }
+            fileHelper.writeLines(insertedInvoicesAsJson);
+            log.debug("{} invoices inserted and {} updated", insertedInvoicesAsJson.size(), updatedInvoices.size());
+            return savedInvoices;
+        } catch (IOException e) {
+            log.error(IO_EXCEPTION_MESSAGE);
+            throw new DatabaseOperationException(IO_EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    @Override
+    public synchronized void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Importing {} invoices", invoices.size());
+        List<String> invoicesAsJson = new ArrayList<>(invoices.size());
+        try {
+            for (Invoice invoice : invoices) {
+                ArgumentValidator.ensureNotNull(invoice, "invoice");
+                ArgumentValidator.ensureNotNull(invoice.getId(), "id");
+                invoicesAsJson.add(mapper.writeValueAsString(InvoiceVersions.withVersion(invoice, invoice.getId(), InvoiceVersions.getVersion(invoice))));
+            }
+            if (!fileHelper.isExist()) {
+                fileHelper.create();
+            }
+            fileHelper.writeLines(invoicesAsJson);
+        } catch (IOException e) {
+            log.error(IO_EXCEPTION_MESSAGE);
+            throw new DatabaseOperationException(IO_EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    @Override
+    public synchronized void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        log.debug("Deleting {} invoices", ids.size());
+        Set<Long> deletedIds = new HashSet<>();
+        for (Long id : ids) {
+            ArgumentValidator.ensureNotNull(id, "id");
+            deletedIds.add(id);
+        }
+        if (deletedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missingIds = new HashSet<>(deletedIds);
+        forEachInvoice(invoice -> missingIds.remove(invoice.getId()));
+        ensureNoMissingIds(missingIds);
+        try {
+            fileHelper.rewriteLines(line -> deletedIds.contains(mapper.readValue(line, Invoice.class).getId()) ? null : line);
+        } catch (IOException e) {
+            log.error(IO_EXCEPTION_MESSAGE);
+            throw new DatabaseOperationException(IO_EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    private void ensureNoMissingIds(Set<Long> missingIds) throws DatabaseOperationException {
+        if (!missingIds.isEmpty()) {
+            String message = String.format("Invoices with following ids do not exist: %s", missingIds);
+            log.error(message);
+            throw new DatabaseOperationException(message);
+        }
+    }
+
     @Override
     public synchronized void deleteInvoice(Long id) throws DatabaseOperationException {
         log.debug("Deleting invoice by id: {}", id);
@@ -110,6 +238,75 @@ public class InFileDatabase implements Database {
         return invoices;
     }
 
+    @Override
+    public synchronized List<Invoice> getInvoicesPage(Long afterId, int limit) throws DatabaseOperationException {
+        log.debug("Getting {} invoices after id: {}", limit, afterId);
+        InvoicePageCollector pageCollector = new InvoicePageCollector(afterId, limit);
+        forEachInvoice(pageCollector::offer);
+        return pageCollector.getPage();
+    }
+
+    @Override
+    public synchronized List<Invoice> findInvoices(InvoiceQuery query) throws DatabaseOperationException {
+        log.debug("Finding invoices matching query: {}", query);
+        ArgumentValidator.ensureNotNull(query, "query");
+        if (query.getLimit() != null) {
+            InvoicePageCollector pageCollector = new InvoicePageCollector(null, query.getLimit());
+            forEachInvoice(invoice -> {
+                if (query.matches(invoice)) {
+                    pageCollector.offer(invoice);
+                }
+            });
+            return pageCollector.getPage();
+        }
+        List<Invoice> invoices = new ArrayList<>();
+        forEachInvoice(invoice -> {
+            if (query.matches(invoice)) {
+                invoices.add(invoice);
+            }
+        });
+        invoices.sort(Comparator.comparing(Invoice::getId));
+        return invoices;
+    }
+
+    @Override
+    public synchronized void forEachInvoice(Consumer<Invoice> consumer) throws DatabaseOperationException {
+        log.debug("Streaming all invoices");
+        ArgumentValidator.ensureNotNull(consumer, "consumer");
+        try (Stream<String> invoicesAsJson = fileHelper.streamLines()) {
+            Iterator<String> iterator = invoicesAsJson.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(mapper.readValue(iterator.next(), Invoice.class));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.error(IO_EXCEPTION_MESSAGE);
+            throw new DatabaseOperationException(IO_EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    @Override
+    public Flux<Invoice> streamInvoices() {
+        return Flux.using(this::openInvoicesStream,
+            invoicesAsJson -> Flux.fromIterable(invoicesAsJson::iterator)
+                .<Invoice>handle((invoiceAsJson, sink) -> {
+                    try {
+                        sink.next(mapper.readValue(invoiceAsJson, Invoice.class));
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                }),
+            Stream::close)
+            .onErrorMap(e -> e instanceof IOException || e instanceof UncheckedIOException, e -> {
+                log.error(IO_EXCEPTION_MESSAGE);
+                return new DatabaseOperationException(IO_EXCEPTION_MESSAGE, e);
+            });
+    }
+
+    private Stream<String> openInvoicesStream() throws IOException {
+        log.debug("Opening invoices stream");
+        return fileHelper.streamLines();
+    }
+
     @Override
     public synchronized void deleteAllInvoices() throws DatabaseOperationException {
         log.debug("Deleting all invoices");
@@ -164,7 +361,7 @@ public class InFileDatabase implements Database {
         }
         Invoice insertedInvoice;
         Long id = getNextId();
-        insertedInvoice = new Invoice(id, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+        insertedInvoice = InvoiceVersions.withVersion(invoice, id, InvoiceVersions.INITIAL_VERSION);
         try {
             fileHelper.writeLine(mapper.writeValueAsString(insertedInvoice));
             log.debug("Invoice with assigned id : {} added successfully. {}", id, invoice);
@@ -177,8 +374,15 @@ public class InFileDatabase implements Database {
 
     private Invoice update(Invoice invoice) throws DatabaseOperationException {
         log.debug("Updating invoice: {}", invoice);
+        Optional<Invoice> storedInvoice = getInvoice(invoice.getId());
+        if (!storedInvoice.isPresent()) {
+            String message = String.format("Failed to update invoice. Invoice with following id is not exist: %d", invoice.getId());
+            log.error(message);
+            throw new DatabaseOperationException(message);
+        }
+        InvoiceVersions.ensureVersionMatches(invoice, storedInvoice.get());
         try {
-            Invoice updatedInvoice = new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+            Invoice updatedInvoice = InvoiceVersions.withVersion(invoice, invoice.getId(), InvoiceVersions.nextVersion(storedInvoice.get()));
             fileHelper.writeLine(mapper.writeValueAsString(updatedInvoice));
             deleteInvoice(invoice.getId());
             log.debug("Invoice: {} updated successfully", invoice);
@@ -190,6 +394,10 @@ public class InFileDatabase implements Database {
     }
 
     private Long getNextId() throws DatabaseOperationException {
-        return countInvoices() + 1;
+        long highestId = 0;
+        for (Invoice invoice : getAllInvoices()) {
+            highestId = Math.max(highestId, invoice.getId());
+        }
+        return highestId + 1;
     }
 }
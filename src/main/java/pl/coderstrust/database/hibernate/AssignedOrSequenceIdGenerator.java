@@ -0,0 +1,59 @@
+package pl.coderstrust.database.hibernate;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManager;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+public class AssignedOrSequenceIdGenerator extends SequenceStyleGenerator {
+
+    public static final String KEEP_ASSIGNED_IDS = "pl.coderstrust.keepAssignedIds";
+
+    private final AtomicLong usedIdsUpTo = new AtomicLong();
+    private volatile Optimizer optimizer;
+    private long initialValue;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        initialValue = determineInitialValue(params);
+        optimizer = getOptimizer();
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        if (keepsAssignedIds(session)) {
+            Serializable id = session.getEntityPersister(null, object).getIdentifier(object, session);
+            if (id != null) {
+                return id;
+            }
+        }
+        AccessCallback callback = getDatabaseStructure().buildCallback(session);
+        Serializable id = optimizer.generate(callback);
+        if (((Number) id).longValue() <= usedIdsUpTo.get()) {
+            // taken from a pool fetched before the sequence was moved above imported ids, the replaced optimizer fetches a new one
+            id = optimizer.generate(callback);
+        }
+        return id;
+    }
+
+    public void skipIdsUpTo(long id) {
+        Optimizer currentOptimizer = getOptimizer();
+        optimizer = OptimizerFactory.buildOptimizer(currentOptimizer.getClass().getName(), getIdentifierType().getReturnedClass(), currentOptimizer.getIncrementSize(), initialValue);
+        usedIdsUpTo.accumulateAndGet(id, Math::max);
+    }
+
+    private boolean keepsAssignedIds(SharedSessionContractImplementor session) {
+        return session instanceof EntityManager && Boolean.TRUE.equals(((EntityManager) session).getProperties().get(KEEP_ASSIGNED_IDS));
+    }
+}
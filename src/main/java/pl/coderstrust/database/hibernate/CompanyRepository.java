@@ -0,0 +1,14 @@
+package pl.coderstrust.database.hibernate;
+
+import java.util.List;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import pl.coderstrust.model.Company;
+
+public interface CompanyRepository extends JpaRepository<Company, Long> {
+
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    List<Company> findByTaxIdOrderByIdAsc(String taxId);
+}
@@ -0,0 +1,111 @@
+package pl.coderstrust.database.hibernate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.coderstrust.configuration.ConditionalOnDatabaseBackend;
+import pl.coderstrust.database.cache.CacheStore;
+import pl.coderstrust.database.cache.LruCacheStore;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@ConditionalOnDatabaseBackend("hibernate")
+@Component
+public class CompanyResolver {
+
+    private static final int MAXIMUM_COMMITTED_COMPANIES = 10000;
+
+    private static Logger log = LoggerFactory.getLogger(CompanyResolver.class);
+
+    private final CompanyRepository companyRepository;
+    private final CacheStore<List<String>, Company> committedCompanies = new LruCacheStore<>(MAXIMUM_COMMITTED_COMPANIES);
+
+    public CompanyResolver(CompanyRepository companyRepository) {
+        ArgumentValidator.ensureNotNull(companyRepository, "companyRepository");
+        this.companyRepository = companyRepository;
+    }
+
+    public Company resolve(Company company) {
+        if (company == null) {
+            return null;
+        }
+        if (company.getTaxId() == null) {
+            log.debug("Saving company without tax id: {}", company);
+            return companyRepository.save(withoutId(company));
+        }
+        List<String> details = getDetails(company);
+        Map<List<String>, Company> transactionCompanies = getTransactionCompanies();
+        Company resolvedCompany = transactionCompanies != null ? transactionCompanies.get(details) : null;
+        if (resolvedCompany == null) {
+            resolvedCompany = getCommittedCompany(details);
+        }
+        if (resolvedCompany == null) {
+            resolvedCompany = companyRepository.findByTaxIdOrderByIdAsc(company.getTaxId()).stream()
+                .filter(storedCompany -> getDetails(storedCompany).equals(details))
+                .findFirst()
+                .orElse(null);
+        }
+        if (resolvedCompany == null) {
+            log.debug("Saving company with tax id: {}", company.getTaxId());
+            resolvedCompany = companyRepository.save(withoutId(company));
+        }
+        if (transactionCompanies != null) {
+            transactionCompanies.put(details, resolvedCompany);
+        } else {
+            putCommittedCompany(details, resolvedCompany);
+        }
+        return resolvedCompany;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<List<String>, Company> getTransactionCompanies() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<List<String>, Company> transactionCompanies = (Map<List<String>, Company>) TransactionSynchronizationManager.getResource(this);
+        if (transactionCompanies == null) {
+            Map<List<String>, Company> companies = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, companies);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    companies.forEach(CompanyResolver.this::putCommittedCompany);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CompanyResolver.this);
+                }
+            });
+            transactionCompanies = companies;
+        }
+        return transactionCompanies;
+    }
+
+    private Company getCommittedCompany(List<String> details) {
+        synchronized (committedCompanies) {
+            return committedCompanies.get(details);
+        }
+    }
+
+    private void putCommittedCompany(List<String> details, Company company) {
+        synchronized (committedCompanies) {
+            committedCompanies.put(details, company);
+        }
+    }
+
+    private List<String> getDetails(Company company) {
+        return Arrays.asList(company.getName(), company.getAddress(), company.getTaxId(), company.getAccountNumber(), company.getPhoneNumber(), company.getEmail());
+    }
+
+    private Company withoutId(Company company) {
+        return new Company(null, company.getName(), company.getAddress(), company.getTaxId(), company.getAccountNumber(), company.getPhoneNumber(), company.getEmail());
+    }
+}
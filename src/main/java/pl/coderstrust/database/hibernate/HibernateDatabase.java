@@ -1,69 +1,287 @@
 package pl.coderstrust.database.hibernate;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.configuration.ConditionalOnDatabaseBackend;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersionConflictException;
+import pl.coderstrust.database.InvoiceVersions;
+import pl.coderstrust.model.Company;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
 
-@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "hibernate")
+@ConditionalOnDatabaseBackend("hibernate")
 @Repository
 public class HibernateDatabase implements Database {
 
+    private static final int FLUSH_SIZE = 50;
+    private static final int DELETE_CHUNK_SIZE = 1000;
     private static Logger log = LoggerFactory.getLogger(HibernateDatabase.class);
 
     @Autowired
     private InvoiceRepository invoiceRepository;
 
-    public HibernateDatabase(InvoiceRepository invoiceRepository) {
+    @Autowired
+    private CompanyResolver companyResolver;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final AtomicLong highestImportedId = new AtomicLong();
+    private long sequenceMovedTo;
+
+    public HibernateDatabase(InvoiceRepository invoiceRepository, CompanyResolver companyResolver, EntityManager entityManager) {
         log.debug("Launching to HibernateDatabase");
         ArgumentValidator.ensureNotNull(invoiceRepository, "invoiceRepository");
+        ArgumentValidator.ensureNotNull(companyResolver, "companyResolver");
+        ArgumentValidator.ensureNotNull(entityManager, "entityManager");
         this.invoiceRepository = invoiceRepository;
+        this.companyResolver = companyResolver;
+        this.entityManager = entityManager;
     }
 
     @Override
-    public Invoice saveInvoice(Invoice invoice) {
+    @Transactional(rollbackFor = DatabaseOperationException.class)
+    public Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
         log.debug("Saving invoice: {}", invoice);
         ArgumentValidator.ensureNotNull(invoice, "invoice");
-        return invoiceRepository.save(invoice);
+        Long version = invoice.getVersion();
+        if (invoice.getId() != null) {
+            Optional<Long> storedVersion = invoiceRepository.lockVersionById(invoice.getId());
+            if (!storedVersion.isPresent()) {
+                String message = String.format("Invoice with following id does not exist: %d", invoice.getId());
+                log.error(message);
+                throw new DatabaseOperationException(message);
+            }
+            InvoiceVersions.ensureVersionMatches(invoice, storedVersion.get());
+            version = storedVersion.get();
+        }
+        Company seller = companyResolver.resolve(invoice.getSeller());
+        Company buyer = companyResolver.resolve(invoice.getBuyer());
+        try {
+            return invoiceRepository.save(new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), seller, buyer, invoice.getEntries(), version));
+        } catch (OptimisticLockingFailureException e) {
+            String message = String.format("Invoice with id %d was modified concurrently", invoice.getId());
+            log.error(message);
+            throw new InvoiceVersionConflictException(message, e);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = DatabaseOperationException.class)
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Saving {} invoices", invoices.size());
+        List<Invoice> savedInvoices = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            savedInvoices.add(saveInvoice(invoice));
+            if (savedInvoices.size() % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return savedInvoices;
+    }
+
+    @Override
+    @Transactional(rollbackFor = DatabaseOperationException.class)
+    public void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Importing {} invoices", invoices.size());
+        long highestId = 0;
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            ArgumentValidator.ensureNotNull(invoice.getId(), "id");
+            highestId = Math.max(highestId, invoice.getId());
+        }
+        moveSequenceAbove(highestId);
+        getInvoiceIdGenerator().skipIdsUpTo(highestImportedId.get());
+        int importedInvoices = 0;
+        entityManager.setProperty(AssignedOrSequenceIdGenerator.KEEP_ASSIGNED_IDS, true);
+        try {
+            for (Invoice invoice : invoices) {
+                Company seller = companyResolver.resolve(invoice.getSeller());
+                Company buyer = companyResolver.resolve(invoice.getBuyer());
+                entityManager.merge(new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), seller, buyer, invoice.getEntries(), null));
+                if (++importedInvoices % FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            String message = "An error occurred during importing invoices, some of them probably already exist";
+            log.error(message);
+            throw new DatabaseOperationException(message, e);
+        } finally {
+            entityManager.setProperty(AssignedOrSequenceIdGenerator.KEEP_ASSIGNED_IDS, false);
+        }
+    }
+
+    private AssignedOrSequenceIdGenerator getInvoiceIdGenerator() {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return (AssignedOrSequenceIdGenerator) sessionFactory.getMetamodel().entityPersister(Invoice.class).getIdentifierGenerator();
+    }
+
+    private void moveSequenceAbove(long importedId) {
+        Long highestStoredId = entityManager.createQuery("SELECT MAX(i.id) FROM Invoice i", Long.class).getSingleResult();
+        highestImportedId.accumulateAndGet(Math.max(importedId, highestStoredId != null ? highestStoredId : 0), Math::max);
+        synchronized (highestImportedId) {
+            long sequenceValue = highestImportedId.get();
+            if (sequenceValue > sequenceMovedTo) {
+                log.debug("Moving invoice sequence to {}", sequenceValue);
+                entityManager.createNativeQuery("SELECT setval('invoice_seq', ?1)").setParameter(1, sequenceValue).getSingleResult();
+                sequenceMovedTo = sequenceValue;
+            }
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = DatabaseOperationException.class)
+    public void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        log.debug("Deleting {} invoices", ids.size());
+        Set<Long> idsToDelete = new HashSet<>();
+        for (Long id : ids) {
+            ArgumentValidator.ensureNotNull(id, "id");
+            idsToDelete.add(id);
+        }
+        List<Long> uniqueIds = new ArrayList<>(idsToDelete);
+        int deletedInvoices = 0;
+        for (int start = 0; start < uniqueIds.size(); start += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = uniqueIds.subList(start, Math.min(start + DELETE_CHUNK_SIZE, uniqueIds.size()));
+            invoiceRepository.deleteEntriesByInvoiceIds(chunk);
+            deletedInvoices += invoiceRepository.deleteInvoicesByIds(chunk);
+        }
+        if (deletedInvoices != uniqueIds.size()) {
+            String message = String.format("%d of passed invoice ids do not exist, no invoices were deleted", uniqueIds.size() - deletedInvoices);
+            log.error(message);
+            throw new DatabaseOperationException(message);
+        }
     }
 
     @Override
+    @Transactional
     public void deleteInvoice(Long id) throws DatabaseOperationException {
         log.debug("Deleting invoice by id: {}", id);
         ArgumentValidator.ensureNotNull(id, "id");
-        if (!invoiceRepository.existsById(id)) {
+        invoiceRepository.deleteEntriesByInvoiceId(id);
+        if (invoiceRepository.deleteInvoiceById(id) == 0) {
             String message = String.format("Invoice with following id does not exist: %d", id);
             log.error(message);
             throw new DatabaseOperationException(message);
         }
-        invoiceRepository.deleteById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Invoice> getInvoice(Long id) {
         log.debug("Getting invoice by id: {}", id);
         ArgumentValidator.ensureNotNull(id, "id");
-        return invoiceRepository.findById(id);
+        Optional<Invoice> invoice = invoiceRepository.findById(id);
+        invoice.ifPresent(foundInvoice -> Hibernate.initialize(foundInvoice.getEntries()));
+        return invoice;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Invoice> getAllInvoices() {
         log.debug("Getting all invoices");
-        return invoiceRepository.findAll();
+        return initializeEntries(invoiceRepository.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) {
+        log.debug("Getting {} invoices after id: {}", limit, afterId);
+        ArgumentValidator.ensurePositive(limit, "limit");
+        PageRequest firstPage = PageRequest.of(0, limit);
+        if (afterId == null) {
+            return initializeEntries(invoiceRepository.findAllByOrderByIdAsc(firstPage));
+        }
+        return initializeEntries(invoiceRepository.findByIdGreaterThanOrderByIdAsc(afterId, firstPage));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Invoice> findInvoices(InvoiceQuery query) {
+        log.debug("Finding invoices matching query: {}", query);
+        ArgumentValidator.ensureNotNull(query, "query");
+        TypedQuery<Invoice> typedQuery = entityManager.createQuery(InvoiceQueryTranslator.translate(entityManager.getCriteriaBuilder(), query));
+        if (query.getLimit() != null) {
+            typedQuery.setMaxResults(query.getLimit());
+        }
+        return initializeEntries(typedQuery.getResultList());
+    }
+
+    private List<Invoice> initializeEntries(List<Invoice> invoices) {
+        invoices.forEach(invoice -> Hibernate.initialize(invoice.getEntries()));
+        return invoices;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachInvoice(Consumer<Invoice> consumer) {
+        log.debug("Streaming all invoices");
+        ArgumentValidator.ensureNotNull(consumer, "consumer");
+        try (Stream<Invoice> invoices = invoiceRepository.streamAll()) {
+            invoices.forEach(invoice -> {
+                consumer.accept(invoice);
+                entityManager.detach(invoice);
+            });
+        }
+    }
+
+    @Override
+    public Flux<Invoice> streamInvoices() {
+        return Flux.using(this::openInvoiceScroll,
+            scroll -> Flux.<Invoice>generate(sink -> {
+                Invoice invoice = scroll.next();
+                if (invoice == null) {
+                    sink.complete();
+                } else {
+                    sink.next(invoice);
+                }
+            }),
+            InvoiceScroll::close);
+    }
+
+    private InvoiceScroll openInvoiceScroll() {
+        log.debug("Opening invoices scroll");
+        return new InvoiceScroll(entityManager.getEntityManagerFactory());
     }
 
     @Override
+    @Transactional
     public void deleteAllInvoices() {
         log.debug("Deleting all invoices");
-        invoiceRepository.deleteAll();
+        invoiceRepository.deleteAllEntriesInBulk();
+        int deletedInvoices = invoiceRepository.deleteAllInvoicesInBulk();
+        log.debug("{} invoices deleted", deletedInvoices);
     }
 
     @Override
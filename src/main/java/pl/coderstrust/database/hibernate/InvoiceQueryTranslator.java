@@ -0,0 +1,77 @@
+package pl.coderstrust.database.hibernate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+
+final class InvoiceQueryTranslator {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private InvoiceQueryTranslator() {
+    }
+
+    static CriteriaQuery<Invoice> translate(CriteriaBuilder criteriaBuilder, InvoiceQuery query) {
+        CriteriaQuery<Invoice> criteriaQuery = criteriaBuilder.createQuery(Invoice.class);
+        Root<Invoice> invoice = criteriaQuery.from(Invoice.class);
+        invoice.fetch("seller", JoinType.LEFT);
+        invoice.fetch("buyer", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        addDateRange(criteriaBuilder, predicates, invoice.get("issuedDate"), query.getIssuedFrom(), query.getIssuedTo());
+        addDateRange(criteriaBuilder, predicates, invoice.get("dueDate"), query.getDueFrom(), query.getDueTo());
+        if (query.getBuyerId() != null) {
+            predicates.add(criteriaBuilder.equal(invoice.get("buyer").get("id"), query.getBuyerId()));
+        }
+        if (query.getSellerId() != null) {
+            predicates.add(criteriaBuilder.equal(invoice.get("seller").get("id"), query.getSellerId()));
+        }
+        if (query.getNumberPrefix() != null) {
+            predicates.add(criteriaBuilder.like(invoice.get("number"), escapeLikePattern(query.getNumberPrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (query.getMinGrossTotal() != null) {
+            Predicate atLeastMin = criteriaBuilder.greaterThanOrEqualTo(grossTotal(criteriaBuilder, criteriaQuery, invoice), query.getMinGrossTotal());
+            predicates.add(query.getMinGrossTotal().signum() <= 0 ? criteriaBuilder.or(atLeastMin, criteriaBuilder.isEmpty(invoice.<List<InvoiceEntry>>get("entries"))) : atLeastMin);
+        }
+        if (query.getMaxGrossTotal() != null) {
+            Predicate atMostMax = criteriaBuilder.lessThanOrEqualTo(grossTotal(criteriaBuilder, criteriaQuery, invoice), query.getMaxGrossTotal());
+            predicates.add(query.getMaxGrossTotal().signum() >= 0 ? criteriaBuilder.or(atMostMax, criteriaBuilder.isEmpty(invoice.<List<InvoiceEntry>>get("entries"))) : atMostMax);
+        }
+
+        return criteriaQuery.select(invoice)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(criteriaBuilder.asc(invoice.get("id")));
+    }
+
+    private static void addDateRange(CriteriaBuilder criteriaBuilder, List<Predicate> predicates, Expression<LocalDate> date, LocalDate from, LocalDate to) {
+        if (from != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(date, from));
+        }
+        if (to != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(date, to));
+        }
+    }
+
+    private static Subquery<BigDecimal> grossTotal(CriteriaBuilder criteriaBuilder, CriteriaQuery<Invoice> criteriaQuery, Root<Invoice> invoice) {
+        Subquery<BigDecimal> grossTotal = criteriaQuery.subquery(BigDecimal.class);
+        Root<Invoice> correlatedInvoice = grossTotal.correlate(invoice);
+        Expression<BigDecimal> grossValue = correlatedInvoice.<Invoice, InvoiceEntry>join("entries").get("grossValue");
+        return grossTotal.select(criteriaBuilder.sum(grossValue));
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
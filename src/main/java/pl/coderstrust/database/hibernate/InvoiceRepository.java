@@ -1,7 +1,59 @@
 package pl.coderstrust.database.hibernate;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import pl.coderstrust.model.Invoice;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+
+    List<Invoice> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<Invoice> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")})
+    @Query("SELECT i FROM Invoice i LEFT JOIN FETCH i.seller LEFT JOIN FETCH i.buyer LEFT JOIN FETCH i.entries ORDER BY i.id")
+    Stream<Invoice> streamAll();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i.version FROM Invoice i WHERE i.id = :id")
+    Optional<Long> lockVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceEntry entry WHERE entry.id IN (SELECT e.id FROM Invoice i JOIN i.entries e WHERE i.id = :id)")
+    int deleteEntriesByInvoiceId(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Invoice i WHERE i.id = :id")
+    int deleteInvoiceById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceEntry entry WHERE entry.id IN (SELECT e.id FROM Invoice i JOIN i.entries e WHERE i.id IN :ids)")
+    int deleteEntriesByInvoiceIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Invoice i WHERE i.id IN :ids")
+    int deleteInvoicesByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceEntry")
+    int deleteAllEntriesInBulk();
+
+    @Modifying
+    @Query("DELETE FROM Invoice")
+    int deleteAllInvoicesInBulk();
 }
@@ -0,0 +1,60 @@
+package pl.coderstrust.database.hibernate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import pl.coderstrust.model.Invoice;
+
+class InvoiceScroll implements AutoCloseable {
+
+    private static final int FETCH_SIZE = 500;
+    private static final String QUERY = "SELECT i FROM Invoice i LEFT JOIN FETCH i.seller LEFT JOIN FETCH i.buyer LEFT JOIN FETCH i.entries ORDER BY i.id";
+
+    private final EntityManager entityManager;
+    private final EntityTransaction transaction;
+    private final ScrollableResults results;
+
+    InvoiceScroll(EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManagerFactory.createEntityManager();
+        try {
+            this.transaction = entityManager.getTransaction();
+            transaction.begin();
+            Session session = entityManager.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            this.results = session.createQuery(QUERY, Invoice.class)
+                .setFetchSize(FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            entityManager.close();
+            throw e;
+        }
+    }
+
+    Invoice next() {
+        if (!results.next()) {
+            return null;
+        }
+        Invoice invoice = (Invoice) results.get(0);
+        entityManager.detach(invoice);
+        return invoice;
+    }
+
+    @Override
+    public void close() {
+        try {
+            results.close();
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+}
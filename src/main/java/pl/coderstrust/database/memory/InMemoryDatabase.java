@@ -1,8 +1,24 @@
 package pl.coderstrust.database.memory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +26,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoicePageCollector;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersions;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.utils.ArgumentValidator;
 
@@ -20,84 +39,275 @@ public class InMemoryDatabase implements Database {
     private static Logger log = LoggerFactory.getLogger(InMemoryDatabase.class);
 
     private Map<Long, Invoice> invoiceMap;
-    private Long nextId = 1L;
+    private final boolean concurrentStorage;
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final ReadWriteLock storageLock = new ReentrantReadWriteLock();
 
     public InMemoryDatabase(Map<Long, Invoice> databaseStorage) {
         log.debug("Load InFileDatabase");
         ArgumentValidator.ensureNotNull(databaseStorage, "Invoice storage");
         invoiceMap = databaseStorage;
+        concurrentStorage = databaseStorage instanceof ConcurrentMap;
     }
 
     @Override
-    public synchronized Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
+    public Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
         ArgumentValidator.ensureNotNull(invoice, "invoice");
-        if ((invoice.getId() == null)) {
-            return insertInvoice(invoice);
+        Lock lock = singleInvoiceWriteLock();
+        lock.lock();
+        try {
+            if ((invoice.getId() == null)) {
+                return insertInvoice(invoice);
+            }
+            return updateInvoice(invoice);
+        } finally {
+            lock.unlock();
         }
-        return updateInvoice(invoice);
     }
 
     private Invoice insertInvoice(Invoice invoice) {
         log.debug("Saving invoice: {}", invoice);
-        Long id = nextId++;
-        Invoice insertedInvoice = new Invoice(id, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+        Long id = nextId.getAndIncrement();
+        Invoice insertedInvoice = InvoiceVersions.withVersion(invoice, id, InvoiceVersions.INITIAL_VERSION);
         invoiceMap.put(id, insertedInvoice);
         return insertedInvoice;
     }
 
     private Invoice updateInvoice(Invoice invoice) throws DatabaseOperationException {
-        if (!invoiceMap.containsKey(invoice.getId())) {
-            String message = String.format("Invoice with following id does not exist: %d", invoice.getId());
-            log.error(message);
-            throw new DatabaseOperationException(message);
-        }
         log.debug("Updating invoice: {}", invoice);
-        Invoice updatedInvoice = new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
-        invoiceMap.put(invoice.getId(), updatedInvoice);
-        return updatedInvoice;
+        while (true) {
+            Invoice storedInvoice = invoiceMap.get(invoice.getId());
+            if (storedInvoice == null) {
+                String message = String.format("Invoice with following id does not exist: %d", invoice.getId());
+                log.error(message);
+                throw new DatabaseOperationException(message);
+            }
+            InvoiceVersions.ensureVersionMatches(invoice, storedInvoice);
+            Invoice updatedInvoice = InvoiceVersions.withVersion(invoice, invoice.getId(), InvoiceVersions.nextVersion(storedInvoice));
+            if (replace(storedInvoice, updatedInvoice)) {
+                return updatedInvoice;
+            }
+            log.debug("Invoice with id {} changed concurrently, retrying update", invoice.getId());
+        }
+    }
+
+    private boolean replace(Invoice storedInvoice, Invoice updatedInvoice) {
+        if (!concurrentStorage) {
+            invoiceMap.put(updatedInvoice.getId(), updatedInvoice);
+            return true;
+        }
+        AtomicBoolean replaced = new AtomicBoolean();
+        invoiceMap.computeIfPresent(updatedInvoice.getId(), (id, currentInvoice) -> {
+            if (currentInvoice != storedInvoice) {
+                return currentInvoice;
+            }
+            replaced.set(true);
+            return updatedInvoice;
+        });
+        return replaced.get();
     }
 
     @Override
-    public synchronized void deleteInvoice(Long id) throws DatabaseOperationException {
-        ArgumentValidator.ensureNotNull(id, "Invoice id");
-        if (!invoiceMap.containsKey(id)) {
-            String message = String.format("Invoice with following id does not exist: %d", id);
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Saving {} invoices", invoices.size());
+        Set<Long> updatedIds = new HashSet<>();
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            if (invoice.getId() != null) {
+                updatedIds.add(invoice.getId());
+            }
+        }
+        Lock lock = storageLock.writeLock();
+        lock.lock();
+        try {
+            ensureInvoicesExist(updatedIds);
+            for (Invoice invoice : invoices) {
+                if (invoice.getId() != null) {
+                    InvoiceVersions.ensureVersionMatches(invoice, invoiceMap.get(invoice.getId()));
+                }
+            }
+            List<Invoice> savedInvoices = new ArrayList<>(invoices.size());
+            for (Invoice invoice : invoices) {
+                savedInvoices.add(invoice.getId() == null ? insertInvoice(invoice) : updateInvoice(invoice));
+            }
+            return savedInvoices;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Importing {} invoices", invoices.size());
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            ArgumentValidator.ensureNotNull(invoice.getId(), "Invoice id");
+        }
+        Lock lock = storageLock.writeLock();
+        lock.lock();
+        try {
+            Set<Long> existingIds = new HashSet<>();
+            for (Invoice invoice : invoices) {
+                if (invoiceMap.containsKey(invoice.getId())) {
+                    existingIds.add(invoice.getId());
+                }
+            }
+            if (!existingIds.isEmpty()) {
+                String message = String.format("Invoices with following ids already exist: %s", existingIds);
+                log.error(message);
+                throw new DatabaseOperationException(message);
+            }
+            for (Invoice invoice : invoices) {
+                invoiceMap.put(invoice.getId(), InvoiceVersions.withVersion(invoice, invoice.getId(), InvoiceVersions.getVersion(invoice)));
+                nextId.accumulateAndGet(invoice.getId() + 1, Math::max);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        log.debug("Deleting {} invoices", ids.size());
+        Set<Long> uniqueIds = new HashSet<>();
+        for (Long id : ids) {
+            ArgumentValidator.ensureNotNull(id, "Invoice id");
+            uniqueIds.add(id);
+        }
+        Lock lock = storageLock.writeLock();
+        lock.lock();
+        try {
+            ensureInvoicesExist(uniqueIds);
+            invoiceMap.keySet().removeAll(uniqueIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureInvoicesExist(Set<Long> ids) throws DatabaseOperationException {
+        Set<Long> missingIds = new HashSet<>(ids);
+        missingIds.removeAll(invoiceMap.keySet());
+        if (!missingIds.isEmpty()) {
+            String message = String.format("Invoices with following ids do not exist: %s", missingIds);
             log.error(message);
             throw new DatabaseOperationException(message);
         }
+    }
+
+    @Override
+    public void deleteInvoice(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "Invoice id");
         log.debug("Deleting invoice by id: {}", id);
-        invoiceMap.remove(id);
+        Lock lock = singleInvoiceWriteLock();
+        lock.lock();
+        try {
+            if (invoiceMap.remove(id) == null) {
+                String message = String.format("Invoice with following id does not exist: %d", id);
+                log.error(message);
+                throw new DatabaseOperationException(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock singleInvoiceWriteLock() {
+        return concurrentStorage ? storageLock.readLock() : storageLock.writeLock();
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        if (concurrentStorage) {
+            return reader.get();
+        }
+        Lock lock = storageLock.readLock();
+        lock.lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Optional<Invoice> getInvoice(Long id) {
+    public Optional<Invoice> getInvoice(Long id) {
         ArgumentValidator.ensureNotNull(id, "Invoice id");
         log.debug("Getting invoice by id: {}", id);
-        return Optional.ofNullable(invoiceMap.get(id));
+        return read(() -> Optional.ofNullable(invoiceMap.get(id)));
     }
 
     @Override
-    public synchronized Collection<Invoice> getAllInvoices() {
+    public Collection<Invoice> getAllInvoices() {
         log.debug("Getting all invoices");
         return invoiceMap.values();
     }
 
     @Override
-    public synchronized void deleteAllInvoices() {
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) {
+        log.debug("Getting {} invoices after id: {}", limit, afterId);
+        ArgumentValidator.ensurePositive(limit, "limit");
+        return read(() -> {
+            if (invoiceMap instanceof NavigableMap) {
+                NavigableMap<Long, Invoice> sortedInvoiceMap = (NavigableMap<Long, Invoice>) invoiceMap;
+                Map<Long, Invoice> invoicesAfterId = afterId == null ? sortedInvoiceMap : sortedInvoiceMap.tailMap(afterId, false);
+                return invoicesAfterId.values().stream().limit(limit).collect(Collectors.toList());
+            }
+            InvoicePageCollector pageCollector = new InvoicePageCollector(afterId, limit);
+            invoiceMap.values().forEach(pageCollector::offer);
+            return pageCollector.getPage();
+        });
+    }
+
+    @Override
+    public List<Invoice> findInvoices(InvoiceQuery query) {
+        log.debug("Finding invoices matching query: {}", query);
+        ArgumentValidator.ensureNotNull(query, "query");
+        return read(() -> {
+            Stream<Invoice> matchingInvoices = invoiceMap.values().stream().filter(query::matches);
+            if (!(invoiceMap instanceof NavigableMap)) {
+                matchingInvoices = matchingInvoices.sorted(Comparator.comparing(Invoice::getId));
+            }
+            if (query.getLimit() != null) {
+                matchingInvoices = matchingInvoices.limit(query.getLimit());
+            }
+            return matchingInvoices.collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public void forEachInvoice(Consumer<Invoice> consumer) {
+        log.debug("Streaming all invoices");
+        ArgumentValidator.ensureNotNull(consumer, "consumer");
+        read(() -> {
+            invoiceMap.values().forEach(consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllInvoices() {
         log.debug("Deleting all invoices");
-        invoiceMap.clear();
+        Lock lock = storageLock.writeLock();
+        lock.lock();
+        try {
+            invoiceMap.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized boolean invoiceExists(Long id) {
+    public boolean invoiceExists(Long id) {
         log.debug("Checking invoice existence of id {}: ", id);
         ArgumentValidator.ensureNotNull(id, "Invoice id");
-        return invoiceMap.containsKey(id);
+        return read(() -> invoiceMap.containsKey(id));
     }
 
     @Override
-    public synchronized long countInvoices() {
+    public long countInvoices() {
         log.debug("Counting number of invoices");
-        return invoiceMap.size();
+        return read(() -> (long) invoiceMap.size());
     }
 }
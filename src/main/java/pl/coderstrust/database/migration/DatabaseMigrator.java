@@ -0,0 +1,176 @@
+package pl.coderstrust.database.migration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import pl.coderstrust.utils.InvoiceChecksum;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class DatabaseMigrator {
+
+    private static Logger log = LoggerFactory.getLogger(DatabaseMigrator.class);
+
+    private final Database source;
+    private final Database target;
+    private final int batchSize;
+    private final int writeThreads;
+    private final Path checkpointFile;
+
+    public DatabaseMigrator(Database source, Database target, int batchSize, int writeThreads, Path checkpointFile) {
+        ArgumentValidator.ensureNotNull(source, "source");
+        ArgumentValidator.ensureNotNull(target, "target");
+        ArgumentValidator.ensurePositive(batchSize, "batchSize");
+        ArgumentValidator.ensurePositive(writeThreads, "writeThreads");
+        ArgumentValidator.ensureNotNull(checkpointFile, "checkpointFile");
+        this.source = source;
+        this.target = target;
+        this.batchSize = batchSize;
+        this.writeThreads = writeThreads;
+        this.checkpointFile = checkpointFile;
+    }
+
+    public MigrationResult migrate() throws DatabaseOperationException {
+        boolean resuming = Files.exists(checkpointFile);
+        MigrationCheckpoint checkpoint = loadCheckpoint();
+        if (!resuming) {
+            ensureTargetIsEmpty();
+            saveCheckpoint(checkpoint);
+        } else {
+            log.info("Resuming migration after {} invoices", checkpoint.getPosition());
+            removePartiallyMigratedBatches(checkpoint.getPosition());
+        }
+        MigrationCheckpoint finalCheckpoint = copyInvoices(checkpoint);
+        MigrationResult result = verify(finalCheckpoint);
+        if (result.isVerified()) {
+            deleteCheckpoint();
+            log.info("Migration of {} invoices completed and verified", result.getMigratedCount());
+        } else {
+            log.error("Migration verification failed: {}", result);
+        }
+        return result;
+    }
+
+    private MigrationCheckpoint copyInvoices(MigrationCheckpoint startCheckpoint) throws DatabaseOperationException {
+        AtomicReference<MigrationCheckpoint> checkpoint = new AtomicReference<>(startCheckpoint);
+        Scheduler scheduler = Schedulers.newParallel("invoice-migration", writeThreads);
+        try {
+            source.streamInvoices()
+                .skip(startCheckpoint.getPosition())
+                .buffer(batchSize)
+                .flatMapSequential(batch -> Mono.fromCallable(() -> importBatch(batch)).subscribeOn(scheduler), writeThreads)
+                .doOnNext(batch -> saveCheckpoint(checkpoint.updateAndGet(current -> current.advance(batch.size, batch.checksum))))
+                .blockLast();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            log.error("Migration stopped after {} invoices", checkpoint.get().getPosition(), cause);
+            if (cause instanceof DatabaseOperationException) {
+                throw (DatabaseOperationException) cause;
+            }
+            throw new DatabaseOperationException(String.format("Migration stopped after %d invoices", checkpoint.get().getPosition()), cause);
+        } finally {
+            scheduler.dispose();
+        }
+        return checkpoint.get();
+    }
+
+    private MigratedBatch importBatch(List<Invoice> invoices) throws DatabaseOperationException {
+        target.importInvoices(invoices);
+        long checksum = 0;
+        for (Invoice invoice : invoices) {
+            checksum += InvoiceChecksum.of(invoice);
+        }
+        return new MigratedBatch(invoices.size(), checksum);
+    }
+
+    private void ensureTargetIsEmpty() throws DatabaseOperationException {
+        long targetCount = target.countInvoices();
+        if (targetCount > 0) {
+            throw new DatabaseOperationException(String.format("Target database already contains %d invoices", targetCount));
+        }
+    }
+
+    private void removePartiallyMigratedBatches(long position) throws DatabaseOperationException {
+        Set<Long> unconfirmedIds = getUnconfirmedIds(position);
+        Set<Long> idsToDelete = new HashSet<>();
+        target.forEachInvoice(invoice -> {
+            if (unconfirmedIds.contains(invoice.getId())) {
+                idsToDelete.add(invoice.getId());
+            }
+        });
+        if (!idsToDelete.isEmpty()) {
+            log.info("Removing {} invoices imported after last checkpoint", idsToDelete.size());
+            target.deleteInvoices(idsToDelete);
+        }
+    }
+
+    private Set<Long> getUnconfirmedIds(long position) throws DatabaseOperationException {
+        long maxUnconfirmedInvoices = (long) (writeThreads + 1) * batchSize;
+        try {
+            return source.streamInvoices()
+                .skip(position)
+                .take(maxUnconfirmedInvoices)
+                .map(Invoice::getId)
+                .collect(Collectors.toSet())
+                .block();
+        } catch (RuntimeException e) {
+            throw new DatabaseOperationException("An error occurred during reading invoices to resume migration", Exceptions.unwrap(e));
+        }
+    }
+
+    private MigrationResult verify(MigrationCheckpoint checkpoint) throws DatabaseOperationException {
+        AtomicLong targetChecksum = new AtomicLong();
+        target.forEachInvoice(invoice -> targetChecksum.addAndGet(InvoiceChecksum.of(invoice)));
+        return new MigrationResult(checkpoint.getPosition(), source.countInvoices(), target.countInvoices(), checkpoint.getChecksum(), targetChecksum.get());
+    }
+
+    private MigrationCheckpoint loadCheckpoint() throws DatabaseOperationException {
+        try {
+            return MigrationCheckpoint.load(checkpointFile);
+        } catch (IOException | RuntimeException e) {
+            throw new DatabaseOperationException(String.format("Failed to read migration checkpoint from %s", checkpointFile), e);
+        }
+    }
+
+    private void saveCheckpoint(MigrationCheckpoint checkpoint) {
+        try {
+            checkpoint.save(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteCheckpoint() throws DatabaseOperationException {
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            throw new DatabaseOperationException(String.format("Failed to delete migration checkpoint %s", checkpointFile), e);
+        }
+    }
+
+    private static class MigratedBatch {
+        private final int size;
+        private final long checksum;
+
+        MigratedBatch(int size, long checksum) {
+            this.size = size;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package pl.coderstrust.database.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+final class MigrationCheckpoint {
+
+    static final MigrationCheckpoint START = new MigrationCheckpoint(0, 0);
+
+    private static final String POSITION = "position";
+    private static final String CHECKSUM = "checksum";
+
+    private final long position;
+    private final long checksum;
+
+    MigrationCheckpoint(long position, long checksum) {
+        this.position = position;
+        this.checksum = checksum;
+    }
+
+    static MigrationCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return START;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        return new MigrationCheckpoint(Long.parseLong(properties.getProperty(POSITION)), Long.parseLong(properties.getProperty(CHECKSUM)));
+    }
+
+    void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(POSITION, String.valueOf(position));
+        properties.setProperty(CHECKSUM, String.valueOf(checksum));
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temporaryFile)) {
+            properties.store(output, "Invoices migrated so far in source order and sum of their CRC32 checksums");
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    MigrationCheckpoint advance(int migratedInvoices, long migratedChecksum) {
+        return new MigrationCheckpoint(position + migratedInvoices, checksum + migratedChecksum);
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    long getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,6 @@
+package pl.coderstrust.database.migration;
+
+public enum MigrationDirection {
+    IMPORT,
+    EXPORT
+}
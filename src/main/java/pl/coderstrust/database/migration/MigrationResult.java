@@ -0,0 +1,53 @@
+package pl.coderstrust.database.migration;
+
+public class MigrationResult {
+
+    private final long migratedCount;
+    private final long sourceCount;
+    private final long targetCount;
+    private final long sourceChecksum;
+    private final long targetChecksum;
+
+    public MigrationResult(long migratedCount, long sourceCount, long targetCount, long sourceChecksum, long targetChecksum) {
+        this.migratedCount = migratedCount;
+        this.sourceCount = sourceCount;
+        this.targetCount = targetCount;
+        this.sourceChecksum = sourceChecksum;
+        this.targetChecksum = targetChecksum;
+    }
+
+    public long getMigratedCount() {
+        return migratedCount;
+    }
+
+    public long getSourceCount() {
+        return sourceCount;
+    }
+
+    public long getTargetCount() {
+        return targetCount;
+    }
+
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    public long getTargetChecksum() {
+        return targetChecksum;
+    }
+
+    public boolean isVerified() {
+        return migratedCount == sourceCount && sourceCount == targetCount && sourceChecksum == targetChecksum;
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationResult{"
+            + "migratedCount=" + migratedCount
+            + ", sourceCount=" + sourceCount
+            + ", targetCount=" + targetCount
+            + ", sourceChecksum=" + sourceChecksum
+            + ", targetChecksum=" + targetChecksum
+            + '}';
+    }
+}
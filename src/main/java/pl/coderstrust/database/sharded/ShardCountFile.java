@@ -0,0 +1,42 @@
+package pl.coderstrust.database.sharded;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public final class ShardCountFile {
+
+    private static final String FILE_NAME = "shard-count.txt";
+    private static Logger log = LoggerFactory.getLogger(ShardCountFile.class);
+
+    private ShardCountFile() {
+    }
+
+    public static void ensureShardCount(Path directory, int shardCount) throws IOException {
+        ArgumentValidator.ensureNotNull(directory, "directory");
+        ArgumentValidator.ensurePositive(shardCount, "shardCount");
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            log.debug("Recording {} shards in {}", shardCount, file);
+            Files.write(file, String.valueOf(shardCount).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        int storedShardCount;
+        try {
+            storedShardCount = Integer.parseInt(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(String.format("%s does not contain a shard count", file), e);
+        }
+        if (storedShardCount != shardCount) {
+            String message = String.format("Invoices in %s are spread over %d shards but %d are configured, ids encode the shard so the count cannot change",
+                directory, storedShardCount, shardCount);
+            log.error(message);
+            throw new IllegalStateException(message);
+        }
+    }
+}
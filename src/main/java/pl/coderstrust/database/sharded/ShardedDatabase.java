@@ -0,0 +1,357 @@
+package pl.coderstrust.database.sharded;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersions;
+import pl.coderstrust.database.PartialWriteException;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
+
+public class ShardedDatabase implements Database {
+
+    private static Logger log = LoggerFactory.getLogger(ShardedDatabase.class);
+
+    private final List<Database> shards;
+    private final ExecutorService executor;
+    private final AtomicInteger nextInsertShard = new AtomicInteger();
+
+    public ShardedDatabase(List<Database> shards) {
+        ArgumentValidator.ensureNotNull(shards, "shards");
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("shards cannot be empty");
+        }
+        shards.forEach(shard -> ArgumentValidator.ensureNotNull(shard, "shard"));
+        this.shards = new ArrayList<>(shards);
+        this.executor = Executors.newFixedThreadPool(shards.size(), new CustomizableThreadFactory("database-shard-"));
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    int getShardIndex(Long id) {
+        return (int) Math.floorMod(id, (long) shards.size());
+    }
+
+    long toLocalId(Long id) {
+        return Math.floorDiv(id, (long) shards.size());
+    }
+
+    long toGlobalId(long localId, int shardIndex) {
+        return localId * shards.size() + shardIndex;
+    }
+
+    @Override
+    public Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoice, "invoice");
+        if (invoice.getId() == null) {
+            int shardIndex = nextInsertShard();
+            log.debug("Inserting invoice into shard {}", shardIndex);
+            return toGlobal(shards.get(shardIndex).saveInvoice(invoice), shardIndex);
+        }
+        int shardIndex = getShardIndex(invoice.getId());
+        log.debug("Updating invoice with id {} in shard {}", invoice.getId(), shardIndex);
+        return toGlobal(shards.get(shardIndex).saveInvoice(toLocal(invoice)), shardIndex);
+    }
+
+    @Override
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Saving {} invoices across {} shards", invoices.size(), shards.size());
+        List<Invoice> invoiceList = new ArrayList<>(invoices);
+        List<List<Invoice>> invoicesByShard = newShardLists();
+        List<List<Integer>> positionsByShard = newShardLists();
+        for (int position = 0; position < invoiceList.size(); position++) {
+            Invoice invoice = invoiceList.get(position);
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            int shardIndex = invoice.getId() == null ? nextInsertShard() : getShardIndex(invoice.getId());
+            invoicesByShard.get(shardIndex).add(invoice.getId() == null ? invoice : toLocal(invoice));
+            positionsByShard.get(shardIndex).add(position);
+        }
+        List<List<Invoice>> savedByShard = new ArrayList<>(shards.size());
+        Throwable failure = awaitEachShard((shard, shardIndex) -> {
+            List<Invoice> shardInvoices = invoicesByShard.get(shardIndex);
+            return shardInvoices.isEmpty() ? shardInvoices : shard.saveInvoices(shardInvoices);
+        }, savedByShard);
+        Invoice[] savedInvoices = new Invoice[invoiceList.size()];
+        List<Invoice> appliedInvoices = new ArrayList<>();
+        List<Invoice> partiallySavedInvoices = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            List<Invoice> shardSavedInvoices = savedByShard.get(shardIndex);
+            if (shardSavedInvoices == null) {
+                continue;
+            }
+            for (int i = 0; i < shardSavedInvoices.size(); i++) {
+                int position = positionsByShard.get(shardIndex).get(i);
+                savedInvoices[position] = toGlobal(shardSavedInvoices.get(i), shardIndex);
+                appliedInvoices.add(invoiceList.get(position));
+                partiallySavedInvoices.add(savedInvoices[position]);
+            }
+        }
+        if (failure != null) {
+            throw toPartialWriteException("Invoices were saved only in some database shards", failure, appliedInvoices, partiallySavedInvoices, Collections.emptyList());
+        }
+        return new ArrayList<>(Arrays.asList(savedInvoices));
+    }
+
+    @Override
+    public void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        log.debug("Importing {} invoices across {} shards", invoices.size(), shards.size());
+        List<List<Invoice>> invoicesByShard = newShardLists();
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            ArgumentValidator.ensureNotNull(invoice.getId(), "id");
+            invoicesByShard.get(getShardIndex(invoice.getId())).add(toLocal(invoice));
+        }
+        onEachShard((shard, shardIndex) -> {
+            if (!invoicesByShard.get(shardIndex).isEmpty()) {
+                shard.importInvoices(invoicesByShard.get(shardIndex));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteInvoice(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        shards.get(getShardIndex(id)).deleteInvoice(toLocalId(id));
+    }
+
+    @Override
+    public void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        List<List<Long>> idsByShard = newShardLists();
+        List<List<Long>> globalIdsByShard = newShardLists();
+        for (Long id : ids) {
+            ArgumentValidator.ensureNotNull(id, "id");
+            idsByShard.get(getShardIndex(id)).add(toLocalId(id));
+            globalIdsByShard.get(getShardIndex(id)).add(id);
+        }
+        List<Boolean> deletedByShard = new ArrayList<>(shards.size());
+        Throwable failure = awaitEachShard((shard, shardIndex) -> {
+            if (!idsByShard.get(shardIndex).isEmpty()) {
+                shard.deleteInvoices(idsByShard.get(shardIndex));
+            }
+            return true;
+        }, deletedByShard);
+        if (failure != null) {
+            List<Long> deletedIds = new ArrayList<>();
+            for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+                if (deletedByShard.get(shardIndex) != null) {
+                    deletedIds.addAll(globalIdsByShard.get(shardIndex));
+                }
+            }
+            throw toPartialWriteException("Invoices were deleted only in some database shards", failure, Collections.emptyList(), Collections.emptyList(), deletedIds);
+        }
+    }
+
+    @Override
+    public Optional<Invoice> getInvoice(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        int shardIndex = getShardIndex(id);
+        return shards.get(shardIndex).getInvoice(toLocalId(id)).map(invoice -> toGlobal(invoice, shardIndex));
+    }
+
+    @Override
+    public Collection<Invoice> getAllInvoices() throws DatabaseOperationException {
+        log.debug("Getting all invoices from {} shards", shards.size());
+        List<List<Invoice>> invoicesByShard = onEachShard((shard, shardIndex) -> {
+            List<Invoice> invoices = new ArrayList<>();
+            shard.getAllInvoices().forEach(invoice -> invoices.add(toGlobal(invoice, shardIndex)));
+            invoices.sort(Comparator.comparing(Invoice::getId));
+            return invoices;
+        });
+        return merge(invoicesByShard, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) throws DatabaseOperationException {
+        ArgumentValidator.ensurePositive(limit, "limit");
+        log.debug("Getting {} invoices after id: {} from {} shards", limit, afterId, shards.size());
+        List<List<Invoice>> pagesByShard = onEachShard((shard, shardIndex) -> {
+            Long localAfterId = afterId == null ? null : Math.floorDiv(afterId - shardIndex, (long) shards.size());
+            return toGlobal(shard.getInvoicesPage(localAfterId, limit), shardIndex);
+        });
+        return merge(pagesByShard, limit);
+    }
+
+    @Override
+    public List<Invoice> findInvoices(InvoiceQuery query) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(query, "query");
+        log.debug("Finding invoices matching query: {} in {} shards", query, shards.size());
+        List<List<Invoice>> invoicesByShard = onEachShard((shard, shardIndex) -> toGlobal(shard.findInvoices(query), shardIndex));
+        return merge(invoicesByShard, query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void forEachInvoice(Consumer<Invoice> consumer) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(consumer, "consumer");
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            int currentShardIndex = shardIndex;
+            shards.get(shardIndex).forEachInvoice(invoice -> consumer.accept(toGlobal(invoice, currentShardIndex)));
+        }
+    }
+
+    @Override
+    public Flux<Invoice> streamInvoices() {
+        return Flux.range(0, shards.size())
+            .concatMap(shardIndex -> shards.get(shardIndex).streamInvoices().map(invoice -> toGlobal(invoice, shardIndex)));
+    }
+
+    @Override
+    public void deleteAllInvoices() throws DatabaseOperationException {
+        log.debug("Deleting all invoices from {} shards", shards.size());
+        onEachShard((shard, shardIndex) -> {
+            shard.deleteAllInvoices();
+            return null;
+        });
+    }
+
+    @Override
+    public boolean invoiceExists(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        return shards.get(getShardIndex(id)).invoiceExists(toLocalId(id));
+    }
+
+    @Override
+    public long countInvoices() throws DatabaseOperationException {
+        long count = 0;
+        for (Long shardCount : onEachShard((shard, shardIndex) -> shard.countInvoices())) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    public void shutdown() {
+        log.debug("Shutting down shard executor");
+        executor.shutdown();
+    }
+
+    private int nextInsertShard() {
+        return Math.floorMod(nextInsertShard.getAndIncrement(), shards.size());
+    }
+
+    private Invoice toLocal(Invoice invoice) {
+        return InvoiceVersions.withVersion(invoice, toLocalId(invoice.getId()), invoice.getVersion());
+    }
+
+    private Invoice toGlobal(Invoice invoice, int shardIndex) {
+        return InvoiceVersions.withVersion(invoice, toGlobalId(invoice.getId(), shardIndex), invoice.getVersion());
+    }
+
+    private List<Invoice> toGlobal(List<Invoice> invoices, int shardIndex) {
+        List<Invoice> globalInvoices = new ArrayList<>(invoices.size());
+        invoices.forEach(invoice -> globalInvoices.add(toGlobal(invoice, shardIndex)));
+        return globalInvoices;
+    }
+
+    private <T> List<List<T>> newShardLists() {
+        List<List<T>> lists = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    private List<Invoice> merge(List<List<Invoice>> sortedLists, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator.comparing((int[] head) -> sortedLists.get(head[0]).get(head[1]).getId()));
+        for (int shardIndex = 0; shardIndex < sortedLists.size(); shardIndex++) {
+            if (!sortedLists.get(shardIndex).isEmpty()) {
+                heads.add(new int[] {shardIndex, 0});
+            }
+        }
+        List<Invoice> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Invoice> list = sortedLists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[] {head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    private <T> List<T> onEachShard(ShardCall<T> call) throws DatabaseOperationException {
+        List<T> results = new ArrayList<>(shards.size());
+        Throwable failure = awaitEachShard(call, results);
+        if (failure != null) {
+            throw toDatabaseException(failure);
+        }
+        return results;
+    }
+
+    private <T> Throwable awaitEachShard(ShardCall<T> call, List<T> results) throws DatabaseOperationException {
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            Database shard = shards.get(shardIndex);
+            int currentShardIndex = shardIndex;
+            futures.add(executor.submit(() -> call.execute(shard, currentShardIndex)));
+        }
+        Throwable failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseOperationException("Interrupted while waiting for database shards", e);
+            }
+        }
+        return failure;
+    }
+
+    private DatabaseOperationException toPartialWriteException(String message, Throwable failure, List<Invoice> appliedInvoices, List<Invoice> savedInvoices,
+        List<Long> deletedIds) {
+        if (appliedInvoices.isEmpty() && deletedIds.isEmpty()) {
+            return toDatabaseException(failure);
+        }
+        // shards commit independently, the changes of shards that succeeded are reported so they still get published
+        log.error(message, failure);
+        return new PartialWriteException(message, failure, appliedInvoices, savedInvoices, deletedIds);
+    }
+
+    private DatabaseOperationException toDatabaseException(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof DatabaseOperationException) {
+            return (DatabaseOperationException) failure;
+        }
+        String message = "An error occurred in one of database shards";
+        log.error(message, failure);
+        return new DatabaseOperationException(message, failure);
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<T> {
+        T execute(Database shard, int shardIndex) throws Exception;
+    }
+}
@@ -0,0 +1,406 @@
+package pl.coderstrust.database.tiered;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersionConflictException;
+import pl.coderstrust.database.InvoiceVersions;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class TieredDatabase implements Database {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int ID_LOCK_STRIPES = 64;
+    private static Logger log = LoggerFactory.getLogger(TieredDatabase.class);
+
+    private final NavigableMap<Long, Invoice> frontStorage = new ConcurrentSkipListMap<>();
+    private final InMemoryDatabase frontTier = new InMemoryDatabase(frontStorage);
+    private final Database backTier;
+    private final WriteMode writeMode;
+    private final int writeBehindCapacity;
+    private final InvoiceChangePublisher publisher;
+    private final ExecutorService writer;
+    private final ReadWriteLock tierLock = new ReentrantReadWriteLock();
+    private final Lock[] idLocks = new Lock[ID_LOCK_STRIPES];
+    private final Map<Long, Integer> pendingWritesById = new HashMap<>();
+    private int pendingWrites;
+    private long failedWrites;
+
+    public TieredDatabase(Database backTier, WriteMode writeMode, int writeBehindCapacity, InvoiceChangePublisher publisher) {
+        ArgumentValidator.ensureNotNull(backTier, "backTier");
+        ArgumentValidator.ensureNotNull(writeMode, "writeMode");
+        ArgumentValidator.ensurePositive(writeBehindCapacity, "writeBehindCapacity");
+        ArgumentValidator.ensureNotNull(publisher, "publisher");
+        this.backTier = backTier;
+        this.writeMode = writeMode;
+        this.writeBehindCapacity = writeBehindCapacity;
+        this.publisher = publisher;
+        this.writer = writeMode == WriteMode.WRITE_BEHIND ? Executors.newSingleThreadExecutor(new CustomizableThreadFactory("tiered-database-writer-")) : null;
+        for (int stripe = 0; stripe < ID_LOCK_STRIPES; stripe++) {
+            idLocks[stripe] = new ReentrantLock();
+        }
+    }
+
+    public void warmUp() throws DatabaseOperationException {
+        tierLock.writeLock().lock();
+        try {
+            log.debug("Warming up front tier from back tier");
+            frontStorage.clear();
+            backTier.forEachInvoice(invoice -> frontStorage.put(invoice.getId(), invoice));
+            log.debug("{} invoices loaded into front tier", frontStorage.size());
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Invoice saveInvoice(Invoice invoice) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoice, "invoice");
+        Set<Long> ids = invoice.getId() != null ? Collections.singleton(invoice.getId()) : Collections.emptySet();
+        BitSet lockedStripes = lockIds(ids);
+        try {
+            if (invoice.getId() == null || writeMode == WriteMode.WRITE_THROUGH) {
+                flush();
+                Invoice savedInvoice = backTier.saveInvoice(invoice);
+                frontStorage.put(savedInvoice.getId(), savedInvoice);
+                return savedInvoice;
+            }
+            return saveBehind(Collections.singletonList(invoice), ids, backTierInvoices -> () -> backTier.saveInvoice(backTierInvoices.get(0))).get(0);
+        } finally {
+            unlockIds(lockedStripes);
+        }
+    }
+
+    @Override
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        Set<Long> updatedIds = new HashSet<>();
+        boolean containsInserts = false;
+        for (Invoice invoice : invoices) {
+            ArgumentValidator.ensureNotNull(invoice, "invoice");
+            if (invoice.getId() == null) {
+                containsInserts = true;
+            } else {
+                updatedIds.add(invoice.getId());
+            }
+        }
+        BitSet lockedStripes = lockIds(updatedIds);
+        try {
+            if (containsInserts || writeMode == WriteMode.WRITE_THROUGH) {
+                flush();
+                List<Invoice> savedInvoices = backTier.saveInvoices(invoices);
+                savedInvoices.forEach(savedInvoice -> frontStorage.put(savedInvoice.getId(), savedInvoice));
+                return savedInvoices;
+            }
+            return saveBehind(invoices, updatedIds, backTierInvoices -> () -> backTier.saveInvoices(backTierInvoices));
+        } finally {
+            unlockIds(lockedStripes);
+        }
+    }
+
+    @Override
+    public void importInvoices(Collection<Invoice> invoices) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        tierLock.writeLock().lock();
+        try {
+            flush();
+            backTier.importInvoices(invoices);
+        } finally {
+            try {
+                Set<Long> importedIds = invoices.stream().filter(Objects::nonNull).map(Invoice::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+                reload(importedIds).forEach(this::replaceFrontInvoice);
+            } finally {
+                tierLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void deleteInvoice(Long id) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(id, "id");
+        deleteInvoices(Collections.singleton(id), () -> backTier.deleteInvoice(id));
+    }
+
+    @Override
+    public void deleteInvoices(Collection<Long> ids) throws DatabaseOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        Set<Long> uniqueIds = new HashSet<>();
+        for (Long id : ids) {
+            ArgumentValidator.ensureNotNull(id, "id");
+            uniqueIds.add(id);
+        }
+        deleteInvoices(uniqueIds, () -> backTier.deleteInvoices(uniqueIds));
+    }
+
+    @Override
+    public void deleteAllInvoices() throws DatabaseOperationException {
+        tierLock.writeLock().lock();
+        try {
+            flush();
+            backTier.deleteAllInvoices();
+            frontStorage.clear();
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Invoice> getInvoice(Long id) {
+        return frontTier.getInvoice(id);
+    }
+
+    @Override
+    public Collection<Invoice> getAllInvoices() {
+        return frontTier.getAllInvoices();
+    }
+
+    @Override
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) {
+        return frontTier.getInvoicesPage(afterId, limit);
+    }
+
+    @Override
+    public List<Invoice> findInvoices(InvoiceQuery query) {
+        return frontTier.findInvoices(query);
+    }
+
+    @Override
+    public void forEachInvoice(Consumer<Invoice> consumer) {
+        frontTier.forEachInvoice(consumer);
+    }
+
+    @Override
+    public boolean invoiceExists(Long id) {
+        return frontTier.invoiceExists(id);
+    }
+
+    @Override
+    public long countInvoices() {
+        return frontTier.countInvoices();
+    }
+
+    public synchronized int getPendingWriteCount() {
+        return pendingWrites;
+    }
+
+    public synchronized long getFailedWriteCount() {
+        return failedWrites;
+    }
+
+    public synchronized void flush() {
+        boolean interrupted = false;
+        while (pendingWrites > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        log.debug("Writing {} pending invoice changes to back tier", getPendingWriteCount());
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.error("{} invoice changes were not written to back tier", getPendingWriteCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deleteInvoices(Set<Long> ids, BackTierWrite delete) throws DatabaseOperationException {
+        BitSet lockedStripes = lockIds(ids);
+        try {
+            if (writeMode == WriteMode.WRITE_THROUGH) {
+                delete.execute();
+                frontStorage.keySet().removeAll(ids);
+                return;
+            }
+            deleteBehind(ids, delete);
+        } finally {
+            unlockIds(lockedStripes);
+        }
+    }
+
+    private synchronized List<Invoice> saveBehind(Collection<Invoice> invoices, Set<Long> ids, Function<List<Invoice>, BackTierWrite> write) throws DatabaseOperationException {
+        awaitWriteBehindCapacity();
+        ensureInvoicesExist(ids);
+        for (Invoice invoice : invoices) {
+            InvoiceVersions.ensureVersionMatches(invoice, frontStorage.get(invoice.getId()));
+        }
+        List<Invoice> savedInvoices = new ArrayList<>(invoices.size());
+        List<Invoice> backTierInvoices = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            Invoice savedInvoice = nextVersion(invoice);
+            frontStorage.put(savedInvoice.getId(), savedInvoice);
+            savedInvoices.add(savedInvoice);
+            backTierInvoices.add(unversioned(savedInvoice));
+        }
+        enqueueWrite(ids, write.apply(backTierInvoices));
+        return savedInvoices;
+    }
+
+    private synchronized void deleteBehind(Set<Long> ids, BackTierWrite delete) throws DatabaseOperationException {
+        awaitWriteBehindCapacity();
+        ensureInvoicesExist(ids);
+        frontStorage.keySet().removeAll(ids);
+        enqueueWrite(ids, delete);
+    }
+
+    private BitSet lockIds(Set<Long> ids) {
+        BitSet stripes = new BitSet(ID_LOCK_STRIPES);
+        ids.forEach(id -> stripes.set(Long.hashCode(id) & (ID_LOCK_STRIPES - 1)));
+        tierLock.readLock().lock();
+        stripes.stream().forEach(stripe -> idLocks[stripe].lock());
+        return stripes;
+    }
+
+    private void unlockIds(BitSet stripes) {
+        stripes.stream().forEach(stripe -> idLocks[stripe].unlock());
+        tierLock.readLock().unlock();
+    }
+
+    private void ensureInvoicesExist(Set<Long> ids) throws DatabaseOperationException {
+        Set<Long> missingIds = new HashSet<>(ids);
+        missingIds.removeAll(frontStorage.keySet());
+        if (!missingIds.isEmpty()) {
+            String message = ids.size() == 1
+                ? String.format("Invoice with following id does not exist: %d", ids.iterator().next())
+                : String.format("Invoices with following ids do not exist: %s", missingIds);
+            log.error(message);
+            throw new DatabaseOperationException(message);
+        }
+    }
+
+    private void awaitWriteBehindCapacity() {
+        boolean interrupted = false;
+        while (pendingWrites >= writeBehindCapacity) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueueWrite(Set<Long> ids, BackTierWrite write) {
+        pendingWrites++;
+        ids.forEach(id -> pendingWritesById.merge(id, 1, Integer::sum));
+        writer.execute(() -> {
+            boolean failed = false;
+            try {
+                write.execute();
+            } catch (DatabaseOperationException | RuntimeException e) {
+                log.error("Writing invoices with ids {} to back tier failed", ids, e);
+                failed = true;
+            }
+            Set<Long> settledIds = settleWrite(ids);
+            completeWrite(failed ? reload(settledIds) : Collections.emptyMap(), failed);
+        });
+    }
+
+    private synchronized Set<Long> settleWrite(Set<Long> ids) {
+        Set<Long> settledIds = new HashSet<>();
+        for (Long id : ids) {
+            if (pendingWritesById.merge(id, -1, Integer::sum) == 0) {
+                pendingWritesById.remove(id);
+                settledIds.add(id);
+            }
+        }
+        return settledIds;
+    }
+
+    private synchronized void completeWrite(Map<Long, Optional<Invoice>> reloadedInvoices, boolean failed) {
+        reloadedInvoices.forEach((id, invoice) -> {
+            // a write queued while reloading is newer than the back tier copy
+            if (!pendingWritesById.containsKey(id)) {
+                replaceFrontInvoice(id, invoice);
+            }
+        });
+        pendingWrites--;
+        if (failed) {
+            failedWrites++;
+        }
+        notifyAll();
+    }
+
+    private Map<Long, Optional<Invoice>> reload(Set<Long> ids) {
+        Map<Long, Optional<Invoice>> reloadedInvoices = new HashMap<>();
+        for (Long id : ids) {
+            try {
+                reloadedInvoices.put(id, backTier.getInvoice(id));
+            } catch (DatabaseOperationException | RuntimeException e) {
+                log.error("Reloading invoice with id {} from back tier failed", id, e);
+            }
+        }
+        return reloadedInvoices;
+    }
+
+    private void replaceFrontInvoice(Long id, Optional<Invoice> invoice) {
+        if (invoice.isPresent()) {
+            frontStorage.put(id, invoice.get());
+        } else {
+            frontStorage.remove(id);
+        }
+        // the back tier version may be lower than the one projections hold, so the copy replaces it as a delete and an insert
+        publisher.publish(InvoiceChangeType.DELETED, id, null);
+        invoice.ifPresent(reloadedInvoice -> publisher.publish(InvoiceChangeType.INSERTED, id, reloadedInvoice));
+    }
+
+    private Invoice nextVersion(Invoice invoice) throws InvoiceVersionConflictException {
+        Invoice storedInvoice = frontStorage.get(invoice.getId());
+        InvoiceVersions.ensureVersionMatches(invoice, storedInvoice);
+        return InvoiceVersions.withVersion(invoice, invoice.getId(), InvoiceVersions.nextVersion(storedInvoice));
+    }
+
+    private Invoice unversioned(Invoice invoice) {
+        return InvoiceVersions.withVersion(invoice, invoice.getId(), null);
+    }
+
+    @FunctionalInterface
+    private interface BackTierWrite {
+        void execute() throws DatabaseOperationException;
+    }
+}
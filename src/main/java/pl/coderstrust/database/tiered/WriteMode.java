@@ -0,0 +1,6 @@
+package pl.coderstrust.database.tiered;
+
+public enum WriteMode {
+    WRITE_THROUGH,
+    WRITE_BEHIND
+}
@@ -0,0 +1,34 @@
+package pl.coderstrust.model;
+
+public enum AgingBucket {
+    NOT_DUE(Long.MIN_VALUE, -1),
+    DAYS_0_30(0, 30),
+    DAYS_31_60(31, 60),
+    DAYS_61_90(61, 90),
+    DAYS_OVER_90(91, Long.MAX_VALUE);
+
+    private final long fromDaysPastDue;
+    private final long toDaysPastDue;
+
+    AgingBucket(long fromDaysPastDue, long toDaysPastDue) {
+        this.fromDaysPastDue = fromDaysPastDue;
+        this.toDaysPastDue = toDaysPastDue;
+    }
+
+    public long getFromDaysPastDue() {
+        return fromDaysPastDue;
+    }
+
+    public long getToDaysPastDue() {
+        return toDaysPastDue;
+    }
+
+    public static AgingBucket of(long daysPastDue) {
+        for (AgingBucket bucket : values()) {
+            if (daysPastDue <= bucket.toDaysPastDue) {
+                return bucket;
+            }
+        }
+        return DAYS_OVER_90;
+    }
+}
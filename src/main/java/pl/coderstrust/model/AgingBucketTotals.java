@@ -0,0 +1,69 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@ApiModel(value = "Aging bucket totals")
+public class AgingBucketTotals {
+
+    private final AgingBucket bucket;
+    private final long invoiceCount;
+    private final BigDecimal grossValue;
+
+    @JsonCreator
+    public AgingBucketTotals(@JsonProperty("bucket") AgingBucket bucket,
+        @JsonProperty("invoiceCount") long invoiceCount,
+        @JsonProperty("grossValue") BigDecimal grossValue) {
+
+        this.bucket = bucket;
+        this.invoiceCount = invoiceCount;
+        this.grossValue = grossValue;
+    }
+
+    @ApiModelProperty(value = "Range of days past invoice due date.", example = "DAYS_31_60")
+    public AgingBucket getBucket() {
+        return bucket;
+    }
+
+    @ApiModelProperty(value = "Number of invoices in the bucket.", example = "12")
+    public long getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    @ApiModelProperty(value = "Sum of gross values of invoices in the bucket.", example = "1230.00")
+    public BigDecimal getGrossValue() {
+        return grossValue;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        AgingBucketTotals totals = (AgingBucketTotals) obj;
+        return invoiceCount == totals.invoiceCount
+            && bucket == totals.bucket
+            && Objects.equals(grossValue, totals.grossValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucket, invoiceCount, grossValue);
+    }
+
+    @Override
+    public String toString() {
+        return "AgingBucketTotals{"
+            + "bucket=" + bucket
+            + ", invoiceCount=" + invoiceCount
+            + ", grossValue=" + grossValue
+            + '}';
+    }
+}
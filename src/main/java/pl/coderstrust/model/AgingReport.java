@@ -0,0 +1,70 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+@ApiModel(value = "Receivables aging report")
+public class AgingReport {
+
+    private final LocalDate asOf;
+    private final List<AgingBucketTotals> totals;
+    private final List<BuyerAging> buyers;
+
+    @JsonCreator
+    public AgingReport(@JsonProperty("asOf") LocalDate asOf,
+        @JsonProperty("totals") List<AgingBucketTotals> totals,
+        @JsonProperty("buyers") List<BuyerAging> buyers) {
+
+        this.asOf = asOf;
+        this.totals = totals;
+        this.buyers = buyers;
+    }
+
+    @ApiModelProperty(value = "Day for which days past due dates are counted.", example = "2019-03-04")
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    @ApiModelProperty(value = "Totals of all invoices in every aging bucket.")
+    public List<AgingBucketTotals> getTotals() {
+        return totals;
+    }
+
+    @ApiModelProperty(value = "Aging of invoices of every buyer, ordered by buyer id.")
+    public List<BuyerAging> getBuyers() {
+        return buyers;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        AgingReport report = (AgingReport) obj;
+        return Objects.equals(asOf, report.asOf)
+            && Objects.equals(totals, report.totals)
+            && Objects.equals(buyers, report.buyers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(asOf, totals, buyers);
+    }
+
+    @Override
+    public String toString() {
+        return "AgingReport{"
+            + "asOf=" + asOf
+            + ", totals=" + totals
+            + ", buyers=" + buyers
+            + '}';
+    }
+}
@@ -0,0 +1,59 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import java.util.Objects;
+
+@ApiModel(value = "Buyer aging")
+public class BuyerAging {
+
+    private final Long buyerId;
+    private final List<AgingBucketTotals> buckets;
+
+    @JsonCreator
+    public BuyerAging(@JsonProperty("buyerId") Long buyerId,
+        @JsonProperty("buckets") List<AgingBucketTotals> buckets) {
+
+        this.buyerId = buyerId;
+        this.buckets = buckets;
+    }
+
+    @ApiModelProperty(value = "The id of buyer.", example = "7865")
+    public Long getBuyerId() {
+        return buyerId;
+    }
+
+    @ApiModelProperty(value = "Totals of invoices issued to the buyer in every aging bucket.")
+    public List<AgingBucketTotals> getBuckets() {
+        return buckets;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        BuyerAging aging = (BuyerAging) obj;
+        return Objects.equals(buyerId, aging.buyerId)
+            && Objects.equals(buckets, aging.buckets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(buyerId, buckets);
+    }
+
+    @Override
+    public String toString() {
+        return "BuyerAging{"
+            + "buyerId=" + buyerId
+            + ", buckets=" + buckets
+            + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@ApiModel(value = "Company balance")
+public class CompanyBalance {
+
+    private final Long companyId;
+    private final long invoiceCount;
+    private final BigDecimal netValue;
+    private final BigDecimal grossValue;
+    private final LocalDate lastInvoiceDate;
+
+    @JsonCreator
+    public CompanyBalance(@JsonProperty("companyId") Long companyId,
+        @JsonProperty("invoiceCount") long invoiceCount,
+        @JsonProperty("netValue") BigDecimal netValue,
+        @JsonProperty("grossValue") BigDecimal grossValue,
+        @JsonProperty("lastInvoiceDate") LocalDate lastInvoiceDate) {
+
+        this.companyId = companyId;
+        this.invoiceCount = invoiceCount;
+        this.netValue = netValue;
+        this.grossValue = grossValue;
+        this.lastInvoiceDate = lastInvoiceDate;
+    }
+
+    @ApiModelProperty(value = "The id of company.", example = "7")
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    @ApiModelProperty(value = "Number of invoices of the company.", example = "12")
+    public long getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    @ApiModelProperty(value = "Sum of net values of invoices of the company.", example = "1000.00")
+    public BigDecimal getNetValue() {
+        return netValue;
+    }
+
+    @ApiModelProperty(value = "Sum of gross values of invoices of the company.", example = "1230.00")
+    public BigDecimal getGrossValue() {
+        return grossValue;
+    }
+
+    @ApiModelProperty(value = "Issue date of the latest invoice of the company, empty when the company has no invoices.", example = "2019-03-04")
+    public LocalDate getLastInvoiceDate() {
+        return lastInvoiceDate;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        CompanyBalance balance = (CompanyBalance) obj;
+        return invoiceCount == balance.invoiceCount
+            && Objects.equals(companyId, balance.companyId)
+            && Objects.equals(netValue, balance.netValue)
+            && Objects.equals(grossValue, balance.grossValue)
+            && Objects.equals(lastInvoiceDate, balance.lastInvoiceDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(companyId, invoiceCount, netValue, grossValue, lastInvoiceDate);
+    }
+
+    @Override
+    public String toString() {
+        return "CompanyBalance{"
+            + "companyId=" + companyId
+            + ", invoiceCount=" + invoiceCount
+            + ", netValue=" + netValue
+            + ", grossValue=" + grossValue
+            + ", lastInvoiceDate=" + lastInvoiceDate
+            + '}';
+    }
+}
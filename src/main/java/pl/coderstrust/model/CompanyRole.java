@@ -0,0 +1,10 @@
+package pl.coderstrust.model;
+
+public enum CompanyRole {
+    BUYER,
+    SELLER;
+
+    public Company getCompany(Invoice invoice) {
+        return this == BUYER ? invoice.getBuyer() : invoice.getSeller();
+    }
+}
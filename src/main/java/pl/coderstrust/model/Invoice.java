@@ -6,31 +6,59 @@ import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @ApiModel(value = "Invoice")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+    @Index(name = "invoice_seller_id_idx", columnList = "seller_id"),
+    @Index(name = "invoice_buyer_id_idx", columnList = "buyer_id")})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "invoice_seq")
+    @GenericGenerator(name = "invoice_seq", strategy = "pl.coderstrust.database.hibernate.AssignedOrSequenceIdGenerator", parameters = {
+        @Parameter(name = "sequence_name", value = "invoice_seq"),
+        @Parameter(name = "increment_size", value = "50")})
     private final Long id;
     private final String number;
     private final LocalDate issuedDate;
     private final LocalDate dueDate;
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne
     private final Company seller;
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne
     private final Company buyer;
-    @ManyToMany(cascade = CascadeType.ALL)
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @JoinColumn(name = "invoice_id", nullable = false, updatable = false)
+    @OrderBy("entryOrder")
     private final List<InvoiceEntry> entries;
+    @Version
+    private final Long version;
+
+    public Invoice(Long id, String number, LocalDate issuedDate, LocalDate dueDate, Company seller, Company buyer, List<InvoiceEntry> entries) {
+        this(id, number, issuedDate, dueDate, seller, buyer, entries, null);
+    }
 
     @JsonCreator
     public Invoice(@JsonProperty("id") Long id,
@@ -39,7 +67,8 @@ public class Invoice {
         @JsonProperty("dueDate") LocalDate dueDate,
         @JsonProperty("seller") Company seller,
         @JsonProperty("buyer") Company buyer,
-        @JsonProperty("entries") List<InvoiceEntry> entries) {
+        @JsonProperty("entries") List<InvoiceEntry> entries,
+        @JsonProperty("version") Long version) {
 
         this.id = id;
         this.number = number;
@@ -47,7 +76,8 @@ public class Invoice {
         this.dueDate = dueDate;
         this.seller = seller;
         this.buyer = buyer;
-        this.entries = entries != null ? new ArrayList(entries) : new ArrayList();
+        this.entries = getOrderedEntries(entries);
+        this.version = version;
     }
 
     private Invoice() {
@@ -58,6 +88,7 @@ public class Invoice {
         this.seller = null;
         this.buyer = null;
         this.entries = null;
+        this.version = null;
     }
 
     @ApiModelProperty(value = "The id of invoice.", example = "1234", dataType = "Long", position = -1)
@@ -92,6 +123,11 @@ public class Invoice {
         return entries;
     }
 
+    @ApiModelProperty(value = "Invoice version, incremented on every update and checked before updating.", example = "3")
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -107,7 +143,7 @@ public class Invoice {
             && dueDate.equals(invoice.dueDate)
             && seller.equals(invoice.seller)
             && buyer.equals(invoice.buyer)
-            && entries.equals(invoice.entries);
+            && Arrays.equals(entries.toArray(), invoice.entries.toArray());
     }
 
     @Override
@@ -120,6 +156,17 @@ public class Invoice {
             + ", seller=" + seller
             + ", buyer=" + buyer
             + ", entries=" + entries
+            + ", version=" + version
             + '}';
     }
+
+    private static List<InvoiceEntry> getOrderedEntries(List<InvoiceEntry> entries) {
+        List<InvoiceEntry> orderedEntries = new ArrayList<>();
+        if (entries != null) {
+            for (InvoiceEntry entry : entries) {
+                orderedEntries.add(entry != null ? entry.withEntryOrder(orderedEntries.size()) : null);
+            }
+        }
+        return orderedEntries;
+    }
 }
@@ -5,17 +5,25 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.math.BigDecimal;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @ApiModel(value = "Invoice entry")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class InvoiceEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_entry_seq")
+    @SequenceGenerator(name = "invoice_entry_seq", sequenceName = "invoice_entry_seq", allocationSize = 50)
     private final Long id;
     private final String productName;
     private final double quantity;
@@ -24,6 +32,7 @@ public class InvoiceEntry {
     private final BigDecimal netValue;
     private final BigDecimal grossValue;
     private final Vat vatRate;
+    private final Integer entryOrder;
 
     @JsonCreator
     public InvoiceEntry(@JsonProperty("id") Long id,
@@ -35,6 +44,10 @@ public class InvoiceEntry {
         @JsonProperty("grossValue") BigDecimal grossValue,
         @JsonProperty("vatRate") Vat vatRate) {
 
+        this(id, productName, quantity, unit, price, netValue, grossValue, vatRate, null);
+    }
+
+    private InvoiceEntry(Long id, String productName, double quantity, String unit, BigDecimal price, BigDecimal netValue, BigDecimal grossValue, Vat vatRate, Integer entryOrder) {
         this.id = id;
         this.productName = productName;
         this.quantity = quantity;
@@ -43,6 +56,7 @@ public class InvoiceEntry {
         this.netValue = netValue;
         this.grossValue = grossValue;
         this.vatRate = vatRate;
+        this.entryOrder = entryOrder;
     }
 
     private InvoiceEntry() {
@@ -54,6 +68,14 @@ public class InvoiceEntry {
         this.netValue = null;
         this.grossValue = null;
         this.vatRate = null;
+        this.entryOrder = null;
+    }
+
+    InvoiceEntry withEntryOrder(int entryOrder) {
+        if (this.entryOrder != null && this.entryOrder == entryOrder) {
+            return this;
+        }
+        return new InvoiceEntry(id, productName, quantity, unit, price, netValue, grossValue, vatRate, entryOrder);
     }
 
     @ApiModelProperty(value = "The id of invoice entry.", dataType = "Long", position = -1)
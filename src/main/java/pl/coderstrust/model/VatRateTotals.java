@@ -0,0 +1,79 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@ApiModel(value = "VAT rate totals")
+public class VatRateTotals {
+
+    private final Vat vatRate;
+    private final BigDecimal netValue;
+    private final BigDecimal grossValue;
+    private final BigDecimal vatValue;
+
+    @JsonCreator
+    public VatRateTotals(@JsonProperty("vatRate") Vat vatRate,
+        @JsonProperty("netValue") BigDecimal netValue,
+        @JsonProperty("grossValue") BigDecimal grossValue,
+        @JsonProperty("vatValue") BigDecimal vatValue) {
+
+        this.vatRate = vatRate;
+        this.netValue = netValue;
+        this.grossValue = grossValue;
+        this.vatValue = vatValue;
+    }
+
+    @ApiModelProperty(value = "VAT rate of summed entries.", example = "VAT_23")
+    public Vat getVatRate() {
+        return vatRate;
+    }
+
+    @ApiModelProperty(value = "Sum of net values of entries.", example = "1000.00")
+    public BigDecimal getNetValue() {
+        return netValue;
+    }
+
+    @ApiModelProperty(value = "Sum of gross values of entries.", example = "1230.00")
+    public BigDecimal getGrossValue() {
+        return grossValue;
+    }
+
+    @ApiModelProperty(value = "Sum of VAT of entries, i.e. gross minus net value.", example = "230.00")
+    public BigDecimal getVatValue() {
+        return vatValue;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        VatRateTotals totals = (VatRateTotals) obj;
+        return vatRate == totals.vatRate
+            && Objects.equals(netValue, totals.netValue)
+            && Objects.equals(grossValue, totals.grossValue)
+            && Objects.equals(vatValue, totals.vatValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vatRate, netValue, grossValue, vatValue);
+    }
+
+    @Override
+    public String toString() {
+        return "VatRateTotals{"
+            + "vatRate=" + vatRate
+            + ", netValue=" + netValue
+            + ", grossValue=" + grossValue
+            + ", vatValue=" + vatValue
+            + '}';
+    }
+}
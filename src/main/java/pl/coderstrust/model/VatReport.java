@@ -0,0 +1,70 @@
+package pl.coderstrust.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+@ApiModel(value = "VAT report")
+public class VatReport {
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final List<VatRateTotals> totals;
+
+    @JsonCreator
+    public VatReport(@JsonProperty("fromDate") LocalDate fromDate,
+        @JsonProperty("toDate") LocalDate toDate,
+        @JsonProperty("totals") List<VatRateTotals> totals) {
+
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.totals = totals;
+    }
+
+    @ApiModelProperty(value = "First issue date of reported invoices (inclusive).", example = "2019-01-01")
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    @ApiModelProperty(value = "Last issue date of reported invoices (inclusive).", example = "2019-01-31")
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    @ApiModelProperty(value = "Totals of invoice entries for every VAT rate.")
+    public List<VatRateTotals> getTotals() {
+        return totals;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        VatReport report = (VatReport) obj;
+        return Objects.equals(fromDate, report.fromDate)
+            && Objects.equals(toDate, report.toDate)
+            && Objects.equals(totals, report.totals);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fromDate, toDate, totals);
+    }
+
+    @Override
+    public String toString() {
+        return "VatReport{"
+            + "fromDate=" + fromDate
+            + ", toDate=" + toDate
+            + ", totals=" + totals
+            + '}';
+    }
+}
@@ -0,0 +1,75 @@
+package pl.coderstrust.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import pl.coderstrust.model.AgingBucket;
+import pl.coderstrust.model.AgingBucketTotals;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.utils.GroszeSum;
+
+class AgingTotals {
+
+    private static final int MINIMUM_SCALE = 2;
+
+    private final long[] invoiceCounts = new long[AgingBucket.values().length];
+    private final Map<AgingBucket, GroszeSum> grossValues = new EnumMap<>(AgingBucket.class);
+
+    AgingTotals() {
+        for (AgingBucket bucket : AgingBucket.values()) {
+            grossValues.put(bucket, new GroszeSum());
+        }
+    }
+
+    static GroszeSum grossValue(Invoice invoice) {
+        GroszeSum grossValue = new GroszeSum();
+        if (invoice.getEntries() != null) {
+            for (InvoiceEntry entry : invoice.getEntries()) {
+                grossValue.add(entry.getGrossValue());
+            }
+        }
+        return grossValue;
+    }
+
+    void add(AgingBucket bucket, GroszeSum grossValue) {
+        invoiceCounts[bucket.ordinal()]++;
+        grossValues.get(bucket).add(grossValue);
+    }
+
+    void subtract(AgingBucket bucket, GroszeSum grossValue) {
+        invoiceCounts[bucket.ordinal()]--;
+        grossValues.get(bucket).subtract(grossValue);
+    }
+
+    void move(AgingBucket fromBucket, AgingBucket toBucket, GroszeSum grossValue) {
+        subtract(fromBucket, grossValue);
+        add(toBucket, grossValue);
+    }
+
+    boolean isEmpty() {
+        for (long invoiceCount : invoiceCounts) {
+            if (invoiceCount != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    List<AgingBucketTotals> toBucketTotals() {
+        List<AgingBucketTotals> bucketTotals = new ArrayList<>(AgingBucket.values().length);
+        for (AgingBucket bucket : AgingBucket.values()) {
+            BigDecimal grossValue = normalize(grossValues.get(bucket).toBigDecimal());
+            bucketTotals.add(new AgingBucketTotals(bucket, invoiceCounts[bucket.ordinal()], grossValue));
+        }
+        return bucketTotals;
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        BigDecimal strippedValue = value.stripTrailingZeros();
+        return strippedValue.scale() < MINIMUM_SCALE ? strippedValue.setScale(MINIMUM_SCALE) : strippedValue;
+    }
+}
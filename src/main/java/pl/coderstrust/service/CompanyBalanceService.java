@@ -0,0 +1,49 @@
+package pl.coderstrust.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.model.CompanyRole;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Service
+public class CompanyBalanceService {
+
+    private static Logger log = LoggerFactory.getLogger(CompanyBalanceService.class);
+    private CompanyBalances companyBalances;
+    private InvoiceService invoiceService;
+
+    CompanyBalanceService(CompanyBalances companyBalances, InvoiceService invoiceService) {
+        ArgumentValidator.ensureNotNull(companyBalances, "companyBalances");
+        ArgumentValidator.ensureNotNull(invoiceService, "invoiceService");
+        this.companyBalances = companyBalances;
+        this.invoiceService = invoiceService;
+    }
+
+    public CompanyBalance getBalance(CompanyRole role, Long companyId) throws ServiceOperationException {
+        Optional<CompanyBalance> maintainedBalance = companyBalances.getBalance(role, companyId);
+        if (maintainedBalance.isPresent()) {
+            log.debug("Getting {} balance of company with id {} from running totals", role, companyId);
+            return maintainedBalance.get();
+        }
+        log.debug("Getting {} balance of company with id {} by summing invoices", role, companyId);
+        Collection<Invoice> invoices = role == CompanyRole.BUYER ? invoiceService.getAllInvoicesByBuyer(companyId) : invoiceService.getAllInvoicesBySeller(companyId);
+        return companyBalances.computeBalance(role, companyId, invoices);
+    }
+
+    public List<CompanyBalance> getTopBalances(CompanyRole role, int limit) throws ServiceOperationException {
+        Optional<List<CompanyBalance>> maintainedBalances = companyBalances.getTopBalances(role, limit);
+        if (maintainedBalances.isPresent()) {
+            log.debug("Getting top {} {} balances from running totals", limit, role);
+            return maintainedBalances.get();
+        }
+        log.debug("Getting top {} {} balances by summing all invoices", limit, role);
+        return companyBalances.computeTopBalances(role, limit, invoiceService.getAllInvoices());
+    }
+}
@@ -0,0 +1,285 @@
+package pl.coderstrust.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.utils.Grosze;
+import pl.coderstrust.utils.GroszeSum;
+
+class CompanyBalanceTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MINIMUM_SCALE = 2;
+
+    private long[] companyIds;
+    private int[] invoiceCounts;
+    private long[] netGrosze;
+    private long[] grossGrosze;
+    private BigDecimal[] inexactNetValues;
+    private BigDecimal[] inexactGrossValues;
+    private IssuedDays[] issuedDays;
+    private int size;
+
+    CompanyBalanceTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long companyId, GroszeSum netValue, GroszeSum grossValue, long issuedDay) {
+        int slot = findSlot(companyId);
+        if (invoiceCounts[slot] == 0) {
+            if ((size + 1) * 4 > companyIds.length * 3) {
+                resize(companyIds.length * 2);
+                slot = findSlot(companyId);
+            }
+            companyIds[slot] = companyId;
+            issuedDays[slot] = new IssuedDays();
+            size++;
+        }
+        invoiceCounts[slot]++;
+        netGrosze[slot] = addNetValue(slot, netValue, false);
+        grossGrosze[slot] = addGrossValue(slot, grossValue, false);
+        issuedDays[slot].add(issuedDay);
+    }
+
+    void subtract(long companyId, GroszeSum netValue, GroszeSum grossValue, long issuedDay) {
+        int slot = findSlot(companyId);
+        if (invoiceCounts[slot] == 0) {
+            return;
+        }
+        if (--invoiceCounts[slot] == 0) {
+            delete(slot);
+            return;
+        }
+        netGrosze[slot] = addNetValue(slot, netValue, true);
+        grossGrosze[slot] = addGrossValue(slot, grossValue, true);
+        issuedDays[slot].remove(issuedDay);
+    }
+
+    CompanyBalance get(long companyId) {
+        int slot = findSlot(companyId);
+        if (invoiceCounts[slot] == 0) {
+            return new CompanyBalance(companyId, 0, normalize(BigDecimal.ZERO), normalize(BigDecimal.ZERO), null);
+        }
+        return toBalance(slot);
+    }
+
+    List<CompanyBalance> getTop(int limit) {
+        Comparator<Integer> balanceOrder = ((Comparator<Integer>) this::compareGrossValues).reversed().thenComparingLong(slot -> companyIds[slot]);
+        PriorityQueue<Integer> topSlots = new PriorityQueue<>(Math.min(limit, size) + 1, balanceOrder.reversed());
+        for (int slot = 0; slot < companyIds.length; slot++) {
+            if (invoiceCounts[slot] != 0) {
+                topSlots.add(slot);
+                if (topSlots.size() > limit) {
+                    topSlots.poll();
+                }
+            }
+        }
+        List<Integer> slots = new ArrayList<>(topSlots);
+        slots.sort(balanceOrder);
+        List<CompanyBalance> balances = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            balances.add(toBalance(slot));
+        }
+        return balances;
+    }
+
+    private CompanyBalance toBalance(int slot) {
+        return new CompanyBalance(companyIds[slot], invoiceCounts[slot], normalize(getValue(netGrosze, inexactNetValues, slot)),
+            normalize(getValue(grossGrosze, inexactGrossValues, slot)), LocalDate.ofEpochDay(issuedDays[slot].getLast()));
+    }
+
+    private int compareGrossValues(int slot, int otherSlot) {
+        if (inexactGrossValues == null) {
+            return Long.compare(grossGrosze[slot], grossGrosze[otherSlot]);
+        }
+        return getValue(grossGrosze, inexactGrossValues, slot).compareTo(getValue(grossGrosze, inexactGrossValues, otherSlot));
+    }
+
+    private long addNetValue(int slot, GroszeSum value, boolean negate) {
+        if (fitsInGrosze(netGrosze[slot], value, negate)) {
+            return netGrosze[slot] + (negate ? -value.getGrosze() : value.getGrosze());
+        }
+        if (inexactNetValues == null) {
+            inexactNetValues = new BigDecimal[companyIds.length];
+        }
+        inexactNetValues[slot] = addInexactValue(inexactNetValues[slot], value, negate);
+        return netGrosze[slot];
+    }
+
+    private long addGrossValue(int slot, GroszeSum value, boolean negate) {
+        if (fitsInGrosze(grossGrosze[slot], value, negate)) {
+            return grossGrosze[slot] + (negate ? -value.getGrosze() : value.getGrosze());
+        }
+        if (inexactGrossValues == null) {
+            inexactGrossValues = new BigDecimal[companyIds.length];
+        }
+        inexactGrossValues[slot] = addInexactValue(inexactGrossValues[slot], value, negate);
+        return grossGrosze[slot];
+    }
+
+    private static boolean fitsInGrosze(long grosze, GroszeSum value, boolean negate) {
+        if (!value.isExact() || (negate && value.getGrosze() == Long.MIN_VALUE)) {
+            return false;
+        }
+        long addedGrosze = negate ? -value.getGrosze() : value.getGrosze();
+        long total = grosze + addedGrosze;
+        return ((grosze ^ total) & (addedGrosze ^ total)) >= 0;
+    }
+
+    private static BigDecimal addInexactValue(BigDecimal inexactValue, GroszeSum value, boolean negate) {
+        BigDecimal addedValue = negate ? value.toBigDecimal().negate() : value.toBigDecimal();
+        return inexactValue == null ? addedValue : inexactValue.add(addedValue);
+    }
+
+    private static BigDecimal getValue(long[] grosze, BigDecimal[] inexactValues, int slot) {
+        BigDecimal value = Grosze.toBigDecimal(grosze[slot]);
+        return inexactValues == null || inexactValues[slot] == null ? value : value.add(inexactValues[slot]);
+    }
+
+    private int findSlot(long companyId) {
+        int mask = companyIds.length - 1;
+        int slot = hash(companyId) & mask;
+        while (invoiceCounts[slot] != 0 && companyIds[slot] != companyId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void delete(int slot) {
+        int mask = companyIds.length - 1;
+        int freeSlot = slot;
+        int nextSlot = (freeSlot + 1) & mask;
+        while (invoiceCounts[nextSlot] != 0) {
+            int homeSlot = hash(companyIds[nextSlot]) & mask;
+            if (((nextSlot - homeSlot) & mask) >= ((nextSlot - freeSlot) & mask)) {
+                copy(nextSlot, freeSlot);
+                freeSlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        clear(freeSlot);
+        size--;
+    }
+
+    private void clear(int slot) {
+        invoiceCounts[slot] = 0;
+        netGrosze[slot] = 0;
+        grossGrosze[slot] = 0;
+        issuedDays[slot] = null;
+        if (inexactNetValues != null) {
+            inexactNetValues[slot] = null;
+        }
+        if (inexactGrossValues != null) {
+            inexactGrossValues[slot] = null;
+        }
+    }
+
+    private void copy(int fromSlot, int toSlot) {
+        companyIds[toSlot] = companyIds[fromSlot];
+        invoiceCounts[toSlot] = invoiceCounts[fromSlot];
+        netGrosze[toSlot] = netGrosze[fromSlot];
+        grossGrosze[toSlot] = grossGrosze[fromSlot];
+        if (inexactNetValues != null) {
+            inexactNetValues[toSlot] = inexactNetValues[fromSlot];
+        }
+        if (inexactGrossValues != null) {
+            inexactGrossValues[toSlot] = inexactGrossValues[fromSlot];
+        }
+        issuedDays[toSlot] = issuedDays[fromSlot];
+    }
+
+    private void resize(int capacity) {
+        long[] oldCompanyIds = companyIds;
+        int[] oldInvoiceCounts = invoiceCounts;
+        long[] oldNetGrosze = netGrosze;
+        long[] oldGrossGrosze = grossGrosze;
+        BigDecimal[] oldInexactNetValues = inexactNetValues;
+        BigDecimal[] oldInexactGrossValues = inexactGrossValues;
+        IssuedDays[] oldIssuedDays = issuedDays;
+        allocate(capacity);
+        for (int oldSlot = 0; oldSlot < oldCompanyIds.length; oldSlot++) {
+            if (oldInvoiceCounts[oldSlot] != 0) {
+                int slot = findSlot(oldCompanyIds[oldSlot]);
+                companyIds[slot] = oldCompanyIds[oldSlot];
+                invoiceCounts[slot] = oldInvoiceCounts[oldSlot];
+                netGrosze[slot] = oldNetGrosze[oldSlot];
+                grossGrosze[slot] = oldGrossGrosze[oldSlot];
+                if (oldInexactNetValues != null) {
+                    inexactNetValues[slot] = oldInexactNetValues[oldSlot];
+                }
+                if (oldInexactGrossValues != null) {
+                    inexactGrossValues[slot] = oldInexactGrossValues[oldSlot];
+                }
+                issuedDays[slot] = oldIssuedDays[oldSlot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        companyIds = new long[capacity];
+        invoiceCounts = new int[capacity];
+        netGrosze = new long[capacity];
+        grossGrosze = new long[capacity];
+        inexactNetValues = inexactNetValues != null ? new BigDecimal[capacity] : null;
+        inexactGrossValues = inexactGrossValues != null ? new BigDecimal[capacity] : null;
+        issuedDays = new IssuedDays[capacity];
+    }
+
+    private static int hash(long companyId) {
+        long hash = companyId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        BigDecimal strippedValue = value.stripTrailingZeros();
+        return strippedValue.scale() < MINIMUM_SCALE ? strippedValue.setScale(MINIMUM_SCALE) : strippedValue;
+    }
+
+    private static class IssuedDays {
+        private long[] days = new long[1];
+        private int[] invoiceCounts = new int[1];
+        private int size;
+
+        void add(long day) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index >= 0) {
+                invoiceCounts[index]++;
+                return;
+            }
+            index = -index - 1;
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                invoiceCounts = Arrays.copyOf(invoiceCounts, size * 2);
+            }
+            System.arraycopy(days, index, days, index + 1, size - index);
+            System.arraycopy(invoiceCounts, index, invoiceCounts, index + 1, size - index);
+            days[index] = day;
+            invoiceCounts[index] = 1;
+            size++;
+        }
+
+        void remove(long day) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index < 0 || --invoiceCounts[index] > 0) {
+                return;
+            }
+            System.arraycopy(days, index + 1, days, index, size - index - 1);
+            System.arraycopy(invoiceCounts, index + 1, invoiceCounts, index, size - index - 1);
+            size--;
+        }
+
+        long getLast() {
+            return days[size - 1];
+        }
+    }
+}
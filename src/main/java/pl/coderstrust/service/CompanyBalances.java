@@ -0,0 +1,161 @@
+package pl.coderstrust.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.model.CompanyRole;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.utils.ArgumentValidator;
+import pl.coderstrust.utils.GroszeSum;
+
+public class CompanyBalances extends InvoiceChangeProjection<CompanyBalances.Balances> {
+
+    public CompanyBalances(Database database, InvoiceChangePublisher publisher) {
+        super(database, publisher);
+    }
+
+    public Optional<CompanyBalance> getBalance(CompanyRole role, Long companyId) {
+        ArgumentValidator.ensureNotNull(role, "role");
+        ArgumentValidator.ensureNotNull(companyId, "companyId");
+        return read(balances -> balances.getBalance(role, companyId));
+    }
+
+    public Optional<List<CompanyBalance>> getTopBalances(CompanyRole role, int limit) {
+        ArgumentValidator.ensureNotNull(role, "role");
+        ensureLimitIsPositive(limit);
+        return read(balances -> balances.getTopBalances(role, limit));
+    }
+
+    public CompanyBalance computeBalance(CompanyRole role, Long companyId, Collection<Invoice> invoices) {
+        ArgumentValidator.ensureNotNull(role, "role");
+        ArgumentValidator.ensureNotNull(companyId, "companyId");
+        return compute(invoices).getBalance(role, companyId);
+    }
+
+    public List<CompanyBalance> computeTopBalances(CompanyRole role, int limit, Collection<Invoice> invoices) {
+        ArgumentValidator.ensureNotNull(role, "role");
+        ensureLimitIsPositive(limit);
+        return compute(invoices).getTopBalances(role, limit);
+    }
+
+    @Override
+    protected Balances newState() {
+        return new Balances();
+    }
+
+    @Override
+    protected void put(Balances balances, Invoice invoice) {
+        balances.put(invoice);
+    }
+
+    @Override
+    protected void remove(Balances balances, Long id) {
+        balances.remove(id);
+    }
+
+    private Balances compute(Collection<Invoice> invoices) {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        Balances balances = newState();
+        invoices.forEach(balances::put);
+        return balances;
+    }
+
+    private static void ensureLimitIsPositive(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+    }
+
+    static class Balances {
+        private static final int ISSUED_DAY = CompanyRole.values().length;
+        private static final int COMPANY_ROLES = ISSUED_DAY + 1;
+        private static final int NET_GROSZE = COMPANY_ROLES + 1;
+        private static final int GROSS_GROSZE = NET_GROSZE + 1;
+        private static final int COLUMNS = GROSS_GROSZE + 1;
+
+        private final InvoiceRecords invoices = new InvoiceRecords(COLUMNS);
+        private final Map<Long, GroszeSum[]> inexactValuesById = new HashMap<>();
+        private final Map<CompanyRole, CompanyBalanceTable> tables = new EnumMap<>(CompanyRole.class);
+
+        Balances() {
+            for (CompanyRole role : CompanyRole.values()) {
+                tables.put(role, new CompanyBalanceTable());
+            }
+        }
+
+        CompanyBalance getBalance(CompanyRole role, Long companyId) {
+            return tables.get(role).get(companyId);
+        }
+
+        List<CompanyBalance> getTopBalances(CompanyRole role, int limit) {
+            return tables.get(role).getTop(limit);
+        }
+
+        void put(Invoice invoice) {
+            if (invoice == null || invoice.getId() == null || invoice.getIssuedDate() == null) {
+                return;
+            }
+            GroszeSum netValue = sum(invoice, InvoiceEntry::getNetValue);
+            GroszeSum grossValue = sum(invoice, InvoiceEntry::getGrossValue);
+            long issuedDay = invoice.getIssuedDate().toEpochDay();
+            long[] record = new long[COLUMNS];
+            for (CompanyRole role : CompanyRole.values()) {
+                Long companyId = getCompanyId(invoice, role);
+                if (companyId != null) {
+                    tables.get(role).add(companyId, netValue, grossValue, issuedDay);
+                    record[role.ordinal()] = companyId;
+                    record[COMPANY_ROLES] |= 1L << role.ordinal();
+                }
+            }
+            record[ISSUED_DAY] = issuedDay;
+            if (netValue.isExact() && grossValue.isExact()) {
+                record[NET_GROSZE] = netValue.getGrosze();
+                record[GROSS_GROSZE] = grossValue.getGrosze();
+            } else {
+                inexactValuesById.put(invoice.getId(), new GroszeSum[] {netValue, grossValue});
+            }
+            invoices.put(invoice.getId(), record);
+        }
+
+        void remove(Long id) {
+            long[] record = invoices.remove(id);
+            if (record == null) {
+                return;
+            }
+            GroszeSum[] inexactValues = inexactValuesById.remove(id);
+            GroszeSum netValue = inexactValues != null ? inexactValues[0] : GroszeSum.ofGrosze(record[NET_GROSZE]);
+            GroszeSum grossValue = inexactValues != null ? inexactValues[1] : GroszeSum.ofGrosze(record[GROSS_GROSZE]);
+            for (CompanyRole role : CompanyRole.values()) {
+                if ((record[COMPANY_ROLES] & 1L << role.ordinal()) != 0) {
+                    tables.get(role).subtract(record[role.ordinal()], netValue, grossValue, record[ISSUED_DAY]);
+                }
+            }
+        }
+
+        private static Long getCompanyId(Invoice invoice, CompanyRole role) {
+            Company company = role.getCompany(invoice);
+            return company != null ? company.getId() : null;
+        }
+
+        private static GroszeSum sum(Invoice invoice, Function<InvoiceEntry, BigDecimal> value) {
+            GroszeSum sum = new GroszeSum();
+            if (invoice.getEntries() != null) {
+                for (InvoiceEntry entry : invoice.getEntries()) {
+                    sum.add(value.apply(entry));
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package pl.coderstrust.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeEvent;
+import pl.coderstrust.database.event.InvoiceChangeListener;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeSubscription;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public abstract class InvoiceChangeProjection<S> implements InvoiceChangeListener {
+
+    private static final long CATCH_UP_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long CATCH_UP_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DELETED_VERSION = Long.MAX_VALUE;
+    private static Logger log = LoggerFactory.getLogger(InvoiceChangeProjection.class);
+
+    private final Database database;
+    private final InvoiceChangePublisher publisher;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private S state;
+    private Map<Long, Long> versionsById;
+    private InvoiceChangeSubscription subscription;
+    private long rebuildGeneration;
+    private volatile long appliedSequence;
+    private volatile boolean ready;
+
+    protected InvoiceChangeProjection(Database database, InvoiceChangePublisher publisher) {
+        ArgumentValidator.ensureNotNull(database, "database");
+        ArgumentValidator.ensureNotNull(publisher, "publisher");
+        this.database = database;
+        this.publisher = publisher;
+    }
+
+    protected abstract S newState();
+
+    protected abstract void put(S state, Invoice invoice);
+
+    protected abstract void remove(S state, Long id);
+
+    protected S loadState() {
+        return newState();
+    }
+
+    protected void afterLoad(S state) {
+    }
+
+    public void rebuild() {
+        rebuildAll(Collections.singletonList(this));
+    }
+
+    public static void rebuildAll(Collection<? extends InvoiceChangeProjection<?>> projections) {
+        ArgumentValidator.ensureNotNull(projections, "projections");
+        Map<Database, List<InvoiceChangeProjection<?>.Rebuild>> rebuildsByDatabase = new LinkedHashMap<>();
+        for (InvoiceChangeProjection<?> projection : projections) {
+            InvoiceChangeProjection<?>.Rebuild rebuild = projection.startRebuild();
+            if (rebuild != null) {
+                rebuildsByDatabase.computeIfAbsent(projection.database, database -> new ArrayList<>()).add(rebuild);
+            }
+        }
+        for (Map.Entry<Database, List<InvoiceChangeProjection<?>.Rebuild>> databaseRebuilds : rebuildsByDatabase.entrySet()) {
+            List<InvoiceChangeProjection<?>.Rebuild> rebuilds = databaseRebuilds.getValue();
+            try {
+                databaseRebuilds.getKey().forEachInvoice(invoice -> rebuilds.forEach(rebuild -> rebuild.accept(invoice)));
+            } catch (DatabaseOperationException | RuntimeException e) {
+                log.error("An error occurred during building {}, queries will use the database", rebuilds, e);
+                continue;
+            }
+            rebuilds.forEach(rebuild -> rebuild.finish());
+        }
+    }
+
+    public synchronized void shutdown() {
+        ready = false;
+        rebuildGeneration++;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    protected <T> Optional<T> read(Function<S, T> reader) {
+        if (!ready || !awaitPublishedChanges()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(reader.apply(state));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected void update(Consumer<S> updater) {
+        lock.writeLock().lock();
+        try {
+            if (state != null) {
+                updater.accept(state);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChange(InvoiceChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (state == null || event.getSequence() <= appliedSequence) {
+                return;
+            }
+            switch (event.getType()) {
+                case INSERTED:
+                case UPDATED:
+                    if (isStale(event)) {
+                        log.debug("{} skips stale change of invoice {}", getClass().getSimpleName(), event.getInvoiceId());
+                        break;
+                    }
+                    remove(state, event.getInvoiceId());
+                    put(state, event.getInvoice());
+                    putVersion(versionsById, event.getInvoice());
+                    break;
+                case DELETED:
+                    remove(state, event.getInvoiceId());
+                    versionsById.put(event.getInvoiceId(), DELETED_VERSION);
+                    break;
+                case ALL_DELETED:
+                    state = newState();
+                    versionsById.clear();
+                    break;
+                default:
+                    break;
+            }
+            appliedSequence = event.getSequence();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onEventsMissed(long fromSequence, long toSequence) {
+        log.warn("{} missed changes from {} to {}, rebuilding", getClass().getSimpleName(), fromSequence, toSequence);
+        ready = false;
+        Thread rebuilder = new Thread(this::rebuild, getClass().getSimpleName() + "-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    private synchronized Rebuild startRebuild() {
+        ready = false;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        long fromSequence = publisher.getPublishedSequence() + 1;
+        log.debug("Building {}", getClass().getSimpleName());
+        try {
+            return new Rebuild(++rebuildGeneration, fromSequence, loadState());
+        } catch (RuntimeException e) {
+            log.error("An error occurred during building {}, queries will use the database", getClass().getSimpleName(), e);
+            return null;
+        }
+    }
+
+    private synchronized void finishRebuild(Rebuild rebuild) {
+        if (rebuild.generation != rebuildGeneration) {
+            log.debug("{} was rebuilt or shut down meanwhile, dropping this build", getClass().getSimpleName());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            state = rebuild.loadedState;
+            versionsById = rebuild.loadedVersionsById;
+            appliedSequence = rebuild.fromSequence - 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("{} built", getClass().getSimpleName());
+        subscription = publisher.subscribe(this, rebuild.fromSequence);
+        ready = true;
+    }
+
+    private boolean isStale(InvoiceChangeEvent event) {
+        Long heldVersion = versionsById.get(event.getInvoiceId());
+        Long version = event.getInvoice().getVersion();
+        if (heldVersion == null || version == null) {
+            return false;
+        }
+        if (heldVersion == DELETED_VERSION) {
+            return event.getType() == InvoiceChangeType.UPDATED;
+        }
+        return version < heldVersion;
+    }
+
+    private void putVersion(Map<Long, Long> versions, Invoice invoice) {
+        if (invoice.getVersion() != null) {
+            versions.put(invoice.getId(), invoice.getVersion());
+        }
+    }
+
+    private boolean awaitPublishedChanges() {
+        long publishedSequence = publisher.getPublishedSequence();
+        long deadline = System.nanoTime() + CATCH_UP_TIMEOUT_NANOS;
+        while (appliedSequence < publishedSequence) {
+            if (!ready || System.nanoTime() - deadline > 0) {
+                log.debug("{} is behind published changes, falling back to the database", getClass().getSimpleName());
+                return false;
+            }
+            LockSupport.parkNanos(CATCH_UP_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private class Rebuild {
+        private final long generation;
+        private final long fromSequence;
+        private final S loadedState;
+        private final Map<Long, Long> loadedVersionsById = new HashMap<>();
+        private boolean failed;
+
+        Rebuild(long generation, long fromSequence, S loadedState) {
+            this.generation = generation;
+            this.fromSequence = fromSequence;
+            this.loadedState = loadedState;
+        }
+
+        void accept(Invoice invoice) {
+            if (failed) {
+                return;
+            }
+            try {
+                put(loadedState, invoice);
+                putVersion(loadedVersionsById, invoice);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        void finish() {
+            if (failed) {
+                return;
+            }
+            try {
+                afterLoad(loadedState);
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            finishRebuild(this);
+        }
+
+        private void fail(RuntimeException e) {
+            failed = true;
+            log.error("An error occurred during building {}, queries will use the database", this, e);
+        }
+
+        @Override
+        public String toString() {
+            return InvoiceChangeProjection.this.getClass().getSimpleName();
+        }
+    }
+}
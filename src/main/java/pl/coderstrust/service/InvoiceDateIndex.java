@@ -0,0 +1,77 @@
+package pl.coderstrust.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class InvoiceDateIndex extends InvoiceChangeProjection<InvoiceDateIndex.IssuedDays> {
+
+    public InvoiceDateIndex(Database database, InvoiceChangePublisher publisher) {
+        super(database, publisher);
+    }
+
+    public Optional<List<Invoice>> findIssuedBetween(LocalDate fromDate, LocalDate toDate) {
+        ArgumentValidator.ensureNotNull(fromDate, "fromDate");
+        ArgumentValidator.ensureNotNull(toDate, "toDate");
+        return read(issuedDays -> issuedDays.findIssuedBetween(fromDate, toDate));
+    }
+
+    @Override
+    protected IssuedDays newState() {
+        return new IssuedDays();
+    }
+
+    @Override
+    protected void put(IssuedDays issuedDays, Invoice invoice) {
+        issuedDays.put(invoice);
+    }
+
+    @Override
+    protected void remove(IssuedDays issuedDays, Long id) {
+        issuedDays.remove(id);
+    }
+
+    static class IssuedDays {
+        private final NavigableMap<Long, NavigableMap<Long, Invoice>> invoicesByIssuedDay = new TreeMap<>();
+        private final Map<Long, Long> issuedDayById = new HashMap<>();
+
+        List<Invoice> findIssuedBetween(LocalDate fromDate, LocalDate toDate) {
+            List<Invoice> invoices = new ArrayList<>();
+            for (NavigableMap<Long, Invoice> invoicesOfDay : invoicesByIssuedDay.subMap(fromDate.toEpochDay(), true, toDate.toEpochDay(), true).values()) {
+                invoices.addAll(invoicesOfDay.values());
+            }
+            return invoices;
+        }
+
+        void put(Invoice invoice) {
+            if (invoice == null || invoice.getId() == null || invoice.getIssuedDate() == null) {
+                return;
+            }
+            long issuedDay = invoice.getIssuedDate().toEpochDay();
+            invoicesByIssuedDay.computeIfAbsent(issuedDay, day -> new TreeMap<>()).put(invoice.getId(), invoice);
+            issuedDayById.put(invoice.getId(), issuedDay);
+        }
+
+        void remove(Long id) {
+            Long issuedDay = issuedDayById.remove(id);
+            if (issuedDay == null) {
+                return;
+            }
+            NavigableMap<Long, Invoice> invoicesOfDay = invoicesByIssuedDay.get(issuedDay);
+            invoicesOfDay.remove(id);
+            if (invoicesOfDay.isEmpty()) {
+                invoicesByIssuedDay.remove(issuedDay);
+            }
+        }
+    }
+}
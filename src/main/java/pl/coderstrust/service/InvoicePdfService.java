@@ -11,7 +11,7 @@ import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 
 import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -22,15 +22,24 @@ import pl.coderstrust.model.Invoice;
 import pl.coderstrust.model.InvoiceEntry;
 import pl.coderstrust.model.Vat;
 import pl.coderstrust.utils.ArgumentValidator;
+import pl.coderstrust.utils.GroszeSum;
 
 @Service
 public class InvoicePdfService {
 
     private static Logger log = LoggerFactory.getLogger(InvoicePdfService.class);
+    private final SingleFlight<List<Long>, byte[]> pdfRenderings = new SingleFlight<>();
 
     public byte[] getInvoiceAsPdf(Invoice invoice) throws ServiceOperationException {
         ArgumentValidator.ensureNotNull(invoice, "Invoice");
         log.debug("Getting an invoice as PDF by id: {}", invoice.getId());
+        if (invoice.getId() == null) {
+            return renderPdf(invoice);
+        }
+        return pdfRenderings.execute(Arrays.asList(invoice.getId(), invoice.getVersion()), () -> renderPdf(invoice)).clone();
+    }
+
+    private byte[] renderPdf(Invoice invoice) throws ServiceOperationException {
         try {
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
             Document invoicePdf = new Document();
@@ -107,8 +116,8 @@ public class InvoicePdfService {
     }
 
     private void addEntries(Document invoicePdf, List<InvoiceEntry> entries) throws DocumentException {
-        BigDecimal totalNettValue = new BigDecimal(0);
-        BigDecimal totalGrossValue = new BigDecimal(0);
+        GroszeSum totalNettValue = new GroszeSum();
+        GroszeSum totalGrossValue = new GroszeSum();
         for (InvoiceEntry entry : entries) {
             PdfPTable table = new PdfPTable(7);
             setNewTableFormat(table, 100, new int[]{2, 1, 1, 1, 1, 1, 1});
@@ -121,18 +130,18 @@ public class InvoicePdfService {
             table.addCell(new Phrase(entry.getNetValue() + " zł"));
             table.addCell(new Phrase(entry.getGrossValue() + " zł"));
             invoicePdf.add(table);
-            totalNettValue = totalNettValue.add(entry.getNetValue());
-            totalGrossValue = totalGrossValue.add(entry.getGrossValue());
+            totalNettValue.add(entry.getNetValue());
+            totalGrossValue.add(entry.getGrossValue());
         }
         addEntriesSummary(invoicePdf, totalNettValue, totalGrossValue);
     }
 
-    private void addEntriesSummary(Document invoicePdf, BigDecimal totalNettValue, BigDecimal totalGrossValue) throws DocumentException {
+    private void addEntriesSummary(Document invoicePdf, GroszeSum totalNettValue, GroszeSum totalGrossValue) throws DocumentException {
         PdfPTable entriesTable = new PdfPTable(3);
         setNewTableFormat(entriesTable, 100, new int[]{6, 1, 1});
         entriesTable.addCell(new Phrase("Total:"));
-        entriesTable.addCell(new Phrase(totalNettValue + " zł"));
-        entriesTable.addCell(new Phrase(totalGrossValue + " zł"));
+        entriesTable.addCell(new Phrase(totalNettValue.toBigDecimal() + " zł"));
+        entriesTable.addCell(new Phrase(totalGrossValue.toBigDecimal() + " zł"));
         invoicePdf.add(entriesTable);
     }
 
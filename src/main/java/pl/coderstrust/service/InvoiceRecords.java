@@ -0,0 +1,118 @@
+package pl.coderstrust.service;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+class InvoiceRecords {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int columns;
+    private long[] ids;
+    private boolean[] used;
+    private long[] values;
+    private int size;
+
+    InvoiceRecords(int columns) {
+        if (columns < 1) {
+            throw new IllegalArgumentException("Columns must be positive.");
+        }
+        this.columns = columns;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long id) {
+        return used[findSlot(id)];
+    }
+
+    long get(long id, int column) {
+        int slot = findSlot(id);
+        if (!used[slot]) {
+            throw new NoSuchElementException(String.format("No record of invoice %d", id));
+        }
+        return values[slot * columns + column];
+    }
+
+    void put(long id, long... row) {
+        if (row.length != columns) {
+            throw new IllegalArgumentException(String.format("Record must have %d columns.", columns));
+        }
+        int slot = findSlot(id);
+        if (!used[slot]) {
+            if ((size + 1) * 4 > ids.length * 3) {
+                resize(ids.length * 2);
+                slot = findSlot(id);
+            }
+            ids[slot] = id;
+            used[slot] = true;
+            size++;
+        }
+        System.arraycopy(row, 0, values, slot * columns, columns);
+    }
+
+    long[] remove(long id) {
+        int slot = findSlot(id);
+        if (!used[slot]) {
+            return null;
+        }
+        long[] row = Arrays.copyOfRange(values, slot * columns, slot * columns + columns);
+        delete(slot);
+        return row;
+    }
+
+    private int findSlot(long id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (used[slot] && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void delete(int slot) {
+        int mask = ids.length - 1;
+        int freeSlot = slot;
+        int nextSlot = (freeSlot + 1) & mask;
+        while (used[nextSlot]) {
+            int homeSlot = hash(ids[nextSlot]) & mask;
+            if (((nextSlot - homeSlot) & mask) >= ((nextSlot - freeSlot) & mask)) {
+                ids[freeSlot] = ids[nextSlot];
+                System.arraycopy(values, nextSlot * columns, values, freeSlot * columns, columns);
+                freeSlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        used[freeSlot] = false;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        boolean[] oldUsed = used;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int oldSlot = 0; oldSlot < oldIds.length; oldSlot++) {
+            if (oldUsed[oldSlot]) {
+                int slot = findSlot(oldIds[oldSlot]);
+                ids[slot] = oldIds[oldSlot];
+                used[slot] = true;
+                System.arraycopy(oldValues, oldSlot * columns, values, slot * columns, columns);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        used = new boolean[capacity];
+        values = new long[capacity * columns];
+    }
+
+    private static int hash(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,377 @@
+package pl.coderstrust.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.utils.ArgumentValidator;
+import pl.coderstrust.utils.InvoiceChecksum;
+
+public class InvoiceSearchIndex extends InvoiceChangeProjection<InvoiceSearchIndex.Postings> {
+
+    private static final int FILE_MAGIC = 0x49535849;
+    private static final int FILE_FORMAT_VERSION = 2;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static Logger log = LoggerFactory.getLogger(InvoiceSearchIndex.class);
+
+    private final Path indexFile;
+
+    public InvoiceSearchIndex(Database database, InvoiceChangePublisher publisher, Path indexFile) {
+        super(database, publisher);
+        ArgumentValidator.ensureNotNull(indexFile, "indexFile");
+        this.indexFile = indexFile;
+    }
+
+    public Optional<List<Long>> search(String query, int limit) {
+        ArgumentValidator.ensureNotNull(query, "query");
+        ensureLimitIsPositive(limit);
+        List<String> terms = tokenize(query);
+        return read(postings -> postings.search(terms, limit));
+    }
+
+    public List<Invoice> computeSearchResults(String query, int limit, Collection<Invoice> invoices) {
+        ArgumentValidator.ensureNotNull(query, "query");
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        ensureLimitIsPositive(limit);
+        Postings postings = newState();
+        Map<Long, Invoice> invoicesById = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            if (invoice != null && invoice.getId() != null) {
+                postings.put(invoice);
+                invoicesById.put(invoice.getId(), invoice);
+            }
+        }
+        List<Invoice> foundInvoices = new ArrayList<>();
+        for (Long id : postings.search(tokenize(query), limit)) {
+            foundInvoices.add(invoicesById.get(id));
+        }
+        return foundInvoices;
+    }
+
+    @Scheduled(fixedDelayString = "${pl.coderstrust.search.save-interval:300000}")
+    public synchronized void save() {
+        try {
+            read(Postings::snapshotIfChanged).flatMap(Function.identity()).ifPresent(this::saveSnapshot);
+        } catch (UncheckedIOException e) {
+            log.error("An error occurred during saving search index to {}", indexFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        save();
+        super.shutdown();
+    }
+
+    @Override
+    protected Postings newState() {
+        return new Postings();
+    }
+
+    @Override
+    protected Postings loadState() {
+        if (!Files.exists(indexFile)) {
+            return newState();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(indexFile))))) {
+            Postings postings = Postings.readFrom(input);
+            log.debug("Loaded search index of {} invoices from {}", postings.size(), indexFile);
+            return postings;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index in {} cannot be read, indexing all invoices", indexFile, e);
+            return newState();
+        }
+    }
+
+    @Override
+    protected void afterLoad(Postings postings) {
+        postings.removeUnconfirmed();
+    }
+
+    @Override
+    protected void put(Postings postings, Invoice invoice) {
+        postings.put(invoice);
+    }
+
+    @Override
+    protected void remove(Postings postings, Long id) {
+        postings.remove(id);
+    }
+
+    private void saveSnapshot(Snapshot snapshot) {
+        Path temporaryFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            Path directory = indexFile.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporaryFile))))) {
+                snapshot.writeTo(output);
+            }
+            Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        snapshot.markSaved();
+        log.debug("Saved search index of {} invoices to {}", snapshot.size(), indexFile);
+    }
+
+    private static void ensureLimitIsPositive(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalizedText = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT)
+            .replace('\u0142', 'l');
+        for (String token : TOKEN_SEPARATOR.split(normalizedText)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static class Postings {
+        private final Map<String, Map<Long, Integer>> postingsByTerm = new HashMap<>();
+        private final Map<Long, Document> documentsById = new HashMap<>();
+        private final Set<Long> unconfirmedIds = new HashSet<>();
+        private volatile long modifications = 1;
+        private volatile long savedModifications;
+
+        int size() {
+            return documentsById.size();
+        }
+
+        Optional<Snapshot> snapshotIfChanged() {
+            if (modifications == savedModifications) {
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(this, modifications, new HashMap<>(documentsById)));
+        }
+
+        List<Long> search(List<String> terms, int limit) {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : new HashSet<>(terms)) {
+                Map<Long, Integer> postings = postingsByTerm.get(term);
+                if (postings == null) {
+                    return new ArrayList<>();
+                }
+                termPostings.add(postings);
+            }
+            if (termPostings.isEmpty()) {
+                return new ArrayList<>();
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            Comparator<Match> ranking = Comparator.comparingDouble((Match match) -> match.score).reversed().thenComparingLong(match -> match.id);
+            PriorityQueue<Match> topMatches = new PriorityQueue<>(Math.min(limit, termPostings.get(0).size()) + 1, ranking.reversed());
+            for (Long id : termPostings.get(0).keySet()) {
+                double score = 0;
+                for (Map<Long, Integer> postings : termPostings) {
+                    Integer frequency = postings.get(id);
+                    if (frequency == null) {
+                        score = 0;
+                        break;
+                    }
+                    score += frequency * Math.log(1 + (double) documentsById.size() / postings.size());
+                }
+                if (score > 0) {
+                    topMatches.add(new Match(id, score));
+                    if (topMatches.size() > limit) {
+                        topMatches.poll();
+                    }
+                }
+            }
+            List<Match> matches = new ArrayList<>(topMatches);
+            matches.sort(ranking);
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                ids.add(match.id);
+            }
+            return ids;
+        }
+
+        void put(Invoice invoice) {
+            if (invoice == null || invoice.getId() == null) {
+                return;
+            }
+            Document indexedDocument = documentsById.get(invoice.getId());
+            unconfirmedIds.remove(invoice.getId());
+            long checksum = InvoiceChecksum.of(invoice);
+            if (indexedDocument != null && indexedDocument.checksum == checksum
+                && indexedDocument.version != null && indexedDocument.version.equals(invoice.getVersion())) {
+                return;
+            }
+            remove(invoice.getId());
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            if (invoice.getEntries() != null) {
+                for (InvoiceEntry entry : invoice.getEntries()) {
+                    countTerms(termFrequencies, entry.getProductName());
+                }
+            }
+            countCompanyTerms(termFrequencies, invoice.getSeller());
+            countCompanyTerms(termFrequencies, invoice.getBuyer());
+            add(invoice.getId(), new Document(invoice.getVersion(), checksum, termFrequencies));
+        }
+
+        void remove(Long id) {
+            Document document = documentsById.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.termFrequencies.keySet()) {
+                Map<Long, Integer> postings = postingsByTerm.get(term);
+                postings.remove(id);
+                if (postings.isEmpty()) {
+                    postingsByTerm.remove(term);
+                }
+            }
+            modifications++;
+        }
+
+        void removeUnconfirmed() {
+            for (Long id : unconfirmedIds) {
+                remove(id);
+            }
+            unconfirmedIds.clear();
+        }
+
+        static Postings readFrom(DataInputStream input) throws IOException {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_FORMAT_VERSION) {
+                throw new IOException("Unsupported search index file format");
+            }
+            Postings postings = new Postings();
+            int documentCount = input.readInt();
+            for (int i = 0; i < documentCount; i++) {
+                long id = input.readLong();
+                Long version = input.readBoolean() ? input.readLong() : null;
+                long checksum = input.readLong();
+                int termCount = input.readInt();
+                Map<String, Integer> termFrequencies = new HashMap<>(termCount * 2);
+                for (int j = 0; j < termCount; j++) {
+                    termFrequencies.put(input.readUTF(), input.readInt());
+                }
+                postings.add(id, new Document(version, checksum, termFrequencies));
+                postings.unconfirmedIds.add(id);
+            }
+            postings.savedModifications = postings.modifications;
+            return postings;
+        }
+
+        private void add(Long id, Document document) {
+            documentsById.put(id, document);
+            document.termFrequencies.forEach((term, frequency) -> postingsByTerm.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            modifications++;
+        }
+
+        private static void countCompanyTerms(Map<String, Integer> termFrequencies, Company company) {
+            if (company != null) {
+                countTerms(termFrequencies, company.getName());
+                countTerms(termFrequencies, company.getAddress());
+            }
+        }
+
+        private static void countTerms(Map<String, Integer> termFrequencies, String text) {
+            for (String token : tokenize(text)) {
+                termFrequencies.merge(token, 1, Integer::sum);
+            }
+        }
+    }
+
+    static class Snapshot {
+        private final Postings postings;
+        private final long modifications;
+        private final Map<Long, Document> documents;
+
+        Snapshot(Postings postings, long modifications, Map<Long, Document> documents) {
+            this.postings = postings;
+            this.modifications = modifications;
+            this.documents = documents;
+        }
+
+        int size() {
+            return documents.size();
+        }
+
+        void markSaved() {
+            postings.savedModifications = modifications;
+        }
+
+        void writeTo(DataOutputStream output) throws IOException {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeInt(documents.size());
+            for (Map.Entry<Long, Document> document : documents.entrySet()) {
+                output.writeLong(document.getKey());
+                output.writeBoolean(document.getValue().version != null);
+                if (document.getValue().version != null) {
+                    output.writeLong(document.getValue().version);
+                }
+                output.writeLong(document.getValue().checksum);
+                output.writeInt(document.getValue().termFrequencies.size());
+                for (Map.Entry<String, Integer> termFrequency : document.getValue().termFrequencies.entrySet()) {
+                    output.writeUTF(termFrequency.getKey());
+                    output.writeInt(termFrequency.getValue());
+                }
+            }
+        }
+    }
+
+    private static class Match {
+        private final long id;
+        private final double score;
+
+        Match(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private static class Document {
+        private final Long version;
+        private final long checksum;
+        private final Map<String, Integer> termFrequencies;
+
+        Document(Long version, long checksum, Map<String, Integer> termFrequencies) {
+            this.version = version;
+            this.checksum = checksum;
+            this.termFrequencies = termFrequencies;
+        }
+    }
+}
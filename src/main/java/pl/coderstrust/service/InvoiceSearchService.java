@@ -0,0 +1,40 @@
+package pl.coderstrust.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Service
+public class InvoiceSearchService {
+
+    private static Logger log = LoggerFactory.getLogger(InvoiceSearchService.class);
+    private InvoiceSearchIndex invoiceSearchIndex;
+    private InvoiceService invoiceService;
+
+    InvoiceSearchService(InvoiceSearchIndex invoiceSearchIndex, InvoiceService invoiceService) {
+        ArgumentValidator.ensureNotNull(invoiceSearchIndex, "invoiceSearchIndex");
+        ArgumentValidator.ensureNotNull(invoiceService, "invoiceService");
+        this.invoiceSearchIndex = invoiceSearchIndex;
+        this.invoiceService = invoiceService;
+    }
+
+    public List<Invoice> searchInvoices(String query, int limit) throws ServiceOperationException {
+        Optional<List<Long>> foundIds = invoiceSearchIndex.search(query, limit);
+        if (!foundIds.isPresent()) {
+            log.debug("Searching invoices for \"{}\" by scanning all invoices", query);
+            return invoiceSearchIndex.computeSearchResults(query, limit, invoiceService.getAllInvoices());
+        }
+        log.debug("Searching invoices for \"{}\" in search index", query);
+        List<Invoice> foundInvoices = new ArrayList<>(foundIds.get().size());
+        for (Long id : foundIds.get()) {
+            invoiceService.getInvoice(id).ifPresent(foundInvoices::add);
+        }
+        return foundInvoices;
+    }
+}
@@ -1,28 +1,44 @@
 package pl.coderstrust.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import pl.coderstrust.database.AsyncDatabase;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.utils.ArgumentValidator;
+import reactor.core.publisher.Flux;
 
 @Service
 public class InvoiceService {
 
+    private static final Comparator<Invoice> ID_ORDER = Comparator.comparing(Invoice::getId);
+    private static final Comparator<Invoice> ISSUED_DATE_ORDER = Comparator.comparing(Invoice::getIssuedDate).thenComparing(Invoice::getId);
     private static Logger log = LoggerFactory.getLogger(InvoiceService.class);
     private Database database;
+    private AsyncDatabase asyncDatabase;
+    private InvoiceDateIndex invoiceDateIndex;
+    private final SingleFlight<Long, Optional<Invoice>> invoiceLookups = new SingleFlight<>();
 
-    InvoiceService(Database database) {
+    InvoiceService(Database database, AsyncDatabase asyncDatabase, InvoiceDateIndex invoiceDateIndex) {
         log.debug("Launching to InvoiceService with database: {}", database);
         ArgumentValidator.ensureNotNull(database, "database");
+        ArgumentValidator.ensureNotNull(asyncDatabase, "asyncDatabase");
+        ArgumentValidator.ensureNotNull(invoiceDateIndex, "invoiceDateIndex");
         this.database = database;
+        this.asyncDatabase = asyncDatabase;
+        this.invoiceDateIndex = invoiceDateIndex;
     }
 
     public Collection<Invoice> getAllInvoices() throws ServiceOperationException {
@@ -36,7 +52,66 @@ public class InvoiceService {
         }
     }
 
+    public CompletableFuture<Collection<Invoice>> getAllInvoicesAsync() {
+        log.debug("Getting all invoices asynchronously");
+        return translateFailure(asyncDatabase.getAllInvoices(), "An error occurred during getting all invoices.");
+    }
+
+    public List<Invoice> getInvoicesPage(Long afterId, int limit) throws ServiceOperationException {
+        ArgumentValidator.ensurePositive(limit, "limit");
+        try {
+            log.debug("Getting {} invoices after id: {}", limit, afterId);
+            return database.getInvoicesPage(afterId, limit);
+        } catch (DatabaseOperationException e) {
+            String message = "An error occurred during getting page of invoices.";
+            log.error(message, e);
+            throw new ServiceOperationException(message, e);
+        }
+    }
+
+    public CompletableFuture<List<Invoice>> getInvoicesPageAsync(Long afterId, int limit) {
+        ArgumentValidator.ensurePositive(limit, "limit");
+        log.debug("Getting {} invoices after id: {} asynchronously", limit, afterId);
+        return translateFailure(asyncDatabase.getInvoicesPage(afterId, limit), "An error occurred during getting page of invoices.");
+    }
+
+    public List<Invoice> findInvoices(InvoiceQuery query) throws ServiceOperationException {
+        ArgumentValidator.ensureNotNull(query, "query");
+        try {
+            log.debug("Finding invoices matching query: {}", query);
+            return database.findInvoices(query);
+        } catch (DatabaseOperationException e) {
+            String message = "An error occurred during finding invoices.";
+            log.error(message, e);
+            throw new ServiceOperationException(message, e);
+        }
+    }
+
+    public CompletableFuture<List<Invoice>> findInvoicesAsync(InvoiceQuery query) {
+        ArgumentValidator.ensureNotNull(query, "query");
+        log.debug("Finding invoices matching query: {} asynchronously", query);
+        return translateFailure(asyncDatabase.findInvoices(query), "An error occurred during finding invoices.");
+    }
+
+    public Flux<Invoice> streamInvoices() {
+        log.debug("Streaming all invoices");
+        return asyncDatabase.streamInvoices()
+            .onErrorMap(DatabaseOperationException.class, e -> {
+                String message = "An error occurred during streaming invoices.";
+                log.error(message, e);
+                return new ServiceOperationException(message, e);
+            });
+    }
+
     public Collection<Invoice> getAllInvoicesByDate(LocalDate fromDate, LocalDate toDate) throws ServiceOperationException {
+        return getInvoicesIssuedBetween(fromDate, toDate, ID_ORDER);
+    }
+
+    public List<Invoice> getAllInvoicesByDateSortedByIssuedDate(LocalDate fromDate, LocalDate toDate) throws ServiceOperationException {
+        return getInvoicesIssuedBetween(fromDate, toDate, ISSUED_DATE_ORDER);
+    }
+
+    private List<Invoice> getInvoicesIssuedBetween(LocalDate fromDate, LocalDate toDate, Comparator<Invoice> order) throws ServiceOperationException {
         ArgumentValidator.ensureNotNull(fromDate, "fromDate");
         ArgumentValidator.ensureNotNull(toDate, "toDate");
         if (fromDate.isAfter(toDate)) {
@@ -44,12 +119,15 @@ public class InvoiceService {
             log.error(message);
             throw new IllegalArgumentException(message);
         }
+        Optional<List<Invoice>> indexedInvoices = invoiceDateIndex.findIssuedBetween(fromDate, toDate);
+        if (indexedInvoices.isPresent()) {
+            log.debug("Getting all invoices by dates: from {} to {} from date index", fromDate, toDate);
+            return order == ISSUED_DATE_ORDER ? indexedInvoices.get() : sort(indexedInvoices.get(), order);
+        }
         try {
             log.debug("Getting all invoices by dates: from {} to {}", fromDate, toDate);
-            return database.getAllInvoices()
-                .stream()
-                .filter(invoice -> (invoice.getIssuedDate().compareTo(fromDate) >= 0 && invoice.getIssuedDate().compareTo(toDate) <= 0))
-                .collect(Collectors.toList());
+            List<Invoice> invoices = database.findInvoices(InvoiceQuery.builder().issuedBetween(fromDate, toDate).build());
+            return order == ID_ORDER ? invoices : sort(invoices, order);
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during getting all invoices by dates.";
             log.error(message, e);
@@ -61,10 +139,7 @@ public class InvoiceService {
         ArgumentValidator.ensureNotNull(id, "id");
         try {
             log.debug("Getting all invoices by buyer: {}", id);
-            return database.getAllInvoices()
-                .stream()
-                .filter(invoice -> (invoice.getBuyer().getId().equals(id)))
-                .collect(Collectors.toList());
+            return database.findInvoices(InvoiceQuery.builder().buyerId(id).build());
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during getting all invoices by buyer.";
             log.error(message, e);
@@ -76,10 +151,7 @@ public class InvoiceService {
         ArgumentValidator.ensureNotNull(id, "id");
         try {
             log.debug("Getting all invoices by seller: {}", id);
-            return database.getAllInvoices()
-                .stream()
-                .filter(invoice -> (invoice.getSeller().getId().equals(id)))
-                .collect(Collectors.toList());
+            return database.findInvoices(InvoiceQuery.builder().sellerId(id).build());
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during getting all invoices by seller.";
             log.error(message, e);
@@ -91,7 +163,7 @@ public class InvoiceService {
         ArgumentValidator.ensureNotNull(id, "id");
         try {
             log.debug("Getting an invoice by id: {}", id);
-            return database.getInvoice(id);
+            return invoiceLookups.execute(id, () -> database.getInvoice(id));
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during getting invoice.";
             log.error(message, e);
@@ -99,11 +171,19 @@ public class InvoiceService {
         }
     }
 
+    public CompletableFuture<Optional<Invoice>> getInvoiceAsync(Long id) {
+        ArgumentValidator.ensureNotNull(id, "id");
+        log.debug("Getting an invoice by id: {} asynchronously", id);
+        return translateFailure(invoiceLookups.executeAsync(id, () -> asyncDatabase.getInvoice(id)), "An error occurred during getting invoice.");
+    }
+
     public Invoice saveInvoice(Invoice invoice) throws ServiceOperationException {
         ArgumentValidator.ensureNotNull(invoice, "invoice");
         try {
             log.debug("Saving invoice: {}", invoice);
-            return database.saveInvoice(invoice);
+            Invoice savedInvoice = database.saveInvoice(invoice);
+            invoiceLookups.forget(savedInvoice.getId());
+            return savedInvoice;
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during saving an invoice.";
             log.error(message, e);
@@ -111,11 +191,26 @@ public class InvoiceService {
         }
     }
 
+    public List<Invoice> saveInvoices(Collection<Invoice> invoices) throws ServiceOperationException {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        try {
+            log.debug("Saving {} invoices", invoices.size());
+            List<Invoice> savedInvoices = database.saveInvoices(invoices);
+            savedInvoices.forEach(savedInvoice -> invoiceLookups.forget(savedInvoice.getId()));
+            return savedInvoices;
+        } catch (DatabaseOperationException e) {
+            String message = "An error occurred during saving invoices.";
+            log.error(message, e);
+            throw new ServiceOperationException(message, e);
+        }
+    }
+
     public void deleteInvoice(Long id) throws ServiceOperationException {
         ArgumentValidator.ensureNotNull(id, "id");
         try {
             log.debug("Deleting invoice by id: {}", id);
             database.deleteInvoice(id);
+            invoiceLookups.forget(id);
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during deleting an invoice.";
             log.error(message, e);
@@ -123,14 +218,45 @@ public class InvoiceService {
         }
     }
 
+    public void deleteInvoices(Collection<Long> ids) throws ServiceOperationException {
+        ArgumentValidator.ensureNotNull(ids, "ids");
+        try {
+            log.debug("Deleting {} invoices", ids.size());
+            database.deleteInvoices(ids);
+            ids.forEach(invoiceLookups::forget);
+        } catch (DatabaseOperationException e) {
+            String message = "An error occurred during deleting invoices.";
+            log.error(message, e);
+            throw new ServiceOperationException(message, e);
+        }
+    }
+
     public void deleteAllInvoices() throws ServiceOperationException {
         try {
             log.debug("Deleting all invoices");
             database.deleteAllInvoices();
+            invoiceLookups.forgetAll();
         } catch (DatabaseOperationException e) {
             String message = "An error occurred during deleting all invoices.";
             log.error(message, e);
             throw new ServiceOperationException(message, e);
         }
     }
+
+    private List<Invoice> sort(List<Invoice> invoices, Comparator<Invoice> order) {
+        List<Invoice> sortedInvoices = new ArrayList<>(invoices);
+        sortedInvoices.sort(order);
+        return sortedInvoices;
+    }
+
+    private <T> CompletableFuture<T> translateFailure(CompletableFuture<T> future, String message) {
+        return future.handle((result, throwable) -> {
+            if (throwable == null) {
+                return result;
+            }
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            log.error(message, cause);
+            throw new CompletionException(new ServiceOperationException(message, cause));
+        });
+    }
 }
@@ -0,0 +1,200 @@
+package pl.coderstrust.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.model.AgingBucket;
+import pl.coderstrust.model.AgingReport;
+import pl.coderstrust.model.BuyerAging;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.utils.ArgumentValidator;
+import pl.coderstrust.utils.GroszeSum;
+
+public class ReceivablesAging extends InvoiceChangeProjection<ReceivablesAging.Receivables> {
+
+    private static Logger log = LoggerFactory.getLogger(ReceivablesAging.class);
+
+    private final Clock clock;
+
+    public ReceivablesAging(Database database, InvoiceChangePublisher publisher, Clock clock) {
+        super(database, publisher);
+        ArgumentValidator.ensureNotNull(clock, "clock");
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${pl.coderstrust.reports.aging.roll-forward-cron:0 0 0 * * *}")
+    public void rollForward() {
+        LocalDate today = LocalDate.now(clock);
+        log.debug("Rolling receivables aging forward to {}", today);
+        update(receivables -> receivables.rollForwardTo(today));
+    }
+
+    public Optional<AgingReport> getReport() {
+        rollForward();
+        return read(Receivables::toReport);
+    }
+
+    public AgingReport computeReport(Collection<Invoice> invoices) {
+        ArgumentValidator.ensureNotNull(invoices, "invoices");
+        Receivables receivables = newState();
+        invoices.forEach(receivables::put);
+        return receivables.toReport();
+    }
+
+    @Override
+    protected Receivables newState() {
+        return new Receivables(LocalDate.now(clock));
+    }
+
+    @Override
+    protected void put(Receivables receivables, Invoice invoice) {
+        receivables.put(invoice);
+    }
+
+    @Override
+    protected void remove(Receivables receivables, Long id) {
+        receivables.remove(id);
+    }
+
+    static class Receivables {
+        private static final int DUE_DAY = 0;
+        private static final int HAS_BUYER = 1;
+        private static final int BUYER_ID = 2;
+        private static final int GROSS_GROSZE = 3;
+        private static final int COLUMNS = 4;
+
+        private final InvoiceRecords invoices = new InvoiceRecords(COLUMNS);
+        private final Map<Long, GroszeSum> inexactGrossValuesById = new HashMap<>();
+        private final NavigableMap<Long, InvoiceIds> idsByDueDay = new TreeMap<>();
+        private final AgingTotals totals = new AgingTotals();
+        private final NavigableMap<Long, AgingTotals> totalsByBuyer = new TreeMap<>();
+        private LocalDate asOf;
+
+        Receivables(LocalDate asOf) {
+            this.asOf = asOf;
+        }
+
+        AgingReport toReport() {
+            List<BuyerAging> buyers = new ArrayList<>(totalsByBuyer.size());
+            totalsByBuyer.forEach((buyerId, buyerTotals) -> buyers.add(new BuyerAging(buyerId, buyerTotals.toBucketTotals())));
+            return new AgingReport(asOf, totals.toBucketTotals(), buyers);
+        }
+
+        void rollForwardTo(LocalDate day) {
+            while (asOf.isBefore(day)) {
+                asOf = asOf.plusDays(1);
+                AgingBucket[] buckets = AgingBucket.values();
+                for (int i = 1; i < buckets.length; i++) {
+                    InvoiceIds idsEnteringBucket = idsByDueDay.get(asOf.toEpochDay() - buckets[i].getFromDaysPastDue());
+                    if (idsEnteringBucket != null) {
+                        for (int index = 0; index < idsEnteringBucket.size; index++) {
+                            move(idsEnteringBucket.ids[index], buckets[i - 1], buckets[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        void put(Invoice invoice) {
+            if (invoice == null || invoice.getId() == null || invoice.getDueDate() == null) {
+                return;
+            }
+            long dueDay = invoice.getDueDate().toEpochDay();
+            idsByDueDay.computeIfAbsent(dueDay, day -> new InvoiceIds()).add(invoice.getId());
+            AgingBucket bucket = getBucket(dueDay);
+            GroszeSum grossValue = AgingTotals.grossValue(invoice);
+            totals.add(bucket, grossValue);
+            Long buyerId = getBuyerId(invoice);
+            if (buyerId != null) {
+                totalsByBuyer.computeIfAbsent(buyerId, id -> new AgingTotals()).add(bucket, grossValue);
+            }
+            long grossGrosze = 0;
+            if (grossValue.isExact()) {
+                grossGrosze = grossValue.getGrosze();
+            } else {
+                inexactGrossValuesById.put(invoice.getId(), grossValue);
+            }
+            invoices.put(invoice.getId(), dueDay, buyerId != null ? 1 : 0, buyerId != null ? buyerId : 0, grossGrosze);
+        }
+
+        void remove(Long id) {
+            if (!invoices.contains(id)) {
+                return;
+            }
+            GroszeSum grossValue = getGrossValue(id);
+            long[] record = invoices.remove(id);
+            inexactGrossValuesById.remove(id);
+            long dueDay = record[DUE_DAY];
+            InvoiceIds idsOfDueDay = idsByDueDay.get(dueDay);
+            idsOfDueDay.remove(id);
+            if (idsOfDueDay.size == 0) {
+                idsByDueDay.remove(dueDay);
+            }
+            AgingBucket bucket = getBucket(dueDay);
+            totals.subtract(bucket, grossValue);
+            if (record[HAS_BUYER] != 0) {
+                AgingTotals buyerTotals = totalsByBuyer.get(record[BUYER_ID]);
+                buyerTotals.subtract(bucket, grossValue);
+                if (buyerTotals.isEmpty()) {
+                    totalsByBuyer.remove(record[BUYER_ID]);
+                }
+            }
+        }
+
+        private void move(long id, AgingBucket fromBucket, AgingBucket toBucket) {
+            GroszeSum grossValue = getGrossValue(id);
+            totals.move(fromBucket, toBucket, grossValue);
+            if (invoices.get(id, HAS_BUYER) != 0) {
+                totalsByBuyer.get(invoices.get(id, BUYER_ID)).move(fromBucket, toBucket, grossValue);
+            }
+        }
+
+        private GroszeSum getGrossValue(long id) {
+            GroszeSum inexactGrossValue = inexactGrossValuesById.get(id);
+            return inexactGrossValue != null ? inexactGrossValue : GroszeSum.ofGrosze(invoices.get(id, GROSS_GROSZE));
+        }
+
+        private AgingBucket getBucket(long dueDay) {
+            return AgingBucket.of(asOf.toEpochDay() - dueDay);
+        }
+
+        private static Long getBuyerId(Invoice invoice) {
+            return invoice.getBuyer() != null ? invoice.getBuyer().getId() : null;
+        }
+    }
+
+    private static class InvoiceIds {
+        private long[] ids = new long[1];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(long id) {
+            for (int index = 0; index < size; index++) {
+                if (ids[index] == id) {
+                    ids[index] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package pl.coderstrust.service;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.coderstrust.model.AgingReport;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Service
+public class ReceivablesAgingService {
+
+    private static Logger log = LoggerFactory.getLogger(ReceivablesAgingService.class);
+    private ReceivablesAging receivablesAging;
+    private InvoiceService invoiceService;
+
+    ReceivablesAgingService(ReceivablesAging receivablesAging, InvoiceService invoiceService) {
+        ArgumentValidator.ensureNotNull(receivablesAging, "receivablesAging");
+        ArgumentValidator.ensureNotNull(invoiceService, "invoiceService");
+        this.receivablesAging = receivablesAging;
+        this.invoiceService = invoiceService;
+    }
+
+    public AgingReport getAgingReport() throws ServiceOperationException {
+        Optional<AgingReport> maintainedReport = receivablesAging.getReport();
+        if (maintainedReport.isPresent()) {
+            log.debug("Getting receivables aging report from maintained buckets");
+            return maintainedReport.get();
+        }
+        log.debug("Getting receivables aging report by scanning all invoices");
+        return receivablesAging.computeReport(invoiceService.getAllInvoices());
+    }
+}
@@ -0,0 +1,94 @@
+package pl.coderstrust.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import pl.coderstrust.utils.ArgumentValidator;
+
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    <E extends Exception> V execute(K key, Call<V, E> call) throws E {
+        ArgumentValidator.ensureNotNull(key, "key");
+        ArgumentValidator.ensureNotNull(call, "call");
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V result = call.call();
+            inFlight.remove(key, promise);
+            promise.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        ArgumentValidator.ensureNotNull(key, "key");
+        ArgumentValidator.ensureNotNull(call, "call");
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+        try {
+            call.get().whenComplete((result, throwable) -> {
+                inFlight.remove(key, promise);
+                if (throwable != null) {
+                    promise.completeExceptionally(throwable);
+                } else {
+                    promise.complete(result);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+        }
+        return promise.thenApply(Function.identity());
+    }
+
+    void forget(K key) {
+        if (key != null) {
+            inFlight.remove(key);
+        }
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> future) throws E {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package pl.coderstrust.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.Vat;
+import pl.coderstrust.model.VatReport;
+import pl.coderstrust.utils.ArgumentValidator;
+
+public class VatReportAggregates extends InvoiceChangeProjection<VatReportAggregates.Buckets> {
+
+    public VatReportAggregates(Database database, InvoiceChangePublisher publisher) {
+        super(database, publisher);
+    }
+
+    public Optional<VatReport> getReport(LocalDate fromDate, LocalDate toDate) {
+        ArgumentValidator.ensureNotNull(fromDate, "fromDate");
+        ArgumentValidator.ensureNotNull(toDate, "toDate");
+        return read(buckets -> new VatReport(fromDate, toDate, buckets.sum(fromDate, toDate).toRateTotals()));
+    }
+
+    @Override
+    protected Buckets newState() {
+        return new Buckets();
+    }
+
+    @Override
+    protected void put(Buckets buckets, Invoice invoice) {
+        buckets.put(invoice);
+    }
+
+    @Override
+    protected void remove(Buckets buckets, Long id) {
+        buckets.remove(id);
+    }
+
+    static class Buckets {
+        private static final int ISSUED_DAY = 0;
+        private static final int COLUMNS = 1 + 2 * Vat.values().length;
+
+        private final InvoiceRecords invoices = new InvoiceRecords(COLUMNS);
+        private final Map<Long, VatTotals> inexactTotalsById = new HashMap<>();
+        private final NavigableMap<Long, VatTotals> totalsByDay = new TreeMap<>();
+        private final Map<YearMonth, VatTotals> totalsByMonth = new HashMap<>();
+
+        VatTotals sum(LocalDate fromDate, LocalDate toDate) {
+            VatTotals totals = new VatTotals();
+            LocalDate day = fromDate;
+            while (!day.isAfter(toDate)) {
+                LocalDate lastDayOfMonth = day.with(TemporalAdjusters.lastDayOfMonth());
+                if (day.getDayOfMonth() == 1 && !lastDayOfMonth.isAfter(toDate)) {
+                    VatTotals monthTotals = totalsByMonth.get(YearMonth.from(day));
+                    if (monthTotals != null) {
+                        totals.add(monthTotals);
+                    }
+                } else {
+                    LocalDate lastDay = lastDayOfMonth.isAfter(toDate) ? toDate : lastDayOfMonth;
+                    totalsByDay.subMap(day.toEpochDay(), true, lastDay.toEpochDay(), true).values().forEach(totals::add);
+                }
+                day = lastDayOfMonth.plusDays(1);
+            }
+            return totals;
+        }
+
+        void put(Invoice invoice) {
+            if (invoice == null || invoice.getId() == null || invoice.getIssuedDate() == null) {
+                return;
+            }
+            VatTotals invoiceTotals = VatTotals.of(invoice);
+            long issuedDay = invoice.getIssuedDate().toEpochDay();
+            totalsByDay.computeIfAbsent(issuedDay, day -> new VatTotals()).add(invoiceTotals);
+            totalsByMonth.computeIfAbsent(YearMonth.from(invoice.getIssuedDate()), month -> new VatTotals()).add(invoiceTotals);
+            long[] record = new long[COLUMNS];
+            record[ISSUED_DAY] = issuedDay;
+            if (invoiceTotals.isExact()) {
+                for (Vat vatRate : Vat.values()) {
+                    record[netColumn(vatRate)] = invoiceTotals.getNetGrosze(vatRate);
+                    record[grossColumn(vatRate)] = invoiceTotals.getGrossGrosze(vatRate);
+                }
+            } else {
+                inexactTotalsById.put(invoice.getId(), invoiceTotals);
+            }
+            invoices.put(invoice.getId(), record);
+        }
+
+        void remove(Long id) {
+            long[] record = invoices.remove(id);
+            if (record == null) {
+                return;
+            }
+            VatTotals invoiceTotals = inexactTotalsById.remove(id);
+            if (invoiceTotals == null) {
+                invoiceTotals = new VatTotals();
+                for (Vat vatRate : Vat.values()) {
+                    invoiceTotals.addGrosze(vatRate, record[netColumn(vatRate)], record[grossColumn(vatRate)]);
+                }
+            }
+            totalsByDay.get(record[ISSUED_DAY]).subtract(invoiceTotals);
+            totalsByMonth.get(YearMonth.from(LocalDate.ofEpochDay(record[ISSUED_DAY]))).subtract(invoiceTotals);
+        }
+
+        private static int netColumn(Vat vatRate) {
+            return 1 + 2 * vatRate.ordinal();
+        }
+
+        private static int grossColumn(Vat vatRate) {
+            return 2 + 2 * vatRate.ordinal();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package pl.coderstrust.service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.VatReport;
+import pl.coderstrust.utils.ArgumentValidator;
+
+@Service
+public class VatReportService {
+
+    private static Logger log = LoggerFactory.getLogger(VatReportService.class);
+    private VatReportAggregates vatReportAggregates;
+    private InvoiceService invoiceService;
+
+    VatReportService(VatReportAggregates vatReportAggregates, InvoiceService invoiceService) {
+        ArgumentValidator.ensureNotNull(vatReportAggregates, "vatReportAggregates");
+        ArgumentValidator.ensureNotNull(invoiceService, "invoiceService");
+        this.vatReportAggregates = vatReportAggregates;
+        this.invoiceService = invoiceService;
+    }
+
+    public VatReport getVatReport(LocalDate fromDate, LocalDate toDate) throws ServiceOperationException {
+        ArgumentValidator.ensureNotNull(fromDate, "fromDate");
+        ArgumentValidator.ensureNotNull(toDate, "toDate");
+        if (fromDate.isAfter(toDate)) {
+            String message = "fromDate cannot be after toDate.";
+            log.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        Optional<VatReport> aggregatedReport = vatReportAggregates.getReport(fromDate, toDate);
+        if (aggregatedReport.isPresent()) {
+            log.debug("Getting VAT report from {} to {} from aggregates", fromDate, toDate);
+            return aggregatedReport.get();
+        }
+        log.debug("Getting VAT report from {} to {} by summing invoices", fromDate, toDate);
+        VatTotals totals = new VatTotals();
+        for (Invoice invoice : invoiceService.getAllInvoicesByDate(fromDate, toDate)) {
+            totals.add(invoice);
+        }
+        return new VatReport(fromDate, toDate, totals.toRateTotals());
+    }
+}
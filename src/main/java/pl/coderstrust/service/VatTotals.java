@@ -0,0 +1,90 @@
+package pl.coderstrust.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
+import pl.coderstrust.model.VatRateTotals;
+import pl.coderstrust.utils.GroszeSum;
+
+class VatTotals {
+
+    private final Map<Vat, GroszeSum> netValues = new EnumMap<>(Vat.class);
+    private final Map<Vat, GroszeSum> grossValues = new EnumMap<>(Vat.class);
+
+    VatTotals() {
+        for (Vat vatRate : Vat.values()) {
+            netValues.put(vatRate, new GroszeSum());
+            grossValues.put(vatRate, new GroszeSum());
+        }
+    }
+
+    static VatTotals of(Invoice invoice) {
+        VatTotals totals = new VatTotals();
+        totals.add(invoice);
+        return totals;
+    }
+
+    void add(Invoice invoice) {
+        if (invoice.getEntries() == null) {
+            return;
+        }
+        for (InvoiceEntry entry : invoice.getEntries()) {
+            if (entry.getVatRate() != null) {
+                netValues.get(entry.getVatRate()).add(entry.getNetValue());
+                grossValues.get(entry.getVatRate()).add(entry.getGrossValue());
+            }
+        }
+    }
+
+    void add(VatTotals totals) {
+        for (Vat vatRate : Vat.values()) {
+            netValues.get(vatRate).add(totals.netValues.get(vatRate));
+            grossValues.get(vatRate).add(totals.grossValues.get(vatRate));
+        }
+    }
+
+    void subtract(VatTotals totals) {
+        for (Vat vatRate : Vat.values()) {
+            netValues.get(vatRate).subtract(totals.netValues.get(vatRate));
+            grossValues.get(vatRate).subtract(totals.grossValues.get(vatRate));
+        }
+    }
+
+    void addGrosze(Vat vatRate, long netGrosze, long grossGrosze) {
+        netValues.get(vatRate).add(GroszeSum.ofGrosze(netGrosze));
+        grossValues.get(vatRate).add(GroszeSum.ofGrosze(grossGrosze));
+    }
+
+    boolean isExact() {
+        for (Vat vatRate : Vat.values()) {
+            if (!netValues.get(vatRate).isExact() || !grossValues.get(vatRate).isExact()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getNetGrosze(Vat vatRate) {
+        return netValues.get(vatRate).getGrosze();
+    }
+
+    long getGrossGrosze(Vat vatRate) {
+        return grossValues.get(vatRate).getGrosze();
+    }
+
+    List<VatRateTotals> toRateTotals() {
+        List<VatRateTotals> rateTotals = new ArrayList<>(Vat.values().length);
+        for (Vat vatRate : Vat.values()) {
+            BigDecimal netValue = netValues.get(vatRate).toBigDecimal();
+            BigDecimal grossValue = grossValues.get(vatRate).toBigDecimal();
+            rateTotals.add(new VatRateTotals(vatRate, netValue, grossValue, grossValue.subtract(netValue)));
+        }
+        return rateTotals;
+    }
+}
@@ -7,4 +7,10 @@ public class ArgumentValidator {
             throw new IllegalArgumentException(String.format("%s cannot be null", paramName));
         }
     }
+
+    public static void ensurePositive(long argument, String paramName) {
+        if (argument <= 0) {
+            throw new IllegalArgumentException(String.format("%s must be greater than zero", paramName));
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package pl.coderstrust.utils;
+
+import java.math.BigDecimal;
+
+public final class Grosze {
+
+    public static final int SCALE = 2;
+
+    private static final int MAX_INTEGER_DIGITS = 16;
+
+    private Grosze() {
+    }
+
+    public static boolean isExact(BigDecimal value) {
+        ArgumentValidator.ensureNotNull(value, "value");
+        BigDecimal exactValue = value.scale() > SCALE ? value.stripTrailingZeros() : value;
+        return exactValue.scale() <= SCALE && exactValue.precision() - exactValue.scale() <= MAX_INTEGER_DIGITS;
+    }
+
+    public static long of(BigDecimal value) {
+        ArgumentValidator.ensureNotNull(value, "value");
+        if (!isExact(value)) {
+            throw new ArithmeticException(String.format("%s cannot be represented in grosze", value));
+        }
+        return value.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long grosze) {
+        return BigDecimal.valueOf(grosze, SCALE);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.coderstrust.utils;
+
+import java.math.BigDecimal;
+
+public class GroszeSum {
+
+    private long grosze;
+    private BigDecimal inexactValue;
+
+    public static GroszeSum ofGrosze(long grosze) {
+        GroszeSum sum = new GroszeSum();
+        sum.grosze = grosze;
+        return sum;
+    }
+
+    public void add(BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        if (!Grosze.isExact(value) || !addGrosze(Grosze.of(value))) {
+            addInexactValue(value);
+        }
+    }
+
+    public void subtract(BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        if (!Grosze.isExact(value) || !addGrosze(-Grosze.of(value))) {
+            addInexactValue(value.negate());
+        }
+    }
+
+    public void add(GroszeSum sum) {
+        if (!addGrosze(sum.grosze)) {
+            addInexactValue(Grosze.toBigDecimal(sum.grosze));
+        }
+        if (sum.inexactValue != null) {
+            addInexactValue(sum.inexactValue);
+        }
+    }
+
+    public void subtract(GroszeSum sum) {
+        if (sum.grosze == Long.MIN_VALUE || !addGrosze(-sum.grosze)) {
+            addInexactValue(Grosze.toBigDecimal(sum.grosze).negate());
+        }
+        if (sum.inexactValue != null) {
+            addInexactValue(sum.inexactValue.negate());
+        }
+    }
+
+    public boolean isExact() {
+        if (inexactValue == null) {
+            return true;
+        }
+        BigDecimal value = toBigDecimal().stripTrailingZeros();
+        return value.scale() <= Grosze.SCALE && value.movePointRight(Grosze.SCALE).toBigInteger().bitLength() < Long.SIZE;
+    }
+
+    public long getGrosze() {
+        return inexactValue == null ? grosze : toBigDecimal().movePointRight(Grosze.SCALE).longValueExact();
+    }
+
+    public BigDecimal toBigDecimal() {
+        BigDecimal value = Grosze.toBigDecimal(grosze);
+        return inexactValue == null ? value : value.add(inexactValue);
+    }
+
+    private boolean addGrosze(long value) {
+        long total = grosze + value;
+        if (((grosze ^ total) & (value ^ total)) < 0) {
+            return false;
+        }
+        grosze = total;
+        return true;
+    }
+
+    private void addInexactValue(BigDecimal value) {
+        inexactValue = inexactValue == null ? value : inexactValue.add(value);
+    }
+}
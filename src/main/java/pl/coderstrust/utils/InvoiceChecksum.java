@@ -0,0 +1,76 @@
+package pl.coderstrust.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+
+public final class InvoiceChecksum {
+
+    private static final char SEPARATOR = '|';
+
+    private InvoiceChecksum() {
+    }
+
+    public static long of(Invoice invoice) {
+        StringBuilder content = new StringBuilder();
+        append(content, invoice.getId());
+        append(content, invoice.getNumber());
+        append(content, invoice.getIssuedDate());
+        append(content, invoice.getDueDate());
+        append(content, invoice.getSeller());
+        append(content, invoice.getBuyer());
+        long checksum = crc32(content);
+        if (invoice.getEntries() != null) {
+            for (InvoiceEntry entry : invoice.getEntries()) {
+                checksum += of(entry);
+            }
+        }
+        return checksum;
+    }
+
+    private static long of(InvoiceEntry entry) {
+        if (entry == null) {
+            return 0;
+        }
+        StringBuilder content = new StringBuilder();
+        append(content, entry.getProductName());
+        append(content, entry.getQuantity());
+        append(content, entry.getUnit());
+        append(content, entry.getPrice());
+        append(content, entry.getNetValue());
+        append(content, entry.getGrossValue());
+        append(content, entry.getVatRate());
+        return crc32(content);
+    }
+
+    private static long crc32(StringBuilder content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static void append(StringBuilder content, Company company) {
+        if (company == null) {
+            append(content, (Object) null);
+            return;
+        }
+        append(content, company.getName());
+        append(content, company.getAddress());
+        append(content, company.getTaxId());
+        append(content, company.getAccountNumber());
+        append(content, company.getPhoneNumber());
+        append(content, company.getEmail());
+    }
+
+    private static void append(StringBuilder content, BigDecimal value) {
+        append(content, value != null ? value.stripTrailingZeros().toPlainString() : null);
+    }
+
+    private static void append(StringBuilder content, Object value) {
+        content.append(value != null ? value : "").append(SEPARATOR);
+    }
+}
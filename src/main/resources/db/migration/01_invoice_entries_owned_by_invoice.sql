@@ -0,0 +1,24 @@
+-- Moves invoice entries from the invoice_entries join table to a foreign key owned by invoice_entry.
+-- Entry order is taken from entry ids, which matches the order they were originally inserted in.
+
+ALTER TABLE invoice_entry ADD COLUMN IF NOT EXISTS invoice_id BIGINT;
+ALTER TABLE invoice_entry ADD COLUMN IF NOT EXISTS entry_order INTEGER;
+
+UPDATE invoice_entry entry
+SET invoice_id = link.invoice_id,
+    entry_order = link.entry_order
+FROM (
+    SELECT invoice_id,
+           entries_id,
+           ROW_NUMBER() OVER (PARTITION BY invoice_id ORDER BY entries_id) - 1 AS entry_order
+    FROM invoice_entries
+) link
+WHERE entry.id = link.entries_id;
+
+DELETE FROM invoice_entry WHERE invoice_id IS NULL;
+
+ALTER TABLE invoice_entry
+    ADD CONSTRAINT fk_invoice_entry_invoice FOREIGN KEY (invoice_id) REFERENCES invoice (id);
+CREATE INDEX IF NOT EXISTS invoice_entry_invoice_id_idx ON invoice_entry (invoice_id);
+
+DROP TABLE invoice_entries;
@@ -0,0 +1,10 @@
+-- Creates the sequences used by the pooled id optimizer (allocation size 50).
+-- Each sequence starts one full allocation above the highest existing id, so no generated id can collide with existing rows.
+
+CREATE SEQUENCE IF NOT EXISTS invoice_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS company_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS invoice_entry_seq INCREMENT BY 50;
+
+SELECT setval('invoice_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM invoice));
+SELECT setval('company_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM company));
+SELECT setval('invoice_entry_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM invoice_entry));
@@ -0,0 +1,32 @@
+-- Collapses company rows with identical details into one row and re-points invoices at the kept row.
+-- Rows are duplicates only when name, address, tax id, account, phone and email all match, so every set of
+-- details that invoices were issued with is kept. The company with the lowest id is kept for every set of details.
+-- The same tax id may appear on several rows after a company changed its details, so the tax id index is not unique.
+
+CREATE TEMPORARY TABLE company_duplicate AS
+SELECT id, MIN(id) OVER (PARTITION BY name, address, tax_id, account_number, phone_number, email) AS kept_id
+FROM company;
+
+UPDATE invoice
+SET seller_id = duplicate.kept_id
+FROM company_duplicate duplicate
+WHERE invoice.seller_id = duplicate.id
+  AND duplicate.id <> duplicate.kept_id;
+
+UPDATE invoice
+SET buyer_id = duplicate.kept_id
+FROM company_duplicate duplicate
+WHERE invoice.buyer_id = duplicate.id
+  AND duplicate.id <> duplicate.kept_id;
+
+DELETE FROM company
+USING company_duplicate duplicate
+WHERE company.id = duplicate.id
+  AND duplicate.id <> duplicate.kept_id;
+
+DROP TABLE company_duplicate;
+
+DROP INDEX IF EXISTS company_tax_id_idx;
+CREATE INDEX IF NOT EXISTS company_tax_id_idx ON company (tax_id);
+CREATE INDEX IF NOT EXISTS invoice_seller_id_idx ON invoice (seller_id);
+CREATE INDEX IF NOT EXISTS invoice_buyer_id_idx ON invoice (buyer_id);
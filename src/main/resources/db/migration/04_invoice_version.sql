@@ -0,0 +1,4 @@
+-- Adds the optimistic locking version of invoices.
+-- Existing rows start at version 0, every update increments it and is rejected when the stored version has changed in the meantime.
+
+ALTER TABLE invoice ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -3,41 +3,54 @@ package pl.coderstrust.controller;
 import static ch.qos.logback.core.encoder.ByteArrayUtil.hexStringToByteArray;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.byteThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import pl.coderstrust.database.InvoiceQuery;
+import pl.coderstrust.database.InvoiceVersionConflictException;
 import pl.coderstrust.generators.InvoiceGenerator;
 import pl.coderstrust.model.Invoice;
 import pl.coderstrust.service.InvoiceEmailService;
 import pl.coderstrust.service.InvoicePdfService;
 import pl.coderstrust.service.InvoiceService;
 import pl.coderstrust.service.ServiceOperationException;
+import reactor.core.publisher.Flux;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(InvoiceController.class)
@@ -64,53 +77,65 @@ class InvoiceControllerTest {
         //Given
         Invoice invoice = InvoiceGenerator.getRandomInvoice();
         Long invoiceId = 1L;
-        when(invoiceService.getInvoice(invoiceId)).thenReturn(Optional.ofNullable(invoice));
+        when(invoiceService.getInvoiceAsync(invoiceId)).thenReturn(CompletableFuture.completedFuture(Optional.ofNullable(invoice)));
 
         //When
-        MvcResult result = mockMvc.perform(
-            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8))
-            .andReturn();
+        MvcResult result = performAsync(
+            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8));
         int actualHttpStatus = result.getResponse().getStatus();
         Invoice actualInvoice = mapper.readValue(result.getResponse().getContentAsString(), Invoice.class);
 
         //Then
         assertEquals(HttpStatus.OK.value(), actualHttpStatus);
         assertEquals(invoice, actualInvoice);
-        verify(invoiceService).getInvoice(invoiceId);
+        verify(invoiceService).getInvoiceAsync(invoiceId);
     }
 
     @Test
     void shouldReturnNotFoundDuringGettingInvoiceWhenInvoiceDoesNotExist() throws Exception {
         //Given
         Long invoiceId = 10L;
-        when(invoiceService.getInvoice(invoiceId)).thenReturn(Optional.empty());
+        when(invoiceService.getInvoiceAsync(invoiceId)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
         //When
-        MvcResult result = mockMvc.perform(
-            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8))
-            .andReturn();
+        MvcResult result = performAsync(
+            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8));
         int actualHttpStatus = result.getResponse().getStatus();
 
         //Then
         assertEquals(HttpStatus.NOT_FOUND.value(), actualHttpStatus);
-        verify(invoiceService).getInvoice(invoiceId);
+        verify(invoiceService).getInvoiceAsync(invoiceId);
     }
 
     @Test
     void shouldReturnInternalServerErrorDuringGettingInvoiceWhenSomethingWentWrongOnServer() throws Exception {
         //Given
         Long invoiceId = 10L;
-        when(invoiceService.getInvoice(invoiceId)).thenThrow(ServiceOperationException.class);
+        when(invoiceService.getInvoiceAsync(invoiceId)).thenReturn(failedFuture(new ServiceOperationException()));
 
         //When
-        MvcResult result = mockMvc.perform(
-            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8))
-            .andReturn();
+        MvcResult result = performAsync(
+            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8));
         int actualHttpStatus = result.getResponse().getStatus();
 
         //Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), actualHttpStatus);
-        verify(invoiceService).getInvoice(invoiceId);
+        verify(invoiceService).getInvoiceAsync(invoiceId);
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableDuringGettingInvoiceWhenDatabaseExecutorIsSaturated() throws Exception {
+        //Given
+        Long invoiceId = 10L;
+        when(invoiceService.getInvoiceAsync(invoiceId)).thenThrow(RejectedExecutionException.class);
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices/{id}", invoiceId).accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), actualHttpStatus);
     }
 
     @Test
@@ -119,12 +144,11 @@ class InvoiceControllerTest {
         Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
         Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
         Collection<Invoice> invoices = Arrays.asList(invoice1, invoice2);
-        when(invoiceService.getAllInvoices()).thenReturn(invoices);
+        when(invoiceService.getAllInvoicesAsync()).thenReturn(CompletableFuture.completedFuture(invoices));
 
         //When
-        MvcResult result = mockMvc.perform(
-            get("/invoices").accept(MediaType.APPLICATION_JSON_UTF8))
-            .andReturn();
+        MvcResult result = performAsync(
+            get("/invoices").accept(MediaType.APPLICATION_JSON_UTF8));
         int actualHttpStatus = result.getResponse().getStatus();
         List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
         });
@@ -132,23 +156,166 @@ class InvoiceControllerTest {
         //Then
         assertEquals(HttpStatus.OK.value(), actualHttpStatus);
         assertEquals(invoices, actualInvoices);
-        verify(invoiceService).getAllInvoices();
+        verify(invoiceService).getAllInvoicesAsync();
     }
 
     @Test
     void shouldReturnInternalServerErrorDuringGettingAllInvoicesWhenSomethingWentWrongOnServer() throws Exception {
         //Given
-        when(invoiceService.getAllInvoices()).thenThrow(ServiceOperationException.class);
+        when(invoiceService.getAllInvoicesAsync()).thenReturn(failedFuture(new ServiceOperationException()));
 
         //When
-        MvcResult result = mockMvc.perform(
-            get("/invoices").accept(MediaType.APPLICATION_JSON_UTF8))
-            .andReturn();
+        MvcResult result = performAsync(
+            get("/invoices").accept(MediaType.APPLICATION_JSON_UTF8));
         int actualHttpStatus = result.getResponse().getStatus();
 
         //Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), actualHttpStatus);
-        verify(invoiceService).getAllInvoices();
+        verify(invoiceService).getAllInvoicesAsync();
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesWithNextCursor() throws Exception {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        List<Invoice> invoices = Arrays.asList(invoice1, invoice2);
+        when(invoiceService.getInvoicesPageAsync(10L, 2)).thenReturn(CompletableFuture.completedFuture(invoices));
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices")
+                .param("after", "10")
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+        List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
+        });
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(invoices, actualInvoices);
+        assertEquals(String.valueOf(invoice2.getId()), result.getResponse().getHeader(InvoiceController.NEXT_CURSOR_HEADER));
+        verify(invoiceService).getInvoicesPageAsync(10L, 2);
+        verify(invoiceService, never()).getAllInvoicesAsync();
+    }
+
+    @Test
+    void shouldReturnLastPageOfInvoicesWithoutNextCursor() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(invoiceService.getInvoicesPageAsync(null, 2)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(invoice)));
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices")
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertNull(result.getResponse().getHeader(InvoiceController.NEXT_CURSOR_HEADER));
+        verify(invoiceService).getInvoicesPageAsync(null, 2);
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringGettingPageOfInvoicesWhenLimitIsTooBig() throws Exception {
+        //When
+        MvcResult result = performAsync(
+            get("/invoices")
+                .param("limit", "1001")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), actualHttpStatus);
+        verify(invoiceService, never()).getInvoicesPageAsync(null, 1001);
+    }
+
+    @Test
+    void shouldReturnInvoicesMatchingSearchCriteria() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.parse("2018-01-15"));
+        InvoiceQuery query = InvoiceQuery.builder()
+            .issuedBetween(LocalDate.parse("2018-01-01"), LocalDate.parse("2018-01-31"))
+            .buyerId(invoice.getBuyer().getId())
+            .grossTotalBetween(new BigDecimal("100.00"), null)
+            .limit(50)
+            .build();
+        List<Invoice> expected = Arrays.asList(invoice);
+        when(invoiceService.findInvoicesAsync(query)).thenReturn(CompletableFuture.completedFuture(expected));
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices/search")
+                .param("issuedFrom", "2018-01-01")
+                .param("issuedTo", "2018-01-31")
+                .param("buyerId", String.valueOf(invoice.getBuyer().getId()))
+                .param("minGrossTotal", "100.00")
+                .param("limit", "50")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+        List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
+        });
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualInvoices);
+        verify(invoiceService).findInvoicesAsync(query);
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringSearchingInvoicesWhenIssuedFromIsAfterIssuedTo() throws Exception {
+        //When
+        MvcResult result = performAsync(
+            get("/invoices/search")
+                .param("issuedFrom", "2018-01-10")
+                .param("issuedTo", "2018-01-09")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), actualHttpStatus);
+        verify(invoiceService, never()).findInvoicesAsync(any(InvoiceQuery.class));
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorDuringSearchingInvoicesWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        when(invoiceService.findInvoicesAsync(any(InvoiceQuery.class))).thenReturn(failedFuture(new ServiceOperationException()));
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices/search")
+                .param("numberPrefix", "FV/2019")
+                .accept(MediaType.APPLICATION_JSON_UTF8));
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), actualHttpStatus);
+    }
+
+    @Test
+    void shouldStreamAllInvoicesAsNewlineDelimitedJson() throws Exception {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        when(invoiceService.streamInvoices()).thenReturn(Flux.just(invoice1, invoice2));
+
+        //When
+        MvcResult result = performAsync(
+            get("/invoices/stream")
+                .accept(MediaType.APPLICATION_STREAM_JSON));
+        int actualHttpStatus = result.getResponse().getStatus();
+        String[] actualLines = result.getResponse().getContentAsString().trim().split("\n");
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(2, actualLines.length);
+        assertEquals(invoice1, mapper.readValue(actualLines[0], Invoice.class));
+        assertEquals(invoice2, mapper.readValue(actualLines[1], Invoice.class));
+        verify(invoiceService).streamInvoices();
     }
 
     @Test
@@ -531,6 +698,131 @@ class InvoiceControllerTest {
         verify(invoiceService).saveInvoice(invoice);
     }
 
+    @Test
+    void shouldSaveInvoiceWithVersionFromIfMatchHeaderAndReturnETag() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        Invoice savedInvoice = new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries(), 4L);
+        ArgumentCaptor<Invoice> invoiceCaptor = ArgumentCaptor.forClass(Invoice.class);
+        when(invoiceService.saveInvoice(invoiceCaptor.capture())).thenReturn(savedInvoice);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .content(mapper.writeValueAsString(invoice)))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+        assertEquals(Long.valueOf(3L), invoiceCaptor.getValue().getVersion());
+        assertEquals("\"4\"", result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringSavingInvoiceWithInvalidIfMatchHeader() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .content(mapper.writeValueAsString(invoice)))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), result.getResponse().getStatus());
+        verify(invoiceService, never()).saveInvoice(any(Invoice.class));
+    }
+
+    @Test
+    void shouldReturnConflictDuringSavingInvoiceChangedSinceExpectedVersion() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        doThrow(new ServiceOperationException("An error occurred during saving invoice.", new InvoiceVersionConflictException("Version mismatch")))
+            .when(invoiceService)
+            .saveInvoice(invoice);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .content(mapper.writeValueAsString(invoice)))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.CONFLICT.value(), result.getResponse().getStatus());
+        verify(invoiceService).saveInvoice(invoice);
+    }
+
+    @Test
+    void shouldSaveInvoicesFromBatch() throws Exception {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        List<Invoice> invoices = Arrays.asList(invoice1, invoice2);
+        when(invoiceService.saveInvoices(invoices)).thenReturn(invoices);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(mapper.writeValueAsString(invoices)))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        List<Long> actualIds = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Long>>() {
+        });
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(Arrays.asList(invoice1.getId(), invoice2.getId()), actualIds);
+        verify(invoiceService).saveInvoices(invoices);
+        verify(invoiceEmailService, never()).sendEmailWithInvoice(invoice1);
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringSavingBatchWhichIsNotArray() throws Exception {
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(mapper.writeValueAsString(InvoiceGenerator.getRandomInvoice())))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), actualHttpStatus);
+        verify(invoiceService, never()).saveInvoices(any());
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorDuringSavingBatchWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice());
+        when(invoiceService.saveInvoices(invoices)).thenThrow(ServiceOperationException.class);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            post("/invoices/batch")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(mapper.writeValueAsString(invoices)))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), actualHttpStatus);
+    }
+
     @Test
     void shouldReturnInvoiceAsPdf() throws Exception {
         //Given
@@ -588,4 +880,17 @@ class InvoiceControllerTest {
         verify(invoiceService).getInvoice(invoice.getId());
         verify(invoicePdfService).getInvoiceAsPdf(invoice);
     }
+
+    private MvcResult performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andReturn();
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
 }
@@ -0,0 +1,225 @@
+package pl.coderstrust.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.coderstrust.model.AgingBucket;
+import pl.coderstrust.model.AgingBucketTotals;
+import pl.coderstrust.model.AgingReport;
+import pl.coderstrust.model.BuyerAging;
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.model.CompanyRole;
+import pl.coderstrust.model.Vat;
+import pl.coderstrust.model.VatRateTotals;
+import pl.coderstrust.model.VatReport;
+import pl.coderstrust.service.CompanyBalanceService;
+import pl.coderstrust.service.ReceivablesAgingService;
+import pl.coderstrust.service.ServiceOperationException;
+import pl.coderstrust.service.VatReportService;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(InvoiceReportController.class)
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+class InvoiceReportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VatReportService vatReportService;
+
+    @MockBean
+    private ReceivablesAgingService receivablesAgingService;
+
+    @MockBean
+    private CompanyBalanceService companyBalanceService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void shouldReturnVatReport() throws Exception {
+        //Given
+        LocalDate fromDate = LocalDate.of(2019, 1, 1);
+        LocalDate toDate = LocalDate.of(2019, 3, 31);
+        VatReport expected = new VatReport(fromDate, toDate, Arrays.asList(
+            new VatRateTotals(Vat.VAT_0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO),
+            new VatRateTotals(Vat.VAT_5, new BigDecimal("50.00"), new BigDecimal("52.50"), new BigDecimal("2.50")),
+            new VatRateTotals(Vat.VAT_8, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO),
+            new VatRateTotals(Vat.VAT_23, new BigDecimal("100.00"), new BigDecimal("123.00"), new BigDecimal("23.00"))));
+        when(vatReportService.getVatReport(fromDate, toDate)).thenReturn(expected);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/reports/vat")
+                .param("fromDate", "2019-01-01")
+                .param("toDate", "2019-03-31")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        VatReport actualReport = mapper.readValue(result.getResponse().getContentAsString(), VatReport.class);
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualReport);
+        verify(vatReportService).getVatReport(fromDate, toDate);
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringGettingVatReportWhenFromDateIsAfterToDate() throws Exception {
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/reports/vat")
+                .param("fromDate", "2019-02-01")
+                .param("toDate", "2019-01-31")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), actualHttpStatus);
+        verify(vatReportService, never()).getVatReport(any(), any());
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorDuringGettingVatReportWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        when(vatReportService.getVatReport(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31))).thenThrow(ServiceOperationException.class);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/reports/vat")
+                .param("fromDate", "2019-01-01")
+                .param("toDate", "2019-01-31")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), actualHttpStatus);
+    }
+
+    @Test
+    void shouldReturnAgingReport() throws Exception {
+        //Given
+        List<AgingBucketTotals> buckets = Arrays.asList(
+            new AgingBucketTotals(AgingBucket.NOT_DUE, 1, new BigDecimal("123.00")),
+            new AgingBucketTotals(AgingBucket.DAYS_0_30, 0, new BigDecimal("0.00")),
+            new AgingBucketTotals(AgingBucket.DAYS_31_60, 0, new BigDecimal("0.00")),
+            new AgingBucketTotals(AgingBucket.DAYS_61_90, 0, new BigDecimal("0.00")),
+            new AgingBucketTotals(AgingBucket.DAYS_OVER_90, 0, new BigDecimal("0.00")));
+        AgingReport expected = new AgingReport(LocalDate.of(2019, 3, 4), buckets, Collections.singletonList(new BuyerAging(7L, buckets)));
+        when(receivablesAgingService.getAgingReport()).thenReturn(expected);
+
+        //When
+        MvcResult result = mockMvc.perform(get("/invoices/reports/aging").accept(MediaType.APPLICATION_JSON_UTF8)).andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        AgingReport actualReport = mapper.readValue(result.getResponse().getContentAsString(), AgingReport.class);
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualReport);
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorDuringGettingAgingReportWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        when(receivablesAgingService.getAgingReport()).thenThrow(ServiceOperationException.class);
+
+        //When
+        MvcResult result = mockMvc.perform(get("/invoices/reports/aging").accept(MediaType.APPLICATION_JSON_UTF8)).andReturn();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getResponse().getStatus());
+    }
+
+    @Test
+    void shouldReturnTopBalances() throws Exception {
+        //Given
+        List<CompanyBalance> expected = Arrays.asList(
+            new CompanyBalance(7L, 3, new BigDecimal("1000.00"), new BigDecimal("1230.00"), LocalDate.of(2019, 3, 4)),
+            new CompanyBalance(2L, 1, new BigDecimal("100.00"), new BigDecimal("123.00"), LocalDate.of(2019, 1, 15)));
+        when(companyBalanceService.getTopBalances(CompanyRole.SELLER, 2)).thenReturn(expected);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/reports/balances")
+                .param("role", "SELLER")
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        List<CompanyBalance> actualBalances = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<CompanyBalance>>() {});
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualBalances);
+    }
+
+    @Test
+    void shouldReturnBadRequestDuringGettingTopBalancesWhenLimitIsNotPositive() throws Exception {
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/reports/balances")
+                .param("limit", "0")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), result.getResponse().getStatus());
+        verify(companyBalanceService, never()).getTopBalances(any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnBuyerBalanceByDefault() throws Exception {
+        //Given
+        CompanyBalance expected = new CompanyBalance(7L, 3, new BigDecimal("1000.00"), new BigDecimal("1230.00"), LocalDate.of(2019, 3, 4));
+        when(companyBalanceService.getBalance(CompanyRole.BUYER, 7L)).thenReturn(expected);
+
+        //When
+        MvcResult result = mockMvc.perform(get("/invoices/reports/balances/7").accept(MediaType.APPLICATION_JSON_UTF8)).andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        CompanyBalance actualBalance = mapper.readValue(result.getResponse().getContentAsString(), CompanyBalance.class);
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualBalance);
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorDuringGettingBalanceWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        when(companyBalanceService.getBalance(CompanyRole.BUYER, 7L)).thenThrow(ServiceOperationException.class);
+
+        //When
+        MvcResult result = mockMvc.perform(get("/invoices/reports/balances/7").accept(MediaType.APPLICATION_JSON_UTF8)).andReturn();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getResponse().getStatus());
+    }
+}
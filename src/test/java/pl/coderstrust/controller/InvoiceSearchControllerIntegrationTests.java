@@ -0,0 +1,105 @@
+package pl.coderstrust.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.coderstrust.database.file.FileHelper;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
+import pl.coderstrust.service.InvoiceService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+@TestPropertySource(locations = "classpath:test.properties")
+class InvoiceSearchControllerIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private FileHelper fileHelper;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @BeforeEach
+    void setup() throws IOException {
+        if (!fileHelper.isExist()) {
+            fileHelper.create();
+        }
+    }
+
+    @AfterEach
+    void clear() throws Exception {
+        invoiceService.deleteAllInvoices();
+    }
+
+    @Test
+    void shouldFindInvoicesByWordsThroughFullTextSearchNextToCriteriaSearch() throws Exception {
+        //Given
+        Invoice consulting = invoiceService.saveInvoice(invoice("Consulting services"));
+        Invoice hosting = invoiceService.saveInvoice(invoice("Hosting"));
+
+        //When
+        MvcResult fullTextResult = mockMvc.perform(
+            get("/invoices/fulltext")
+                .param("query", "consulting")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        MvcResult criteriaResult = mockMvc.perform(
+            get("/invoices/search")
+                .param("numberPrefix", "FV/")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        criteriaResult = mockMvc.perform(asyncDispatch(criteriaResult)).andReturn();
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), fullTextResult.getResponse().getStatus());
+        assertEquals(Collections.singletonList(consulting.getId()), getIds(fullTextResult));
+        assertEquals(HttpStatus.OK.value(), criteriaResult.getResponse().getStatus());
+        assertEquals(Arrays.asList(consulting.getId(), hosting.getId()), getIds(criteriaResult));
+    }
+
+    private List<Long> getIds(MvcResult result) throws Exception {
+        List<Invoice> invoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {});
+        return invoices.stream().map(Invoice::getId).collect(Collectors.toList());
+    }
+
+    private Invoice invoice(String productName) {
+        return new Invoice(null, "FV/1", LocalDate.of(2019, 1, 10), LocalDate.of(2019, 1, 24),
+            new Company(null, "Acme", "Warszawa", "1234567890", "11112222333344445555666677", "123456789", "seller@xyz.com"),
+            new Company(null, "Buyer", "Poznań", "0987654321", "99998888777766665555444433", "987654321", "buyer@xyz.com"),
+            Collections.singletonList(new InvoiceEntry(null, productName, 1, "pcs", new BigDecimal("100.00"), new BigDecimal("100.00"), new BigDecimal("123.00"), Vat.VAT_23)));
+    }
+}
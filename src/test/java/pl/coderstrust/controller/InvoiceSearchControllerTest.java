@@ -0,0 +1,112 @@
+package pl.coderstrust.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.service.InvoiceSearchService;
+import pl.coderstrust.service.ServiceOperationException;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(InvoiceSearchController.class)
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+class InvoiceSearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InvoiceSearchService invoiceSearchService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void shouldReturnFoundInvoices() throws Exception {
+        //Given
+        List<Invoice> expected = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+        when(invoiceSearchService.searchInvoices("consulting warszawa", 5)).thenReturn(expected);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/fulltext")
+                .param("query", "consulting warszawa")
+                .param("limit", "5")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+        int actualHttpStatus = result.getResponse().getStatus();
+        List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {});
+
+        //Then
+        assertEquals(HttpStatus.OK.value(), actualHttpStatus);
+        assertEquals(expected, actualInvoices);
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenQueryIsBlank() throws Exception {
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/fulltext")
+                .param("query", "  ")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), result.getResponse().getStatus());
+        verify(invoiceSearchService, never()).searchInvoices(any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenLimitIsTooHigh() throws Exception {
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/fulltext")
+                .param("query", "consulting")
+                .param("limit", "101")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.BAD_REQUEST.value(), result.getResponse().getStatus());
+        verify(invoiceSearchService, never()).searchInvoices(any(), anyInt());
+    }
+
+    @Test
+    void shouldReturnInternalServerErrorWhenSomethingWentWrongOnServer() throws Exception {
+        //Given
+        when(invoiceSearchService.searchInvoices("consulting", 20)).thenThrow(ServiceOperationException.class);
+
+        //When
+        MvcResult result = mockMvc.perform(
+            get("/invoices/fulltext")
+                .param("query", "consulting")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+            .andReturn();
+
+        //Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getResponse().getStatus());
+    }
+}
@@ -0,0 +1,143 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.database.cache.CacheStore;
+import pl.coderstrust.database.cache.LfuCacheStore;
+import pl.coderstrust.database.cache.LruCacheStore;
+import pl.coderstrust.database.cache.TtlCacheStore;
+
+class CacheStoreTest {
+
+    @Test
+    void lruStoreShouldEvictLeastRecentlyUsedEntry() {
+        //Given
+        CacheStore<Long, String> store = new LruCacheStore<>(2);
+        store.put(1L, "first");
+        store.put(2L, "second");
+        store.get(1L);
+
+        //When
+        store.put(3L, "third");
+
+        //Then
+        assertEquals("first", store.get(1L));
+        assertNull(store.get(2L));
+        assertEquals("third", store.get(3L));
+        assertEquals(1, store.getEvictionCount());
+    }
+
+    @Test
+    void lfuStoreShouldEvictLeastFrequentlyUsedEntry() {
+        //Given
+        CacheStore<Long, String> store = new LfuCacheStore<>(2);
+        store.put(1L, "first");
+        store.put(2L, "second");
+        store.get(1L);
+        store.get(1L);
+        store.get(2L);
+
+        //When
+        store.put(3L, "third");
+
+        //Then
+        assertEquals("first", store.get(1L));
+        assertNull(store.get(2L));
+        assertEquals("third", store.get(3L));
+        assertEquals(1, store.getEvictionCount());
+    }
+
+    @Test
+    void lfuStoreShouldEvictOldestEntryAmongEquallyUsedOnes() {
+        //Given
+        CacheStore<Long, String> store = new LfuCacheStore<>(2);
+        store.put(1L, "first");
+        store.put(2L, "second");
+        store.remove(1L);
+        store.put(3L, "third");
+
+        //When
+        store.put(4L, "fourth");
+
+        //Then
+        assertNull(store.get(2L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void ttlStoreShouldExpireEntriesAfterTimeToLive() {
+        //Given
+        MutableClock clock = new MutableClock(Instant.parse("2019-03-01T10:00:00Z"));
+        CacheStore<Long, String> store = new TtlCacheStore<>(10, Duration.ofMinutes(5), clock);
+        store.put(1L, "first");
+        clock.advance(Duration.ofMinutes(3));
+        store.put(2L, "second");
+
+        //When
+        clock.advance(Duration.ofMinutes(2));
+
+        //Then
+        assertNull(store.get(1L));
+        assertEquals("second", store.get(2L));
+        assertEquals(1, store.getEvictionCount());
+    }
+
+    @Test
+    void ttlStoreShouldEvictOldestEntryWhenSizeLimitIsExceeded() {
+        //Given
+        CacheStore<Long, String> store = new TtlCacheStore<>(2, Duration.ofMinutes(5), Clock.systemUTC());
+        store.put(1L, "first");
+        store.put(2L, "second");
+
+        //When
+        store.put(3L, "third");
+
+        //Then
+        assertNull(store.get(1L));
+        assertEquals(2, store.size());
+        assertEquals(1, store.getEvictionCount());
+    }
+
+    @Test
+    void shouldThrowExceptionForNonPositiveMaximumSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCacheStore<Long, String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new LfuCacheStore<Long, String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new TtlCacheStore<Long, String>(0, Duration.ofMinutes(1), Clock.systemUTC()));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.coderstrust.database.cache.CachingDatabase;
+import pl.coderstrust.database.cache.LruCacheStore;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDatabaseTest {
+
+    @Mock
+    private Database database;
+
+    private CachingDatabase cachingDatabase;
+
+    @BeforeEach
+    void setUp() {
+        cachingDatabase = new CachingDatabase(database, new LruCacheStore<>(2));
+    }
+
+    @Test
+    void shouldThrowExceptionForNullDatabase() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingDatabase(null, new LruCacheStore<>(2)));
+    }
+
+    @Test
+    void shouldThrowExceptionForNullStore() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingDatabase(database, null));
+    }
+
+    @Test
+    void shouldLoadInvoiceOnceAndReturnItFromCacheAfterwards() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+        //When
+        Optional<Invoice> firstResult = cachingDatabase.getInvoice(invoice.getId());
+        Optional<Invoice> secondResult = cachingDatabase.getInvoice(invoice.getId());
+
+        //Then
+        assertEquals(Optional.of(invoice), firstResult);
+        assertEquals(Optional.of(invoice), secondResult);
+        verify(database, times(1)).getInvoice(invoice.getId());
+        assertEquals(1, cachingDatabase.getHitCount());
+        assertEquals(1, cachingDatabase.getMissCount());
+        assertEquals(1, cachingDatabase.getSize());
+    }
+
+    @Test
+    void shouldNotCacheMissingInvoice() throws DatabaseOperationException {
+        //Given
+        when(database.getInvoice(10L)).thenReturn(Optional.empty());
+
+        //When
+        cachingDatabase.getInvoice(10L);
+        cachingDatabase.getInvoice(10L);
+
+        //Then
+        verify(database, times(2)).getInvoice(10L);
+        assertEquals(0, cachingDatabase.getSize());
+    }
+
+    @Test
+    void shouldInvalidateCachedInvoiceWhenInvoiceIsSaved() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+        when(database.saveInvoice(invoice)).thenReturn(invoice);
+        cachingDatabase.getInvoice(invoice.getId());
+
+        //When
+        cachingDatabase.saveInvoice(invoice);
+        cachingDatabase.getInvoice(invoice.getId());
+
+        //Then
+        verify(database, times(2)).getInvoice(invoice.getId());
+    }
+
+    @Test
+    void shouldInvalidateCachedInvoicesWhenInvoicesAreDeletedEvenIfDeletingFails() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice1.getId())).thenReturn(Optional.of(invoice1));
+        when(database.getInvoice(invoice2.getId())).thenReturn(Optional.of(invoice2));
+        cachingDatabase.getInvoice(invoice1.getId());
+        cachingDatabase.getInvoice(invoice2.getId());
+        doThrow(DatabaseOperationException.class).when(database).deleteInvoices(Arrays.asList(invoice1.getId(), invoice2.getId()));
+
+        //When
+        assertThrows(DatabaseOperationException.class, () -> cachingDatabase.deleteInvoices(Arrays.asList(invoice1.getId(), invoice2.getId())));
+
+        //Then
+        assertEquals(0, cachingDatabase.getSize());
+    }
+
+    @Test
+    void shouldClearCacheWhenAllInvoicesAreDeleted() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+        cachingDatabase.getInvoice(invoice.getId());
+
+        //When
+        cachingDatabase.deleteAllInvoices();
+
+        //Then
+        assertEquals(0, cachingDatabase.getSize());
+        verify(database).deleteAllInvoices();
+    }
+
+    @Test
+    void shouldCountEvictionsWhenSizeLimitIsExceeded() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice1.getId())).thenReturn(Optional.of(invoice1));
+        when(database.getInvoice(invoice2.getId())).thenReturn(Optional.of(invoice2));
+        when(database.getInvoice(invoice3.getId())).thenReturn(Optional.of(invoice3));
+
+        //When
+        cachingDatabase.getInvoice(invoice1.getId());
+        cachingDatabase.getInvoice(invoice2.getId());
+        cachingDatabase.getInvoice(invoice3.getId());
+
+        //Then
+        assertEquals(2, cachingDatabase.getSize());
+        assertEquals(1, cachingDatabase.getEvictionCount());
+    }
+
+    @Test
+    void shouldLoadInvoiceOnceForConcurrentMissesOfSameId() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadReleased = new CountDownLatch(1);
+        when(database.getInvoice(invoice.getId())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            loadReleased.await(5, TimeUnit.SECONDS);
+            return Optional.of(invoice);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            //When
+            Future<Optional<Invoice>> firstResult = executor.submit(() -> cachingDatabase.getInvoice(invoice.getId()));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<Optional<Invoice>> secondResult = executor.submit(() -> cachingDatabase.getInvoice(invoice.getId()));
+            while (cachingDatabase.getCoalescedMissCount() == 0) {
+                Thread.sleep(5);
+            }
+            loadReleased.countDown();
+
+            //Then
+            assertEquals(Optional.of(invoice), firstResult.get(5, TimeUnit.SECONDS));
+            assertEquals(Optional.of(invoice), secondResult.get(5, TimeUnit.SECONDS));
+            verify(database, times(1)).getInvoice(invoice.getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotCacheInvoiceLoadedBeforeConcurrentInvalidation() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice.getId())).thenAnswer(invocation -> {
+            cachingDatabase.deleteInvoice(invoice.getId());
+            return Optional.of(invoice);
+        });
+
+        //When
+        cachingDatabase.getInvoice(invoice.getId());
+
+        //Then
+        assertEquals(0, cachingDatabase.getSize());
+    }
+
+    @Test
+    void shouldCacheInvoiceLoadedDuringInvalidationOfOtherInvoice() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        when(database.getInvoice(invoice.getId())).thenAnswer(invocation -> {
+            cachingDatabase.deleteInvoice(2L);
+            return Optional.of(invoice);
+        });
+
+        //When
+        cachingDatabase.getInvoice(invoice.getId());
+
+        //Then
+        assertEquals(1, cachingDatabase.getSize());
+    }
+}
@@ -0,0 +1,173 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import pl.coderstrust.database.hibernate.CompanyRepository;
+import pl.coderstrust.database.hibernate.CompanyResolver;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.model.Company;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyResolverTest {
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    private CompanyResolver companyResolver;
+
+    @BeforeEach
+    void setUp() {
+        companyResolver = new CompanyResolver(companyRepository);
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionForNullRepository() {
+        assertThrows(IllegalArgumentException.class, () -> new CompanyResolver(null));
+    }
+
+    @Test
+    void shouldReturnNullForNullCompany() {
+        assertNull(companyResolver.resolve(null));
+    }
+
+    @Test
+    void shouldReuseStoredCompanyWithSameDetails() {
+        //Given
+        Company storedCompany = CompanyGenerator.getRandomCompany();
+        Company otherStoredCompany = new Company(storedCompany.getId() + 1, "Old name", storedCompany.getAddress(), storedCompany.getTaxId(), storedCompany.getAccountNumber(), storedCompany.getPhoneNumber(), storedCompany.getEmail());
+        Company company = withoutId(storedCompany);
+        when(companyRepository.findByTaxIdOrderByIdAsc(storedCompany.getTaxId())).thenReturn(Arrays.asList(otherStoredCompany, storedCompany));
+
+        //When
+        Company resolvedCompany = companyResolver.resolve(company);
+
+        //Then
+        assertEquals(storedCompany, resolvedCompany);
+        verify(companyRepository, never()).save(any(Company.class));
+    }
+
+    @Test
+    void shouldLookUpCompanyOnlyOnceForRepeatedDetails() {
+        //Given
+        Company storedCompany = CompanyGenerator.getRandomCompany();
+        when(companyRepository.findByTaxIdOrderByIdAsc(storedCompany.getTaxId())).thenReturn(Collections.singletonList(storedCompany));
+
+        //When
+        companyResolver.resolve(storedCompany);
+        Company resolvedCompany = companyResolver.resolve(storedCompany);
+
+        //Then
+        assertEquals(storedCompany, resolvedCompany);
+        verify(companyRepository, times(1)).findByTaxIdOrderByIdAsc(storedCompany.getTaxId());
+    }
+
+    @Test
+    void shouldInsertCompanyWithUnknownTaxId() {
+        //Given
+        Company company = CompanyGenerator.getRandomCompanyWithSpecificId(null);
+        Company insertedCompany = CompanyGenerator.getRandomCompanyWithSpecificId(10L);
+        when(companyRepository.findByTaxIdOrderByIdAsc(company.getTaxId())).thenReturn(Collections.emptyList());
+        when(companyRepository.save(any(Company.class))).thenReturn(insertedCompany);
+
+        //When
+        Company resolvedCompany = companyResolver.resolve(company);
+
+        //Then
+        assertEquals(insertedCompany, resolvedCompany);
+        verify(companyRepository).save(any(Company.class));
+    }
+
+    @Test
+    void shouldInsertNewCompanyWhenDetailsChanged() {
+        //Given
+        Company storedCompany = CompanyGenerator.getRandomCompany();
+        Company company = new Company(storedCompany.getId(), "New name", storedCompany.getAddress(), storedCompany.getTaxId(), storedCompany.getAccountNumber(), storedCompany.getPhoneNumber(), storedCompany.getEmail());
+        Company insertedCompany = new Company(storedCompany.getId() + 1, "New name", storedCompany.getAddress(), storedCompany.getTaxId(), storedCompany.getAccountNumber(), storedCompany.getPhoneNumber(), storedCompany.getEmail());
+        when(companyRepository.findByTaxIdOrderByIdAsc(storedCompany.getTaxId())).thenReturn(Collections.singletonList(storedCompany));
+        when(companyRepository.save(any(Company.class))).thenReturn(insertedCompany);
+        ArgumentCaptor<Company> savedCompany = ArgumentCaptor.forClass(Company.class);
+
+        //When
+        Company resolvedCompany = companyResolver.resolve(company);
+
+        //Then
+        assertEquals(insertedCompany, resolvedCompany);
+        verify(companyRepository).save(savedCompany.capture());
+        assertNull(savedCompany.getValue().getId());
+        assertEquals("New name", savedCompany.getValue().getName());
+    }
+
+    @Test
+    void shouldReuseCompanyInsertedInCommittedTransaction() {
+        //Given
+        Company company = CompanyGenerator.getRandomCompanyWithSpecificId(null);
+        Company insertedCompany = CompanyGenerator.getRandomCompanyWithSpecificId(10L);
+        when(companyRepository.findByTaxIdOrderByIdAsc(company.getTaxId())).thenReturn(Collections.emptyList());
+        when(companyRepository.save(any(Company.class))).thenReturn(insertedCompany);
+
+        //When
+        resolveInTransaction(company, TransactionSynchronization.STATUS_COMMITTED);
+        Company resolvedCompany = companyResolver.resolve(company);
+
+        //Then
+        assertEquals(insertedCompany, resolvedCompany);
+        verify(companyRepository, times(1)).save(any(Company.class));
+    }
+
+    @Test
+    void shouldNotReuseCompanyInsertedInRolledBackTransaction() {
+        //Given
+        Company company = CompanyGenerator.getRandomCompanyWithSpecificId(null);
+        Company rolledBackCompany = CompanyGenerator.getRandomCompanyWithSpecificId(10L);
+        Company insertedCompany = CompanyGenerator.getRandomCompanyWithSpecificId(11L);
+        when(companyRepository.findByTaxIdOrderByIdAsc(company.getTaxId())).thenReturn(Collections.emptyList());
+        when(companyRepository.save(any(Company.class))).thenReturn(rolledBackCompany, insertedCompany);
+
+        //When
+        resolveInTransaction(company, TransactionSynchronization.STATUS_ROLLED_BACK);
+        Company resolvedCompany = companyResolver.resolve(company);
+
+        //Then
+        assertEquals(insertedCompany, resolvedCompany);
+        verify(companyRepository, times(2)).save(any(Company.class));
+    }
+
+    private void resolveInTransaction(Company company, int completionStatus) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            companyResolver.resolve(company);
+            companyResolver.resolve(company);
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            if (completionStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, completionStatus);
+        }
+    }
+
+    private Company withoutId(Company company) {
+        return new Company(null, company.getName(), company.getAddress(), company.getTaxId(), company.getAccountNumber(), company.getPhoneNumber(), company.getEmail());
+    }
+}
@@ -0,0 +1,99 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.spy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.database.migration.DatabaseMigrator;
+import pl.coderstrust.database.migration.MigrationResult;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class DatabaseMigratorTest {
+
+    private Database source;
+    private Path checkpointFile;
+
+    @BeforeEach
+    void setup() throws IOException, DatabaseOperationException {
+        source = new InMemoryDatabase(new ConcurrentSkipListMap<>());
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            invoices.add(InvoiceGenerator.getRandomInvoiceWithoutId());
+        }
+        source.saveInvoices(invoices);
+        checkpointFile = Files.createTempFile("invoice-migration", ".checkpoint");
+        Files.delete(checkpointFile);
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    @Test
+    void shouldMigrateAllInvoicesWithTheirIds() throws DatabaseOperationException {
+        //Given
+        Database target = new InMemoryDatabase(new HashMap<>());
+        DatabaseMigrator migrator = new DatabaseMigrator(source, target, 3, 2, checkpointFile);
+
+        //When
+        MigrationResult result = migrator.migrate();
+
+        //Then
+        assertTrue(result.isVerified());
+        assertEquals(10, result.getMigratedCount());
+        for (Invoice invoice : source.getAllInvoices()) {
+            assertEquals(invoice, target.getInvoice(invoice.getId()).get());
+        }
+        assertFalse(Files.exists(checkpointFile));
+    }
+
+    @Test
+    void shouldResumeMigrationFromCheckpoint() throws DatabaseOperationException {
+        //Given
+        Database target = spy(new InMemoryDatabase(new HashMap<>()));
+        doCallRealMethod()
+            .doThrow(new DatabaseOperationException("Connection lost"))
+            .doCallRealMethod()
+            .when(target).importInvoices(anyCollection());
+        DatabaseMigrator migrator = new DatabaseMigrator(source, target, 4, 1, checkpointFile);
+        assertThrows(DatabaseOperationException.class, migrator::migrate);
+        assertTrue(Files.exists(checkpointFile));
+
+        //When
+        MigrationResult result = migrator.migrate();
+
+        //Then
+        assertTrue(result.isVerified());
+        assertEquals(10, target.countInvoices());
+        assertFalse(Files.exists(checkpointFile));
+    }
+
+    @Test
+    void shouldRefuseToMigrateIntoNonEmptyDatabase() throws DatabaseOperationException {
+        //Given
+        Database target = new InMemoryDatabase(new HashMap<>());
+        target.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        DatabaseMigrator migrator = new DatabaseMigrator(source, target, 3, 2, checkpointFile);
+
+        //Then
+        assertThrows(DatabaseOperationException.class, migrator::migrate);
+    }
+}
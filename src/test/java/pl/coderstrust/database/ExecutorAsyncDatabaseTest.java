@@ -0,0 +1,120 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutorAsyncDatabaseTest {
+
+    @Mock
+    private Database database;
+
+    private ExecutorService executor;
+    private ExecutorAsyncDatabase asyncDatabase;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        asyncDatabase = new ExecutorAsyncDatabase(database, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncDatabase.shutdown();
+    }
+
+    @Test
+    void shouldThrowExceptionForNullDatabase() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncDatabase(null, executor));
+    }
+
+    @Test
+    void shouldThrowExceptionForNullExecutor() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorAsyncDatabase(database, null));
+    }
+
+    @Test
+    void shouldReturnInvoiceFromDatabase() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        when(database.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+        //When
+        Optional<Invoice> result = asyncDatabase.getInvoice(invoice.getId()).get();
+
+        //Then
+        assertEquals(Optional.of(invoice), result);
+    }
+
+    @Test
+    void shouldStreamInvoicesFromDatabaseOnExecutorThread() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        AtomicReference<String> readingThread = new AtomicReference<>();
+        when(database.streamInvoices()).thenReturn(Flux.just(invoice).doOnNext(readInvoice -> readingThread.set(Thread.currentThread().getName())));
+        String executorThread = executor.submit(() -> Thread.currentThread().getName()).get();
+
+        //When
+        List<Invoice> result = asyncDatabase.streamInvoices().collectList().block();
+
+        //Then
+        assertEquals(Arrays.asList(invoice), result);
+        assertEquals(executorThread, readingThread.get());
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesFromDatabase() throws Exception {
+        //Given
+        List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+        when(database.getInvoicesPage(null, 2)).thenReturn(invoices);
+
+        //When
+        List<Invoice> result = asyncDatabase.getInvoicesPage(null, 2).get();
+
+        //Then
+        assertEquals(invoices, result);
+    }
+
+    @Test
+    void shouldDeleteInvoiceInDatabase() throws Exception {
+        //When
+        asyncDatabase.deleteInvoice(5L).get();
+
+        //Then
+        verify(database).deleteInvoice(5L);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenDatabaseOperationFails() throws Exception {
+        //Given
+        doThrow(DatabaseOperationException.class).when(database).deleteInvoice(5L);
+
+        //When
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> asyncDatabase.deleteInvoice(5L).get());
+
+        //Then
+        assertTrue(exception.getCause() instanceof DatabaseOperationException);
+    }
+}
@@ -166,6 +166,68 @@ class FileHelperTest {
         assertThrows(FileNotFoundException.class, () -> new FileHelper(properties).writeLine("test line"));
     }
 
+    @Test
+    void shouldAddLinesInNotEmptyFile() throws IOException {
+        //Given
+        assertTrue(resultFile.createNewFile());
+        Files.write(Paths.get(resultFilePath), "first test line".getBytes());
+        List<String> expectedFileLines = Arrays.asList("first test line", "second test line", "third test line");
+        List<String> resultFileLines;
+
+        //When
+        new FileHelper(properties).writeLines(Arrays.asList("second test line", "third test line"));
+
+        //Then
+        try (Stream<String> lines = Files.lines(Paths.get(resultFilePath))) {
+            resultFileLines = lines.collect(Collectors.toList());
+        }
+        assertEquals(expectedFileLines, resultFileLines);
+    }
+
+    @Test
+    void shouldThrowExceptionWhileWritingLinesToNonExistingFile() {
+        assertThrows(FileNotFoundException.class, () -> new FileHelper(properties).writeLines(Arrays.asList("test line")));
+    }
+
+    @Test
+    void shouldRewriteLinesInFile() throws IOException {
+        //Given
+        assertTrue(resultFile.createNewFile());
+        Files.write(Paths.get(resultFilePath), Arrays.asList("first test line", "second test line", "third test line"));
+        List<String> expectedFileLines = Arrays.asList("FIRST TEST LINE", "THIRD TEST LINE");
+        List<String> resultFileLines;
+
+        //When
+        new FileHelper(properties).rewriteLines(line -> line.startsWith("second") ? null : line.toUpperCase());
+
+        //Then
+        try (Stream<String> lines = Files.lines(Paths.get(resultFilePath))) {
+            resultFileLines = lines.collect(Collectors.toList());
+        }
+        assertEquals(expectedFileLines, resultFileLines);
+    }
+
+    @Test
+    void shouldKeepFileUnchangedWhenRewritingLinesFails() throws IOException {
+        //Given
+        assertTrue(resultFile.createNewFile());
+        List<String> expectedFileLines = Arrays.asList("first test line", "second test line");
+        Files.write(Paths.get(resultFilePath), expectedFileLines);
+        List<String> resultFileLines;
+
+        //When
+        assertThrows(IOException.class, () -> new FileHelper(properties).rewriteLines(line -> {
+            throw new IOException();
+        }));
+
+        //Then
+        try (Stream<String> lines = Files.lines(Paths.get(resultFilePath))) {
+            resultFileLines = lines.collect(Collectors.toList());
+        }
+        assertEquals(expectedFileLines, resultFileLines);
+        assertFalse(new File(resultFilePath + ".tmp").exists());
+    }
+
     @Test
     void shouldReadLinesFromFile() throws IOException {
         //Given
@@ -185,6 +247,28 @@ class FileHelperTest {
         assertThrows(FileNotFoundException.class, () -> new FileHelper(properties).readLinesFromFile());
     }
 
+    @Test
+    void shouldStreamLinesFromFile() throws IOException {
+        //Given
+        assertTrue(resultFile.createNewFile());
+        Files.write(Paths.get(resultFilePath), Arrays.asList("first test line", "second test line"));
+        List<String> expectedFileList = Arrays.asList("first test line", "second test line");
+
+        //When
+        List<String> resultFileList;
+        try (Stream<String> lines = new FileHelper(properties).streamLines()) {
+            resultFileList = lines.collect(Collectors.toList());
+        }
+
+        //Then
+        assertEquals(expectedFileList, resultFileList);
+    }
+
+    @Test
+    void shouldThrowExceptionWhileStreamingLinesForNotExistingFile() {
+        assertThrows(FileNotFoundException.class, () -> new FileHelper(properties).streamLines());
+    }
+
     @Test
     void shouldReadLeadLastLineFromFile() throws IOException {
         //Given
@@ -0,0 +1,32 @@
+package pl.coderstrust.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class H2Sequences {
+
+    public static final String CREATE_SETVAL_ALIAS = "CREATE ALIAS IF NOT EXISTS SETVAL FOR \"pl.coderstrust.database.H2Sequences.setval\"";
+
+    private H2Sequences() {
+    }
+
+    public static long setval(Connection connection, String sequence, long value) throws SQLException {
+        long increment;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?")) {
+            statement.setString(1, sequence.toUpperCase());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new SQLException(String.format("Sequence %s does not exist", sequence));
+                }
+                increment = resultSet.getLong(1);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.format("ALTER SEQUENCE %s RESTART WITH %d", sequence, value + increment));
+        }
+        return value;
+    }
+}
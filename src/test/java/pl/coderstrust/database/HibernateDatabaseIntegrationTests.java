@@ -0,0 +1,60 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import pl.coderstrust.database.hibernate.HibernateDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:hibernate-test.properties", properties = "spring.datasource.url=jdbc:h2:mem:hibernate-database-it")
+class HibernateDatabaseIntegrationTests {
+
+    @Autowired
+    private HibernateDatabase hibernateDatabase;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clear() {
+        hibernateDatabase.deleteAllInvoices();
+    }
+
+    @Test
+    void shouldServeRepeatedReadsOfInvoiceFromSecondLevelCache() throws DatabaseOperationException {
+        //Given
+        Invoice savedInvoice = hibernateDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutIds());
+        hibernateDatabase.getInvoice(savedInvoice.getId());
+        long statementsBeforeRead = statistics.getPrepareStatementCount();
+
+        //When
+        Optional<Invoice> cachedInvoice = hibernateDatabase.getInvoice(savedInvoice.getId());
+
+        //Then
+        assertEquals(Optional.of(savedInvoice), cachedInvoice);
+        assertEquals(statementsBeforeRead, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheStatistics(Invoice.class.getName()).getHitCount() > 0);
+        assertTrue(statistics.getSecondLevelCacheStatistics(Invoice.class.getName() + ".entries").getHitCount() > 0);
+    }
+}
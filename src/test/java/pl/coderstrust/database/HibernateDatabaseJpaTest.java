@@ -0,0 +1,250 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.configuration.HibernateConfiguration;
+import pl.coderstrust.database.hibernate.CompanyResolver;
+import pl.coderstrust.database.hibernate.HibernateDatabase;
+import pl.coderstrust.generators.InvoiceEntryGenerator;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({HibernateConfiguration.class, HibernateDatabase.class, CompanyResolver.class, JdbcStatementRecorder.class})
+@TestPropertySource(locations = "classpath:hibernate-test.properties", properties = "spring.datasource.url=jdbc:h2:mem:hibernate-database-jpa;DB_CLOSE_ON_EXIT=FALSE;INIT=" + H2Sequences.CREATE_SETVAL_ALIAS)
+class HibernateDatabaseJpaTest {
+
+    @Autowired
+    private HibernateDatabase hibernateDatabase;
+
+    @Autowired
+    private JdbcStatementRecorder statementRecorder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statementRecorder.clear();
+    }
+
+    @AfterEach
+    void clear() {
+        hibernateDatabase.deleteAllInvoices();
+    }
+
+    @Test
+    void shouldInsertInvoicesEntriesAndCompaniesInBatchesWithoutUpdates() throws DatabaseOperationException {
+        //Given
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            invoices.add(InvoiceGenerator.getRandomInvoiceWithoutIds());
+        }
+
+        //When
+        hibernateDatabase.saveInvoices(invoices);
+
+        //Then
+        assertSingleBatch("insert into company ", 20);
+        assertSingleBatch("insert into invoice ", 10);
+        assertSingleBatch("insert into invoice_entry ", 20);
+        assertEquals(Collections.emptyList(), statementRecorder.getExecutedStatements("update "));
+        assertEquals(20, statementRecorder.getExecutedStatements("select ").size());
+        List<JdbcStatementRecorder.ExecutedStatement> statements = statementRecorder.getExecutedStatements().stream()
+            .filter(statement -> !statement.getSql().startsWith("call next value for "))
+            .collect(Collectors.toList());
+        assertEquals(23, statements.size());
+        assertEquals(3, statements.stream().filter(JdbcStatementRecorder.ExecutedStatement::isBatch).count());
+        assertEquals(50, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void shouldKeepOrderOfEntriesWhenInvoiceIsSavedAndReordered() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithoutIds();
+        List<InvoiceEntry> entries = InvoiceEntryGenerator.getRandomEntriesWithoutIds(5);
+        Invoice savedInvoice = hibernateDatabase.saveInvoice(new Invoice(null, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), entries));
+        List<InvoiceEntry> reversedEntries = new ArrayList<>(savedInvoice.getEntries());
+        Collections.reverse(reversedEntries);
+
+        //When
+        Invoice storedInvoice = getStoredInvoice(savedInvoice.getId());
+        hibernateDatabase.saveInvoice(new Invoice(storedInvoice.getId(), storedInvoice.getNumber(), storedInvoice.getIssuedDate(), storedInvoice.getDueDate(), storedInvoice.getSeller(), storedInvoice.getBuyer(), reversedEntries, storedInvoice.getVersion()));
+        Invoice reorderedInvoice = getStoredInvoice(savedInvoice.getId());
+        List<Invoice> streamedInvoices = new ArrayList<>();
+        hibernateDatabase.forEachInvoice(streamedInvoices::add);
+
+        //Then
+        assertEquals(getProductNames(entries), getProductNames(storedInvoice.getEntries()));
+        assertEquals(getProductNames(reversedEntries), getProductNames(reorderedInvoice.getEntries()));
+        assertEquals(getIds(reversedEntries), getIds(reorderedInvoice.getEntries()));
+        assertEquals(1, streamedInvoices.size());
+        assertEquals(getProductNames(reversedEntries), getProductNames(streamedInvoices.get(0).getEntries()));
+    }
+
+    @Test
+    void shouldDeleteEntriesOfInvoicesInBulk() throws DatabaseOperationException {
+        //Given
+        List<Invoice> invoices = hibernateDatabase.saveInvoices(Arrays.asList(
+            InvoiceGenerator.getRandomInvoiceWithoutIds(), InvoiceGenerator.getRandomInvoiceWithoutIds(), InvoiceGenerator.getRandomInvoiceWithoutIds()));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        //When
+        statementRecorder.clear();
+        hibernateDatabase.deleteInvoice(invoices.get(0).getId());
+        hibernateDatabase.deleteInvoices(Collections.singletonList(invoices.get(1).getId()));
+        List<JdbcStatementRecorder.ExecutedStatement> deletes = statementRecorder.getExecutedStatements("delete ");
+        long remainingEntries = jdbcTemplate.queryForObject("select count(*) from invoice_entry", Long.class);
+        statementRecorder.clear();
+        hibernateDatabase.deleteAllInvoices();
+        List<JdbcStatementRecorder.ExecutedStatement> deletesOfAll = statementRecorder.getExecutedStatements("delete ");
+
+        //Then
+        assertEquals(4, deletes.size());
+        assertEquals(2, deletes.stream().filter(statement -> statement.getSql().startsWith("delete from invoice_entry ")).count());
+        assertTrue(deletes.stream().noneMatch(JdbcStatementRecorder.ExecutedStatement::isBatch));
+        assertEquals(invoices.get(2).getEntries().size(), remainingEntries);
+        assertEquals(2, deletesOfAll.size());
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("select count(*) from invoice_entry", Long.class));
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("select count(*) from invoice", Long.class));
+    }
+
+    @Test
+    void shouldRejectSavingInvoiceWithUnknownId() {
+        //Given
+        Invoice invoice = withId(InvoiceGenerator.getRandomInvoiceWithoutIds(), 1000L);
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> hibernateDatabase.saveInvoice(invoice));
+        assertThrows(DatabaseOperationException.class, () -> hibernateDatabase.saveInvoices(Collections.singletonList(invoice)));
+        assertEquals(0, hibernateDatabase.countInvoices());
+    }
+
+    @Test
+    void shouldKeepImportedIdsAndNotHandThemOutToLaterInserts() throws DatabaseOperationException {
+        //Given
+        Invoice savedInvoice = hibernateDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutIds());
+        List<Long> importedIds = Arrays.asList(savedInvoice.getId() + 1, savedInvoice.getId() + 2, savedInvoice.getId() + 3);
+        List<Invoice> importedInvoices = new ArrayList<>();
+        for (Long id : importedIds) {
+            importedInvoices.add(withId(InvoiceGenerator.getRandomInvoiceWithoutIds(), id));
+        }
+
+        //When
+        hibernateDatabase.importInvoices(importedInvoices);
+        Invoice insertedInvoice = hibernateDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutIds());
+
+        //Then
+        for (Long id : importedIds) {
+            assertTrue(hibernateDatabase.invoiceExists(id));
+        }
+        assertTrue(insertedInvoice.getId() > savedInvoice.getId() + 3);
+        assertEquals(5, hibernateDatabase.countInvoices());
+    }
+
+    @Test
+    void shouldApplyConcurrentUpdatesWithoutVersionOfSameInvoice() throws Exception {
+        //Given
+        Invoice savedInvoice = hibernateDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutIds());
+        int threads = 4;
+        int updatesPerThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> updates = new ArrayList<>();
+
+        //When
+        for (int thread = 0; thread < threads; thread++) {
+            updates.add(executor.submit(() -> {
+                for (int update = 0; update < updatesPerThread; update++) {
+                    hibernateDatabase.saveInvoice(withId(InvoiceGenerator.getRandomInvoiceWithoutIds(), savedInvoice.getId()));
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> update : updates) {
+                update.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        assertEquals(threads * updatesPerThread, (long) getStoredInvoice(savedInvoice.getId()).getVersion());
+    }
+
+    @Test
+    void shouldNotKeepCompaniesOfInvoiceThatFailedToSave() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithoutIds();
+        Invoice invoiceWithStoredEntries = new Invoice(null, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), InvoiceEntryGenerator.getRandomEntries(2));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        //When
+        assertThrows(RuntimeException.class, () -> hibernateDatabase.saveInvoice(invoiceWithStoredEntries));
+
+        //Then
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("select count(*) from company", Long.class));
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("select count(*) from invoice", Long.class));
+    }
+
+    private Invoice withId(Invoice invoice, Long id) {
+        return new Invoice(id, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+    }
+
+    private Invoice getStoredInvoice(Long id) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return hibernateDatabase.getInvoice(id).get();
+    }
+
+    private void assertSingleBatch(String sqlPrefix, int rows) {
+        List<JdbcStatementRecorder.ExecutedStatement> statements = statementRecorder.getExecutedStatements(sqlPrefix);
+        assertEquals(1, statements.size(), statements.toString());
+        assertTrue(statements.get(0).isBatch());
+        assertEquals(rows, statements.get(0).getRows());
+    }
+
+    private List<String> getProductNames(List<InvoiceEntry> entries) {
+        return entries.stream().map(InvoiceEntry::getProductName).collect(Collectors.toList());
+    }
+
+    private List<Long> getIds(List<InvoiceEntry> entries) {
+        return entries.stream().map(InvoiceEntry::getId).collect(Collectors.toList());
+    }
+}
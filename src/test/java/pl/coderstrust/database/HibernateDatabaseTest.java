@@ -4,13 +4,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +25,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import pl.coderstrust.database.hibernate.CompanyResolver;
 import pl.coderstrust.database.hibernate.HibernateDatabase;
 import pl.coderstrust.database.hibernate.InvoiceRepository;
 import pl.coderstrust.generators.InvoiceGenerator;
@@ -31,6 +40,12 @@ class HibernateDatabaseTest {
 
     @Mock
     private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private CompanyResolver companyResolver;
+
+    @Mock
+    private EntityManager entityManager;
     private Invoice invoice1;
     private Invoice invoice2;
 
@@ -42,12 +57,25 @@ class HibernateDatabaseTest {
 
     @Test
     void shouldThrowIllegalArgumentException() {
-        assertThrows(IllegalArgumentException.class, () -> new HibernateDatabase(null));
+        assertThrows(IllegalArgumentException.class, () -> new HibernateDatabase(null, companyResolver, entityManager));
     }
 
     @Test
-    void shouldSaveInvoice() {
+    void shouldThrowIllegalArgumentExceptionForNullCompanyResolver() {
+        assertThrows(IllegalArgumentException.class, () -> new HibernateDatabase(invoiceRepository, null, entityManager));
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionForNullEntityManager() {
+        assertThrows(IllegalArgumentException.class, () -> new HibernateDatabase(invoiceRepository, companyResolver, null));
+    }
+
+    @Test
+    void shouldSaveInvoice() throws DatabaseOperationException {
         //Given
+        when(invoiceRepository.lockVersionById(invoice1.getId())).thenReturn(Optional.of(0L));
+        when(companyResolver.resolve(invoice1.getSeller())).thenReturn(invoice1.getSeller());
+        when(companyResolver.resolve(invoice1.getBuyer())).thenReturn(invoice1.getBuyer());
         when(invoiceRepository.save(invoice1)).thenReturn(invoice2);
 
         //When
@@ -55,9 +83,38 @@ class HibernateDatabaseTest {
 
         //Then
         assertEquals(invoice2, savedInvoice);
+        verify(companyResolver).resolve(invoice1.getSeller());
+        verify(companyResolver).resolve(invoice1.getBuyer());
         verify(invoiceRepository).save(invoice1);
     }
 
+    @Test
+    void shouldSaveInvoiceWithResolvedCompanies() throws DatabaseOperationException {
+        //Given
+        when(invoiceRepository.lockVersionById(invoice1.getId())).thenReturn(Optional.of(0L));
+        when(companyResolver.resolve(invoice1.getSeller())).thenReturn(invoice2.getSeller());
+        when(companyResolver.resolve(invoice1.getBuyer())).thenReturn(invoice2.getBuyer());
+        Invoice expectedInvoice = new Invoice(invoice1.getId(), invoice1.getNumber(), invoice1.getIssuedDate(), invoice1.getDueDate(), invoice2.getSeller(), invoice2.getBuyer(), invoice1.getEntries());
+        when(invoiceRepository.save(expectedInvoice)).thenReturn(expectedInvoice);
+
+        //When
+        Invoice savedInvoice = hibernateDatabase.saveInvoice(invoice1);
+
+        //Then
+        assertEquals(expectedInvoice, savedInvoice);
+        verify(invoiceRepository).save(expectedInvoice);
+    }
+
+    @Test
+    void saveInvoiceMethodShouldThrowExceptionForNotExistingInvoice() {
+        //Given
+        when(invoiceRepository.lockVersionById(invoice1.getId())).thenReturn(Optional.empty());
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> hibernateDatabase.saveInvoice(invoice1));
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+    }
+
     @Test
     void saveInvoiceMethodShouldThrowExceptionForNullInvoice() {
         assertThrows(IllegalArgumentException.class, () -> hibernateDatabase.saveInvoice(null));
@@ -66,13 +123,15 @@ class HibernateDatabaseTest {
     @Test
     void shouldDeleteInvoice() throws DatabaseOperationException {
         //Given
-        when(invoiceRepository.existsById(invoice1.getId())).thenReturn(true);
+        when(invoiceRepository.deleteInvoiceById(invoice1.getId())).thenReturn(1);
 
         //When
         hibernateDatabase.deleteInvoice(invoice1.getId());
 
         //Then
-        verify(invoiceRepository).deleteById(invoice1.getId());
+        verify(invoiceRepository).deleteEntriesByInvoiceId(invoice1.getId());
+        verify(invoiceRepository).deleteInvoiceById(invoice1.getId());
+        verify(invoiceRepository, never()).existsById(invoice1.getId());
     }
 
     @Test
@@ -127,13 +186,107 @@ class HibernateDatabaseTest {
         verify(invoiceRepository).findAll();
     }
 
+    @Test
+    void shouldReturnFirstPageOfInvoices() {
+        //Given
+        List<Invoice> expectedInvoices = Arrays.asList(invoice1, invoice2);
+        when(invoiceRepository.findAllByOrderByIdAsc(PageRequest.of(0, 2))).thenReturn(expectedInvoices);
+
+        //When
+        List<Invoice> returnedInvoices = hibernateDatabase.getInvoicesPage(null, 2);
+
+        //Then
+        assertEquals(expectedInvoices, returnedInvoices);
+        verify(invoiceRepository).findAllByOrderByIdAsc(PageRequest.of(0, 2));
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesAfterGivenId() {
+        //Given
+        List<Invoice> expectedInvoices = Arrays.asList(invoice1, invoice2);
+        when(invoiceRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 2))).thenReturn(expectedInvoices);
+
+        //When
+        List<Invoice> returnedInvoices = hibernateDatabase.getInvoicesPage(10L, 2);
+
+        //Then
+        assertEquals(expectedInvoices, returnedInvoices);
+        verify(invoiceRepository).findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void getInvoicesPageMethodShouldThrowExceptionForNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> hibernateDatabase.getInvoicesPage(null, 0));
+    }
+
+    @Test
+    void shouldStreamAllInvoicesAndDetachThem() {
+        //Given
+        when(invoiceRepository.streamAll()).thenReturn(Stream.of(invoice1, invoice2));
+        List<Invoice> streamedInvoices = new ArrayList<>();
+
+        //When
+        hibernateDatabase.forEachInvoice(streamedInvoices::add);
+
+        //Then
+        assertEquals(Arrays.asList(invoice1, invoice2), streamedInvoices);
+        verify(entityManager).detach(invoice1);
+        verify(entityManager).detach(invoice2);
+        verify(invoiceRepository, never()).findAll();
+    }
+
+    @Test
+    void forEachInvoiceMethodShouldThrowExceptionForNullConsumer() {
+        assertThrows(IllegalArgumentException.class, () -> hibernateDatabase.forEachInvoice(null));
+    }
+
+    @Test
+    void shouldSaveInvoicesInSingleCall() throws DatabaseOperationException {
+        //Given
+        when(invoiceRepository.lockVersionById(any())).thenReturn(Optional.of(0L));
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //When
+        List<Invoice> savedInvoices = hibernateDatabase.saveInvoices(Arrays.asList(invoice1, invoice2));
+
+        //Then
+        assertEquals(Arrays.asList(invoice1.getId(), invoice2.getId()), Arrays.asList(savedInvoices.get(0).getId(), savedInvoices.get(1).getId()));
+        verify(invoiceRepository, times(2)).save(any(Invoice.class));
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void shouldDeleteInvoicesWithBulkStatements() throws DatabaseOperationException {
+        //Given
+        when(invoiceRepository.deleteInvoicesByIds(anyCollection())).thenReturn(2);
+
+        //When
+        hibernateDatabase.deleteInvoices(Arrays.asList(invoice1.getId(), invoice2.getId(), invoice1.getId()));
+
+        //Then
+        verify(invoiceRepository).deleteEntriesByInvoiceIds(anyCollection());
+        verify(invoiceRepository).deleteInvoicesByIds(anyCollection());
+        verify(invoiceRepository, never()).deleteInvoiceById(invoice1.getId());
+    }
+
+    @Test
+    void deleteInvoicesMethodShouldThrowExceptionWhenSomeInvoicesDoNotExist() {
+        //Given
+        when(invoiceRepository.deleteInvoicesByIds(anyCollection())).thenReturn(1);
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> hibernateDatabase.deleteInvoices(Arrays.asList(invoice1.getId(), invoice2.getId())));
+    }
+
     @Test
     void shouldDeleteAllInvoices() {
         //When
         hibernateDatabase.deleteAllInvoices();
 
         //Then
-        verify(invoiceRepository).deleteAll();
+        verify(invoiceRepository).deleteAllEntriesInBulk();
+        verify(invoiceRepository).deleteAllInvoicesInBulk();
+        verify(invoiceRepository, never()).deleteAll();
     }
 
     @Test
@@ -2,24 +2,32 @@ package pl.coderstrust.database;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -31,6 +39,7 @@ import pl.coderstrust.database.file.FileHelper;
 import pl.coderstrust.database.file.InFileDatabase;
 import pl.coderstrust.generators.InvoiceGenerator;
 import pl.coderstrust.model.Invoice;
+import reactor.core.Exceptions;
 
 @ExtendWith(SpringExtension.class)
 @TestPropertySource(locations = "classpath:test.properties")
@@ -219,6 +228,19 @@ class InFileDatabaseTest {
         assertEquals(updated, actual);
     }
 
+    @Test
+    void shouldThrowExceptionWhenInvoiceToBeUpdatedHasStaleVersion() throws IOException {
+        //Given
+        Invoice storedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice storedInvoiceWithVersion = new Invoice(1L, storedInvoice.getNumber(), storedInvoice.getIssuedDate(), storedInvoice.getDueDate(), storedInvoice.getSeller(), storedInvoice.getBuyer(), storedInvoice.getEntries(), 2L);
+        Invoice staleInvoice = new Invoice(1L, "5/2019", storedInvoice.getIssuedDate(), storedInvoice.getDueDate(), storedInvoice.getSeller(), storedInvoice.getBuyer(), storedInvoice.getEntries(), 1L);
+        when(fileHelper.readLinesFromFile()).thenReturn(Collections.singletonList(mapper.writeValueAsString(storedInvoiceWithVersion)));
+
+        //Then
+        assertThrows(InvoiceVersionConflictException.class, () -> inFileDataBase.saveInvoice(staleInvoice));
+        verify(fileHelper, never()).writeLine(any(String.class));
+    }
+
     @Test
     void shouldThrowExceptionForNotExistingDatabaseDuringUpdatingInvoice() throws IOException {
         Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
@@ -226,7 +248,7 @@ class InFileDatabaseTest {
         when(fileHelper.isEmpty()).thenReturn(false);
         List<String> invoicesAsJson = Collections.singletonList(invoiceAsJson);
         when(fileHelper.readLinesFromFile()).thenReturn(invoicesAsJson);
-        doThrow(new IOException()).when(fileHelper).writeLine(mapper.writeValueAsString(invoice));
+        doThrow(new IOException()).when(fileHelper).writeLine(Mockito.anyString());
         assertThrows(DatabaseOperationException.class, () -> inFileDataBase.saveInvoice(invoice));
 
     }
@@ -367,6 +389,199 @@ class InFileDatabaseTest {
         assertThrows(DatabaseOperationException.class, () -> inFileDataBase.getAllInvoices());
     }
 
+    @Test
+    void shouldVisitAllInvoicesWithoutReadingWholeFile() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        String invoice1AsJson = mapper.writeValueAsString(invoice1);
+        String invoice2AsJson = mapper.writeValueAsString(invoice2);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(invoice1AsJson, invoice2AsJson));
+        List<Invoice> visitedInvoices = new ArrayList<>();
+
+        //When
+        inFileDataBase.forEachInvoice(visitedInvoices::add);
+
+        //Then
+        assertEquals(Arrays.asList(invoice1, invoice2), visitedInvoices);
+        verify(fileHelper, never()).readLinesFromFile();
+    }
+
+    @Test
+    void shouldStreamInvoicesAndCloseLinesStreamWhenSubscriberCancels() throws IOException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        AtomicBoolean linesStreamClosed = new AtomicBoolean();
+        List<String> readLines = new ArrayList<>();
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2))
+            .peek(readLines::add)
+            .onClose(() -> linesStreamClosed.set(true)));
+
+        //When
+        List<Invoice> invoices = inFileDataBase.streamInvoices().take(1).collectList().block();
+
+        //Then
+        assertEquals(Arrays.asList(invoice1), invoices);
+        assertEquals(1, readLines.size());
+        assertTrue(linesStreamClosed.get());
+    }
+
+    @Test
+    void streamInvoicesShouldSignalDatabaseOperationExceptionWhenFileCannotBeRead() throws IOException {
+        //Given
+        when(fileHelper.streamLines()).thenThrow(IOException.class);
+
+        //When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> inFileDataBase.streamInvoices().blockLast());
+
+        //Then
+        assertTrue(Exceptions.unwrap(exception) instanceof DatabaseOperationException);
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesOrderedById() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        Invoice invoice4 = InvoiceGenerator.getRandomInvoiceWithSpecificId(4L);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2),
+            mapper.writeValueAsString(invoice3), mapper.writeValueAsString(invoice4)));
+
+        //When
+        List<Invoice> page = inFileDataBase.getInvoicesPage(1L, 2);
+
+        //Then
+        assertEquals(Arrays.asList(invoice3, invoice1), page);
+    }
+
+    @Test
+    void shouldFindInvoicesMatchingQueryOrderedById() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        InvoiceQuery query = InvoiceQuery.builder().sellerId(invoice1.getSeller().getId()).build();
+        Invoice invoice4 = new Invoice(4L, invoice3.getNumber(), invoice3.getIssuedDate(), invoice3.getDueDate(), invoice1.getSeller(), invoice3.getBuyer(), invoice3.getEntries());
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice4), mapper.writeValueAsString(invoice1),
+            mapper.writeValueAsString(invoice2), mapper.writeValueAsString(invoice3)));
+
+        //When
+        List<Invoice> invoices = inFileDataBase.findInvoices(query);
+
+        //Then
+        assertEquals(Arrays.asList(invoice1, invoice4), invoices);
+        verify(fileHelper, never()).readLinesFromFile();
+    }
+
+    @Test
+    void shouldFindLimitedNumberOfInvoicesWithLowestIds() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2),
+            mapper.writeValueAsString(invoice3)));
+
+        //When
+        List<Invoice> invoices = inFileDataBase.findInvoices(InvoiceQuery.builder().limit(2).build());
+
+        //Then
+        assertEquals(Arrays.asList(invoice2, invoice3), invoices);
+    }
+
+    @Test
+    void shouldInsertInvoicesWithSingleAppend() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice storedInvoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice storedInvoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithoutId();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithoutId();
+        Invoice expectedInvoice1 = new Invoice(3L, invoice1.getNumber(), invoice1.getIssuedDate(), invoice1.getDueDate(), invoice1.getSeller(), invoice1.getBuyer(), invoice1.getEntries(), 0L);
+        Invoice expectedInvoice2 = new Invoice(4L, invoice2.getNumber(), invoice2.getIssuedDate(), invoice2.getDueDate(), invoice2.getSeller(), invoice2.getBuyer(), invoice2.getEntries(), 0L);
+        when(fileHelper.isExist()).thenReturn(true);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(storedInvoice1), mapper.writeValueAsString(storedInvoice2)));
+
+        //When
+        List<Invoice> savedInvoices = inFileDataBase.saveInvoices(Arrays.asList(invoice1, invoice2));
+
+        //Then
+        assertEquals(Arrays.asList(expectedInvoice1, expectedInvoice2), savedInvoices);
+        verify(fileHelper).writeLines(Arrays.asList(mapper.writeValueAsString(expectedInvoice1), mapper.writeValueAsString(expectedInvoice2)));
+        verify(fileHelper, never()).writeLine(any(String.class));
+        verify(fileHelper, never()).rewriteLines(any(FileHelper.LineTransformer.class));
+    }
+
+    @Test
+    void shouldUpdateInvoicesInSingleRewrite() throws IOException, DatabaseOperationException {
+        //Given
+        Invoice storedInvoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice storedInvoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        String storedInvoice1AsJson = mapper.writeValueAsString(storedInvoice1);
+        when(fileHelper.isExist()).thenReturn(true);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(storedInvoice1AsJson, mapper.writeValueAsString(storedInvoice2)));
+        ArgumentCaptor<FileHelper.LineTransformer> transformerCaptor = ArgumentCaptor.forClass(FileHelper.LineTransformer.class);
+
+        //When
+        List<Invoice> savedInvoices = inFileDataBase.saveInvoices(Collections.singletonList(updatedInvoice));
+
+        //Then
+        assertEquals(Collections.singletonList(updatedInvoice), savedInvoices);
+        verify(fileHelper).rewriteLines(transformerCaptor.capture());
+        assertEquals(storedInvoice1AsJson, transformerCaptor.getValue().transform(storedInvoice1AsJson));
+        assertEquals(mapper.writeValueAsString(savedInvoices.get(0)), transformerCaptor.getValue().transform(mapper.writeValueAsString(storedInvoice2)));
+    }
+
+    @Test
+    void shouldNotSaveAnyInvoiceWhenUpdatedInvoiceDoesNotExist() throws IOException {
+        //Given
+        when(fileHelper.isExist()).thenReturn(true);
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(InvoiceGenerator.getRandomInvoiceWithSpecificId(1L))));
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> inFileDataBase.saveInvoices(Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithSpecificId(7L))));
+        verify(fileHelper, never()).writeLines(anyCollection());
+        verify(fileHelper, never()).rewriteLines(any(FileHelper.LineTransformer.class));
+    }
+
+    @Test
+    void shouldDeleteInvoicesInSingleRewrite() throws IOException, DatabaseOperationException {
+        //Given
+        String invoice1AsJson = mapper.writeValueAsString(InvoiceGenerator.getRandomInvoiceWithSpecificId(1L));
+        String invoice2AsJson = mapper.writeValueAsString(InvoiceGenerator.getRandomInvoiceWithSpecificId(2L));
+        String invoice3AsJson = mapper.writeValueAsString(InvoiceGenerator.getRandomInvoiceWithSpecificId(3L));
+        when(fileHelper.streamLines()).thenReturn(Stream.of(invoice1AsJson, invoice2AsJson, invoice3AsJson));
+        ArgumentCaptor<FileHelper.LineTransformer> transformerCaptor = ArgumentCaptor.forClass(FileHelper.LineTransformer.class);
+
+        //When
+        inFileDataBase.deleteInvoices(Arrays.asList(1L, 3L));
+
+        //Then
+        verify(fileHelper).rewriteLines(transformerCaptor.capture());
+        assertNull(transformerCaptor.getValue().transform(invoice1AsJson));
+        assertEquals(invoice2AsJson, transformerCaptor.getValue().transform(invoice2AsJson));
+        assertNull(transformerCaptor.getValue().transform(invoice3AsJson));
+        verify(fileHelper, never()).removeLine(Mockito.anyInt());
+    }
+
+    @Test
+    void shouldNotDeleteAnyInvoiceWhenOneOfThemDoesNotExist() throws IOException {
+        //Given
+        when(fileHelper.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(InvoiceGenerator.getRandomInvoiceWithSpecificId(1L))));
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> inFileDataBase.deleteInvoices(Arrays.asList(1L, 2L)));
+        verify(fileHelper, never()).rewriteLines(any(FileHelper.LineTransformer.class));
+    }
+
+    @Test
+    void shouldThrowExceptionForNotExistingDatabaseDuringVisitingAllInvoices() throws IOException {
+        when(fileHelper.streamLines()).thenThrow(IOException.class);
+        assertThrows(DatabaseOperationException.class, () -> inFileDataBase.forEachInvoice(invoice -> { }));
+    }
+
     @Test
     void shouldThrowExceptionForNotExistingDatabaseDuringDeletingAllInvoices() throws IOException {
         doThrow(IOException.class).when(fileHelper).clear();
@@ -8,10 +8,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -86,6 +90,48 @@ class InMemoryDatabaseTest {
         });
     }
 
+    @Test
+    void shouldIncrementVersionOnEveryUpdate() throws DatabaseOperationException {
+        //Given
+        Invoice insertedInvoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice invoiceToUpdate = new Invoice(insertedInvoice.getId(), "5/2019", LocalDate.now(), LocalDate.now(), insertedInvoice.getSeller(), insertedInvoice.getBuyer(), insertedInvoice.getEntries(), 0L);
+
+        //When
+        Invoice updatedInvoice = database.saveInvoice(invoiceToUpdate);
+
+        //Then
+        assertEquals(Long.valueOf(0L), insertedInvoice.getVersion());
+        assertEquals(Long.valueOf(1L), updatedInvoice.getVersion());
+        assertEquals(Long.valueOf(1L), databaseStorage.get(insertedInvoice.getId()).getVersion());
+    }
+
+    @Test
+    void saveInvoiceMethodShouldThrowExceptionDuringUpdatingInvoiceWithStaleVersion() throws DatabaseOperationException {
+        //Given
+        Invoice insertedInvoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice firstUpdate = new Invoice(insertedInvoice.getId(), "5/2019", LocalDate.now(), LocalDate.now(), insertedInvoice.getSeller(), insertedInvoice.getBuyer(), insertedInvoice.getEntries(), 0L);
+        Invoice secondUpdate = new Invoice(insertedInvoice.getId(), "6/2019", LocalDate.now(), LocalDate.now(), insertedInvoice.getSeller(), insertedInvoice.getBuyer(), insertedInvoice.getEntries(), 0L);
+        database.saveInvoice(firstUpdate);
+
+        //Then
+        assertThrows(InvoiceVersionConflictException.class, () -> database.saveInvoice(secondUpdate));
+        assertEquals("5/2019", databaseStorage.get(insertedInvoice.getId()).getNumber());
+    }
+
+    @Test
+    void saveInvoicesMethodShouldNotSaveAnyInvoiceWhenOneHasStaleVersion() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice invoice2 = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice invoice1Update = new Invoice(invoice1.getId(), "5/2019", LocalDate.now(), LocalDate.now(), invoice1.getSeller(), invoice1.getBuyer(), invoice1.getEntries(), 0L);
+        Invoice invoice2Update = new Invoice(invoice2.getId(), "6/2019", LocalDate.now(), LocalDate.now(), invoice2.getSeller(), invoice2.getBuyer(), invoice2.getEntries(), 7L);
+
+        //Then
+        assertThrows(InvoiceVersionConflictException.class, () -> database.saveInvoices(Arrays.asList(invoice1Update, invoice2Update)));
+        assertEquals(invoice1, databaseStorage.get(invoice1.getId()));
+        assertEquals(Long.valueOf(0L), databaseStorage.get(invoice1.getId()).getVersion());
+    }
+
     @Test
     void shouldDeleteInvoice() throws DatabaseOperationException {
         //Given
@@ -152,6 +198,163 @@ class InMemoryDatabaseTest {
         assertEquals(databaseStorage.values(), allInvoices);
     }
 
+    @Test
+    void shouldReturnPageOfInvoicesOrderedById() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(4L);
+        Invoice invoice4 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        databaseStorage.put(invoice1.getId(), invoice1);
+        databaseStorage.put(invoice2.getId(), invoice2);
+        databaseStorage.put(invoice3.getId(), invoice3);
+        databaseStorage.put(invoice4.getId(), invoice4);
+
+        //When
+        List<Invoice> firstPage = database.getInvoicesPage(null, 2);
+        List<Invoice> secondPage = database.getInvoicesPage(2L, 2);
+        List<Invoice> lastPage = database.getInvoicesPage(4L, 2);
+
+        //Then
+        assertEquals(Arrays.asList(invoice2, invoice4), firstPage);
+        assertEquals(Arrays.asList(invoice1, invoice3), secondPage);
+        assertTrue(lastPage.isEmpty());
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesFromSortedStorage() throws DatabaseOperationException {
+        //Given
+        Map<Long, Invoice> sortedStorage = new ConcurrentSkipListMap<>();
+        Database databaseWithSortedStorage = new InMemoryDatabase(sortedStorage);
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        sortedStorage.put(invoice1.getId(), invoice1);
+        sortedStorage.put(invoice2.getId(), invoice2);
+        sortedStorage.put(invoice3.getId(), invoice3);
+
+        //When
+        List<Invoice> page = databaseWithSortedStorage.getInvoicesPage(1L, 5);
+
+        //Then
+        assertEquals(Arrays.asList(invoice3, invoice1), page);
+    }
+
+    @Test
+    void getInvoicesPageMethodShouldThrowExceptionForNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> database.getInvoicesPage(null, 0));
+    }
+
+    @Test
+    void shouldFindInvoicesMatchingQueryOrderedById() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2018, 5, 20));
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2018, 7, 1));
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2018, 5, 2));
+        databaseStorage.put(invoice3.getId(), invoice3);
+        databaseStorage.put(invoice2.getId(), invoice2);
+        databaseStorage.put(invoice1.getId(), invoice1);
+        InvoiceQuery query = InvoiceQuery.builder().issuedBetween(LocalDate.of(2018, 5, 1), LocalDate.of(2018, 5, 31)).build();
+
+        //When
+        List<Invoice> invoices = database.findInvoices(query);
+
+        //Then
+        assertEquals(Arrays.asList(invoice1, invoice3), invoices);
+    }
+
+    @Test
+    void shouldFindLimitedNumberOfInvoices() throws DatabaseOperationException {
+        //Given
+        Map<Long, Invoice> sortedStorage = new ConcurrentSkipListMap<>();
+        Database databaseWithSortedStorage = new InMemoryDatabase(sortedStorage);
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificId(3L);
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        sortedStorage.put(invoice1.getId(), invoice1);
+        sortedStorage.put(invoice2.getId(), invoice2);
+        sortedStorage.put(invoice3.getId(), invoice3);
+
+        //When
+        List<Invoice> invoices = databaseWithSortedStorage.findInvoices(InvoiceQuery.builder().limit(2).build());
+
+        //Then
+        assertEquals(Arrays.asList(invoice2, invoice3), invoices);
+    }
+
+    @Test
+    void shouldSaveInvoices() throws DatabaseOperationException {
+        //Given
+        Invoice storedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(100L);
+        databaseStorage.put(storedInvoice.getId(), storedInvoice);
+        Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(storedInvoice.getId());
+        Invoice insertedInvoice = InvoiceGenerator.getRandomInvoiceWithoutId();
+
+        //When
+        List<Invoice> savedInvoices = database.saveInvoices(Arrays.asList(updatedInvoice, insertedInvoice));
+
+        //Then
+        assertEquals(2, databaseStorage.size());
+        assertEquals(updatedInvoice, databaseStorage.get(storedInvoice.getId()));
+        assertEquals(savedInvoices.get(1), databaseStorage.get(savedInvoices.get(1).getId()));
+    }
+
+    @Test
+    void shouldNotSaveAnyInvoiceWhenUpdatedInvoiceDoesNotExist() {
+        //Given
+        Invoice insertedInvoice = InvoiceGenerator.getRandomInvoiceWithoutId();
+        Invoice notExistingInvoice = InvoiceGenerator.getRandomInvoice();
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> database.saveInvoices(Arrays.asList(insertedInvoice, notExistingInvoice)));
+        assertTrue(databaseStorage.isEmpty());
+    }
+
+    @Test
+    void shouldDeleteInvoices() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice3 = InvoiceGenerator.getRandomInvoice();
+        databaseStorage.put(invoice1.getId(), invoice1);
+        databaseStorage.put(invoice2.getId(), invoice2);
+        databaseStorage.put(invoice3.getId(), invoice3);
+
+        //When
+        database.deleteInvoices(Arrays.asList(invoice1.getId(), invoice3.getId()));
+
+        //Then
+        assertEquals(1, databaseStorage.size());
+        assertTrue(databaseStorage.containsKey(invoice2.getId()));
+    }
+
+    @Test
+    void shouldNotDeleteAnyInvoiceWhenOneOfThemDoesNotExist() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        databaseStorage.put(invoice.getId(), invoice);
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> database.deleteInvoices(Arrays.asList(invoice.getId(), invoice.getId() + 1)));
+        assertEquals(1, databaseStorage.size());
+    }
+
+    @Test
+    void shouldVisitAllInvoices() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        databaseStorage.put(invoice1.getId(), invoice1);
+        databaseStorage.put(invoice2.getId(), invoice2);
+        List<Invoice> visitedInvoices = new ArrayList<>();
+
+        //When
+        database.forEachInvoice(visitedInvoices::add);
+
+        //Then
+        assertEquals(new ArrayList<>(databaseStorage.values()), visitedInvoices);
+    }
+
     @Test
     void shouldDeleteAllInvoices() throws DatabaseOperationException {
         //Given
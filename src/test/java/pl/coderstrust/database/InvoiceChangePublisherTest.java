@@ -0,0 +1,158 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.event.InvoiceChangeEvent;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangeListener;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.event.InvoiceChangeSubscription;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class InvoiceChangePublisherTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private InvoiceChangePublisher publisher;
+    private Database database;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(8));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldPublishOrderedEventsForEveryChange() throws Exception {
+        //Given
+        RecordingListener listener = new RecordingListener();
+        publisher.subscribe(listener);
+
+        //When
+        Invoice insertedInvoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice updatedInvoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithSpecificId(insertedInvoice.getId()));
+        database.deleteInvoice(insertedInvoice.getId());
+        database.deleteAllInvoices();
+
+        //Then
+        List<InvoiceChangeEvent> events = listener.awaitEvents(4);
+        assertEquals(Arrays.asList(
+            new InvoiceChangeEvent(1, InvoiceChangeType.INSERTED, insertedInvoice.getId(), insertedInvoice),
+            new InvoiceChangeEvent(2, InvoiceChangeType.UPDATED, updatedInvoice.getId(), updatedInvoice),
+            new InvoiceChangeEvent(3, InvoiceChangeType.DELETED, insertedInvoice.getId(), null),
+            new InvoiceChangeEvent(4, InvoiceChangeType.ALL_DELETED, null, null)), events);
+    }
+
+    @Test
+    void shouldNotPublishEventWhenChangeFails() throws Exception {
+        //When
+        assertThrows(DatabaseOperationException.class, () -> database.deleteInvoice(100L));
+
+        //Then
+        assertEquals(0, publisher.getPublishedSequence());
+    }
+
+    @Test
+    void shouldResumeListenerFromGivenSequence() throws Exception {
+        //Given
+        List<Invoice> savedInvoices = database.saveInvoices(Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId()));
+        RecordingListener listener = new RecordingListener();
+
+        //When
+        InvoiceChangeSubscription subscription = publisher.subscribe(listener, 2);
+
+        //Then
+        List<Long> invoiceIds = listener.awaitEvents(2).stream().map(InvoiceChangeEvent::getInvoiceId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(savedInvoices.get(1).getId(), savedInvoices.get(2).getId()), invoiceIds);
+        assertEquals(4, subscription.getNextSequence());
+    }
+
+    @Test
+    void shouldNotifyListenerAboutOverwrittenEvents() throws Exception {
+        //Given
+        for (int i = 0; i < 10; i++) {
+            database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        }
+        RecordingListener listener = new RecordingListener();
+
+        //When
+        publisher.subscribe(listener, 1);
+
+        //Then
+        List<InvoiceChangeEvent> events = listener.awaitEvents(8);
+        assertEquals(1, listener.missedFrom);
+        assertEquals(2, listener.missedTo);
+        assertEquals(3, events.get(0).getSequence());
+    }
+
+    @Test
+    void shouldStopDeliveringEventsToCancelledSubscription() throws Exception {
+        //Given
+        RecordingListener listener = new RecordingListener();
+        InvoiceChangeSubscription subscription = publisher.subscribe(listener);
+        database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        listener.awaitEvents(1);
+
+        //When
+        subscription.cancel();
+        database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Thread.sleep(200);
+
+        //Then
+        assertEquals(1, listener.events.size());
+        assertTrue(subscription.isCancelled());
+    }
+
+    private static class RecordingListener implements InvoiceChangeListener {
+        private final List<InvoiceChangeEvent> events = new CopyOnWriteArrayList<>();
+        private volatile long missedFrom;
+        private volatile long missedTo;
+
+        @Override
+        public void onChange(InvoiceChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onEventsMissed(long fromSequence, long toSequence) {
+            missedFrom = fromSequence;
+            missedTo = toSequence;
+        }
+
+        List<InvoiceChangeEvent> awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            return new ArrayList<>(events);
+        }
+    }
+}
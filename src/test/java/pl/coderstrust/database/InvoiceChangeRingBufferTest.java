@@ -0,0 +1,85 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.database.event.InvoiceChangeEvent;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.event.InvoiceChangeType;
+
+class InvoiceChangeRingBufferTest {
+
+    @Test
+    void shouldThrowExceptionForCapacityNotBeingPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new InvoiceChangeRingBuffer(100));
+    }
+
+    @Test
+    void shouldAssignIncreasingSequencesToPublishedEvents() {
+        //Given
+        InvoiceChangeRingBuffer ringBuffer = new InvoiceChangeRingBuffer(4);
+
+        //When
+        long firstSequence = ringBuffer.publish(InvoiceChangeType.DELETED, 1L, null);
+        long secondSequence = ringBuffer.publish(InvoiceChangeType.DELETED, 2L, null);
+
+        //Then
+        assertEquals(1, firstSequence);
+        assertEquals(2, secondSequence);
+        assertEquals(2, ringBuffer.getPublishedSequence());
+        assertEquals(new InvoiceChangeEvent(2, InvoiceChangeType.DELETED, 2L, null), ringBuffer.get(2));
+        assertNull(ringBuffer.get(3));
+    }
+
+    @Test
+    void shouldOverwriteOldestEventsWhenFull() {
+        //Given
+        InvoiceChangeRingBuffer ringBuffer = new InvoiceChangeRingBuffer(4);
+
+        //When
+        for (long id = 1; id <= 6; id++) {
+            ringBuffer.publish(InvoiceChangeType.DELETED, id, null);
+        }
+
+        //Then
+        assertNull(ringBuffer.get(2));
+        assertEquals(3, ringBuffer.getOldestAvailableSequence());
+        assertEquals(Long.valueOf(3), ringBuffer.get(3).getInvoiceId());
+        assertEquals(Long.valueOf(6), ringBuffer.get(6).getInvoiceId());
+    }
+
+    @Test
+    void shouldPublishEveryEventOnceWhenPublishedConcurrently() throws Exception {
+        //Given
+        InvoiceChangeRingBuffer ringBuffer = new InvoiceChangeRingBuffer(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //When
+        for (int thread = 0; thread < 4; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ringBuffer.publish(InvoiceChangeType.INSERTED, (long) i, null);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //Then
+        assertEquals(4000, ringBuffer.getPublishedSequence());
+        for (long sequence = 1; sequence <= 4000; sequence++) {
+            assertEquals(sequence, ringBuffer.get(sequence).getSequence());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class InvoiceQueryTest {
+
+    @Test
+    void shouldMatchEveryInvoiceWhenNoCriteriaGiven() {
+        assertTrue(InvoiceQuery.builder().build().matches(InvoiceGenerator.getRandomInvoice()));
+    }
+
+    @Test
+    void shouldMatchInvoicesIssuedWithinDateRange() {
+        //Given
+        InvoiceQuery query = InvoiceQuery.builder().issuedBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31)).build();
+
+        //Then
+        assertTrue(query.matches(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2016, 1, 1))));
+        assertTrue(query.matches(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2016, 12, 31))));
+        assertFalse(query.matches(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2017, 1, 1))));
+    }
+
+    @Test
+    void shouldMatchInvoicesDueWithinDateRange() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2018, 3, 10));
+
+        //Then
+        assertTrue(InvoiceQuery.builder().dueBetween(LocalDate.of(2018, 3, 12), null).build().matches(invoice));
+        assertFalse(InvoiceQuery.builder().dueBetween(null, LocalDate.of(2018, 3, 11)).build().matches(invoice));
+    }
+
+    @Test
+    void shouldMatchInvoicesByBuyerAndSeller() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+
+        //Then
+        assertTrue(InvoiceQuery.builder().buyerId(invoice.getBuyer().getId()).sellerId(invoice.getSeller().getId()).build().matches(invoice));
+        assertFalse(InvoiceQuery.builder().buyerId(invoice.getSeller().getId()).build().matches(invoice));
+    }
+
+    @Test
+    void shouldMatchInvoicesByNumberPrefix() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+
+        //Then
+        assertTrue(InvoiceQuery.builder().numberPrefix(invoice.getNumber().substring(0, 1)).build().matches(invoice));
+        assertFalse(InvoiceQuery.builder().numberPrefix("FV/").build().matches(invoice));
+    }
+
+    @Test
+    void shouldMatchInvoicesByGrossTotal() {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        BigDecimal grossTotal = InvoiceQuery.getGrossTotal(invoice);
+
+        //Then
+        assertTrue(InvoiceQuery.builder().grossTotalBetween(grossTotal, grossTotal).build().matches(invoice));
+        assertFalse(InvoiceQuery.builder().grossTotalBetween(grossTotal.add(BigDecimal.ONE), null).build().matches(invoice));
+    }
+
+    @Test
+    void shouldThrowExceptionForInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> InvoiceQuery.builder().issuedBetween(LocalDate.of(2017, 1, 20), LocalDate.of(2016, 6, 13)).build());
+        assertThrows(IllegalArgumentException.class, () -> InvoiceQuery.builder().grossTotalBetween(BigDecimal.TEN, BigDecimal.ONE).build());
+    }
+
+    @Test
+    void shouldThrowExceptionForNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> InvoiceQuery.builder().limit(0).build());
+    }
+}
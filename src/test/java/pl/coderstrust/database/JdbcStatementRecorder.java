@@ -0,0 +1,129 @@
+package pl.coderstrust.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+class JdbcStatementRecorder implements BeanPostProcessor {
+
+    private final List<ExecutedStatement> executedStatements = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return proxy(DataSource.class, bean, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection ? recordingConnection((Connection) result) : result;
+            });
+        }
+        return bean;
+    }
+
+    void clear() {
+        executedStatements.clear();
+    }
+
+    List<ExecutedStatement> getExecutedStatements() {
+        synchronized (executedStatements) {
+            return new ArrayList<>(executedStatements);
+        }
+    }
+
+    List<ExecutedStatement> getExecutedStatements(String sqlPrefix) {
+        return getExecutedStatements().stream()
+            .filter(statement -> statement.getSql().toLowerCase(Locale.ROOT).startsWith(sqlPrefix.toLowerCase(Locale.ROOT)))
+            .collect(Collectors.toList());
+    }
+
+    private Connection recordingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                return recordingStatement((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+        int[] batchedRows = new int[1];
+        return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+            switch (method.getName()) {
+                case "addBatch":
+                    batchedRows[0]++;
+                    break;
+                case "executeBatch":
+                    executedStatements.add(new ExecutedStatement(sql, batchedRows[0], true));
+                    batchedRows[0] = 0;
+                    break;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    executedStatements.add(new ExecutedStatement(sql, 1, false));
+                    break;
+                default:
+                    break;
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, TargetInvocationHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+        return (T) Proxy.newProxyInstance(JdbcStatementRecorder.class.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface TargetInvocationHandler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    static class ExecutedStatement {
+        private final String sql;
+        private final int rows;
+        private final boolean batch;
+
+        ExecutedStatement(String sql, int rows, boolean batch) {
+            this.sql = sql;
+            this.rows = rows;
+            this.batch = batch;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        int getRows() {
+            return rows;
+        }
+
+        boolean isBatch() {
+            return batch;
+        }
+
+        @Override
+        public String toString() {
+            return (batch ? "batch of " + rows + ": " : "") + sql;
+        }
+    }
+}
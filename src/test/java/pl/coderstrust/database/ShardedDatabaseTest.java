@@ -0,0 +1,290 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.event.InvoiceChangeEvent;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.database.sharded.ShardCountFile;
+import pl.coderstrust.database.sharded.ShardedDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class ShardedDatabaseTest {
+
+    private static final int SHARD_COUNT = 3;
+
+    private List<InMemoryDatabase> shards;
+    private ShardedDatabase shardedDatabase;
+
+    @BeforeEach
+    void setUp() {
+        shards = new ArrayList<>();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards.add(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        }
+        shardedDatabase = new ShardedDatabase(new ArrayList<>(shards));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedDatabase.shutdown();
+    }
+
+    @Test
+    void shouldThrowExceptionForEmptyShards() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedDatabase(Collections.emptyList()));
+    }
+
+    @Test
+    void shouldSpreadInsertedInvoicesAcrossShardsAndEncodeShardInId() throws DatabaseOperationException {
+        //When
+        List<Invoice> savedInvoices = new ArrayList<>();
+        for (int i = 0; i < 2 * SHARD_COUNT; i++) {
+            savedInvoices.add(shardedDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId()));
+        }
+
+        //Then
+        for (InMemoryDatabase shard : shards) {
+            assertEquals(2, shard.countInvoices());
+        }
+        for (Invoice savedInvoice : savedInvoices) {
+            assertEquals(Optional.of(savedInvoice), shardedDatabase.getInvoice(savedInvoice.getId()));
+        }
+        assertEquals(2 * SHARD_COUNT, savedInvoices.stream().map(Invoice::getId).distinct().count());
+    }
+
+    @Test
+    void shouldUpdateAndDeleteInvoiceInItsShard() throws DatabaseOperationException {
+        //Given
+        Invoice savedInvoice = shardedDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice otherInvoice = shardedDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(savedInvoice.getId());
+
+        //When
+        Invoice result = shardedDatabase.saveInvoice(updatedInvoice);
+        shardedDatabase.deleteInvoice(otherInvoice.getId());
+
+        //Then
+        assertEquals(updatedInvoice, result);
+        assertEquals(Optional.of(updatedInvoice), shardedDatabase.getInvoice(savedInvoice.getId()));
+        assertFalse(shardedDatabase.invoiceExists(otherInvoice.getId()));
+        assertEquals(1, shardedDatabase.countInvoices());
+    }
+
+    @Test
+    void shouldSaveBatchAcrossShardsKeepingOrder() throws DatabaseOperationException {
+        //Given
+        List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId());
+
+        //When
+        List<Invoice> savedInvoices = shardedDatabase.saveInvoices(invoices);
+
+        //Then
+        assertEquals(invoices.size(), savedInvoices.size());
+        for (int i = 0; i < invoices.size(); i++) {
+            assertEquals(invoices.get(i).getNumber(), savedInvoices.get(i).getNumber());
+        }
+        assertEquals(4, shardedDatabase.countInvoices());
+    }
+
+    @Test
+    void shouldReturnAllInvoicesOrderedById() throws DatabaseOperationException {
+        //Given
+        List<Invoice> savedInvoices = shardedDatabase.saveInvoices(Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId()));
+        List<Long> expectedIds = savedInvoices.stream().map(Invoice::getId).sorted().collect(Collectors.toList());
+
+        //When
+        List<Long> actualIds = shardedDatabase.getAllInvoices().stream().map(Invoice::getId).collect(Collectors.toList());
+
+        //Then
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void shouldPageThroughInvoicesOfAllShards() throws DatabaseOperationException {
+        //Given
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            invoices.add(InvoiceGenerator.getRandomInvoiceWithoutId());
+        }
+        List<Long> expectedIds = shardedDatabase.saveInvoices(invoices).stream().map(Invoice::getId).sorted().collect(Collectors.toList());
+
+        //When
+        List<Long> actualIds = new ArrayList<>();
+        Long afterId = null;
+        List<Invoice> page;
+        do {
+            page = shardedDatabase.getInvoicesPage(afterId, 3);
+            page.forEach(invoice -> actualIds.add(invoice.getId()));
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        } while (page.size() == 3);
+
+        //Then
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void shouldFindLimitedNumberOfMatchingInvoicesAcrossShards() throws DatabaseOperationException {
+        //Given
+        LocalDate issueDate = LocalDate.of(2019, 3, 1);
+        List<Invoice> savedInvoices = shardedDatabase.saveInvoices(Arrays.asList(getRandomInvoiceWithoutIdIssuedAt(issueDate),
+            getRandomInvoiceWithoutIdIssuedAt(issueDate.minusYears(1)), getRandomInvoiceWithoutIdIssuedAt(issueDate), getRandomInvoiceWithoutIdIssuedAt(issueDate)));
+        InvoiceQuery query = InvoiceQuery.builder().issuedBetween(issueDate, issueDate).limit(2).build();
+        List<Long> expectedIds = savedInvoices.stream()
+            .filter(invoice -> invoice.getIssuedDate().equals(issueDate))
+            .map(Invoice::getId)
+            .sorted()
+            .limit(2)
+            .collect(Collectors.toList());
+
+        //When
+        List<Long> actualIds = shardedDatabase.findInvoices(query).stream().map(Invoice::getId).collect(Collectors.toList());
+
+        //Then
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void shouldStreamInvoicesOfAllShards() throws DatabaseOperationException {
+        //Given
+        shardedDatabase.saveInvoices(Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId()));
+
+        //When
+        List<Invoice> streamedInvoices = shardedDatabase.streamInvoices().collectList().block();
+
+        //Then
+        assertEquals(4, streamedInvoices.size());
+        assertTrue(streamedInvoices.containsAll(shardedDatabase.getAllInvoices()));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDeletingNotExistingInvoices() {
+        assertThrows(DatabaseOperationException.class, () -> shardedDatabase.deleteInvoices(Arrays.asList(100L, 101L)));
+    }
+
+    @Test
+    void shouldPublishInvoicesSavedInShardsThatSucceededWhenOtherShardFails() throws Exception {
+        //Given
+        Database failingShard = mock(Database.class);
+        when(failingShard.saveInvoices(any())).thenThrow(new DatabaseOperationException("Shard is down"));
+        ShardedDatabase partlyFailingDatabase = new ShardedDatabase(Arrays.asList(shards.get(0), shards.get(1), failingShard));
+        InvoiceChangePublisher publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(16));
+        List<InvoiceChangeEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch eventsPublished = new CountDownLatch(2);
+        publisher.subscribe(event -> {
+            events.add(event);
+            eventsPublished.countDown();
+        });
+        Database publishingDatabase = publishChanges(partlyFailingDatabase, publisher);
+        List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoiceWithoutId(), InvoiceGenerator.getRandomInvoiceWithoutId(),
+            InvoiceGenerator.getRandomInvoiceWithoutId());
+
+        try {
+            //When
+            PartialWriteException exception = assertThrows(PartialWriteException.class, () -> publishingDatabase.saveInvoices(invoices));
+
+            //Then
+            assertEquals(invoices.subList(0, 2), exception.getAppliedInvoices());
+            assertEquals(2, exception.getSavedInvoices().size());
+            assertTrue(eventsPublished.await(5, TimeUnit.SECONDS));
+            assertEquals(2, events.size());
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(InvoiceChangeType.INSERTED, events.get(i).getType());
+                assertEquals(exception.getSavedInvoices().get(i), events.get(i).getInvoice());
+                assertEquals(Optional.of(events.get(i).getInvoice()), partlyFailingDatabase.getInvoice(events.get(i).getInvoiceId()));
+            }
+        } finally {
+            publisher.shutdown();
+            partlyFailingDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void shouldPublishInvoicesDeletedInShardsThatSucceededWhenOtherShardFails() throws Exception {
+        //Given
+        Invoice savedInvoice = shardedDatabase.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        long missingId = savedInvoice.getId() + 1;
+        InvoiceChangePublisher publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(16));
+        List<InvoiceChangeEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch eventsPublished = new CountDownLatch(1);
+        publisher.subscribe(event -> {
+            events.add(event);
+            eventsPublished.countDown();
+        });
+        Database publishingDatabase = publishChanges(shardedDatabase, publisher);
+
+        try {
+            //When
+            PartialWriteException exception = assertThrows(PartialWriteException.class,
+                () -> publishingDatabase.deleteInvoices(Arrays.asList(savedInvoice.getId(), missingId)));
+
+            //Then
+            assertEquals(Collections.singletonList(savedInvoice.getId()), exception.getDeletedIds());
+            assertFalse(shardedDatabase.invoiceExists(savedInvoice.getId()));
+            assertTrue(eventsPublished.await(5, TimeUnit.SECONDS));
+            assertEquals(1, events.size());
+            assertEquals(InvoiceChangeType.DELETED, events.get(0).getType());
+            assertEquals(savedInvoice.getId(), events.get(0).getInvoiceId());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRefuseShardCountDifferentFromOneInvoicesWereSpreadOver() throws IOException {
+        //Given
+        Path directory = Files.createTempDirectory("invoice-shards");
+        ShardCountFile.ensureShardCount(directory, SHARD_COUNT);
+
+        //Then
+        ShardCountFile.ensureShardCount(directory, SHARD_COUNT);
+        assertThrows(IllegalStateException.class, () -> ShardCountFile.ensureShardCount(directory, SHARD_COUNT + 1));
+    }
+
+    private static Database publishChanges(Database database, InvoiceChangePublisher publisher) {
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(database);
+        proxyFactory.addAdvisor(advisor);
+        return (Database) proxyFactory.getProxy();
+    }
+
+    private static Invoice getRandomInvoiceWithoutIdIssuedAt(LocalDate issueDate) {
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(issueDate);
+        return new Invoice(null, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+    }
+}
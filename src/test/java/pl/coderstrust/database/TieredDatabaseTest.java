@@ -0,0 +1,311 @@
+package pl.coderstrust.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.coderstrust.database.event.InvoiceChangeEvent;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.database.tiered.TieredDatabase;
+import pl.coderstrust.database.tiered.WriteMode;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(MockitoExtension.class)
+class TieredDatabaseTest {
+
+    @Mock
+    private Database backTier;
+
+    private final InvoiceChangePublisher publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(16));
+    private TieredDatabase tieredDatabase;
+
+    @AfterEach
+    void tearDown() {
+        if (tieredDatabase != null) {
+            tieredDatabase.shutdown();
+        }
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldThrowExceptionForNullBackTier() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredDatabase(null, WriteMode.WRITE_THROUGH, 10, publisher));
+    }
+
+    @Test
+    void shouldThrowExceptionForNonPositiveWriteBehindCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredDatabase(backTier, WriteMode.WRITE_BEHIND, 0, publisher));
+    }
+
+    @Test
+    void shouldServeReadsFromFrontTierAfterWarmUp() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_THROUGH, invoice1, invoice2);
+
+        //When
+        Optional<Invoice> result = tieredDatabase.getInvoice(invoice2.getId());
+
+        //Then
+        assertEquals(Optional.of(invoice2), result);
+        assertEquals(2, tieredDatabase.countInvoices());
+        verify(backTier, never()).getInvoice(any());
+    }
+
+    @Test
+    void shouldInsertInvoiceThroughBackTierToGetDurableId() throws DatabaseOperationException {
+        //Given
+        warmUp(WriteMode.WRITE_BEHIND);
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithoutId();
+        Invoice savedInvoice = InvoiceGenerator.getRandomInvoice();
+        when(backTier.saveInvoice(invoice)).thenReturn(savedInvoice);
+
+        //When
+        Invoice result = tieredDatabase.saveInvoice(invoice);
+
+        //Then
+        assertEquals(savedInvoice, result);
+        assertEquals(Optional.of(savedInvoice), tieredDatabase.getInvoice(savedInvoice.getId()));
+    }
+
+    @Test
+    void shouldWriteUpdateThroughToBackTier() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_THROUGH, invoice);
+        Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice.getId());
+        when(backTier.saveInvoice(updatedInvoice)).thenReturn(updatedInvoice);
+
+        //When
+        tieredDatabase.saveInvoice(updatedInvoice);
+
+        //Then
+        verify(backTier).saveInvoice(updatedInvoice);
+        assertEquals(Optional.of(updatedInvoice), tieredDatabase.getInvoice(invoice.getId()));
+    }
+
+    @Test
+    void shouldWriteUpdateAndDeleteBehindToBackTier() throws DatabaseOperationException {
+        //Given
+        Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+        Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_BEHIND, invoice1, invoice2);
+        Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice1.getId());
+        when(backTier.saveInvoice(updatedInvoice)).thenReturn(updatedInvoice);
+
+        //When
+        tieredDatabase.saveInvoice(updatedInvoice);
+        tieredDatabase.deleteInvoice(invoice2.getId());
+        assertEquals(Optional.of(updatedInvoice), tieredDatabase.getInvoice(invoice1.getId()));
+        assertFalse(tieredDatabase.invoiceExists(invoice2.getId()));
+        tieredDatabase.flush();
+
+        //Then
+        verify(backTier).saveInvoice(updatedInvoice);
+        verify(backTier).deleteInvoice(invoice2.getId());
+        assertEquals(0, tieredDatabase.getPendingWriteCount());
+    }
+
+    @Test
+    void shouldRejectWriteBehindUpdateWithStaleVersion() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_BEHIND, invoice);
+        Invoice staleInvoice = new Invoice(invoice.getId(), "5/2019", invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries(), 5L);
+
+        //Then
+        assertThrows(InvoiceVersionConflictException.class, () -> tieredDatabase.saveInvoice(staleInvoice));
+        assertEquals(Optional.of(invoice), tieredDatabase.getInvoice(invoice.getId()));
+        assertEquals(0, tieredDatabase.getPendingWriteCount());
+        verify(backTier, never()).saveInvoice(any());
+    }
+
+    @Test
+    void shouldReloadInvoiceFromBackTierWhenWriteBehindFails() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_BEHIND, invoice);
+        doThrow(DatabaseOperationException.class).when(backTier).deleteInvoice(invoice.getId());
+        when(backTier.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+        //When
+        tieredDatabase.deleteInvoice(invoice.getId());
+        tieredDatabase.flush();
+
+        //Then
+        assertEquals(Optional.of(invoice), tieredDatabase.getInvoice(invoice.getId()));
+        assertEquals(1, tieredDatabase.getFailedWriteCount());
+    }
+
+    @Test
+    void shouldPublishInvoiceReloadedAfterFailedWriteBehind() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_BEHIND, invoice);
+        doThrow(DatabaseOperationException.class).when(backTier).deleteInvoice(invoice.getId());
+        when(backTier.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+        List<InvoiceChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch eventsReceived = new CountDownLatch(2);
+        publisher.subscribe(event -> {
+            events.add(event);
+            eventsReceived.countDown();
+        });
+
+        //When
+        tieredDatabase.deleteInvoice(invoice.getId());
+        tieredDatabase.flush();
+        eventsReceived.await(5, TimeUnit.SECONDS);
+
+        //Then
+        assertEquals(2, events.size());
+        assertEquals(InvoiceChangeType.DELETED, events.get(0).getType());
+        assertEquals(InvoiceChangeType.INSERTED, events.get(1).getType());
+        assertEquals(invoice, events.get(1).getInvoice());
+    }
+
+    @Test
+    void shouldNotBlockWriteThroughOfOtherInvoiceWhileBackTierIsWriting() throws Exception {
+        //Given
+        Invoice blockedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(1L);
+        Invoice otherInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(2L);
+        warmUp(WriteMode.WRITE_THROUGH, blockedInvoice, otherInvoice);
+        CountDownLatch backTierWriting = new CountDownLatch(1);
+        CountDownLatch backTierReleased = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            backTierWriting.countDown();
+            backTierReleased.await();
+            return blockedInvoice;
+        }).when(backTier).saveInvoice(blockedInvoice);
+        when(backTier.saveInvoice(otherInvoice)).thenReturn(otherInvoice);
+        Thread blockedWriter = new Thread(() -> {
+            try {
+                tieredDatabase.saveInvoice(blockedInvoice);
+            } catch (DatabaseOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //When
+        blockedWriter.start();
+        backTierWriting.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> tieredDatabase.saveInvoice(otherInvoice));
+        } finally {
+            backTierReleased.countDown();
+            blockedWriter.join();
+        }
+
+        //Then
+        verify(backTier).saveInvoice(otherInvoice);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDeletingNotExistingInvoiceBehind() throws DatabaseOperationException {
+        //Given
+        warmUp(WriteMode.WRITE_BEHIND);
+
+        //Then
+        assertThrows(DatabaseOperationException.class, () -> tieredDatabase.deleteInvoices(Arrays.asList(10L, 11L)));
+        verify(backTier, never()).deleteInvoices(any());
+    }
+
+    @Test
+    void shouldNotChangeFrontTierWhenWriteThroughFails() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_THROUGH, invoice);
+        doThrow(DatabaseOperationException.class).when(backTier).deleteInvoice(invoice.getId());
+
+        //When
+        assertThrows(DatabaseOperationException.class, () -> tieredDatabase.deleteInvoice(invoice.getId()));
+
+        //Then
+        assertEquals(Optional.of(invoice), tieredDatabase.getInvoice(invoice.getId()));
+    }
+
+    @Test
+    void shouldWriteBehindUpdatesInOrderTheyBecameVisibleWhenQueueIsFull() throws Exception {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        warmUp(WriteMode.WRITE_BEHIND, 1, invoice);
+        Invoice firstUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice.getId());
+        Invoice secondUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice.getId());
+        CountDownLatch backTierReleased = new CountDownLatch(1);
+        List<String> writtenNumbers = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            backTierReleased.await();
+            Invoice writtenInvoice = invocation.getArgument(0);
+            writtenNumbers.add(writtenInvoice.getNumber());
+            return writtenInvoice;
+        }).when(backTier).saveInvoice(any(Invoice.class));
+        AtomicReference<Exception> secondUpdateFailure = new AtomicReference<>();
+        Thread secondWriter = new Thread(() -> {
+            try {
+                tieredDatabase.saveInvoice(secondUpdate);
+            } catch (Exception e) {
+                secondUpdateFailure.set(e);
+            }
+        });
+
+        //When
+        tieredDatabase.saveInvoice(firstUpdate);
+        secondWriter.start();
+        while (secondWriter.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        String visibleNumberWhileQueueIsFull = tieredDatabase.getInvoice(invoice.getId()).get().getNumber();
+        backTierReleased.countDown();
+        secondWriter.join();
+        tieredDatabase.flush();
+
+        //Then
+        assertNull(secondUpdateFailure.get());
+        assertEquals(firstUpdate.getNumber(), visibleNumberWhileQueueIsFull);
+        assertEquals(Arrays.asList(firstUpdate.getNumber(), secondUpdate.getNumber()), writtenNumbers);
+        assertEquals(secondUpdate.getNumber(), tieredDatabase.getInvoice(invoice.getId()).get().getNumber());
+        assertEquals(2L, (long) tieredDatabase.getInvoice(invoice.getId()).get().getVersion());
+    }
+
+    private void warmUp(WriteMode writeMode, Invoice... invoices) throws DatabaseOperationException {
+        warmUp(writeMode, 10, invoices);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void warmUp(WriteMode writeMode, int writeBehindCapacity, Invoice... invoices) throws DatabaseOperationException {
+        tieredDatabase = new TieredDatabase(backTier, writeMode, writeBehindCapacity, publisher);
+        doAnswer(invocation -> {
+            Consumer<Invoice> consumer = invocation.getArgument(0);
+            Arrays.asList(invoices).forEach(consumer);
+            return null;
+        }).when(backTier).forEachInvoice(any(Consumer.class));
+        tieredDatabase.warmUp();
+    }
+}
@@ -12,8 +12,7 @@ public class InvoiceEntryGenerator {
 
     private static Random random = new Random();
 
-    private static InvoiceEntry getRandomEntry() {
-        Long id = IdGenerator.getNextId();
+    private static InvoiceEntry getRandomEntry(Long id) {
         String productName = WordGenerator.getRandomWord();
         double quantity = random.nextInt(10);
         String unit = "szt.";
@@ -27,7 +26,15 @@ public class InvoiceEntryGenerator {
     public static List<InvoiceEntry> getRandomEntries(int count) {
         List<InvoiceEntry> invoiceEntryList = new ArrayList<>();
         for (int i = 0; i < count; i++) {
-            invoiceEntryList.add(getRandomEntry());
+            invoiceEntryList.add(getRandomEntry(IdGenerator.getNextId()));
+        }
+        return invoiceEntryList;
+    }
+
+    public static List<InvoiceEntry> getRandomEntriesWithoutIds(int count) {
+        List<InvoiceEntry> invoiceEntryList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            invoiceEntryList.add(getRandomEntry(null));
         }
         return invoiceEntryList;
     }
@@ -52,6 +52,16 @@ public class InvoiceGenerator {
         return new Invoice(null, number, issueDate, dueDate, seller, buyer, entry);
     }
 
+    public static Invoice getRandomInvoiceWithoutIds() {
+        String number = InvoiceNumberGenerator.getNextInvoiceNumber();
+        LocalDate issueDate = LocalDate.now();
+        LocalDate dueDate = issueDate.plusDays(2);
+        Company seller = CompanyGenerator.getRandomCompanyWithSpecificId(null);
+        Company buyer = CompanyGenerator.getRandomCompanyWithSpecificId(null);
+        List<InvoiceEntry> entry = InvoiceEntryGenerator.getRandomEntriesWithoutIds(2);
+        return new Invoice(null, number, issueDate, dueDate, seller, buyer, entry);
+    }
+
     public static Invoice getRandomInvoiceWithSpecificId(Long id) {
         String number = InvoiceNumberGenerator.getNextInvoiceNumber();
         LocalDate issueDate = LocalDate.now();
@@ -0,0 +1,189 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.generators.InvoiceEntryGenerator;
+import pl.coderstrust.model.CompanyBalance;
+import pl.coderstrust.model.CompanyRole;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
+
+class CompanyBalancesTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2019, 1, 1);
+
+    private final Random random = new Random(48);
+    private InvoiceChangePublisher publisher;
+    private Database database;
+    private CompanyBalances balances;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(1024));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+        balances = new CompanyBalances(database, publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        balances.shutdown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldSumInvoicesOfBuyerAndSeller() throws DatabaseOperationException {
+        //Given
+        database.saveInvoice(invoice(1L, 2L, LocalDate.of(2019, 1, 10), entry("100.00", "123.00")));
+        database.saveInvoice(invoice(1L, 3L, LocalDate.of(2019, 2, 10), entry("10.00", "10.80"), entry("50.00", "52.50")));
+        database.saveInvoice(invoice(3L, 2L, LocalDate.of(2019, 1, 20), entry("1.00", "1.23")));
+        balances.rebuild();
+
+        //When
+        Optional<CompanyBalance> sellerBalance = balances.getBalance(CompanyRole.SELLER, 1L);
+        Optional<CompanyBalance> buyerBalance = balances.getBalance(CompanyRole.BUYER, 2L);
+        Optional<CompanyBalance> missingBalance = balances.getBalance(CompanyRole.BUYER, 1L);
+
+        //Then
+        assertEquals(Optional.of(new CompanyBalance(1L, 2, new BigDecimal("160.00"), new BigDecimal("186.30"), LocalDate.of(2019, 2, 10))), sellerBalance);
+        assertEquals(Optional.of(new CompanyBalance(2L, 2, new BigDecimal("101.00"), new BigDecimal("124.23"), LocalDate.of(2019, 1, 20))), buyerBalance);
+        assertEquals(Optional.of(new CompanyBalance(1L, 0, new BigDecimal("0.00"), new BigDecimal("0.00"), null)), missingBalance);
+    }
+
+    @Test
+    void shouldMoveLastInvoiceDateBackWhenLatestInvoiceIsDeleted() throws DatabaseOperationException {
+        //Given
+        database.saveInvoice(invoice(1L, 2L, LocalDate.of(2019, 1, 10), entry("100.00", "123.00")));
+        Invoice latestInvoice = database.saveInvoice(invoice(1L, 2L, LocalDate.of(2019, 3, 10), entry("100.00", "123.00")));
+        balances.rebuild();
+
+        //When
+        database.deleteInvoice(latestInvoice.getId());
+
+        //Then
+        assertEquals(LocalDate.of(2019, 1, 10), balances.getBalance(CompanyRole.SELLER, 1L).get().getLastInvoiceDate());
+        assertEquals(LocalDate.of(2019, 1, 10), balances.getBalance(CompanyRole.BUYER, 2L).get().getLastInvoiceDate());
+    }
+
+    @Test
+    void shouldGiveSameBalancesAsBruteForceRecomputationWhileInvoicesChange() throws DatabaseOperationException {
+        //Given
+        for (int i = 0; i < 300; i++) {
+            database.saveInvoice(randomInvoice());
+        }
+        balances.rebuild();
+
+        for (int round = 0; round < 100; round++) {
+            //When
+            changeRandomInvoices();
+
+            //Then
+            Collection<Invoice> invoices = database.getAllInvoices();
+            for (CompanyRole role : CompanyRole.values()) {
+                assertEquals(bruteForceTopBalances(invoices, role, 10), balances.getTopBalances(role, 10).get());
+                assertEquals(bruteForceTopBalances(invoices, role, Integer.MAX_VALUE), balances.getTopBalances(role, 1000).get());
+            }
+        }
+    }
+
+    private void changeRandomInvoices() throws DatabaseOperationException {
+        List<Invoice> invoices = new ArrayList<>(database.getAllInvoices());
+        for (int i = 0; i < 10; i++) {
+            Invoice invoice = invoices.get(random.nextInt(invoices.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    database.saveInvoice(randomInvoice());
+                    break;
+                case 1:
+                    Invoice changedInvoice = randomInvoice();
+                    database.saveInvoice(new Invoice(invoice.getId(), invoice.getNumber(), changedInvoice.getIssuedDate(), invoice.getDueDate(),
+                        changedInvoice.getSeller(), invoice.getBuyer(), changedInvoice.getEntries()));
+                    break;
+                default:
+                    database.deleteInvoice(invoice.getId());
+                    invoices.remove(invoice);
+                    break;
+            }
+        }
+    }
+
+    private List<CompanyBalance> bruteForceTopBalances(Collection<Invoice> invoices, CompanyRole role, int limit) {
+        return invoices.stream()
+            .map(invoice -> role.getCompany(invoice).getId())
+            .distinct()
+            .map(companyId -> bruteForceBalance(invoices, role, companyId))
+            .sorted(Comparator.comparing(CompanyBalance::getGrossValue).reversed().thenComparing(CompanyBalance::getCompanyId))
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    private CompanyBalance bruteForceBalance(Collection<Invoice> invoices, CompanyRole role, Long companyId) {
+        long invoiceCount = 0;
+        BigDecimal netValue = BigDecimal.ZERO;
+        BigDecimal grossValue = BigDecimal.ZERO;
+        LocalDate lastInvoiceDate = null;
+        for (Invoice invoice : invoices) {
+            if (companyId.equals(role.getCompany(invoice).getId())) {
+                invoiceCount++;
+                for (InvoiceEntry entry : invoice.getEntries()) {
+                    netValue = netValue.add(entry.getNetValue());
+                    grossValue = grossValue.add(entry.getGrossValue());
+                }
+                if (lastInvoiceDate == null || invoice.getIssuedDate().isAfter(lastInvoiceDate)) {
+                    lastInvoiceDate = invoice.getIssuedDate();
+                }
+            }
+        }
+        return new CompanyBalance(companyId, invoiceCount, normalize(netValue), normalize(grossValue), lastInvoiceDate);
+    }
+
+    private BigDecimal normalize(BigDecimal value) {
+        BigDecimal strippedValue = value.stripTrailingZeros();
+        return strippedValue.scale() < 2 ? strippedValue.setScale(2) : strippedValue;
+    }
+
+    private Invoice randomInvoice() {
+        LocalDate issuedDate = START_DATE.plusDays(random.nextInt(365));
+        return new Invoice(null, "FV/" + random.nextInt(100000), issuedDate, issuedDate.plusDays(14),
+            CompanyGenerator.getRandomCompanyWithSpecificId((long) (1 + random.nextInt(40))),
+            CompanyGenerator.getRandomCompanyWithSpecificId((long) (1 + random.nextInt(60))),
+            InvoiceEntryGenerator.getRandomEntries(1 + random.nextInt(3)));
+    }
+
+    private Invoice invoice(Long sellerId, Long buyerId, LocalDate issuedDate, InvoiceEntry... entries) {
+        return new Invoice(null, "FV/" + issuedDate, issuedDate, issuedDate.plusDays(14), CompanyGenerator.getRandomCompanyWithSpecificId(sellerId),
+            CompanyGenerator.getRandomCompanyWithSpecificId(buyerId), Arrays.asList(entries));
+    }
+
+    private InvoiceEntry entry(String netValue, String grossValue) {
+        return new InvoiceEntry(null, "Service", 1, "pcs", new BigDecimal(netValue), new BigDecimal(netValue), new BigDecimal(grossValue), Vat.VAT_23);
+    }
+}
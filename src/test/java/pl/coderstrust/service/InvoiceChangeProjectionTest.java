@@ -0,0 +1,206 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.event.InvoiceChangeType;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class InvoiceChangeProjectionTest {
+
+    private InvoiceChangePublisher publisher;
+    private Database database;
+    private InvoicesById projection;
+    private volatile Thread delayedWriter;
+    private final CountDownLatch delayedWriteDone = new CountDownLatch(1);
+    private final CountDownLatch delayedPublishReleased = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(64));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        NameMatchMethodPointcutAdvisor delayAdvisor = new NameMatchMethodPointcutAdvisor((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (Thread.currentThread() == delayedWriter) {
+                delayedWriteDone.countDown();
+                delayedPublishReleased.await();
+            }
+            return result;
+        });
+        delayAdvisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        proxyFactory.addAdvisor(delayAdvisor);
+        database = (Database) proxyFactory.getProxy();
+        projection = new InvoicesById(database, publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        projection.shutdown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldIgnoreUpdatePublishedAfterNewerVersionOfSameInvoice() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        projection.rebuild();
+        Invoice olderVersion = withVersion(invoice, "1/2019", 1L);
+        Invoice newerVersion = withVersion(invoice, "2/2019", 2L);
+
+        //When
+        publisher.publish(InvoiceChangeType.UPDATED, invoice.getId(), newerVersion);
+        publisher.publish(InvoiceChangeType.UPDATED, invoice.getId(), olderVersion);
+        Map<Long, Invoice> invoices = projection.getInvoices().get();
+
+        //Then
+        assertEquals("2/2019", invoices.get(invoice.getId()).getNumber());
+        assertEquals(2L, (long) invoices.get(invoice.getId()).getVersion());
+    }
+
+    @Test
+    void shouldIgnoreUpdatePublishedAfterDeletionOfSameInvoice() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        projection.rebuild();
+
+        //When
+        publisher.publish(InvoiceChangeType.DELETED, invoice.getId(), null);
+        publisher.publish(InvoiceChangeType.UPDATED, invoice.getId(), withVersion(invoice, "1/2019", 1L));
+        Map<Long, Invoice> invoices = projection.getInvoices().get();
+
+        //Then
+        assertFalse(invoices.containsKey(invoice.getId()));
+    }
+
+    @Test
+    void shouldApplyInsertOfReusedIdAfterDeletion() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        projection.rebuild();
+
+        //When
+        publisher.publish(InvoiceChangeType.DELETED, invoice.getId(), null);
+        publisher.publish(InvoiceChangeType.INSERTED, invoice.getId(), withVersion(invoice, "1/2019", 0L));
+        Map<Long, Invoice> invoices = projection.getInvoices().get();
+
+        //Then
+        assertEquals("1/2019", invoices.get(invoice.getId()).getNumber());
+    }
+
+    @Test
+    void shouldMatchDatabaseWhenConcurrentUpdatesArePublishedOutOfOrder() throws Exception {
+        //Given
+        Invoice invoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        projection.rebuild();
+        Invoice firstUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice.getId());
+        Invoice secondUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice.getId());
+        AtomicReference<Exception> firstUpdateFailure = new AtomicReference<>();
+        delayedWriter = new Thread(() -> {
+            try {
+                database.saveInvoice(firstUpdate);
+            } catch (Exception e) {
+                firstUpdateFailure.set(e);
+            }
+        });
+
+        //When
+        delayedWriter.start();
+        delayedWriteDone.await();
+        database.saveInvoice(secondUpdate);
+        delayedPublishReleased.countDown();
+        delayedWriter.join();
+        Map<Long, Invoice> invoices = projection.getInvoices().get();
+
+        //Then
+        assertNull(firstUpdateFailure.get());
+        Invoice storedInvoice = database.getInvoice(invoice.getId()).get();
+        assertEquals(secondUpdate.getNumber(), storedInvoice.getNumber());
+        assertEquals(storedInvoice.getNumber(), invoices.get(invoice.getId()).getNumber());
+        assertEquals(storedInvoice.getVersion(), invoices.get(invoice.getId()).getVersion());
+    }
+
+    @Test
+    void shouldBuildAllProjectionsOfDatabaseWithOneScan() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(InvoiceGenerator.getRandomInvoiceWithoutId());
+        AtomicInteger scans = new AtomicInteger();
+        NameMatchMethodPointcutAdvisor scanCounter = new NameMatchMethodPointcutAdvisor((MethodInterceptor) invocation -> {
+            scans.incrementAndGet();
+            return invocation.proceed();
+        });
+        scanCounter.setMappedName("forEachInvoice");
+        ProxyFactory proxyFactory = new ProxyFactory(database);
+        proxyFactory.addAdvisor(scanCounter);
+        Database countedDatabase = (Database) proxyFactory.getProxy();
+        InvoicesById firstProjection = new InvoicesById(countedDatabase, publisher);
+        InvoicesById secondProjection = new InvoicesById(countedDatabase, publisher);
+
+        //When
+        InvoiceChangeProjection.rebuildAll(Arrays.asList(firstProjection, secondProjection));
+        Map<Long, Invoice> firstInvoices = firstProjection.getInvoices().get();
+        Map<Long, Invoice> secondInvoices = secondProjection.getInvoices().get();
+        firstProjection.shutdown();
+        secondProjection.shutdown();
+
+        //Then
+        assertEquals(1, scans.get());
+        assertEquals(invoice, firstInvoices.get(invoice.getId()));
+        assertEquals(invoice, secondInvoices.get(invoice.getId()));
+    }
+
+    private Invoice withVersion(Invoice invoice, String number, Long version) {
+        return new Invoice(invoice.getId(), number, invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries(), version);
+    }
+
+    private static class InvoicesById extends InvoiceChangeProjection<Map<Long, Invoice>> {
+
+        InvoicesById(Database database, InvoiceChangePublisher publisher) {
+            super(database, publisher);
+        }
+
+        Optional<Map<Long, Invoice>> getInvoices() {
+            return read(HashMap::new);
+        }
+
+        @Override
+        protected Map<Long, Invoice> newState() {
+            return new HashMap<>();
+        }
+
+        @Override
+        protected void put(Map<Long, Invoice> state, Invoice invoice) {
+            state.put(invoice.getId(), invoice);
+        }
+
+        @Override
+        protected void remove(Map<Long, Invoice> state, Long id) {
+            state.remove(id);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class InvoiceDateIndexTest {
+
+    private InvoiceChangePublisher publisher;
+    private Database database;
+    private InvoiceDateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(64));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+        index = new InvoiceDateIndex(database, publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldNotAnswerQueriesBeforeBuilt() {
+        assertFalse(index.isReady());
+        assertFalse(index.findIssuedBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31)).isPresent());
+    }
+
+    @Test
+    void shouldReturnInvoicesIssuedWithinRangeSortedByIssueDate() throws DatabaseOperationException {
+        //Given
+        Invoice march = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 3, 15)));
+        Invoice january = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 1, 31)));
+        database.saveInvoice(invoiceIssuedOn(LocalDate.of(2018, 12, 31)));
+        Invoice secondJanuary = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 1, 31)));
+        database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 4, 1)));
+
+        //When
+        index.rebuild();
+        Optional<List<Invoice>> invoices = index.findIssuedBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 3, 31));
+
+        //Then
+        assertTrue(index.isReady());
+        assertEquals(Optional.of(Arrays.asList(january, secondJanuary, march)), invoices);
+    }
+
+    @Test
+    void shouldFollowChangesMadeAfterBuild() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 2, 10)));
+        Invoice deletedInvoice = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 2, 11)));
+        index.rebuild();
+
+        //When
+        Invoice movedInvoice = database.saveInvoice(new Invoice(invoice.getId(), invoice.getNumber(), LocalDate.of(2019, 5, 1), invoice.getDueDate(),
+            invoice.getSeller(), invoice.getBuyer(), invoice.getEntries()));
+        Invoice insertedInvoice = database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 2, 12)));
+        database.deleteInvoice(deletedInvoice.getId());
+
+        //Then
+        assertEquals(Optional.of(Collections.singletonList(insertedInvoice)), index.findIssuedBetween(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 2, 28)));
+        assertEquals(Optional.of(Collections.singletonList(movedInvoice)), index.findIssuedBetween(LocalDate.of(2019, 5, 1), LocalDate.of(2019, 5, 1)));
+    }
+
+    @Test
+    void shouldBeEmptyAfterAllInvoicesDeleted() throws DatabaseOperationException {
+        //Given
+        database.saveInvoice(invoiceIssuedOn(LocalDate.of(2019, 2, 10)));
+        index.rebuild();
+
+        //When
+        database.deleteAllInvoices();
+
+        //Then
+        assertEquals(Optional.of(Collections.emptyList()), index.findIssuedBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31)));
+    }
+
+    private Invoice invoiceIssuedOn(LocalDate issuedDate) {
+        Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(issuedDate);
+        return new Invoice(null, invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(), invoice.getEntries());
+    }
+}
@@ -5,12 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import pl.coderstrust.generators.InvoiceGenerator;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
 
 class InvoicePdfServiceTest {
 
@@ -34,8 +40,27 @@ class InvoicePdfServiceTest {
         assertTrue(invoicePdfAsBytes.length > 0);
     }
 
+    @Test
+    void shouldPrintTotalsSummedInGrosze() throws ServiceOperationException, IOException {
+        //Given
+        Invoice invoice = InvoiceGenerator.getRandomInvoice();
+        Invoice invoiceWithEntries = new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(), invoice.getSeller(), invoice.getBuyer(),
+            Arrays.asList(entry("0.10", "0.12"), entry("0.2", "0.25"), entry("0.05", "0.06")));
+
+        //When
+        byte[] invoicePdfAsBytes = invoicePdfService.getInvoiceAsPdf(invoiceWithEntries);
+
+        //Then
+        String text = PdfTextExtractor.getTextFromPage(new PdfReader(invoicePdfAsBytes), 1);
+        assertTrue(text.contains("Total: 0.35 z") && text.contains("0.43 z"), text);
+    }
+
     @Test
     void getInvoiceAsPdfMethodShouldThrowExceptionForNullInvoice() {
         assertThrows(IllegalArgumentException.class, () -> invoicePdfService.getInvoiceAsPdf(null));
     }
+
+    private InvoiceEntry entry(String netValue, String grossValue) {
+        return new InvoiceEntry(null, "Consulting", 1, "pcs", new BigDecimal(netValue), new BigDecimal(netValue), new BigDecimal(grossValue), Vat.VAT_23);
+    }
 }
@@ -0,0 +1,215 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
+
+class InvoiceSearchIndexTest {
+
+    private InvoiceChangePublisher publisher;
+    private InMemoryDatabase storage;
+    private Database database;
+    private Path indexFile;
+    private InvoiceSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(64));
+        storage = new InMemoryDatabase(new ConcurrentSkipListMap<>());
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(storage);
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+        indexFile = Files.createTempFile("invoice-search", ".bin");
+        Files.delete(indexFile);
+        index = new InvoiceSearchIndex(database, publisher, indexFile);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.shutdown();
+        publisher.shutdown();
+        Files.deleteIfExists(indexFile);
+    }
+
+    @Test
+    void shouldFindInvoicesContainingAllWordsRankedByRelevance() throws DatabaseOperationException {
+        //Given
+        Invoice once = database.saveInvoice(invoice("Acme", "Warszawa, Prosta 1", "Consulting services"));
+        Invoice twice = database.saveInvoice(invoice("Acme", "Kraków, Długa 2", "Consulting", "Consulting workshop"));
+        database.saveInvoice(invoice("Globex", "Warszawa, Prosta 1", "Hosting"));
+        Invoice accented = database.saveInvoice(invoice("Żółta Łódź", "Gdańsk", "Consulting"));
+        index.rebuild();
+
+        //When
+        Optional<List<Long>> consulting = index.search("CONSULTING", 10);
+        Optional<List<Long>> consultingInWarsaw = index.search("consulting warszawa", 10);
+        Optional<List<Long>> withoutAccents = index.search("zolta gdansk", 10);
+        Optional<List<Long>> unknownWord = index.search("consulting unknown", 10);
+
+        //Then
+        assertEquals(Optional.of(Arrays.asList(twice.getId(), once.getId(), accented.getId())), consulting);
+        assertEquals(Optional.of(Collections.singletonList(once.getId())), consultingInWarsaw);
+        assertEquals(Optional.of(Collections.singletonList(accented.getId())), withoutAccents);
+        assertEquals(Optional.of(Collections.emptyList()), unknownWord);
+    }
+
+    @Test
+    void shouldFollowChangesMadeAfterBuild() throws DatabaseOperationException {
+        //Given
+        Invoice updatedInvoice = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        Invoice deletedInvoice = database.saveInvoice(invoice("Acme", "Warszawa", "Hosting"));
+        index.rebuild();
+
+        //When
+        database.saveInvoice(new Invoice(updatedInvoice.getId(), updatedInvoice.getNumber(), updatedInvoice.getIssuedDate(), updatedInvoice.getDueDate(),
+            updatedInvoice.getSeller(), updatedInvoice.getBuyer(), Collections.singletonList(entry("Hosting"))));
+        database.deleteInvoice(deletedInvoice.getId());
+
+        //Then
+        assertEquals(Optional.of(Collections.emptyList()), index.search("consulting", 10));
+        assertEquals(Optional.of(Collections.singletonList(updatedInvoice.getId())), index.search("hosting", 10));
+    }
+
+    @Test
+    void shouldLoadSavedIndexAndCatchUpWithChangesMadeWhileStopped() throws DatabaseOperationException {
+        //Given
+        Invoice keptInvoice = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        Invoice updatedInvoice = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        Invoice deletedInvoice = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        index.rebuild();
+        index.shutdown();
+        assertTrue(Files.exists(indexFile));
+        storage.saveInvoice(new Invoice(updatedInvoice.getId(), updatedInvoice.getNumber(), updatedInvoice.getIssuedDate(), updatedInvoice.getDueDate(),
+            updatedInvoice.getSeller(), updatedInvoice.getBuyer(), Collections.singletonList(entry("Hosting"))));
+        storage.deleteInvoice(deletedInvoice.getId());
+        Invoice insertedInvoice = storage.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+
+        //When
+        index = new InvoiceSearchIndex(database, publisher, indexFile);
+        index.rebuild();
+
+        //Then
+        assertEquals(Optional.of(Arrays.asList(keptInvoice.getId(), insertedInvoice.getId())), index.search("consulting", 10));
+        assertEquals(Optional.of(Collections.singletonList(updatedInvoice.getId())), index.search("hosting", 10));
+    }
+
+    @Test
+    void shouldReindexInvoiceWithSameIdAndVersionButChangedContent() throws DatabaseOperationException {
+        //Given
+        Invoice invoice = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        index.rebuild();
+        index.shutdown();
+        storage.deleteInvoice(invoice.getId());
+        storage.importInvoices(Collections.singletonList(new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), invoice.getDueDate(),
+            invoice.getSeller(), invoice.getBuyer(), Collections.singletonList(entry("Hosting")))));
+        assertEquals(invoice.getVersion(), storage.getInvoice(invoice.getId()).get().getVersion());
+
+        //When
+        index = new InvoiceSearchIndex(database, publisher, indexFile);
+        index.rebuild();
+
+        //Then
+        assertEquals(Optional.of(Collections.emptyList()), index.search("consulting", 10));
+        assertEquals(Optional.of(Collections.singletonList(invoice.getId())), index.search("hosting", 10));
+    }
+
+    @Test
+    void shouldCreateMissingDirectoryOfIndexFile() throws DatabaseOperationException, IOException {
+        //Given
+        Path directory = Files.createTempDirectory("invoice-search");
+        Path nestedIndexFile = directory.resolve("data").resolve("invoice_search_index.bin");
+        database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        InvoiceSearchIndex nestedIndex = new InvoiceSearchIndex(database, publisher, nestedIndexFile);
+        nestedIndex.rebuild();
+
+        //When
+        nestedIndex.shutdown();
+
+        //Then
+        assertTrue(Files.exists(nestedIndexFile));
+        Files.delete(nestedIndexFile);
+        Files.delete(nestedIndexFile.getParent());
+        Files.delete(directory);
+    }
+
+    @Test
+    void shouldWriteIndexFileOnlyWhenChangedSinceLastSave() throws DatabaseOperationException, IOException {
+        //Given
+        database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        index.rebuild();
+        index.save();
+        byte[] firstSave = Files.readAllBytes(indexFile);
+
+        //When
+        database.saveInvoice(invoice("Globex", "Gdańsk", "Hosting"));
+        index.save();
+        byte[] secondSave = Files.readAllBytes(indexFile);
+        Files.delete(indexFile);
+        index.save();
+
+        //Then
+        assertFalse(Arrays.equals(firstSave, secondSave));
+        assertFalse(Files.exists(indexFile));
+    }
+
+    @Test
+    void shouldReturnBestMatchesUpToLimit() throws DatabaseOperationException {
+        //Given
+        for (int i = 0; i < 20; i++) {
+            database.saveInvoice(invoice("Acme", "Warszawa", "Consulting"));
+        }
+        Invoice bestMatch = database.saveInvoice(invoice("Acme", "Warszawa", "Consulting", "Consulting", "Consulting"));
+        index.rebuild();
+
+        //When
+        Optional<List<Long>> ids = index.search("consulting", 3);
+
+        //Then
+        assertEquals(3, ids.get().size());
+        assertEquals(bestMatch.getId(), ids.get().get(0));
+    }
+
+    private Invoice invoice(String sellerName, String sellerAddress, String... productNames) {
+        InvoiceEntry[] entries = new InvoiceEntry[productNames.length];
+        for (int i = 0; i < productNames.length; i++) {
+            entries[i] = entry(productNames[i]);
+        }
+        return new Invoice(null, "FV/1", LocalDate.of(2019, 1, 10), LocalDate.of(2019, 1, 24),
+            new Company(null, sellerName, sellerAddress, "1234567890", "11112222333344445555666677", "123456789", "seller@xyz.com"),
+            new Company(null, "Buyer", "Poznań", "0987654321", "99998888777766665555444433", "987654321", "buyer@xyz.com"),
+            Arrays.asList(entries));
+    }
+
+    private InvoiceEntry entry(String productName) {
+        return new InvoiceEntry(null, productName, 1, "pcs", new BigDecimal("100.00"), new BigDecimal("100.00"), new BigDecimal("123.00"), Vat.VAT_23);
+    }
+}
@@ -3,8 +3,10 @@ package pl.coderstrust.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
@@ -12,6 +14,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,10 +23,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import pl.coderstrust.database.AsyncDatabase;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.InvoiceQuery;
 import pl.coderstrust.generators.InvoiceGenerator;
 import pl.coderstrust.model.Invoice;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
 @ExtendWith(MockitoExtension.class)
 class InvoiceServiceTest {
@@ -31,6 +39,10 @@ class InvoiceServiceTest {
     private InvoiceService invoiceService;
     @Mock
     private Database database;
+    @Mock
+    private AsyncDatabase asyncDatabase;
+    @Mock
+    private InvoiceDateIndex invoiceDateIndex;
     private Invoice invoice1;
     private Invoice invoice2;
 
@@ -42,7 +54,12 @@ class InvoiceServiceTest {
 
     @Test
     void shouldThrowExceptionForNullAsDatabase() {
-        assertThrows(IllegalArgumentException.class, () -> new InvoiceService(null));
+        assertThrows(IllegalArgumentException.class, () -> new InvoiceService(null, asyncDatabase, invoiceDateIndex));
+    }
+
+    @Test
+    void shouldThrowExceptionForNullAsAsyncDatabase() {
+        assertThrows(IllegalArgumentException.class, () -> new InvoiceService(database, null, invoiceDateIndex));
     }
 
     @Test
@@ -71,16 +88,16 @@ class InvoiceServiceTest {
     @Test
     void shouldReturnAllInvoicesForGivenBuyer() throws DatabaseOperationException, ServiceOperationException {
         //Given
-        List<Invoice> invoiceList = Arrays.asList(invoice1, invoice2, invoice1);
+        InvoiceQuery query = InvoiceQuery.builder().buyerId(invoice1.getBuyer().getId()).build();
         List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice1);
-        when(database.getAllInvoices()).thenReturn(invoiceList);
+        when(database.findInvoices(query)).thenReturn(expectedInvoiceList);
 
         //When
         Collection<Invoice> resultInvoiceList = invoiceService.getAllInvoicesByBuyer(invoice1.getBuyer().getId());
 
         //Then
         assertEquals(expectedInvoiceList, resultInvoiceList);
-        verify(database).getAllInvoices();
+        verify(database).findInvoices(query);
     }
 
     @Test
@@ -91,7 +108,7 @@ class InvoiceServiceTest {
     @Test
     void shouldThrowServiceOperationExceptionWhileGettingAllInvoicesByBuyer() throws DatabaseOperationException {
         //When
-        when(database.getAllInvoices()).thenThrow(DatabaseOperationException.class);
+        when(database.findInvoices(any(InvoiceQuery.class))).thenThrow(DatabaseOperationException.class);
 
         //Then
         assertThrows(ServiceOperationException.class, () -> invoiceService.getAllInvoicesByBuyer(invoice1.getBuyer().getId()));
@@ -100,16 +117,16 @@ class InvoiceServiceTest {
     @Test
     void shouldReturnAllInvoicesForGivenSeller() throws DatabaseOperationException, ServiceOperationException {
         //Given
-        List<Invoice> invoiceList = Arrays.asList(invoice1, invoice2, invoice1);
+        InvoiceQuery query = InvoiceQuery.builder().sellerId(invoice1.getSeller().getId()).build();
         List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice1);
-        when(database.getAllInvoices()).thenReturn(invoiceList);
+        when(database.findInvoices(query)).thenReturn(expectedInvoiceList);
 
         //When
         Collection<Invoice> resultInvoiceList = invoiceService.getAllInvoicesBySeller(invoice1.getSeller().getId());
 
         //Then
         assertEquals(expectedInvoiceList, resultInvoiceList);
-        verify(database).getAllInvoices();
+        verify(database).findInvoices(query);
     }
 
     @Test
@@ -120,7 +137,7 @@ class InvoiceServiceTest {
     @Test
     void shouldThrowServiceOperationExceptionWhileGettingAllInvoicesBySeller() throws DatabaseOperationException {
         //When
-        when(database.getAllInvoices()).thenThrow(DatabaseOperationException.class);
+        when(database.findInvoices(any(InvoiceQuery.class))).thenThrow(DatabaseOperationException.class);
 
         //Then
         assertThrows(ServiceOperationException.class, () -> invoiceService.getAllInvoicesBySeller(invoice1.getSeller().getId()));
@@ -130,17 +147,39 @@ class InvoiceServiceTest {
     void shouldReturnAllInvoicesFromGivenDateRage() throws DatabaseOperationException, ServiceOperationException {
         //Given
         Invoice invoice3 = new Invoice(invoice1.getId(), invoice1.getNumber(), LocalDate.of(2016, 9, 13), invoice1.getDueDate(), invoice1.getSeller(), invoice1.getBuyer(), invoice1.getEntries());
-        Invoice invoice4 = new Invoice(invoice2.getId(), invoice2.getNumber(), LocalDate.of(2017, 5, 23), invoice2.getDueDate(), invoice2.getSeller(), invoice2.getBuyer(), invoice1.getEntries());
-        List<Invoice> invoiceList = Arrays.asList(invoice3, invoice4, invoice3);
-        List<Invoice> expectedInvoiceList = Arrays.asList(invoice3, invoice3);
-        when(database.getAllInvoices()).thenReturn(invoiceList);
+        Invoice invoice4 = new Invoice(invoice2.getId(), invoice2.getNumber(), LocalDate.of(2016, 5, 23), invoice2.getDueDate(), invoice2.getSeller(), invoice2.getBuyer(), invoice1.getEntries());
+        InvoiceQuery query = InvoiceQuery.builder().issuedBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31)).build();
+        List<Invoice> expectedInvoiceList = Arrays.asList(invoice3, invoice4);
+        when(database.findInvoices(query)).thenReturn(expectedInvoiceList);
 
         //When
         Collection<Invoice> resultInvoiceList = invoiceService.getAllInvoicesByDate(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31));
 
         //Then
         assertEquals(expectedInvoiceList, resultInvoiceList);
-        verify(database).getAllInvoices();
+        verify(database).findInvoices(query);
+    }
+
+    @Test
+    void shouldReturnInvoicesFromDateIndexSortedById() throws ServiceOperationException {
+        //Given
+        Invoice invoice3 = new Invoice(invoice2.getId(), invoice2.getNumber(), LocalDate.of(2016, 5, 23), invoice2.getDueDate(), invoice2.getSeller(), invoice2.getBuyer(), invoice2.getEntries());
+        Invoice invoice4 = new Invoice(invoice1.getId(), invoice1.getNumber(), LocalDate.of(2016, 9, 13), invoice1.getDueDate(), invoice1.getSeller(), invoice1.getBuyer(), invoice1.getEntries());
+        when(invoiceDateIndex.findIssuedBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31))).thenReturn(Optional.of(Arrays.asList(invoice3, invoice4)));
+
+        //When
+        Collection<Invoice> invoicesById = invoiceService.getAllInvoicesByDate(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31));
+        List<Invoice> invoicesByIssuedDate = invoiceService.getAllInvoicesByDateSortedByIssuedDate(LocalDate.of(2016, 1, 1), LocalDate.of(2016, 12, 31));
+
+        //Then
+        assertEquals(Arrays.asList(invoice4, invoice3), invoicesById);
+        assertEquals(Arrays.asList(invoice3, invoice4), invoicesByIssuedDate);
+        verifyNoMoreInteractions(database);
+    }
+
+    @Test
+    void shouldThrowExceptionForNullAsInvoiceDateIndex() {
+        assertThrows(IllegalArgumentException.class, () -> new InvoiceService(database, asyncDatabase, null));
     }
 
     @Test
@@ -161,12 +200,72 @@ class InvoiceServiceTest {
     @Test
     void shouldThrowServiceOperationExceptionWhileGettingAllInvoiceFromGivenDataRange() throws DatabaseOperationException {
         //When
-        when(database.getAllInvoices()).thenThrow(DatabaseOperationException.class);
+        when(database.findInvoices(any(InvoiceQuery.class))).thenThrow(DatabaseOperationException.class);
 
         //Then
         assertThrows(ServiceOperationException.class, () -> invoiceService.getAllInvoicesByDate(LocalDate.of(2016, 4, 21), LocalDate.of(2017, 1, 20)));
     }
 
+    @Test
+    void shouldFindInvoicesMatchingQuery() throws DatabaseOperationException, ServiceOperationException {
+        //Given
+        InvoiceQuery query = InvoiceQuery.builder().sellerId(invoice1.getSeller().getId()).numberPrefix("FV/2019").limit(10).build();
+        List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice2);
+        when(database.findInvoices(query)).thenReturn(expectedInvoiceList);
+
+        //When
+        List<Invoice> resultInvoiceList = invoiceService.findInvoices(query);
+
+        //Then
+        assertEquals(expectedInvoiceList, resultInvoiceList);
+        verify(database).findInvoices(query);
+    }
+
+    @Test
+    void shouldThrowExceptionForNullAsQueryWhileFindingInvoices() {
+        assertThrows(IllegalArgumentException.class, () -> invoiceService.findInvoices(null));
+    }
+
+    @Test
+    void shouldThrowServiceOperationExceptionWhileFindingInvoices() throws DatabaseOperationException {
+        //Given
+        InvoiceQuery query = InvoiceQuery.builder().buyerId(1L).build();
+
+        //When
+        when(database.findInvoices(query)).thenThrow(DatabaseOperationException.class);
+
+        //Then
+        assertThrows(ServiceOperationException.class, () -> invoiceService.findInvoices(query));
+    }
+
+    @Test
+    void shouldReturnPageOfInvoices() throws DatabaseOperationException, ServiceOperationException {
+        //Given
+        List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice2);
+        when(database.getInvoicesPage(5L, 2)).thenReturn(expectedInvoiceList);
+
+        //When
+        List<Invoice> resultInvoiceList = invoiceService.getInvoicesPage(5L, 2);
+
+        //Then
+        assertEquals(expectedInvoiceList, resultInvoiceList);
+        verify(database).getInvoicesPage(5L, 2);
+    }
+
+    @Test
+    void shouldThrowExceptionForNonPositiveLimitWhileGettingPageOfInvoices() {
+        assertThrows(IllegalArgumentException.class, () -> invoiceService.getInvoicesPage(5L, 0));
+    }
+
+    @Test
+    void shouldThrowServiceOperationExceptionWhileGettingPageOfInvoices() throws DatabaseOperationException {
+        //When
+        when(database.getInvoicesPage(null, 10)).thenThrow(DatabaseOperationException.class);
+
+        //Then
+        assertThrows(ServiceOperationException.class, () -> invoiceService.getInvoicesPage(null, 10));
+    }
+
     @Test
     void shouldReturnInvoice() throws DatabaseOperationException, ServiceOperationException {
         //Given
@@ -194,6 +293,86 @@ class InvoiceServiceTest {
         assertThrows(ServiceOperationException.class, () -> invoiceService.getInvoice(2L));
     }
 
+    @Test
+    void shouldReturnInvoiceAsynchronously() throws Exception {
+        //Given
+        when(asyncDatabase.getInvoice(invoice1.getId())).thenReturn(CompletableFuture.completedFuture(Optional.of(invoice1)));
+
+        //When
+        Optional<Invoice> result = invoiceService.getInvoiceAsync(invoice1.getId()).get();
+
+        //Then
+        assertEquals(Optional.of(invoice1), result);
+        verify(asyncDatabase).getInvoice(invoice1.getId());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithServiceOperationExceptionWhileGettingInvoiceAsynchronously() {
+        //Given
+        CompletableFuture<Optional<Invoice>> failedFuture = new CompletableFuture<>();
+        failedFuture.completeExceptionally(new CompletionException(new DatabaseOperationException()));
+        when(asyncDatabase.getInvoice(invoice1.getId())).thenReturn(failedFuture);
+
+        //When
+        CompletionException exception = assertThrows(CompletionException.class, () -> invoiceService.getInvoiceAsync(invoice1.getId()).join());
+
+        //Then
+        assertTrue(exception.getCause() instanceof ServiceOperationException);
+        assertTrue(exception.getCause().getCause() instanceof DatabaseOperationException);
+    }
+
+    @Test
+    void shouldReturnAllInvoicesAsynchronously() throws Exception {
+        //Given
+        List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice2);
+        when(asyncDatabase.getAllInvoices()).thenReturn(CompletableFuture.completedFuture(expectedInvoiceList));
+
+        //When
+        Collection<Invoice> resultInvoiceList = invoiceService.getAllInvoicesAsync().get();
+
+        //Then
+        assertEquals(expectedInvoiceList, resultInvoiceList);
+    }
+
+    @Test
+    void shouldReturnPageOfInvoicesAsynchronously() throws Exception {
+        //Given
+        List<Invoice> expectedInvoiceList = Arrays.asList(invoice1, invoice2);
+        when(asyncDatabase.getInvoicesPage(5L, 2)).thenReturn(CompletableFuture.completedFuture(expectedInvoiceList));
+
+        //When
+        List<Invoice> resultInvoiceList = invoiceService.getInvoicesPageAsync(5L, 2).get();
+
+        //Then
+        assertEquals(expectedInvoiceList, resultInvoiceList);
+    }
+
+    @Test
+    void shouldStreamAllInvoices() {
+        //Given
+        when(asyncDatabase.streamInvoices()).thenReturn(Flux.just(invoice1, invoice2));
+
+        //When
+        List<Invoice> resultInvoiceList = invoiceService.streamInvoices().collectList().block();
+
+        //Then
+        assertEquals(Arrays.asList(invoice1, invoice2), resultInvoiceList);
+    }
+
+    @Test
+    void shouldSignalServiceOperationExceptionWhenErrorOccurDuringStreamingInvoices() {
+        //Given
+        when(asyncDatabase.streamInvoices()).thenReturn(Flux.concat(Flux.just(invoice1), Flux.error(new DatabaseOperationException())));
+
+        //When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> invoiceService.streamInvoices().collectList().block());
+
+        //Then
+        Throwable cause = Exceptions.unwrap(exception);
+        assertTrue(cause instanceof ServiceOperationException);
+        assertTrue(cause.getCause() instanceof DatabaseOperationException);
+    }
+
     @Test
     void shouldSaveInvoice() throws DatabaseOperationException, ServiceOperationException {
         //Given
@@ -246,6 +425,61 @@ class InvoiceServiceTest {
         assertThrows(ServiceOperationException.class, () -> invoiceService.deleteInvoice(1L));
     }
 
+    @Test
+    void shouldSaveInvoices() throws DatabaseOperationException, ServiceOperationException {
+        //Given
+        List<Invoice> invoices = Arrays.asList(invoice1, invoice2);
+        when(database.saveInvoices(invoices)).thenReturn(invoices);
+
+        //When
+        List<Invoice> savedInvoices = invoiceService.saveInvoices(invoices);
+
+        //Then
+        assertEquals(invoices, savedInvoices);
+        verify(database).saveInvoices(invoices);
+    }
+
+    @Test
+    void shouldThrowExceptionForNullAsInvoicesWhileSavingInvoices() {
+        assertThrows(IllegalArgumentException.class, () -> invoiceService.saveInvoices(null));
+    }
+
+    @Test
+    void shouldThrowServiceOperationExceptionWhileSavingInvoices() throws DatabaseOperationException {
+        //Given
+        List<Invoice> invoices = Arrays.asList(invoice1, invoice2);
+
+        //When
+        when(database.saveInvoices(invoices)).thenThrow(DatabaseOperationException.class);
+
+        //Then
+        assertThrows(ServiceOperationException.class, () -> invoiceService.saveInvoices(invoices));
+    }
+
+    @Test
+    void shouldDeleteInvoices() throws DatabaseOperationException, ServiceOperationException {
+        //Given
+        List<Long> ids = Arrays.asList(invoice1.getId(), invoice2.getId());
+
+        //When
+        invoiceService.deleteInvoices(ids);
+
+        //Then
+        verify(database).deleteInvoices(ids);
+    }
+
+    @Test
+    void shouldThrowServiceOperationExceptionWhileDeletingInvoices() throws DatabaseOperationException {
+        //Given
+        List<Long> ids = Arrays.asList(invoice1.getId(), invoice2.getId());
+
+        //When
+        doThrow(DatabaseOperationException.class).when(database).deleteInvoices(ids);
+
+        //Then
+        assertThrows(ServiceOperationException.class, () -> invoiceService.deleteInvoices(ids));
+    }
+
     @Test
     void shouldDeleteAllInvoices() throws ServiceOperationException, DatabaseOperationException {
         //When
@@ -0,0 +1,211 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.generators.InvoiceEntryGenerator;
+import pl.coderstrust.model.AgingBucket;
+import pl.coderstrust.model.AgingBucketTotals;
+import pl.coderstrust.model.AgingReport;
+import pl.coderstrust.model.BuyerAging;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+
+class ReceivablesAgingTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2019, 1, 1);
+
+    private final Random random = new Random(47);
+    private InvoiceChangePublisher publisher;
+    private Database database;
+    private MutableClock clock;
+    private ReceivablesAging receivablesAging;
+    private List<Company> buyers;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(1024));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+        clock = new MutableClock(START_DATE);
+        receivablesAging = new ReceivablesAging(database, publisher, clock);
+        buyers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            buyers.add(CompanyGenerator.getRandomCompany());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        receivablesAging.shutdown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldPlaceInvoicesInBucketsByDaysPastDueDate() throws DatabaseOperationException {
+        //Given
+        database.saveInvoice(invoiceDueOn(START_DATE.plusDays(1)));
+        database.saveInvoice(invoiceDueOn(START_DATE));
+        database.saveInvoice(invoiceDueOn(START_DATE.minusDays(30)));
+        database.saveInvoice(invoiceDueOn(START_DATE.minusDays(31)));
+        database.saveInvoice(invoiceDueOn(START_DATE.minusDays(90)));
+        database.saveInvoice(invoiceDueOn(START_DATE.minusDays(91)));
+        receivablesAging.rebuild();
+
+        //When
+        AgingReport report = receivablesAging.getReport().get();
+
+        //Then
+        long[] expectedCounts = {1, 2, 1, 1, 1};
+        for (AgingBucketTotals bucketTotals : report.getTotals()) {
+            assertEquals(expectedCounts[bucketTotals.getBucket().ordinal()], bucketTotals.getInvoiceCount(), bucketTotals.toString());
+        }
+    }
+
+    @Test
+    void shouldGiveSameReportAsBruteForceRecomputationWhileRollingForwardDaily() throws DatabaseOperationException {
+        //Given
+        for (int i = 0; i < 300; i++) {
+            database.saveInvoice(invoiceDueOn(START_DATE.plusDays(random.nextInt(300) - 150)));
+        }
+        receivablesAging.rebuild();
+
+        for (int day = 0; day < 130; day++) {
+            //When
+            changeRandomInvoices();
+            clock.setDate(START_DATE.plusDays(day));
+            if (day % 7 != 3) {
+                receivablesAging.rollForward();
+            }
+            if (day % 17 == 5) {
+                clock.setDate(START_DATE.plusDays(++day));
+            }
+            AgingReport report = receivablesAging.getReport().get();
+
+            //Then
+            assertEquals(bruteForceReport(database.getAllInvoices(), clock.getDate()), report);
+        }
+    }
+
+    private void changeRandomInvoices() throws DatabaseOperationException {
+        List<Invoice> invoices = new ArrayList<>(database.getAllInvoices());
+        for (int i = 0; i < 5; i++) {
+            Invoice invoice = invoices.get(random.nextInt(invoices.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    database.saveInvoice(invoiceDueOn(clock.getDate().plusDays(random.nextInt(300) - 150)));
+                    break;
+                case 1:
+                    Invoice changedInvoice = invoiceDueOn(invoice.getDueDate().plusDays(random.nextInt(61) - 30));
+                    database.saveInvoice(new Invoice(invoice.getId(), invoice.getNumber(), invoice.getIssuedDate(), changedInvoice.getDueDate(),
+                        invoice.getSeller(), changedInvoice.getBuyer(), changedInvoice.getEntries()));
+                    break;
+                default:
+                    database.deleteInvoice(invoice.getId());
+                    invoices.remove(invoice);
+                    break;
+            }
+        }
+    }
+
+    private Invoice invoiceDueOn(LocalDate dueDate) {
+        return new Invoice(null, "FV/" + random.nextInt(100000), dueDate.minusDays(14), dueDate, CompanyGenerator.getRandomCompany(),
+            buyers.get(random.nextInt(buyers.size())), InvoiceEntryGenerator.getRandomEntries(1 + random.nextInt(3)));
+    }
+
+    private AgingReport bruteForceReport(Collection<Invoice> invoices, LocalDate asOf) {
+        Map<AgingBucket, List<Invoice>> invoicesByBucket = new EnumMap<>(AgingBucket.class);
+        Map<Long, Map<AgingBucket, List<Invoice>>> invoicesByBuyer = new TreeMap<>();
+        for (Invoice invoice : invoices) {
+            long daysPastDue = asOf.toEpochDay() - invoice.getDueDate().toEpochDay();
+            AgingBucket bucket = daysPastDue < 0 ? AgingBucket.NOT_DUE
+                : daysPastDue <= 30 ? AgingBucket.DAYS_0_30
+                : daysPastDue <= 60 ? AgingBucket.DAYS_31_60
+                : daysPastDue <= 90 ? AgingBucket.DAYS_61_90
+                : AgingBucket.DAYS_OVER_90;
+            invoicesByBucket.computeIfAbsent(bucket, b -> new ArrayList<>()).add(invoice);
+            invoicesByBuyer.computeIfAbsent(invoice.getBuyer().getId(), id -> new EnumMap<>(AgingBucket.class))
+                .computeIfAbsent(bucket, b -> new ArrayList<>()).add(invoice);
+        }
+        List<BuyerAging> buyerAgings = new ArrayList<>();
+        invoicesByBuyer.forEach((buyerId, buyerInvoices) -> buyerAgings.add(new BuyerAging(buyerId, toBucketTotals(buyerInvoices))));
+        return new AgingReport(asOf, toBucketTotals(invoicesByBucket), buyerAgings);
+    }
+
+    private List<AgingBucketTotals> toBucketTotals(Map<AgingBucket, List<Invoice>> invoicesByBucket) {
+        List<AgingBucketTotals> bucketTotals = new ArrayList<>();
+        for (AgingBucket bucket : AgingBucket.values()) {
+            List<Invoice> invoices = invoicesByBucket.getOrDefault(bucket, new ArrayList<>());
+            BigDecimal grossValue = BigDecimal.ZERO;
+            for (Invoice invoice : invoices) {
+                for (InvoiceEntry entry : invoice.getEntries()) {
+                    grossValue = grossValue.add(entry.getGrossValue());
+                }
+            }
+            bucketTotals.add(new AgingBucketTotals(bucket, invoices.size(), grossValue.stripTrailingZeros().scale() < 2
+                ? grossValue.stripTrailingZeros().setScale(2) : grossValue.stripTrailingZeros()));
+        }
+        return bucketTotals;
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile LocalDate date;
+
+        MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        LocalDate getDate() {
+            return date;
+        }
+
+        void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
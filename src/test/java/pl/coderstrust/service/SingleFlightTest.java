@@ -0,0 +1,148 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.database.DatabaseOperationException;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SingleFlight<Long, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        singleFlight = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentCallersOfSameKey() throws Exception {
+        //Given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        //When
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "invoice";
+            })));
+        }
+        waitUntilInFlight();
+        Thread.sleep(100);
+        release.countDown();
+
+        //Then
+        for (Future<String> result : results) {
+            assertEquals("invoice", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void shouldPassFailureToAllWaitingCallers() throws Exception {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        DatabaseOperationException failure = new DatabaseOperationException("Connection lost");
+        List<Future<String>> results = new ArrayList<>();
+
+        //When
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                release.await();
+                throw failure;
+            })));
+        }
+        waitUntilInFlight();
+        release.countDown();
+
+        //Then
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, exception.getCause());
+        }
+    }
+
+    @Test
+    void shouldStartNewCallAfterPreviousCompleted() {
+        //Given
+        AtomicInteger calls = new AtomicInteger();
+
+        //When
+        singleFlight.execute(1L, () -> String.valueOf(calls.incrementAndGet()));
+        singleFlight.execute(1L, () -> String.valueOf(calls.incrementAndGet()));
+
+        //Then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldShareAsynchronousCallBetweenCallersOfSameKey() throws Exception {
+        //Given
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        //When
+        CompletableFuture<String> first = singleFlight.executeAsync(1L, () -> {
+            calls.incrementAndGet();
+            return lookup;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync(1L, () -> {
+            calls.incrementAndGet();
+            return lookup;
+        });
+        lookup.complete("invoice");
+
+        //Then
+        assertEquals("invoice", first.get());
+        assertEquals("invoice", second.get());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void shouldStartNewCallForForgottenKey() throws Exception {
+        //Given
+        CompletableFuture<String> staleLookup = new CompletableFuture<>();
+        singleFlight.executeAsync(1L, () -> staleLookup);
+
+        //When
+        singleFlight.forget(1L);
+        CompletableFuture<String> freshLookup = singleFlight.executeAsync(1L, () -> CompletableFuture.completedFuture("updated invoice"));
+
+        //Then
+        assertEquals("updated invoice", freshLookup.get());
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+    }
+}
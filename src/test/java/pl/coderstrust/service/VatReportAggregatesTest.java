@@ -0,0 +1,109 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import pl.coderstrust.database.Database;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.event.InvoiceChangeInterceptor;
+import pl.coderstrust.database.event.InvoiceChangePublisher;
+import pl.coderstrust.database.event.InvoiceChangeRingBuffer;
+import pl.coderstrust.database.memory.InMemoryDatabase;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.Vat;
+import pl.coderstrust.model.VatRateTotals;
+import pl.coderstrust.model.VatReport;
+
+class VatReportAggregatesTest {
+
+    private InvoiceChangePublisher publisher;
+    private Database database;
+    private VatReportAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new InvoiceChangePublisher(new InvoiceChangeRingBuffer(64));
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new InvoiceChangeInterceptor(publisher));
+        advisor.setMappedNames(InvoiceChangeInterceptor.INTERCEPTED_METHODS);
+        ProxyFactory proxyFactory = new ProxyFactory(new InMemoryDatabase(new ConcurrentSkipListMap<>()));
+        proxyFactory.addAdvisor(advisor);
+        database = (Database) proxyFactory.getProxy();
+        aggregates = new VatReportAggregates(database, publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregates.shutdown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void shouldSumEntriesByVatRateOverPartialAndWholeMonths() throws DatabaseOperationException {
+        //Given
+        database.saveInvoice(invoice(LocalDate.of(2019, 1, 20), entry("100.00", "123.00", Vat.VAT_23), entry("10.00", "10.80", Vat.VAT_8)));
+        database.saveInvoice(invoice(LocalDate.of(2019, 2, 14), entry("200.00", "246.00", Vat.VAT_23)));
+        database.saveInvoice(invoice(LocalDate.of(2019, 3, 1), entry("50.00", "52.50", Vat.VAT_5)));
+        database.saveInvoice(invoice(LocalDate.of(2019, 3, 2), entry("1000.00", "1230.00", Vat.VAT_23)));
+        database.saveInvoice(invoice(LocalDate.of(2019, 1, 9), entry("1000.00", "1230.00", Vat.VAT_23)));
+
+        //When
+        aggregates.rebuild();
+        VatReport report = aggregates.getReport(LocalDate.of(2019, 1, 10), LocalDate.of(2019, 3, 1)).get();
+
+        //Then
+        assertTotals(report.getTotals(), "0", "0", "50.00", "52.50", "10.00", "10.80", "300.00", "369.00");
+    }
+
+    @Test
+    void shouldFollowUpdatesAndDeletes() throws DatabaseOperationException {
+        //Given
+        Invoice updatedInvoice = database.saveInvoice(invoice(LocalDate.of(2019, 5, 5), entry("100.00", "123.00", Vat.VAT_23)));
+        Invoice deletedInvoice = database.saveInvoice(invoice(LocalDate.of(2019, 5, 6), entry("100.00", "100.00", Vat.VAT_0)));
+        aggregates.rebuild();
+
+        //When
+        database.saveInvoice(new Invoice(updatedInvoice.getId(), updatedInvoice.getNumber(), LocalDate.of(2019, 5, 5), updatedInvoice.getDueDate(),
+            updatedInvoice.getSeller(), updatedInvoice.getBuyer(), Arrays.asList(entry("40.00", "43.20", Vat.VAT_8))));
+        database.deleteInvoice(deletedInvoice.getId());
+        database.saveInvoice(invoice(LocalDate.of(2019, 5, 31), entry("20.00", "21.00", Vat.VAT_5)));
+
+        //Then
+        VatReport report = aggregates.getReport(LocalDate.of(2019, 5, 1), LocalDate.of(2019, 5, 31)).get();
+        assertTotals(report.getTotals(), "0", "0", "20.00", "21.00", "40.00", "43.20", "0", "0");
+    }
+
+    private void assertTotals(List<VatRateTotals> totals, String... netAndGrossValues) {
+        assertEquals(Vat.values().length, totals.size());
+        for (int i = 0; i < totals.size(); i++) {
+            VatRateTotals rateTotals = totals.get(i);
+            BigDecimal netValue = new BigDecimal(netAndGrossValues[2 * i]);
+            BigDecimal grossValue = new BigDecimal(netAndGrossValues[2 * i + 1]);
+            assertEquals(Vat.values()[i], rateTotals.getVatRate());
+            assertTrue(netValue.compareTo(rateTotals.getNetValue()) == 0, rateTotals.toString());
+            assertTrue(grossValue.compareTo(rateTotals.getGrossValue()) == 0, rateTotals.toString());
+            assertTrue(grossValue.subtract(netValue).compareTo(rateTotals.getVatValue()) == 0, rateTotals.toString());
+        }
+    }
+
+    private Invoice invoice(LocalDate issuedDate, InvoiceEntry... entries) {
+        return new Invoice(null, "FV/" + issuedDate, issuedDate, issuedDate.plusDays(14), CompanyGenerator.getRandomCompany(), CompanyGenerator.getRandomCompany(),
+            Arrays.asList(entries));
+    }
+
+    private InvoiceEntry entry(String netValue, String grossValue, Vat vatRate) {
+        return new InvoiceEntry(null, "Service", 1, "pcs", new BigDecimal(netValue), new BigDecimal(netValue), new BigDecimal(grossValue), vatRate);
+    }
+}
@@ -0,0 +1,124 @@
+package pl.coderstrust.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GroszeSumTest {
+
+    private final Random random = new Random(50);
+
+    @Test
+    void shouldGiveSameSumAsBigDecimalForRandomAmounts() {
+        for (int round = 0; round < 1000; round++) {
+            //Given
+            GroszeSum sum = new GroszeSum();
+            GroszeSum otherSum = new GroszeSum();
+            BigDecimal expectedSum = BigDecimal.ZERO;
+
+            //When
+            for (int i = 0; i < 50; i++) {
+                BigDecimal value = randomAmount();
+                switch (random.nextInt(4)) {
+                    case 0:
+                        sum.add(value);
+                        expectedSum = expectedSum.add(value);
+                        break;
+                    case 1:
+                        sum.subtract(value);
+                        expectedSum = expectedSum.subtract(value);
+                        break;
+                    case 2:
+                        otherSum.add(value);
+                        sum.add(otherSum);
+                        expectedSum = expectedSum.add(otherSum.toBigDecimal());
+                        break;
+                    default:
+                        otherSum.subtract(value);
+                        sum.subtract(otherSum);
+                        expectedSum = expectedSum.subtract(otherSum.toBigDecimal());
+                        break;
+                }
+            }
+
+            //Then
+            assertEquals(0, expectedSum.compareTo(sum.toBigDecimal()), expectedSum + " != " + sum.toBigDecimal());
+            BigDecimal expectedGrosze = expectedSum.movePointRight(2);
+            boolean expectedExact = expectedGrosze.stripTrailingZeros().scale() <= 0 && expectedGrosze.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0;
+            assertEquals(expectedExact, sum.isExact());
+            if (expectedExact) {
+                assertEquals(expectedGrosze.longValueExact(), sum.getGrosze());
+            } else {
+                assertThrows(ArithmeticException.class, sum::getGrosze);
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepSumExactWhenGroszeOverflow() {
+        //Given
+        BigDecimal maxValue = new BigDecimal("9999999999999999.99");
+        GroszeSum sum = new GroszeSum();
+
+        //When
+        for (int i = 0; i < 1000; i++) {
+            sum.add(maxValue);
+        }
+        for (int i = 0; i < 999; i++) {
+            sum.subtract(maxValue);
+        }
+
+        //Then
+        assertEquals(maxValue, sum.toBigDecimal());
+        assertTrue(sum.isExact());
+        assertEquals(999999999999999999L, sum.getGrosze());
+    }
+
+    @Test
+    void shouldIgnoreNullValues() {
+        //Given
+        GroszeSum sum = new GroszeSum();
+
+        //When
+        sum.add(new BigDecimal("1.50"));
+        sum.add((BigDecimal) null);
+        sum.subtract((BigDecimal) null);
+
+        //Then
+        assertEquals(new BigDecimal("1.50"), sum.toBigDecimal());
+        assertEquals(150L, sum.getGrosze());
+    }
+
+    @Test
+    void shouldConvertOnlyAmountsRepresentableInGrosze() {
+        assertEquals(12345L, Grosze.of(new BigDecimal("123.45")));
+        assertEquals(12300L, Grosze.of(new BigDecimal("123")));
+        assertEquals(-12340L, Grosze.of(new BigDecimal("-123.4000")));
+        assertEquals(100L, Grosze.of(new BigDecimal("1E+0")));
+        assertEquals(new BigDecimal("1.05"), Grosze.toBigDecimal(105L));
+        assertTrue(Grosze.isExact(new BigDecimal("9999999999999999.99")));
+        assertFalse(Grosze.isExact(new BigDecimal("10000000000000000.00")));
+        assertFalse(Grosze.isExact(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> Grosze.of(new BigDecimal("0.005")));
+        assertThrows(IllegalArgumentException.class, () -> Grosze.of(null));
+    }
+
+    private BigDecimal randomAmount() {
+        switch (random.nextInt(10)) {
+            case 0:
+                return new BigDecimal(random.nextInt(1000000)).movePointLeft(3 + random.nextInt(3));
+            case 1:
+                return new BigDecimal("9999999999999999.99").subtract(new BigDecimal(random.nextInt(1000)));
+            case 2:
+                return new BigDecimal(random.nextInt(100000)).movePointLeft(2).setScale(4);
+            default:
+                return new BigDecimal(random.nextInt(10000000) - 5000000).movePointLeft(random.nextInt(3));
+        }
+    }
+}